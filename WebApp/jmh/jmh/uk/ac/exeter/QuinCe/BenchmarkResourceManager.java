@@ -0,0 +1,83 @@
+package jmh.uk.ac.exeter.QuinCe;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.mockito.Mockito;
+
+import junit.uk.ac.exeter.QuinCe.TestBase.TestResourceManager;
+import uk.ac.exeter.QuinCe.web.system.ResourceManager;
+
+/**
+ * A {@link ResourceManager} for benchmarks that need the application
+ * configuration (e.g. the sensor types).
+ *
+ * <p>
+ * This sets up an in-memory H2 database using the same migrations as the
+ * JUnit tests, and initialises the {@link ResourceManager} against it using the
+ * test environment's configuration. It is a lightweight equivalent of
+ * {@code BaseTest.initResourceManager()} that does not require the Spring test
+ * context.
+ * </p>
+ *
+ * @author Steve Jones
+ */
+public class BenchmarkResourceManager extends TestResourceManager {
+
+  /**
+   * The URL for the benchmark database
+   */
+  private static final String DATABASE_URL = "jdbc:h2:mem:benchmarkDb;DB_CLOSE_DELAY=-1";
+
+  /**
+   * The location of the database migrations
+   */
+  private static final String MIGRATIONS_LOCATION = "classpath:resources/db_migrations";
+
+  /**
+   * Constructor
+   *
+   * @param dataSource
+   *          The benchmark database
+   */
+  private BenchmarkResourceManager(DataSource dataSource) {
+    super(dataSource);
+  }
+
+  /**
+   * Initialise the {@link ResourceManager} if it has not already been
+   * initialised.
+   *
+   * @return The {@link ResourceManager}
+   */
+  public static synchronized ResourceManager init() {
+    if (null == ResourceManager.getInstance()) {
+      JdbcDataSource h2DataSource = new JdbcDataSource();
+      h2DataSource.setURL(DATABASE_URL);
+      h2DataSource.setUser("user");
+      h2DataSource.setPassword("pass");
+
+      Flyway.configure().dataSource(h2DataSource)
+        .locations(MIGRATIONS_LOCATION).load().migrate();
+
+      ServletContext servletContext = Mockito.mock(ServletContext.class);
+      Mockito.doReturn(DATABASE_NAME).when(servletContext)
+        .getInitParameter("database.name");
+      Mockito.doReturn(CONFIG_PATH).when(servletContext)
+        .getInitParameter("configuration.path");
+
+      ServletContextEvent servletContextEvent = Mockito
+        .mock(ServletContextEvent.class);
+      Mockito.doReturn(servletContext).when(servletContextEvent)
+        .getServletContext();
+
+      new BenchmarkResourceManager(h2DataSource)
+        .contextInitialized(servletContextEvent);
+    }
+
+    return ResourceManager.getInstance();
+  }
+}
@@ -0,0 +1,213 @@
+package jmh.uk.ac.exeter.QuinCe;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import uk.ac.exeter.QuinCe.data.Dataset.SensorValue;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.AutoQCResult;
+
+/**
+ * Generators for synthetic datasets used by the benchmarks.
+ *
+ * <p>
+ * Dataset sizes are expressed as the total number of sensor values in the
+ * dataset. The standard sizes are {@link #SMALL}, {@link #MEDIUM} and
+ * {@link #LARGE}, and are used as JMH {@code @Param} values by all the
+ * benchmarks so that a run can be limited to a subset of sizes from the
+ * command line.
+ * </p>
+ *
+ * <p>
+ * All generators use a fixed random seed so that every benchmark run sees the
+ * same data.
+ * </p>
+ *
+ * @author Steve Jones
+ */
+public class SyntheticData {
+
+  /**
+   * A small dataset of 10,000 sensor values
+   */
+  public static final String SMALL = "10000";
+
+  /**
+   * A medium dataset of 1,000,000 sensor values
+   */
+  public static final String MEDIUM = "1000000";
+
+  /**
+   * A large dataset of 10,000,000 sensor values
+   */
+  public static final String LARGE = "10000000";
+
+  /**
+   * The dataset ID assigned to all generated values
+   */
+  public static final long DATASET_ID = 1L;
+
+  /**
+   * The number of sensor columns in a generated data file. Each line of the
+   * file therefore contains this many sensor values.
+   */
+  public static final int SENSOR_COLUMNS = 4;
+
+  /**
+   * The interval between records in seconds
+   */
+  public static final int RECORD_INTERVAL = 60;
+
+  /**
+   * The time of the first record in all generated datasets
+   */
+  public static final LocalDateTime START_TIME = LocalDateTime.of(2020, 1, 1,
+    0, 0, 0);
+
+  /**
+   * The random seed used by all generators
+   */
+  private static final long SEED = 20201019L;
+
+  /**
+   * The mean level of generated sensor values
+   */
+  private static final double MEAN_LEVEL = 15D;
+
+  /**
+   * The proportion of values that are missing
+   */
+  private static final double MISSING_RATE = 0.005;
+
+  /**
+   * The proportion of values that are spikes
+   */
+  private static final double SPIKE_RATE = 0.01;
+
+  /**
+   * The proportion of values that are flagged as {@link Flag#FLUSHING}
+   */
+  private static final double FLUSHING_RATE = 0.01;
+
+  /**
+   * The proportion of values that have a {@link Flag#BAD} or
+   * {@link Flag#QUESTIONABLE} user QC flag.
+   */
+  private static final double USER_FLAG_RATE = 0.02;
+
+  /**
+   * Private constructor to prevent instantiation
+   */
+  private SyntheticData() {
+    // Do nothing
+  }
+
+  /**
+   * Parse a dataset size {@code @Param} value.
+   *
+   * @param size
+   *          The size string
+   * @return The size
+   */
+  public static int parseSize(String size) {
+    return Integer.parseInt(size);
+  }
+
+  /**
+   * Get the time of the specified record.
+   *
+   * @param record
+   *          The record index
+   * @return The record time
+   */
+  public static LocalDateTime recordTime(int record) {
+    return START_TIME.plusSeconds((long) record * RECORD_INTERVAL);
+  }
+
+  /**
+   * Generate a time-ordered list of sensor values for a single column.
+   *
+   * <p>
+   * The values follow a mean-reverting random walk around 15, with occasional
+   * spikes and missing values. A small proportion of the values are given
+   * {@link Flag#FLUSHING}, {@link Flag#BAD} and {@link Flag#QUESTIONABLE} user
+   * QC flags so that searches that skip bad values are exercised. All values
+   * are given database IDs so that automatic QC flags can be added to them.
+   * </p>
+   *
+   * @param columnId
+   *          The column ID for the values
+   * @param count
+   *          The number of values
+   * @return The values
+   */
+  public static List<SensorValue> sensorValues(long columnId, int count) {
+    Random random = new Random(SEED + columnId);
+    List<SensorValue> result = new ArrayList<SensorValue>(count);
+
+    double level = MEAN_LEVEL;
+
+    for (int i = 0; i < count; i++) {
+      level = level + (random.nextGaussian() * 0.05D)
+        - ((level - MEAN_LEVEL) * 0.01D);
+
+      String value;
+      double roll = random.nextDouble();
+      if (roll < MISSING_RATE) {
+        value = null;
+      } else if (roll < MISSING_RATE + SPIKE_RATE) {
+        value = String.valueOf(level + 25D);
+      } else {
+        value = String.valueOf(level);
+      }
+
+      Flag userFlag = Flag.ASSUMED_GOOD;
+      String userMessage = null;
+
+      double flagRoll = random.nextDouble();
+      if (null == value) {
+        userFlag = Flag.BAD;
+        userMessage = SensorValue.MISSING_QC_COMMENT;
+      } else if (flagRoll < FLUSHING_RATE) {
+        userFlag = Flag.FLUSHING;
+      } else if (flagRoll < FLUSHING_RATE + USER_FLAG_RATE) {
+        userFlag = random.nextBoolean() ? Flag.BAD : Flag.QUESTIONABLE;
+        userMessage = "Synthetic";
+      }
+
+      result.add(new SensorValue(i + 1, DATASET_ID, columnId, recordTime(i),
+        value, new AutoQCResult(), userFlag, userMessage));
+    }
+
+    return result;
+  }
+
+  /**
+   * Generate a set of random lookup times within the span of a dataset with
+   * the specified number of records. Half of the times fall exactly on a
+   * record, and half fall between records so that interpolation is required.
+   *
+   * @param records
+   *          The number of records in the dataset
+   * @param count
+   *          The number of times to generate
+   * @return The lookup times
+   */
+  public static LocalDateTime[] lookupTimes(int records, int count) {
+    Random random = new Random(SEED);
+    LocalDateTime[] result = new LocalDateTime[count];
+
+    for (int i = 0; i < count; i++) {
+      LocalDateTime time = recordTime(random.nextInt(records));
+      if (random.nextBoolean()) {
+        time = time.plusSeconds(RECORD_INTERVAL / 2);
+      }
+
+      result[i] = time;
+    }
+
+    return result;
+  }
+}
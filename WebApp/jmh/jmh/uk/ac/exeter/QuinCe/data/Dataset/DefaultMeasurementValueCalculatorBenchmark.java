@@ -0,0 +1,164 @@
+package jmh.uk.ac.exeter.QuinCe.data.Dataset;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jmh.uk.ac.exeter.QuinCe.BenchmarkResourceManager;
+import jmh.uk.ac.exeter.QuinCe.SyntheticData;
+import uk.ac.exeter.QuinCe.data.Dataset.DatasetSensorValues;
+import uk.ac.exeter.QuinCe.data.Dataset.DefaultMeasurementValueCalculator;
+import uk.ac.exeter.QuinCe.data.Dataset.Measurement;
+import uk.ac.exeter.QuinCe.data.Dataset.MeasurementValue;
+import uk.ac.exeter.QuinCe.data.Dataset.SensorValue;
+import uk.ac.exeter.QuinCe.data.Dataset.SensorValuesCursors;
+import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorAssignment;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorAssignments;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorType;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.Variable;
+import uk.ac.exeter.QuinCe.web.system.ResourceManager;
+
+/**
+ * Benchmarks for the {@link DefaultMeasurementValueCalculator}.
+ *
+ * <p>
+ * Each operation calculates a single {@link MeasurementValue} for a random
+ * measurement time, interpolating between the closest good values where
+ * necessary. The sensor type does not have internal calibrations, so the
+ * calculation does not access the database.
+ * </p>
+ *
+ * @author Steve Jones
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@org.openjdk.jmh.annotations.Measurement(iterations = 5, time = 2)
+public class DefaultMeasurementValueCalculatorBenchmark {
+
+  /**
+   * The column ID for the generated values
+   */
+  private static final long COLUMN_ID = 1L;
+
+  /**
+   * The ID of the instrument variable (Underway Marine pCO₂)
+   */
+  private static final long VARIABLE_ID = 1L;
+
+  /**
+   * The sensor type used for the calculations
+   */
+  private static final String SENSOR_TYPE = "Intake Temperature";
+
+  /**
+   * The number of pre-generated measurements. Must be a power of two.
+   */
+  private static final int MEASUREMENT_COUNT = 4096;
+
+  /**
+   * The number of sensor values in the dataset
+   */
+  @Param({ SyntheticData.SMALL, SyntheticData.MEDIUM, SyntheticData.LARGE })
+  public String size;
+
+  /**
+   * The calculator
+   */
+  private DefaultMeasurementValueCalculator calculator;
+
+  /**
+   * The instrument that the values belong to
+   */
+  private Instrument instrument;
+
+  /**
+   * The sensor type being calculated
+   */
+  private SensorType sensorType;
+
+  /**
+   * The dataset's sensor values
+   */
+  private DatasetSensorValues sensorValues;
+
+  /**
+   * The cursors used to look up the sensor values
+   */
+  private SensorValuesCursors cursors;
+
+  /**
+   * The measurements to be calculated
+   */
+  private Measurement[] measurements;
+
+  /**
+   * The index of the next measurement to use
+   */
+  private int measurementIndex = 0;
+
+  @Setup(Level.Trial)
+  public void setupTrial() throws Exception {
+    ResourceManager resourceManager = BenchmarkResourceManager.init();
+
+    sensorType = resourceManager.getSensorsConfiguration()
+      .getSensorType(SENSOR_TYPE);
+
+    SensorAssignments sensorAssignments = new SensorAssignments(
+      resourceManager.getDBDataSource(), List.of(VARIABLE_ID));
+    sensorAssignments.addAssignment(new SensorAssignment(COLUMN_ID,
+      "Benchmark", 1, sensorType, SENSOR_TYPE, true, false, "NaN"));
+
+    // The instrument's file definitions are only used for internal
+    // calibrations, which the sensor type does not have.
+    instrument = new Instrument(null, "Benchmark", null,
+      new ArrayList<Variable>(), new HashMap<Variable, Properties>(),
+      sensorAssignments, "BENCH", false);
+
+    int count = SyntheticData.parseSize(size);
+
+    sensorValues = new DatasetSensorValues(instrument);
+    for (SensorValue value : SyntheticData.sensorValues(COLUMN_ID, count)) {
+      sensorValues.add(value);
+    }
+
+    cursors = new SensorValuesCursors(sensorValues);
+
+    LocalDateTime[] times = SyntheticData.lookupTimes(count,
+      MEASUREMENT_COUNT);
+    measurements = new Measurement[MEASUREMENT_COUNT];
+    for (int i = 0; i < MEASUREMENT_COUNT; i++) {
+      measurements[i] = new Measurement(SyntheticData.DATASET_ID, times[i],
+        new HashMap<Long, String>());
+    }
+
+    calculator = new DefaultMeasurementValueCalculator();
+  }
+
+  @Benchmark
+  public MeasurementValue calculate() throws Exception {
+    Measurement measurement = measurements[measurementIndex];
+    measurementIndex = (measurementIndex + 1) & (MEASUREMENT_COUNT - 1);
+
+    return calculator.calculate(instrument, measurement, sensorType, null,
+      sensorValues, cursors, null);
+  }
+}
@@ -0,0 +1,220 @@
+package jmh.uk.ac.exeter.QuinCe.data.Dataset;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import jmh.uk.ac.exeter.QuinCe.BenchmarkResourceManager;
+import jmh.uk.ac.exeter.QuinCe.SyntheticData;
+import jmh.uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.AutoQCRoutineBenchmark;
+import uk.ac.exeter.QuinCe.data.Dataset.Measurement;
+import uk.ac.exeter.QuinCe.data.Dataset.MeasurementValue;
+import uk.ac.exeter.QuinCe.data.Dataset.MeasurementValuesSerializer;
+import uk.ac.exeter.QuinCe.data.Dataset.SensorValue;
+import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.DataReductionRecord;
+import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.ReadOnlyDataReductionRecord;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.AutoQCResult;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorType;
+
+/**
+ * Benchmarks for the JSON serialisation of the objects that are stored as JSON
+ * in the database.
+ *
+ * <p>
+ * Each invocation serialises (or deserialises) the complete set of objects for
+ * a dataset of the given size:
+ * </p>
+ * <ul>
+ * <li>The {@link AutoQCResult} of every {@link SensorValue}. The values are QCed
+ * by a range check before the benchmark so that some of them have flags.</li>
+ * <li>The {@link MeasurementValue}s of every {@link Measurement}. There is one
+ * measurement for each {@link SyntheticData#SENSOR_COLUMNS} sensor values.</li>
+ * <li>The calculation values of a {@link DataReductionRecord} for every
+ * measurement.</li>
+ * </ul>
+ *
+ * @author Steve Jones
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@org.openjdk.jmh.annotations.Measurement(iterations = 10)
+public class JsonSerialisationBenchmark {
+
+  /**
+   * The column ID for the generated values
+   */
+  private static final long COLUMN_ID = 1L;
+
+  /**
+   * The calculation parameters in each data reduction record. These are the
+   * parameters for the Underway Marine pCO₂ reducer.
+   */
+  private static final String[] CALCULATION_PARAMETERS = { "ΔT",
+    "True Moisture", "pH₂O", "Dried CO₂", "Calibrated CO₂", "pCO₂ TE Wet",
+    "pCO₂ SST", "fCO₂" };
+
+  /**
+   * The number of sensor values in the dataset
+   */
+  @Param({ SyntheticData.SMALL, SyntheticData.MEDIUM, SyntheticData.LARGE })
+  public String size;
+
+  /**
+   * The Gson object for deserialising measurement values. This is configured
+   * in the same way as the one used when reading measurements from the
+   * database.
+   */
+  private Gson measurementValuesGson;
+
+  /**
+   * The type of the measurement values map
+   */
+  private Type measurementValuesType;
+
+  /**
+   * The sensor values
+   */
+  private List<SensorValue> sensorValues;
+
+  /**
+   * The serialised {@link AutoQCResult}s
+   */
+  private List<String> autoQCJson;
+
+  /**
+   * The measurements
+   */
+  private List<Measurement> measurements;
+
+  /**
+   * The serialised measurement values
+   */
+  private List<String> measurementValuesJson;
+
+  /**
+   * The data reduction records
+   */
+  private List<DataReductionRecord> dataReductionRecords;
+
+  @Setup(Level.Trial)
+  public void setupTrial() throws Exception {
+    List<SensorType> sensorTypes = BenchmarkResourceManager.init()
+      .getSensorsConfiguration().getSensorTypes()
+      .subList(0, SyntheticData.SENSOR_COLUMNS);
+
+    measurementValuesGson = new GsonBuilder()
+      .registerTypeAdapter(new HashMap<Long, MeasurementValue>().getClass(),
+        new MeasurementValuesSerializer())
+      .create();
+
+    measurementValuesType = new TypeToken<HashMap<Long, MeasurementValue>>() {
+    }.getType();
+
+    sensorValues = SyntheticData.sensorValues(COLUMN_ID,
+      SyntheticData.parseSize(size));
+
+    AutoQCRoutineBenchmark.makeRoutine("RangeCheck", "14", "16", "5", "25")
+      .qc(sensorValues);
+
+    autoQCJson = new ArrayList<String>(sensorValues.size());
+    for (SensorValue value : sensorValues) {
+      autoQCJson.add(value.getAutoQcResult().toJson());
+    }
+
+    int measurementCount = sensorValues.size()
+      / SyntheticData.SENSOR_COLUMNS;
+    measurements = new ArrayList<Measurement>(measurementCount);
+    measurementValuesJson = new ArrayList<String>(measurementCount);
+    dataReductionRecords = new ArrayList<DataReductionRecord>(
+      measurementCount);
+
+    for (int i = 0; i < measurementCount; i++) {
+      HashMap<Long, MeasurementValue> values = new HashMap<Long, MeasurementValue>();
+
+      for (int s = 0; s < SyntheticData.SENSOR_COLUMNS; s++) {
+        SensorValue sensorValue = sensorValues
+          .get(i * SyntheticData.SENSOR_COLUMNS + s);
+        SensorType sensorType = sensorTypes.get(s);
+
+        values.put(sensorType.getId(), new MeasurementValue(sensorType,
+          List.of(sensorValue), sensorValue.getDoubleValue(), 1));
+      }
+
+      Measurement measurement = new Measurement(i + 1,
+        SyntheticData.DATASET_ID, SyntheticData.recordTime(i),
+        new HashMap<Long, String>(), values);
+
+      measurements.add(measurement);
+      measurementValuesJson.add(measurement.getMeasurementValuesJson());
+
+      Map<String, Double> calculationValues = new HashMap<String, Double>();
+      for (int p = 0; p < CALCULATION_PARAMETERS.length; p++) {
+        calculationValues.put(CALCULATION_PARAMETERS[p],
+          sensorValues.get(i).getDoubleValue() * (p + 1));
+      }
+
+      dataReductionRecords.add(ReadOnlyDataReductionRecord.makeRecord(i + 1,
+        1L, calculationValues, Flag.GOOD, null));
+    }
+  }
+
+  @Benchmark
+  public void autoQCResultToJson(Blackhole blackhole) {
+    for (SensorValue value : sensorValues) {
+      blackhole.consume(value.getAutoQcResult().toJson());
+    }
+  }
+
+  @Benchmark
+  public void autoQCResultFromJson(Blackhole blackhole) {
+    for (String json : autoQCJson) {
+      blackhole.consume(AutoQCResult.buildFromJson(json));
+    }
+  }
+
+  @Benchmark
+  public void measurementValuesToJson(Blackhole blackhole) {
+    for (Measurement measurement : measurements) {
+      blackhole.consume(measurement.getMeasurementValuesJson());
+    }
+  }
+
+  @Benchmark
+  public void measurementValuesFromJson(Blackhole blackhole) {
+    for (String json : measurementValuesJson) {
+      blackhole
+        .consume(measurementValuesGson.fromJson(json, measurementValuesType));
+    }
+  }
+
+  @Benchmark
+  public void calculationValuesToJson(Blackhole blackhole) {
+    for (DataReductionRecord record : dataReductionRecords) {
+      blackhole.consume(record.getCalculationJson());
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package jmh.uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jmh.uk.ac.exeter.QuinCe.SyntheticData;
+import uk.ac.exeter.QuinCe.data.Dataset.SensorValue;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.AutoQCRoutine;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.QCRoutinesConfiguration;
+
+/**
+ * Benchmarks for the {@link AutoQCRoutine} implementations.
+ *
+ * <p>
+ * Each invocation runs one routine over a complete column of synthetic sensor
+ * values, as performed by the {@code AutoQCJob}. The automatic QC results are
+ * reset between iterations so that each run starts from the same state.
+ * </p>
+ *
+ * @author Steve Jones
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class AutoQCRoutineBenchmark {
+
+  /**
+   * The package containing the routine classes
+   */
+  private static final String ROUTINE_PACKAGE = "uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.";
+
+  /**
+   * The column ID for the generated values
+   */
+  private static final long COLUMN_ID = 1L;
+
+  /**
+   * The number of sensor values to QC
+   */
+  @Param({ SyntheticData.SMALL, SyntheticData.MEDIUM, SyntheticData.LARGE })
+  public String size;
+
+  /**
+   * The routine to run, with its parameters. The routine name and parameters
+   * are separated by colons.
+   */
+  @Param({ "RangeCheck:10:20:5:25", "HighDelta:1", "Outlier:3",
+    "GradientTest:1", "ConstantValue:30" })
+  public String routineSpec;
+
+  /**
+   * The routine being benchmarked
+   */
+  private AutoQCRoutine routine;
+
+  /**
+   * The values to be QCed
+   */
+  private List<SensorValue> values;
+
+  /**
+   * Generate the sensor values and configure the routine.
+   *
+   * @throws Exception
+   *           If the routine cannot be created
+   */
+  @Setup(Level.Trial)
+  public void setupTrial() throws Exception {
+    values = SyntheticData.sensorValues(COLUMN_ID,
+      SyntheticData.parseSize(size));
+
+    String[] spec = routineSpec.split(":");
+    routine = makeRoutine(spec[0],
+      Arrays.copyOfRange(spec, 1, spec.length));
+  }
+
+  /**
+   * Remove the automatic QC flags added in the previous iteration.
+   *
+   * @throws Exception
+   *           If the flags cannot be cleared
+   */
+  @Setup(Level.Iteration)
+  public void resetQC() throws Exception {
+    for (SensorValue value : values) {
+      value.clearAutomaticQC();
+    }
+  }
+
+  @Benchmark
+  public List<SensorValue> qc() throws Exception {
+    routine.qc(values);
+    return values;
+  }
+
+  /**
+   * Create a configured {@link AutoQCRoutine}.
+   *
+   * <p>
+   * Routines are normally configured by the {@link QCRoutinesConfiguration}
+   * from the routines configuration file. This creates the routine in the same
+   * way without needing a configuration file.
+   * </p>
+   *
+   * @param name
+   *          The routine name, as it appears in the configuration file
+   * @param parameters
+   *          The routine parameters
+   * @return The routine
+   * @throws Exception
+   *           If the routine cannot be created
+   */
+  public static AutoQCRoutine makeRoutine(String name, String... parameters)
+    throws Exception {
+
+    AutoQCRoutine routine = (AutoQCRoutine) Class
+      .forName(ROUTINE_PACKAGE + name + "Routine").getDeclaredConstructor()
+      .newInstance();
+
+    Method setParameters = AutoQCRoutine.class
+      .getDeclaredMethod("setParameters", List.class);
+    setParameters.setAccessible(true);
+    setParameters.invoke(routine, Arrays.asList(parameters));
+
+    return routine;
+  }
+}
@@ -0,0 +1,110 @@
+package jmh.uk.ac.exeter.QuinCe.data.Dataset;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jmh.uk.ac.exeter.QuinCe.SyntheticData;
+import uk.ac.exeter.QuinCe.data.Dataset.SearchableSensorValuesList;
+import uk.ac.exeter.QuinCe.data.Dataset.SensorValue;
+
+/**
+ * Benchmarks for the time based searches in
+ * {@link SearchableSensorValuesList}.
+ *
+ * <p>
+ * Each operation performs a single search for a random time within the span of
+ * the list. Half of the search times fall between values so that
+ * interpolation is required.
+ * </p>
+ *
+ * @author Steve Jones
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SearchableSensorValuesListBenchmark {
+
+  /**
+   * The column ID for the generated values
+   */
+  private static final long COLUMN_ID = 1L;
+
+  /**
+   * The number of pre-generated search times. Must be a power of two.
+   */
+  private static final int LOOKUP_COUNT = 4096;
+
+  /**
+   * The number of values in the list
+   */
+  @Param({ SyntheticData.SMALL, SyntheticData.MEDIUM, SyntheticData.LARGE })
+  public String size;
+
+  /**
+   * The list being searched
+   */
+  private SearchableSensorValuesList list;
+
+  /**
+   * The search times
+   */
+  private LocalDateTime[] lookupTimes;
+
+  /**
+   * The index of the next search time to use
+   */
+  private int lookupIndex = 0;
+
+  @Setup(Level.Trial)
+  public void setupTrial() {
+    int count = SyntheticData.parseSize(size);
+
+    list = new SearchableSensorValuesList(COLUMN_ID);
+    list.addAll(SyntheticData.sensorValues(COLUMN_ID, count));
+
+    lookupTimes = SyntheticData.lookupTimes(count, LOOKUP_COUNT);
+  }
+
+  /**
+   * Get the next search time, cycling through the pre-generated times.
+   *
+   * @return The search time
+   */
+  private LocalDateTime nextTime() {
+    LocalDateTime result = lookupTimes[lookupIndex];
+    lookupIndex = (lookupIndex + 1) & (LOOKUP_COUNT - 1);
+    return result;
+  }
+
+  @Benchmark
+  public List<SensorValue> getWithInterpolationPreferGood() {
+    return list.getWithInterpolation(nextTime(), true);
+  }
+
+  @Benchmark
+  public List<SensorValue> getWithInterpolationAnyFlag() {
+    return list.getWithInterpolation(nextTime(), false);
+  }
+
+  @Benchmark
+  public SensorValue get() {
+    return list.get(nextTime());
+  }
+}
@@ -0,0 +1,645 @@
+package jmh.uk.ac.exeter.QuinCe.jobs;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import jmh.uk.ac.exeter.QuinCe.SyntheticData;
+import uk.ac.exeter.QuinCe.User.User;
+import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.DataReducer;
+import uk.ac.exeter.QuinCe.data.Files.DataFile;
+import uk.ac.exeter.QuinCe.data.Instrument.FileDefinition;
+import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
+import uk.ac.exeter.QuinCe.data.Instrument.InstrumentFileSet;
+import uk.ac.exeter.QuinCe.data.Instrument.Calibration.CalculationCoefficient;
+import uk.ac.exeter.QuinCe.data.Instrument.Calibration.CalculationCoefficientDB;
+import uk.ac.exeter.QuinCe.data.Instrument.Calibration.ExternalStandard;
+import uk.ac.exeter.QuinCe.data.Instrument.Calibration.ExternalStandardDB;
+import uk.ac.exeter.QuinCe.data.Instrument.DataFormats.DateTimeSpecification;
+import uk.ac.exeter.QuinCe.data.Instrument.DataFormats.LatitudeSpecification;
+import uk.ac.exeter.QuinCe.data.Instrument.DataFormats.LongitudeSpecification;
+import uk.ac.exeter.QuinCe.data.Instrument.RunTypes.RunTypeCategory;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorAssignment;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorAssignments;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorType;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorsConfiguration;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.Variable;
+import uk.ac.exeter.QuinCe.utils.DatabaseUtils;
+
+/**
+ * Synthetic instrument definitions for the {@link PipelineLoadTest}.
+ *
+ * <p>
+ * There is one instrument for each family of {@link DataReducer}. Each
+ * instrument has a single file definition containing a Unix timestamp,
+ * longitude, latitude, an optional Run Type column and one column for each
+ * sensor type required by the instrument's variables. The instruments, their
+ * data files and any calibrations they need are built using the same
+ * application APIs that are used when they are entered through the web
+ * interface.
+ * </p>
+ *
+ * <p>
+ * Sensor values are generated around a base level for each sensor type (see
+ * {@link #baseValue(String)}), so that the automatic QC and data reduction
+ * perform their normal calculations. Instruments whose measurements depend on
+ * run types or instrument modes cycle through them every
+ * {@link #CYCLE_LENGTH} records.
+ * </p>
+ *
+ * @author Steve Jones
+ */
+public enum PipelineInstrument {
+
+  /**
+   * Underway pCO₂ system with a Run Type column and three external standards.
+   */
+  UNDERWAY_PCO2("Underway Marine pCO₂") {
+
+    @Override
+    protected String runType(int cyclePosition) {
+      String result = EQUILIBRATE_RUN_TYPE;
+      if (cyclePosition < STANDARDS.length * 6) {
+        result = STANDARDS[cyclePosition / 6];
+      }
+
+      return result;
+    }
+
+    @Override
+    protected Map<String, RunTypeCategory> runTypeCategories(
+      List<Variable> variables) {
+
+      Map<String, RunTypeCategory> result = new LinkedHashMap<String, RunTypeCategory>();
+      result.put(EQUILIBRATE_RUN_TYPE, new RunTypeCategory(
+        variables.get(0).getId(), variables.get(0).getName()));
+      for (String standard : STANDARDS) {
+        result.put(standard, RunTypeCategory.INTERNAL_CALIBRATION);
+      }
+
+      return result;
+    }
+
+    @Override
+    protected String sensorValue(SensorType sensorType, int record,
+      int cyclePosition, Random random) {
+
+      String result;
+
+      if (sensorType.getShortName().equals("xCO₂ (with standards)")
+        && cyclePosition < STANDARDS.length * 6) {
+        result = String.valueOf(STANDARD_CONCENTRATIONS[cyclePosition / 6]
+          + random.nextGaussian() * 0.5D);
+      } else {
+        result = super.sensorValue(sensorType, record, cyclePosition, random);
+      }
+
+      return result;
+    }
+
+    @Override
+    protected void storeCalibrations(DataSource dataSource,
+      Instrument instrument) throws Exception {
+
+      for (int i = 0; i < STANDARDS.length; i++) {
+        ExternalStandard standard = new ExternalStandard(instrument);
+        standard.setTarget(STANDARDS[i]);
+        standard.setDeploymentDate(CALIBRATION_TIME);
+        standard.setCoefficients(
+          List.of(String.valueOf(STANDARD_CONCENTRATIONS[i]), "0"));
+        ExternalStandardDB.getInstance().addCalibration(dataSource, standard);
+      }
+    }
+  },
+
+  /**
+   * SAMI pCO₂ sensor.
+   */
+  SAMI("SAMI CO₂"),
+
+  /**
+   * Pro Oceanus CO₂ sensor measuring water and atmosphere.
+   */
+  PRO_OCEANUS(new String[] { "Pro Oceanus CO₂ Water",
+    "Pro Oceanus CO₂ Atmosphere" }) {
+
+    @Override
+    protected String runType(int cyclePosition) {
+      return cyclePosition < 10 ? "a m" : "w m";
+    }
+
+    @Override
+    protected Map<String, RunTypeCategory> runTypeCategories(
+      List<Variable> variables) {
+      return variableRunTypes(variables);
+    }
+
+    @Override
+    protected String sensorValue(SensorType sensorType, int record,
+      int cyclePosition, Random random) {
+
+      String result;
+
+      if (sensorType.getShortName().equals("ProOceanus Zero Count")) {
+        // The zero count changes with every cycle
+        result = String.valueOf(20000 + record / CYCLE_LENGTH);
+      } else {
+        result = super.sensorValue(sensorType, record, cyclePosition, random);
+      }
+
+      return result;
+    }
+  },
+
+  /**
+   * CONTROS HydroC CO₂ sensor with zero and flush modes, which needs
+   * calculation coefficients.
+   */
+  CONTROS("CONTROS pCO₂") {
+
+    @Override
+    protected Properties variableProperties(Variable variable) {
+      Properties result = new Properties();
+      result.setProperty("zero_flush", "30");
+      return result;
+    }
+
+    @Override
+    protected String sensorValue(SensorType sensorType, int record,
+      int cyclePosition, Random random) {
+
+      String result;
+
+      switch (sensorType.getShortName()) {
+      case "Contros pCO₂ Zero Mode": {
+        result = cyclePosition < 5 ? "1" : "0";
+        break;
+      }
+      case "Contros pCO₂ Flush Mode": {
+        result = cyclePosition >= 5 && cyclePosition < 10 ? "1" : "0";
+        break;
+      }
+      case "Contros pCO₂ Runtime": {
+        result = String.valueOf(record * SyntheticData.RECORD_INTERVAL);
+        break;
+      }
+      case "Contros pCO₂ Raw Detector Signal": {
+        // The raw signal equals the reference signal during zeros
+        result = String.valueOf(
+          (cyclePosition < 5 ? 35000D : 30000D) + random.nextGaussian() * 5D);
+        break;
+      }
+      case "Contros pCO₂ Reference Signal": {
+        result = String.valueOf(35000D + random.nextGaussian() * 5D);
+        break;
+      }
+      default: {
+        result = super.sensorValue(sensorType, record, cyclePosition, random);
+      }
+      }
+
+      return result;
+    }
+
+    @Override
+    protected void storeCalibrations(DataSource dataSource,
+      Instrument instrument) throws Exception {
+
+      Variable variable = instrument.getVariables().get(0);
+
+      for (String coefficient : variable.getCoefficients()) {
+        CalculationCoefficient calibration = new CalculationCoefficient(
+          instrument,
+          CalculationCoefficient.getCoeffecientName(variable, coefficient));
+        calibration.setDeploymentDate(CALIBRATION_TIME);
+        calibration.setCoefficients(
+          List.of(CONTROS_COEFFICIENTS.getOrDefault(coefficient, "1")));
+        CalculationCoefficientDB.getInstance().addCalibration(dataSource,
+          calibration);
+      }
+    }
+  },
+
+  /**
+   * Saildrone measuring water and atmosphere CO₂.
+   */
+  SAILDRONE(new String[] { "SailDrone Marine CO₂ NRT",
+    "SailDrone Atmospheric CO₂ NRT" }),
+
+  /**
+   * ASVCO₂ system measuring water and atmosphere.
+   */
+  ASVCO2(new String[] { "ASVCO₂ Water", "ASVCO₂ Atmosphere" }) {
+
+    @Override
+    protected String runType(int cyclePosition) {
+      return cyclePosition < 10 ? "ap" : "ep";
+    }
+
+    @Override
+    protected Map<String, RunTypeCategory> runTypeCategories(
+      List<Variable> variables) {
+      return variableRunTypes(variables);
+    }
+  };
+
+  /**
+   * The number of records in each cycle of run types or instrument modes
+   */
+  private static final int CYCLE_LENGTH = 100;
+
+  /**
+   * The run type for equilibrator measurements of underway instruments
+   */
+  private static final String EQUILIBRATE_RUN_TYPE = "equ";
+
+  /**
+   * The external standard run types for underway instruments
+   */
+  private static final String[] STANDARDS = { "std1", "std2", "std3" };
+
+  /**
+   * The concentrations of the external standards
+   */
+  private static final double[] STANDARD_CONCENTRATIONS = { 250D, 400D,
+    550D };
+
+  /**
+   * Calculation coefficients for the CONTROS instrument. Coefficients not
+   * listed here are set to 1.
+   */
+  private static final Map<String, String> CONTROS_COEFFICIENTS = Map.of("F",
+    "61000", "Tsensor", "35", "f(Tsensor)", "1", "k1", "0.17", "k2",
+    "0.00003", "k3", "0", "Runtime", "0");
+
+  /**
+   * The deployment time of all calibrations. This is before the start of all
+   * the generated data.
+   */
+  private static final LocalDateTime CALIBRATION_TIME = SyntheticData.START_TIME
+    .minusDays(1);
+
+  /**
+   * The description of the instruments' file definition
+   */
+  private static final String FILE_DESCRIPTION = "Data";
+
+  /**
+   * The column containing the timestamp
+   */
+  private static final int TIME_COLUMN = 0;
+
+  /**
+   * The column containing the longitude
+   */
+  private static final int LONGITUDE_COLUMN = 1;
+
+  /**
+   * The column containing the latitude
+   */
+  private static final int LATITUDE_COLUMN = 2;
+
+  /**
+   * The names of the variables measured by the instrument
+   */
+  private final String[] variableNames;
+
+  /**
+   * Constructor for an instrument measuring a single variable
+   *
+   * @param variableName
+   *          The variable name
+   */
+  PipelineInstrument(String variableName) {
+    this(new String[] { variableName });
+  }
+
+  /**
+   * Constructor for an instrument measuring multiple variables
+   *
+   * @param variableNames
+   *          The variable names
+   */
+  PipelineInstrument(String[] variableNames) {
+    this.variableNames = variableNames;
+  }
+
+  /**
+   * Build the instrument. The instrument is not stored in the database.
+   *
+   * @param dataSource
+   *          A data source
+   * @param sensorConfig
+   *          The sensors configuration
+   * @param owner
+   *          The instrument owner
+   * @return The instrument
+   * @throws Exception
+   *           If the instrument cannot be built
+   */
+  public Instrument buildInstrument(DataSource dataSource,
+    SensorsConfiguration sensorConfig, User owner) throws Exception {
+
+    List<Variable> variables = new ArrayList<Variable>(variableNames.length);
+    Map<Variable, Properties> variableProperties = new HashMap<Variable, Properties>();
+    List<Long> variableIds = new ArrayList<Long>(variableNames.length);
+
+    for (String variableName : variableNames) {
+      Variable variable = sensorConfig.getInstrumentVariable(variableName);
+      variables.add(variable);
+      variableIds.add(variable.getId());
+      variableProperties.put(variable, variableProperties(variable));
+    }
+
+    List<SensorType> sensorTypes = getSensorTypes(sensorConfig, variables);
+    boolean hasRunTypes = hasRunTypes();
+    int firstSensorColumn = LATITUDE_COLUMN + (hasRunTypes ? 2 : 1);
+
+    LoadTestFileSet fileSet = new LoadTestFileSet();
+
+    DateTimeSpecification dateTimeSpec = new DateTimeSpecification(false);
+    dateTimeSpec.assign(DateTimeSpecification.UNIX, TIME_COLUMN, null);
+
+    FileDefinition fileDefinition = new FileDefinition(
+      DatabaseUtils.NO_DATABASE_RECORD, FILE_DESCRIPTION, ",",
+      FileDefinition.HEADER_TYPE_LINE_COUNT, 0, null, 1,
+      firstSensorColumn + sensorTypes.size(),
+      new LongitudeSpecification(LongitudeSpecification.FORMAT_MINUS180_180,
+        LONGITUDE_COLUMN, -1),
+      new LatitudeSpecification(LatitudeSpecification.FORMAT_MINUS90_90,
+        LATITUDE_COLUMN, -1),
+      dateTimeSpec, fileSet);
+
+    fileSet.add(fileDefinition);
+
+    SensorAssignments sensorAssignments = new SensorAssignments(dataSource,
+      variableIds);
+
+    if (hasRunTypes) {
+      int runTypeColumn = LATITUDE_COLUMN + 1;
+      fileDefinition.addRunTypeColumn(runTypeColumn);
+      for (Map.Entry<String, RunTypeCategory> entry : runTypeCategories(
+        variables).entrySet()) {
+        fileDefinition.setRunTypeCategory(entry.getKey(), entry.getValue());
+      }
+
+      sensorAssignments.addAssignment(new SensorAssignment(FILE_DESCRIPTION,
+        runTypeColumn, SensorType.RUN_TYPE_SENSOR_TYPE, "Run Type", true,
+        false, null));
+    }
+
+    for (int i = 0; i < sensorTypes.size(); i++) {
+      SensorType sensorType = sensorTypes.get(i);
+      sensorAssignments.addAssignment(new SensorAssignment(FILE_DESCRIPTION,
+        firstSensorColumn + i, sensorType, sensorType.getShortName(), true,
+        false, null));
+    }
+
+    Instrument instrument = new Instrument(owner, "Load Test " + name(),
+      fileSet, variables, variableProperties, sensorAssignments,
+      String.format("LT%04d", ordinal()), false);
+
+    instrument.setProperty(Instrument.PROP_PRE_FLUSHING_TIME, 0);
+    instrument.setProperty(Instrument.PROP_POST_FLUSHING_TIME, 0);
+
+    return instrument;
+  }
+
+  /**
+   * Generate a data file for a stored instrument.
+   *
+   * @param instrument
+   *          The instrument
+   * @param sensorConfig
+   *          The sensors configuration
+   * @param fileStore
+   *          The file store location
+   * @param records
+   *          The number of records in the file
+   * @return The data file
+   * @throws Exception
+   *           If the file cannot be created
+   */
+  public DataFile buildDataFile(Instrument instrument,
+    SensorsConfiguration sensorConfig, String fileStore, int records)
+    throws Exception {
+
+    List<SensorType> sensorTypes = getSensorTypes(sensorConfig,
+      instrument.getVariables());
+    boolean hasRunTypes = hasRunTypes();
+
+    Random random = new Random(ordinal());
+    List<String> lines = new ArrayList<String>(records + 1);
+
+    StringBuilder header = new StringBuilder("time,lon,lat");
+    if (hasRunTypes) {
+      header.append(",run type");
+    }
+    for (SensorType sensorType : sensorTypes) {
+      header.append(',').append(sensorType.getShortName());
+    }
+    lines.add(header.toString());
+
+    for (int i = 0; i < records; i++) {
+      int cyclePosition = i % CYCLE_LENGTH;
+
+      StringBuilder line = new StringBuilder();
+      line.append(
+        SyntheticData.recordTime(i).toEpochSecond(ZoneOffset.UTC));
+      line.append(',').append(-20D + ((i % 40000) * 0.001D));
+      line.append(',').append(50D + random.nextGaussian() * 0.01D);
+
+      if (hasRunTypes) {
+        line.append(',').append(runType(cyclePosition));
+      }
+
+      for (SensorType sensorType : sensorTypes) {
+        line.append(',');
+        line.append(sensorValue(sensorType, i, cyclePosition, random));
+      }
+
+      lines.add(line.toString());
+    }
+
+    return new DataFile(fileStore,
+      instrument.getFileDefinitions().get(FILE_DESCRIPTION),
+      name().toLowerCase() + ".csv", lines);
+  }
+
+  /**
+   * Store any calibrations required by the instrument. The instrument must
+   * have been stored in the database.
+   *
+   * @param dataSource
+   *          A data source
+   * @param instrument
+   *          The instrument
+   * @throws Exception
+   *           If the calibrations cannot be stored
+   */
+  protected void storeCalibrations(DataSource dataSource, Instrument instrument)
+    throws Exception {
+    // Most instruments do not need calibrations
+  }
+
+  /**
+   * Get the properties for one of the instrument's variables.
+   *
+   * @param variable
+   *          The variable
+   * @return The variable's properties
+   */
+  protected Properties variableProperties(Variable variable) {
+    return new Properties();
+  }
+
+  /**
+   * Get the run type for a given position in the run type cycle. Instruments
+   * that return {@code null} do not have a Run Type column.
+   *
+   * @param cyclePosition
+   *          The position in the cycle
+   * @return The run type
+   */
+  protected String runType(int cyclePosition) {
+    return null;
+  }
+
+  /**
+   * Get the categories for the instrument's run types.
+   *
+   * @param variables
+   *          The instrument's variables
+   * @return The run types and their categories
+   */
+  protected Map<String, RunTypeCategory> runTypeCategories(
+    List<Variable> variables) {
+    return new HashMap<String, RunTypeCategory>();
+  }
+
+  /**
+   * Generate the value for a sensor in a given record.
+   *
+   * @param sensorType
+   *          The sensor type
+   * @param record
+   *          The record index
+   * @param cyclePosition
+   *          The record's position in the run type cycle
+   * @param random
+   *          The random number generator
+   * @return The sensor value
+   */
+  protected String sensorValue(SensorType sensorType, int record,
+    int cyclePosition, Random random) {
+
+    double base = baseValue(sensorType.getShortName());
+    return String.valueOf(base + random.nextGaussian() * base * 0.001D);
+  }
+
+  /**
+   * Determine whether or not the instrument has a Run Type column.
+   *
+   * @return {@code true} if there is a Run Type column; {@code false} if not
+   */
+  private boolean hasRunTypes() {
+    return null != runType(0);
+  }
+
+  /**
+   * Assign run types to variables using each variable's fixed run type.
+   *
+   * @param variables
+   *          The variables
+   * @return The run types and their categories
+   */
+  private static Map<String, RunTypeCategory> variableRunTypes(
+    List<Variable> variables) {
+
+    Map<String, RunTypeCategory> result = new LinkedHashMap<String, RunTypeCategory>();
+    for (Variable variable : variables) {
+      result.put(variable.getRunType(),
+        new RunTypeCategory(variable.getId(), variable.getName()));
+    }
+
+    return result;
+  }
+
+  /**
+   * Get the sensor types that must be assigned for a set of variables.
+   * Parent sensor types are replaced by their first child.
+   *
+   * @param sensorConfig
+   *          The sensors configuration
+   * @param variables
+   *          The variables
+   * @return The sensor types
+   */
+  private static List<SensorType> getSensorTypes(
+    SensorsConfiguration sensorConfig, List<Variable> variables) {
+
+    Set<SensorType> result = new LinkedHashSet<SensorType>();
+
+    for (Variable variable : variables) {
+      for (SensorType sensorType : variable.getAllSensorTypes(false)) {
+        if (sensorConfig.isParent(sensorType)) {
+          result.add(sensorConfig.getChildren(sensorType).stream()
+            .min((a, b) -> Long.compare(a.getId(), b.getId())).get());
+        } else {
+          result.add(sensorType);
+        }
+      }
+    }
+
+    return new ArrayList<SensorType>(result);
+  }
+
+  /**
+   * Get the base level for values of a sensor type.
+   *
+   * @param sensorTypeName
+   *          The sensor type name
+   * @return The base level
+   */
+  private static double baseValue(String sensorTypeName) {
+    double result;
+
+    if (sensorTypeName.contains("CO₂")) {
+      result = 380D;
+    } else if (sensorTypeName.contains("Salinity")) {
+      result = 35D;
+    } else if (sensorTypeName.contains("Pressure")) {
+      result = 1013D;
+    } else if (sensorTypeName.contains("Equilibrator Temperature")) {
+      result = 15.5D;
+    } else if (sensorTypeName.contains("Temperature")) {
+      result = 15D;
+    } else {
+      result = 10D;
+    }
+
+    return result;
+  }
+
+  /**
+   * The file set for the instruments. {@link InstrumentFileSet}s cannot be
+   * constructed outside of their package.
+   */
+  private static class LoadTestFileSet extends InstrumentFileSet {
+
+    /**
+     * The serial version UID
+     */
+    private static final long serialVersionUID = -6468104893186302707L;
+  }
+}
@@ -0,0 +1,455 @@
+package jmh.uk.ac.exeter.QuinCe.jobs;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import jmh.uk.ac.exeter.QuinCe.BenchmarkResourceManager;
+import uk.ac.exeter.QuinCe.User.User;
+import uk.ac.exeter.QuinCe.User.UserDB;
+import uk.ac.exeter.QuinCe.data.Dataset.DataSet;
+import uk.ac.exeter.QuinCe.data.Dataset.DataSetDB;
+import uk.ac.exeter.QuinCe.data.Files.DataFile;
+import uk.ac.exeter.QuinCe.data.Files.DataFileDB;
+import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
+import uk.ac.exeter.QuinCe.data.Instrument.InstrumentDB;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorsConfiguration;
+import uk.ac.exeter.QuinCe.jobs.Job;
+import uk.ac.exeter.QuinCe.jobs.JobManager;
+import uk.ac.exeter.QuinCe.jobs.JobMetrics;
+import uk.ac.exeter.QuinCe.jobs.JobThread;
+import uk.ac.exeter.QuinCe.jobs.files.DataSetJob;
+import uk.ac.exeter.QuinCe.jobs.files.ExtractDataSetJob;
+import uk.ac.exeter.QuinCe.web.system.ResourceManager;
+
+/**
+ * End-to-end load test of the dataset processing pipeline.
+ *
+ * <p>
+ * For each {@link PipelineInstrument}, the load test creates the instrument, a
+ * data file containing the requested number of records, and a dataset covering
+ * the whole file. It then queues an {@link ExtractDataSetJob} for the dataset
+ * and runs the chain of jobs that follows it (extraction, automatic QC,
+ * measurement location, data reduction and data reduction QC) through the
+ * {@link JobManager}, exactly as the application does. The jobs are run one at
+ * a time in the current thread so that their resource usage can be measured.
+ * </p>
+ *
+ * <p>
+ * The database is the in-memory H2 database used by the tests and benchmarks
+ * (see {@link BenchmarkResourceManager}). The following are reported for each
+ * stage:
+ * </p>
+ * <ul>
+ * <li>The wall clock time.</li>
+ * <li>The time spent in the load, compute and persist phases of the job, the
+ * number of SQL statements executed and the number of rows processed, as
+ * recorded in the job's {@link JobMetrics}. These are not recorded for the
+ * setup stage.</li>
+ * <li>The peak heap usage. This is the sum of the peak usage of each heap
+ * memory pool during the stage, so is an upper bound.</li>
+ * <li>The final status of the job.</li>
+ * </ul>
+ *
+ * <p>
+ * Usage: {@code PipelineLoadTest [records] [instrument,...]}. The default is
+ * {@link #DEFAULT_RECORDS} records for every instrument. Run through Gradle
+ * with {@code ./gradlew loadTest -Pload.records=100000
+ * -Pload.instruments=SAMI,CONTROS}.
+ * </p>
+ *
+ * @author Steve Jones
+ */
+public class PipelineLoadTest {
+
+  /**
+   * The default number of records in each instrument's data file
+   */
+  private static final int DEFAULT_RECORDS = 10000;
+
+  /**
+   * The maximum number of jobs that will be run for one dataset. This
+   * prevents jobs that requeue themselves from running forever.
+   */
+  private static final int MAX_JOBS = 20;
+
+  /**
+   * The name of the setup stage, which creates the instrument, file and
+   * dataset
+   */
+  private static final String SETUP_STAGE = "Setup";
+
+  /**
+   * Statement to replace the {@code status} column of the {@code job} table
+   *
+   * @see #repairJobTable()
+   */
+  private static final String REPAIR_JOB_STATUS_STATEMENT = "ALTER TABLE job "
+    + "ALTER COLUMN status VARCHAR(10) NOT NULL DEFAULT 'WAITING'";
+
+  /**
+   * Query to get the status of a job
+   *
+   * @see #getJobStatus(long)
+   */
+  private static final String GET_JOB_STATUS_QUERY = "SELECT status FROM job "
+    + "WHERE id = ?";
+
+  /**
+   * The application's data source
+   */
+  private final DataSource dataSource;
+
+  /**
+   * The application configuration
+   */
+  private final Properties config;
+
+  /**
+   * The owner of the instruments and jobs
+   */
+  private final User owner;
+
+  /**
+   * Initialise the application and database for the load test
+   *
+   * @throws Exception
+   *           If the initialisation fails
+   */
+  private PipelineLoadTest() throws Exception {
+    ResourceManager resourceManager = BenchmarkResourceManager.init();
+    dataSource = resourceManager.getDBDataSource();
+    config = resourceManager.getConfig();
+
+    repairJobTable();
+
+    // Data files are written to a temporary file store
+    config.setProperty("filestore",
+      Files.createTempDirectory("quince-loadtest").toString());
+
+    owner = UserDB.createUser(dataSource, "loadtest@quince.test",
+      "loadtest".toCharArray(), "Load", "Test", false);
+  }
+
+  /**
+   * Restore the {@code status} column of the {@code job} table.
+   *
+   * <p>
+   * H2 loses the values of {@code ENUM} columns when a table is altered, so
+   * the {@code job.status} column is unusable after the migrations have been
+   * run. It is replaced with a plain text column, which has no effect on the
+   * job handling.
+   * </p>
+   *
+   * @throws SQLException
+   *           If the column cannot be changed
+   */
+  private void repairJobTable() throws SQLException {
+    try (Connection conn = dataSource.getConnection();
+      Statement stmt = conn.createStatement()) {
+      stmt.execute(REPAIR_JOB_STATUS_STATEMENT);
+    }
+  }
+
+  /**
+   * Run the load test.
+   *
+   * @param args
+   *          The number of records, and the names of the instruments to test
+   * @throws Exception
+   *           If the load test cannot be run
+   */
+  public static void main(String[] args) throws Exception {
+
+    int records = args.length > 0 ? Integer.parseInt(args[0])
+      : DEFAULT_RECORDS;
+
+    List<PipelineInstrument> instruments = new ArrayList<PipelineInstrument>();
+    if (args.length > 1) {
+      for (String name : args[1].split(",")) {
+        instruments.add(PipelineInstrument.valueOf(name.trim()));
+      }
+    } else {
+      instruments.addAll(List.of(PipelineInstrument.values()));
+    }
+
+    PipelineLoadTest loadTest = new PipelineLoadTest();
+
+    List<StageResult> results = new ArrayList<StageResult>();
+    for (PipelineInstrument instrument : instruments) {
+      results.addAll(loadTest.run(instrument, records));
+    }
+
+    printResults(records, results);
+
+    // The application may have left background threads running
+    System.exit(0);
+  }
+
+  /**
+   * Run the complete pipeline for an instrument.
+   *
+   * @param pipelineInstrument
+   *          The instrument
+   * @param records
+   *          The number of records in the instrument's data file
+   * @return The results for each stage
+   * @throws Exception
+   *           If the instrument or its dataset cannot be created
+   */
+  private List<StageResult> run(PipelineInstrument pipelineInstrument,
+    int records) throws Exception {
+
+    List<StageResult> results = new ArrayList<StageResult>();
+    ResourceManager resourceManager = ResourceManager.getInstance();
+    SensorsConfiguration sensorConfig = resourceManager
+      .getSensorsConfiguration();
+
+    startStage();
+    long start = System.nanoTime();
+
+    Instrument newInstrument = pipelineInstrument.buildInstrument(dataSource,
+      sensorConfig, owner);
+    InstrumentDB.storeInstrument(dataSource, newInstrument);
+
+    // Reload the instrument so that it has all its database IDs
+    Instrument instrument = InstrumentDB.getInstrument(dataSource,
+      newInstrument.getId());
+    pipelineInstrument.storeCalibrations(dataSource, instrument);
+
+    DataFile dataFile = pipelineInstrument.buildDataFile(instrument,
+      sensorConfig, config.getProperty("filestore"), records);
+    DataFileDB.storeFile(dataSource, config, dataFile, -1);
+
+    DataSet dataSet = new DataSet(instrument, pipelineInstrument.name(),
+      dataFile.getRawStartTime(), dataFile.getRawEndTime(), false);
+    DataSetDB.addDataSet(dataSource, dataSet);
+
+    Properties jobProperties = new Properties();
+    jobProperties.setProperty(DataSetJob.ID_PARAM,
+      String.valueOf(dataSet.getId()));
+    JobManager.addJob(dataSource, owner,
+      ExtractDataSetJob.class.getCanonicalName(), jobProperties);
+
+    results.add(endStage(pipelineInstrument, SETUP_STAGE, start, null,
+      Job.FINISHED_STATUS));
+
+    int jobCount = 0;
+    Job job = JobManager.getNextJob(resourceManager, config);
+
+    while (null != job && jobCount < MAX_JOBS) {
+      startStage();
+      start = System.nanoTime();
+
+      // Run the job in this thread. The thread is not part of the job thread
+      // pool, so it is discarded afterwards.
+      JobThread thread = new JobThread(false);
+      thread.setupJob(job);
+      thread.run();
+
+      results.add(endStage(pipelineInstrument, job.getJobName(), start,
+        JobMetrics.getMetrics(job.getID()), getJobStatus(job.getID())));
+
+      jobCount++;
+      job = JobManager.getNextJob(resourceManager, config);
+    }
+
+    DataSet processed = DataSetDB.getDataSet(dataSource, dataSet.getId());
+    results.add(new StageResult(pipelineInstrument, "Dataset status", 0L, null,
+      0L, processed.getStatusName()));
+
+    return results;
+  }
+
+  /**
+   * Reset the heap usage before a stage is run.
+   */
+  private void startStage() {
+    System.gc();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+      }
+    }
+  }
+
+  /**
+   * Collect the results of a stage once it has finished.
+   *
+   * @param instrument
+   *          The instrument being tested
+   * @param stage
+   *          The stage name
+   * @param start
+   *          The stage's start time from {@link System#nanoTime()}
+   * @param metrics
+   *          The metrics recorded by the stage's job, or {@code null} if the
+   *          stage is not a job
+   * @param status
+   *          The stage's final status
+   * @return The stage result
+   */
+  private StageResult endStage(PipelineInstrument instrument, String stage,
+    long start, JobMetrics metrics, String status) {
+
+    long time = (System.nanoTime() - start) / 1000000L;
+
+    long peakHeap = 0L;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        peakHeap += pool.getPeakUsage().getUsed();
+      }
+    }
+
+    return new StageResult(instrument, stage, time, metrics, peakHeap,
+      status);
+  }
+
+  /**
+   * Get the status of a job.
+   *
+   * @param jobId
+   *          The job ID
+   * @return The job status
+   * @throws SQLException
+   *           If the status cannot be retrieved
+   */
+  private String getJobStatus(long jobId) throws SQLException {
+    String result = "UNKNOWN";
+
+    try (Connection conn = dataSource.getConnection();
+      PreparedStatement stmt = conn.prepareStatement(GET_JOB_STATUS_QUERY)) {
+
+      stmt.setLong(1, jobId);
+      try (ResultSet record = stmt.executeQuery()) {
+        if (record.next()) {
+          result = record.getString(1);
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Print the load test results.
+   *
+   * @param records
+   *          The number of records in each data file
+   * @param results
+   *          The results
+   */
+  private static void printResults(int records, List<StageResult> results) {
+    String format = "%-15s %-28s %10s %9s %9s %9s %10s %10s %12s  %s%n";
+
+    System.out.println();
+    System.out.println("Pipeline load test: " + records + " records");
+    System.out.printf(format, "Instrument", "Stage", "Time (ms)", "Load",
+      "Compute", "Persist", "Queries", "Rows", "Peak heap MB", "Status");
+
+    for (StageResult result : results) {
+      System.out.printf(format, result.instrument.name(), result.stage,
+        result.time, result.getPhaseTime(JobMetrics.LOAD_PHASE),
+        result.getPhaseTime(JobMetrics.COMPUTE_PHASE),
+        result.getPhaseTime(JobMetrics.PERSIST_PHASE),
+        null == result.metrics ? "-" : result.metrics.getStatementCount(),
+        null == result.metrics ? "-" : result.metrics.getRowsProcessed(),
+        result.peakHeap / 1048576L, result.status);
+    }
+  }
+
+  /**
+   * The measurements for a single stage of the load test.
+   */
+  private static class StageResult {
+
+    /**
+     * The instrument being tested
+     */
+    private final PipelineInstrument instrument;
+
+    /**
+     * The stage name
+     */
+    private final String stage;
+
+    /**
+     * The wall clock time in milliseconds
+     */
+    private final long time;
+
+    /**
+     * The metrics recorded by the stage's job
+     */
+    private final JobMetrics metrics;
+
+    /**
+     * The peak heap usage in bytes
+     */
+    private final long peakHeap;
+
+    /**
+     * The final status of the stage
+     */
+    private final String status;
+
+    /**
+     * Constructor
+     *
+     * @param instrument
+     *          The instrument being tested
+     * @param stage
+     *          The stage name
+     * @param time
+     *          The wall clock time in milliseconds
+     * @param metrics
+     *          The metrics recorded by the stage's job, or {@code null} if
+     *          the stage is not a job
+     * @param peakHeap
+     *          The peak heap usage in bytes
+     * @param status
+     *          The final status of the stage
+     */
+    private StageResult(PipelineInstrument instrument, String stage, long time,
+      JobMetrics metrics, long peakHeap, String status) {
+      this.instrument = instrument;
+      this.stage = stage;
+      this.time = time;
+      this.metrics = metrics;
+      this.peakHeap = peakHeap;
+      this.status = status;
+    }
+
+    /**
+     * Get the time spent in a phase of the stage's job.
+     *
+     * @param phase
+     *          The phase
+     * @return The phase time in milliseconds, or {@code -} if it was not
+     *         recorded
+     */
+    private String getPhaseTime(String phase) {
+      String result = "-";
+
+      if (null != metrics) {
+        Long nanos = metrics.getPhaseTimes().get(phase);
+        if (null != nanos) {
+          result = String.valueOf(nanos / 1000000L);
+        }
+      }
+
+      return result;
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package jmh.uk.ac.exeter.QuinCe.jobs.files;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import jmh.uk.ac.exeter.QuinCe.BenchmarkResourceManager;
+import jmh.uk.ac.exeter.QuinCe.SyntheticData;
+import jmh.uk.ac.exeter.QuinCe.jobs.PipelineInstrument;
+import uk.ac.exeter.QuinCe.User.User;
+import uk.ac.exeter.QuinCe.User.UserDB;
+import uk.ac.exeter.QuinCe.data.Dataset.DataSet;
+import uk.ac.exeter.QuinCe.data.Dataset.RunTypePeriods;
+import uk.ac.exeter.QuinCe.data.Dataset.SensorValue;
+import uk.ac.exeter.QuinCe.data.Files.DataFile;
+import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
+import uk.ac.exeter.QuinCe.data.Instrument.InstrumentDB;
+import uk.ac.exeter.QuinCe.data.Instrument.Calibration.CalibrationSet;
+import uk.ac.exeter.QuinCe.data.Instrument.Calibration.SensorCalibrationDB;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorsConfiguration;
+import uk.ac.exeter.QuinCe.jobs.files.ExtractDataSetJob;
+import uk.ac.exeter.QuinCe.web.system.ResourceManager;
+
+/**
+ * Benchmark for the sensor value extraction performed by the
+ * {@link ExtractDataSetJob}.
+ *
+ * <p>
+ * Each invocation runs the job's extraction, flagging and statistics steps
+ * (see {@link ExtractDataSetJob#extractSensorValues}) on an in-memory
+ * {@link DataFile} for the {@link PipelineInstrument#UNDERWAY_PCO2}
+ * instrument, which has run types and internally calibrated sensors. Only
+ * loading the files from the file store and storing the results in the
+ * database are left out.
+ * </p>
+ *
+ * <p>
+ * The file contains one line for every {@code c + 2} sensor values, where
+ * {@code c} is the number of columns assigned to the instrument's sensors
+ * (the extra values are the longitude and latitude).
+ * </p>
+ *
+ * @author Steve Jones
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class ExtractDataSetJobBenchmark {
+
+  /**
+   * The number of sensor values to be extracted
+   */
+  @Param({ SyntheticData.SMALL, SyntheticData.MEDIUM, SyntheticData.LARGE })
+  public String size;
+
+  /**
+   * The instrument
+   */
+  private Instrument instrument;
+
+  /**
+   * The data files
+   */
+  private List<DataFile> files;
+
+  /**
+   * The instrument's sensor calibrations
+   */
+  private CalibrationSet sensorCalibrations;
+
+  @Setup(Level.Trial)
+  public void setupTrial() throws Exception {
+    ResourceManager resourceManager = BenchmarkResourceManager.init();
+    DataSource dataSource = resourceManager.getDBDataSource();
+    SensorsConfiguration sensorConfig = resourceManager
+      .getSensorsConfiguration();
+
+    // Each trial needs its own owner if the trials share a database
+    User owner = UserDB.createUser(dataSource,
+      "benchmark" + size + "@quince.test", "benchmark".toCharArray(),
+      "Extract", "Benchmark", false);
+
+    Instrument newInstrument = PipelineInstrument.UNDERWAY_PCO2
+      .buildInstrument(dataSource, sensorConfig, owner);
+    InstrumentDB.storeInstrument(dataSource, newInstrument);
+
+    // Reload the instrument so that it has all its database IDs
+    instrument = InstrumentDB.getInstrument(dataSource,
+      newInstrument.getId());
+
+    int records = SyntheticData.parseSize(size)
+      / (instrument.getSensorAssignments().getFileColumnIDs().size() + 2);
+
+    DataFile file = PipelineInstrument.UNDERWAY_PCO2.buildDataFile(instrument,
+      sensorConfig, null, records);
+    files = List.of(file);
+
+    try (Connection conn = dataSource.getConnection()) {
+      sensorCalibrations = SensorCalibrationDB.getInstance()
+        .getMostRecentCalibrations(conn, instrument, file.getRawStartTime());
+    }
+  }
+
+  @Benchmark
+  public void extract(Blackhole blackhole) throws Exception {
+
+    // The extraction adjusts the data set's times, so each invocation needs
+    // its own data set
+    DataSet dataSet = new DataSet(instrument, "Benchmark",
+      files.get(0).getRawStartTime(), files.get(0).getRawEndTime(), false);
+
+    RunTypePeriods runTypePeriods = new RunTypePeriods(
+      instrument.getRunTypeDictionary());
+
+    TreeSet<SensorValue> sensorValues = ExtractDataSetJob.extractSensorValues(
+      dataSet, instrument, files, sensorCalibrations, runTypePeriods);
+
+    ExtractDataSetJob.flagSensorValues(instrument, sensorValues,
+      runTypePeriods);
+
+    blackhole.consume(
+      ExtractDataSetJob.calculateStatistics(instrument, sensorValues));
+    blackhole.consume(sensorValues);
+    blackhole.consume(runTypePeriods);
+    blackhole.consume(dataSet.getStart());
+    blackhole.consume(dataSet.getEnd());
+  }
+}
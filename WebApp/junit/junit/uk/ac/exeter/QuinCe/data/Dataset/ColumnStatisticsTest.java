@@ -0,0 +1,126 @@
+package junit.uk.ac.exeter.QuinCe.data.Dataset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import uk.ac.exeter.QuinCe.data.Dataset.ColumnStatistics;
+import uk.ac.exeter.QuinCe.data.Dataset.DatasetStatistics;
+
+/**
+ * Tests for the {@link ColumnStatistics} and {@link DatasetStatistics}
+ * classes.
+ *
+ * @author Steve Jones
+ *
+ */
+public class ColumnStatisticsTest {
+
+  /**
+   * Tolerance for comparing calculated values
+   */
+  private static final double EPSILON = 1e-9;
+
+  /**
+   * The base time for test values
+   */
+  private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 0,
+    0);
+
+  private ColumnStatistics makeStatistics(double... values) {
+    ColumnStatistics result = new ColumnStatistics();
+    for (int i = 0; i < values.length; i++) {
+      result.add(START.plusMinutes(i), values[i]);
+    }
+
+    return result;
+  }
+
+  @Test
+  public void emptyTest() {
+    ColumnStatistics stats = new ColumnStatistics();
+    assertEquals(0, stats.getCount());
+    assertEquals(0, stats.getNanCount());
+    assertTrue(Double.isNaN(stats.getMin()));
+    assertTrue(Double.isNaN(stats.getMax()));
+    assertTrue(Double.isNaN(stats.getMean()));
+    assertTrue(Double.isNaN(stats.getVariance()));
+    assertNull(stats.getFirstTime());
+    assertNull(stats.getLastTime());
+  }
+
+  @Test
+  public void valuesTest() {
+    ColumnStatistics stats = makeStatistics(2, 4, 4, 4, 5, 5, 7, 9);
+    assertEquals(8, stats.getCount());
+    assertEquals(2D, stats.getMin());
+    assertEquals(9D, stats.getMax());
+    assertEquals(5D, stats.getMean(), EPSILON);
+    assertEquals(32D / 7D, stats.getVariance(), EPSILON);
+    assertEquals(START, stats.getFirstTime());
+    assertEquals(START.plusMinutes(7), stats.getLastTime());
+  }
+
+  @Test
+  public void nanTest() {
+    ColumnStatistics stats = makeStatistics(Double.NaN, 3, Double.NaN, 1);
+    assertEquals(2, stats.getCount());
+    assertEquals(2, stats.getNanCount());
+    assertEquals(1D, stats.getMin());
+    assertEquals(3D, stats.getMax());
+    assertEquals(2D, stats.getMean(), EPSILON);
+    assertEquals(START, stats.getFirstTime());
+  }
+
+  @Test
+  public void mergeTest() {
+    ColumnStatistics all = makeStatistics(2, 4, 4, 4, 5, 5, 7, 9);
+
+    ColumnStatistics first = makeStatistics(2, 4, 4);
+    ColumnStatistics second = new ColumnStatistics();
+    double[] secondValues = { 4, 5, 5, 7, 9 };
+    for (int i = 0; i < secondValues.length; i++) {
+      second.add(START.plusMinutes(i + 3), secondValues[i]);
+    }
+
+    first.merge(second);
+
+    assertEquals(all.getCount(), first.getCount());
+    assertEquals(all.getMin(), first.getMin());
+    assertEquals(all.getMax(), first.getMax());
+    assertEquals(all.getMean(), first.getMean(), EPSILON);
+    assertEquals(all.getVariance(), first.getVariance(), EPSILON);
+    assertEquals(all.getFirstTime(), first.getFirstTime());
+    assertEquals(all.getLastTime(), first.getLastTime());
+  }
+
+  @Test
+  public void mergeEmptyTest() {
+    ColumnStatistics stats = new ColumnStatistics();
+    stats.merge(makeStatistics(1, 3));
+    stats.merge(new ColumnStatistics());
+    assertEquals(2, stats.getCount());
+    assertEquals(2D, stats.getMean(), EPSILON);
+    assertEquals(START.plusMinutes(1), stats.getLastTime());
+  }
+
+  @Test
+  public void jsonTest() {
+    DatasetStatistics stats = new DatasetStatistics();
+    stats.setRecordCount(12);
+    stats.getColumns().put(1L, makeStatistics(1, 2, 3));
+    stats.getColumns().put(2L, makeStatistics(Double.NaN));
+
+    DatasetStatistics restored = DatasetStatistics.fromJson(stats.toJson());
+    assertEquals(12, restored.getRecordCount());
+    assertEquals(2D, restored.getColumn(1L).getMean(), EPSILON);
+    assertEquals(START.plusMinutes(2), restored.getColumn(1L).getLastTime());
+    assertEquals(1, restored.getColumn(2L).getNanCount());
+    assertEquals(-1D, restored.getMin(2L, -1D));
+    assertNull(DatasetStatistics.fromJson(null));
+  }
+}
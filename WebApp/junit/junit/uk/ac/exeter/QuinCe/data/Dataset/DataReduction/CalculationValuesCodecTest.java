@@ -0,0 +1,125 @@
+package junit.uk.ac.exeter.QuinCe.data.Dataset.DataReduction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.CalculationValuesCodec;
+import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.ReadOnlyDataReductionRecord;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
+
+/**
+ * Tests for {@link CalculationValuesCodec}.
+ */
+public class CalculationValuesCodecTest {
+
+  private static final List<String> NAMES = Arrays.asList("Temp", "Salinity",
+    "xCO2", "pCO2", "fCO2", "Delta T", "Pressure", "pH2O", "fCO2 Final");
+
+  private ReadOnlyDataReductionRecord makeRecord(
+    CalculationValuesCodec codec, Double... values) {
+
+    Map<String, Double> map = new HashMap<String, Double>();
+    for (int i = 0; i < values.length; i++) {
+      map.put(codec.getParameterNames().get(i), values[i]);
+    }
+
+    return ReadOnlyDataReductionRecord.makeRecord(1L, 2L, map, Flag.GOOD,
+      null);
+  }
+
+  @Test
+  public void sameCodecForSameNamesTest() {
+    assertSame(CalculationValuesCodec.getCodec(NAMES),
+      CalculationValuesCodec.getCodec(Arrays.asList(NAMES.toArray(new String[0]))));
+  }
+
+  @Test
+  public void roundTripTest() {
+    CalculationValuesCodec codec = CalculationValuesCodec.getCodec(NAMES);
+    Double[] values = new Double[] { 12.5, 35.1, 400.2, 390.1, 388.7, -0.25,
+      1013.2, 0.0123, 388.9 };
+
+    double[] decoded = codec.decode(codec.encode(makeRecord(codec, values)));
+
+    assertEquals(values.length, decoded.length);
+    for (int i = 0; i < values.length; i++) {
+      assertEquals(values[i], decoded[i]);
+    }
+  }
+
+  @Test
+  public void missingValuesTest() {
+    CalculationValuesCodec codec = CalculationValuesCodec.getCodec(NAMES);
+    Double[] values = new Double[] { 12.5, null, Double.NaN, 390.1, null,
+      -0.25, Double.NaN, 0.0123, null };
+
+    double[] decoded = codec.decode(codec.encode(makeRecord(codec, values)));
+
+    for (int i = 0; i < values.length; i++) {
+      if (null == values[i] || values[i].isNaN()) {
+        assertTrue(Double.isNaN(decoded[i]));
+      } else {
+        assertEquals(values[i], decoded[i]);
+      }
+    }
+  }
+
+  @Test
+  public void packedRecordValuesTest() {
+    CalculationValuesCodec codec = CalculationValuesCodec.getCodec(NAMES);
+    Double[] values = new Double[] { 12.5, null, Double.NaN, 390.1, 388.7,
+      -0.25, 1013.2, 0.0123, 388.9 };
+
+    ReadOnlyDataReductionRecord record = ReadOnlyDataReductionRecord
+      .makeRecord(1L, 2L, codec,
+        codec.decode(codec.encode(makeRecord(codec, values))), Flag.GOOD,
+        null);
+
+    assertEquals(12.5, record.getCalculationValue("Temp"));
+    assertNull(record.getCalculationValue("Salinity"));
+    assertNull(record.getCalculationValue("xCO2"));
+    assertEquals(388.9, record.getCalculationValue("fCO2 Final"));
+    assertNull(record.getCalculationValue("Not a parameter"));
+  }
+
+  @Test
+  public void recordOrderTest() {
+    CalculationValuesCodec codec = CalculationValuesCodec.getCodec(NAMES);
+    double[] values = new double[] { 12.5, Double.NaN, 400.2, 390.1, 388.7,
+      -0.25, 1013.2, 0.0123, 388.9 };
+
+    // The map-based record's parameters are not in the codec's order
+    ReadOnlyDataReductionRecord record = makeRecord(codec, 12.5, null, 400.2,
+      390.1, 388.7, -0.25, 1013.2, 0.0123, 388.9);
+
+    assertTrue(Arrays.equals(codec.encode(values), codec.encode(record)));
+    assertEquals(NAMES.size(), record.getCalculationValues().size());
+    assertNull(record.getCalculationValues().get("Salinity"));
+  }
+
+  @Test
+  public void differentParametersTest() {
+    CalculationValuesCodec codec = CalculationValuesCodec.getCodec(NAMES);
+    CalculationValuesCodec otherCodec = CalculationValuesCodec
+      .getCodec(Arrays.asList("Temp", "Salinity"));
+
+    byte[] packed = otherCodec.encode(makeRecord(otherCodec, 12.5, 35.1));
+    assertNull(codec.decode(packed));
+  }
+
+  @Test
+  public void emptyDataTest() {
+    CalculationValuesCodec codec = CalculationValuesCodec.getCodec(NAMES);
+    assertNull(codec.decode(null));
+    assertNull(codec.decode(new byte[0]));
+  }
+}
@@ -77,4 +77,42 @@ public class UnderwayMarinePco2ReducerTest extends DataReducerTest {
     assertEquals(357.5815834D, record.getCalculationValue("pCO₂ SST"), 0.0001);
     assertEquals(356.2642266D, record.getCalculationValue("fCO₂"), 0.0001);
   }
+
+  /**
+   * Test that the batch calculation gives the same results as the single
+   * measurement calculation, and that each measurement in a block is
+   * calculated independently.
+   */
+  @FlywayTest
+  @Test
+  public void testBatchReduction() throws Exception {
+
+    Variable variable = Mockito.mock(Variable.class);
+    Mockito.when(variable.getId()).thenReturn(1L);
+
+    UnderwayMarinePco2Reducer reducer = new UnderwayMarinePco2Reducer(variable,
+      new HashMap<String, Properties>());
+
+    // Intake Temperature, Salinity, Equilibrator Temperature, Equilibrator
+    // Pressure, xCO₂
+    double[][] inputs = new double[][] { { 11.912D, Double.NaN },
+      { 35.224D, 35.224D }, { 12.37D, 12.37D }, { 999.23D, 999.23D },
+      { 374.977D, 374.977D } };
+
+    double[][] outputs = new double[6][2];
+
+    reducer.calculate(inputs, outputs, 2);
+
+    assertEquals(0.458D, outputs[0][0], 0.0001);
+    assertEquals(0.01389918297D, outputs[1][0], 0.0001);
+    assertEquals(364.576695236D, outputs[2][0], 0.0001);
+    assertEquals(363.233567921D, outputs[3][0], 0.0001);
+    assertEquals(357.5815834D, outputs[4][0], 0.0001);
+    assertEquals(356.2642266D, outputs[5][0], 0.0001);
+
+    // The second measurement has no intake temperature
+    assertEquals(364.576695236D, outputs[2][1], 0.0001);
+    assertEquals(Double.NaN, outputs[4][1]);
+    assertEquals(Double.NaN, outputs[5][1]);
+  }
 }
@@ -0,0 +1,122 @@
+package junit.uk.ac.exeter.QuinCe.data.Dataset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.flywaydb.test.annotation.FlywayTest;
+import org.junit.jupiter.api.Test;
+
+import junit.uk.ac.exeter.QuinCe.TestBase.BaseTest;
+import uk.ac.exeter.QuinCe.data.Dataset.DataSetDataDB;
+import uk.ac.exeter.QuinCe.data.Dataset.SensorValue;
+
+/**
+ * Tests for the {@link DataSetDataDB} class.
+ *
+ * @author Steve Jones
+ *
+ */
+public class DataSetDataDBTest extends BaseTest {
+
+  /**
+   * The ID of the dataset used in the tests
+   */
+  private static final long DATASET_ID = 1001L;
+
+  /**
+   * The time of the first existing sensor value in the test dataset
+   */
+  private static final LocalDateTime START_TIME = LocalDateTime.of(2019, 6, 3,
+    0, 0, 0);
+
+  /**
+   * Build a list of new sensor values for the test dataset, one minute apart
+   * and starting one hour after the existing values.
+   *
+   * @param count
+   *          The number of values
+   * @return The sensor values
+   */
+  private List<SensorValue> makeNewValues(int count) {
+    List<SensorValue> values = new ArrayList<SensorValue>(count);
+    for (int i = 0; i < count; i++) {
+      values.add(new SensorValue(DATASET_ID, 1L,
+        START_TIME.plusHours(1).plusMinutes(i), String.valueOf(i)));
+    }
+    return values;
+  }
+
+  /**
+   * Test that {@link DataSetDataDB#replaceSensorValues} hides the existing
+   * values and makes the new values visible.
+   *
+   * @throws Exception
+   *           If any internal errors are encountered.
+   */
+  @FlywayTest(locationsForMigrate = {
+    "resources/sql/data/Dataset/DataSetDataDBTest/replaceSensorValues" })
+  @Test
+  public void replaceSensorValuesTest() throws Exception {
+
+    // More than one multi-row INSERT statement's worth of values
+    List<SensorValue> newValues = makeNewValues(750);
+
+    try (Connection conn = getDataSource().getConnection()) {
+      assertEquals(3, DataSetDataDB.getRecordCount(conn, DATASET_ID));
+      DataSetDataDB.replaceSensorValues(conn, DATASET_ID, newValues);
+      assertEquals(750, DataSetDataDB.getRecordCount(conn, DATASET_ID));
+    }
+
+    List<LocalDateTime> times = DataSetDataDB
+      .getSensorValueTimes(getDataSource(), DATASET_ID);
+    assertEquals(START_TIME.plusHours(1), times.get(0));
+  }
+
+  /**
+   * Test that replacing a dataset's values with an empty set of values hides
+   * all the existing values.
+   *
+   * @throws Exception
+   *           If any internal errors are encountered.
+   */
+  @FlywayTest(locationsForMigrate = {
+    "resources/sql/data/Dataset/DataSetDataDBTest/replaceSensorValues" })
+  @Test
+  public void replaceSensorValuesEmptyTest() throws Exception {
+    try (Connection conn = getDataSource().getConnection()) {
+      DataSetDataDB.replaceSensorValues(conn, DATASET_ID,
+        new ArrayList<SensorValue>());
+      assertEquals(0, DataSetDataDB.getRecordCount(conn, DATASET_ID));
+    }
+  }
+
+  /**
+   * Test that {@link DataSetDataDB#purgeReplacedSensorValues} removes only the
+   * replaced values, and that running it again removes nothing.
+   *
+   * @throws Exception
+   *           If any internal errors are encountered.
+   */
+  @FlywayTest(locationsForMigrate = {
+    "resources/sql/data/Dataset/DataSetDataDBTest/replaceSensorValues" })
+  @Test
+  public void purgeReplacedSensorValuesTest() throws Exception {
+    try (Connection conn = getDataSource().getConnection()) {
+      DataSetDataDB.replaceSensorValues(conn, DATASET_ID, makeNewValues(5));
+    }
+
+    // Use a chunk size smaller than the number of values to be purged
+    assertEquals(3,
+      DataSetDataDB.purgeReplacedSensorValues(getDataSource(), 2));
+    assertEquals(0,
+      DataSetDataDB.purgeReplacedSensorValues(getDataSource(), 2));
+
+    try (Connection conn = getDataSource().getConnection()) {
+      assertEquals(5, DataSetDataDB.getRecordCount(conn, DATASET_ID));
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package junit.uk.ac.exeter.QuinCe.data.Dataset.QC.DataReduction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+
+import org.junit.jupiter.api.Test;
+
+import uk.ac.exeter.QuinCe.data.Dataset.Measurement;
+import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.ReadOnlyDataReductionRecord;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.DataReduction.DataReductionQCWindow;
+
+/**
+ * Tests for the {@link DataReductionQCWindow} class.
+ *
+ * @author Steve Jones
+ *
+ */
+public class DataReductionQCWindowTest {
+
+  /**
+   * Create a measurement with a timestamp based on an index.
+   *
+   * @param index
+   *          The index
+   * @return The measurement
+   */
+  private Measurement makeMeasurement(int index) {
+    return new Measurement(1L, LocalDateTime.of(2000, 1, 1, 0, index, 0),
+      new HashMap<Long, String>());
+  }
+
+  /**
+   * Create a data reduction record for a measurement.
+   *
+   * @param index
+   *          The index used to create the measurement
+   * @return The record
+   */
+  private ReadOnlyDataReductionRecord makeRecord(int index) {
+    return ReadOnlyDataReductionRecord.makeRecord(index, 1L,
+      new HashMap<String, Double>(), Flag.ASSUMED_GOOD, null);
+  }
+
+  /**
+   * Test that an empty window is not ready.
+   */
+  @Test
+  public void emptyWindowTest() {
+    DataReductionQCWindow window = new DataReductionQCWindow(2);
+    assertFalse(window.isReady());
+
+    window.finish();
+    assertFalse(window.isReady());
+  }
+
+  /**
+   * Test that a window with no radius is ready as soon as a record is added.
+   */
+  @Test
+  public void zeroRadiusTest() {
+    DataReductionQCWindow window = new DataReductionQCWindow(0);
+
+    Measurement measurement = makeMeasurement(0);
+    ReadOnlyDataReductionRecord record = makeRecord(0);
+    window.add(measurement, record);
+
+    assertTrue(window.isReady());
+    assertEquals(measurement, window.getMeasurement());
+    assertEquals(record, window.getRecord());
+
+    window.advance();
+    assertFalse(window.isReady());
+  }
+
+  /**
+   * Test that a window is only ready once it has enough records after the
+   * current record, and that the neighbouring records are available.
+   */
+  @Test
+  public void slidingWindowTest() {
+    DataReductionQCWindow window = new DataReductionQCWindow(2);
+
+    Measurement[] measurements = new Measurement[6];
+    for (int i = 0; i < measurements.length; i++) {
+      measurements[i] = makeMeasurement(i);
+    }
+
+    window.add(measurements[0], makeRecord(0));
+    window.add(measurements[1], makeRecord(1));
+    assertFalse(window.isReady());
+
+    window.add(measurements[2], makeRecord(2));
+    assertTrue(window.isReady());
+    assertEquals(measurements[0], window.getMeasurement());
+    assertNull(window.getMeasurement(-1));
+    assertEquals(measurements[2], window.getMeasurement(2));
+
+    window.advance();
+    assertFalse(window.isReady());
+
+    window.add(measurements[3], makeRecord(3));
+    window.advance();
+    window.add(measurements[4], makeRecord(4));
+    window.add(measurements[5], makeRecord(5));
+    window.advance();
+
+    // The first record should have been discarded
+    assertTrue(window.isReady());
+    assertEquals(measurements[3], window.getMeasurement());
+    assertEquals(measurements[1], window.getMeasurement(-2));
+    assertNull(window.getMeasurement(-3));
+    assertEquals(measurements[5], window.getMeasurement(2));
+  }
+
+  /**
+   * Test that the records at the end of a window are released when the window
+   * is finished.
+   */
+  @Test
+  public void finishTest() {
+    DataReductionQCWindow window = new DataReductionQCWindow(2);
+
+    for (int i = 0; i < 3; i++) {
+      window.add(makeMeasurement(i), makeRecord(i));
+    }
+
+    int checked = 0;
+    while (window.isReady()) {
+      checked++;
+      window.advance();
+    }
+    assertEquals(1, checked);
+
+    window.finish();
+    while (window.isReady()) {
+      checked++;
+      window.advance();
+    }
+    assertEquals(3, checked);
+  }
+}
@@ -0,0 +1,175 @@
+package junit.uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.flywaydb.test.annotation.FlywayTest;
+import org.junit.jupiter.api.Test;
+
+import junit.uk.ac.exeter.QuinCe.TestBase.BaseTest;
+import uk.ac.exeter.QuinCe.data.Dataset.SensorValue;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.AutoQCEngine;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.AutoQCResult;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.AutoQCRoutine;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.QCRoutinesConfiguration;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorType;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorsConfiguration;
+import uk.ac.exeter.QuinCe.web.system.ResourceManager;
+
+/**
+ * Tests for the {@link AutoQCEngine}.
+ *
+ * <p>
+ * The engine must give exactly the same flags as running each routine's
+ * {@link AutoQCRoutine#qc(List)} in turn, so these tests run both on the same
+ * data and compare the results.
+ * </p>
+ */
+public class AutoQCEngineTest extends BaseTest {
+
+  /**
+   * The sensor type used for the tests
+   */
+  private static final String SENSOR_TYPE = "Intake Temperature";
+
+  /**
+   * Build a QC routines configuration with all the routines for the test
+   * sensor type.
+   *
+   * @return The configuration
+   * @throws Exception
+   *           If the configuration cannot be created
+   */
+  private QCRoutinesConfiguration makeConfig() throws Exception {
+    Path configFile = Files.createTempFile("qc_routines", ".csv");
+    configFile.toFile().deleteOnExit();
+
+    List<String> lines = new ArrayList<String>();
+    lines.add("Class,Sensor Type,Option,Option....");
+    lines.add("ConstantValue," + SENSOR_TYPE + ",5");
+    lines.add("RangeCheck," + SENSOR_TYPE + ",9,11,8,12");
+    lines.add("Outlier," + SENSOR_TYPE + ",2");
+    lines.add("HighDelta," + SENSOR_TYPE + ",4");
+    lines.add("GradientTest," + SENSOR_TYPE + ",2");
+    Files.write(configFile, lines, StandardCharsets.UTF_8);
+
+    initResourceManager();
+    SensorsConfiguration sensorsConfig = ResourceManager.getInstance()
+      .getSensorsConfiguration();
+
+    return new QCRoutinesConfiguration(sensorsConfig, configFile.toString());
+  }
+
+  /**
+   * Make a list of sensor values with missing values, constant periods,
+   * spikes, gradients and irregular times.
+   *
+   * @param seed
+   *          The random seed
+   * @return The sensor values
+   */
+  private List<SensorValue> makeValues(long seed) {
+    Random random = new Random(seed);
+    List<SensorValue> values = new ArrayList<SensorValue>();
+
+    LocalDateTime time = LocalDateTime.of(2020, 1, 1, 0, 0, 0);
+    double value = 10.0;
+
+    for (int i = 0; i < 3000; i++) {
+      time = time.plusSeconds(20 + random.nextInt(60));
+
+      int action = random.nextInt(20);
+      String stringValue;
+
+      if (action == 0) {
+        stringValue = null;
+      } else if (action == 1) {
+        // Spike
+        stringValue = String.valueOf(value + 3);
+      } else if (action < 4) {
+        // Gradient
+        value += random.nextDouble() * 2 - 1;
+        stringValue = String.valueOf(value);
+      } else if (action < 10) {
+        // Constant
+        stringValue = String.valueOf(value);
+      } else {
+        value = 10.0 + (random.nextDouble() - 0.5) * 3;
+        stringValue = String.valueOf(value);
+      }
+
+      values.add(new SensorValue(i + 1, 1L, 1L, time, stringValue,
+        new AutoQCResult(), Flag.ASSUMED_GOOD, null));
+    }
+
+    return values;
+  }
+
+  /**
+   * Check that the engine gives the same flags as running the routines in
+   * turn.
+   *
+   * @throws Exception
+   *           If any errors occur
+   */
+  @FlywayTest
+  @Test
+  public void matchesRoutinesTest() throws Exception {
+    QCRoutinesConfiguration config = makeConfig();
+    SensorType sensorType = ResourceManager.getInstance()
+      .getSensorsConfiguration().getSensorType(SENSOR_TYPE);
+
+    for (long seed = 0; seed < 5; seed++) {
+      List<SensorValue> routineValues = makeValues(seed);
+      for (AutoQCRoutine routine : config.getRoutines(sensorType)) {
+        routine.qc(routineValues);
+      }
+
+      List<SensorValue> engineValues = makeValues(seed);
+      config.getEngine(sensorType).qc(engineValues);
+
+      int flagCount = 0;
+
+      for (int i = 0; i < routineValues.size(); i++) {
+        AutoQCResult expected = routineValues.get(i).getAutoQcResult();
+        flagCount += expected.size();
+        assertEquals(expected.toJson(),
+          engineValues.get(i).getAutoQcResult().toJson(),
+          "Mismatch at value " + i + " for seed " + seed);
+      }
+
+      // Make sure the test data actually triggers the routines
+      assertTrue(flagCount > 0);
+    }
+  }
+
+  /**
+   * Check that the engine for a sensor type with no routines does nothing.
+   *
+   * @throws Exception
+   *           If any errors occur
+   */
+  @FlywayTest
+  @Test
+  public void noRoutinesTest() throws Exception {
+    QCRoutinesConfiguration config = makeConfig();
+    SensorType sensorType = ResourceManager.getInstance()
+      .getSensorsConfiguration().getSensorType("Salinity");
+
+    List<SensorValue> values = makeValues(0);
+    config.getEngine(sensorType).qc(values);
+
+    for (SensorValue value : values) {
+      assertEquals(0, value.getAutoQcResult().size());
+    }
+  }
+}
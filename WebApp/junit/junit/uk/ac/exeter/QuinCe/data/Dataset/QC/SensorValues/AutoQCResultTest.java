@@ -0,0 +1,88 @@
+package junit.uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.Test;
+
+import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.RoutineFlag;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.AutoQCResult;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.ConstantValueRoutine;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.HighDeltaRoutine;
+
+/**
+ * Tests for the {@link AutoQCResult} class and the JSON representation of
+ * {@link RoutineFlag}s.
+ */
+public class AutoQCResultTest {
+
+  /**
+   * JSON in the format written by earlier versions of {@link RoutineFlag}
+   */
+  private static final String STORED_JSON = "[{\"routineName\":"
+    + "\"SensorValues.RangeCheck\",\"requiredValue\":\"8.0:12.0\","
+    + "\"actualValue\":\"13.5\",\"flagValue\":4},"
+    + "{\"routineName\":\"SensorValues.ConstantValue\","
+    + "\"requiredValue\":\"5.0\",\"actualValue\":\"12\",\"flagValue\":3}]";
+
+  @Test
+  public void emptyResultTest() {
+    AutoQCResult result = AutoQCResult.buildFromJson(null);
+    assertEquals(0, result.size());
+    assertNull(result.toJson());
+    assertEquals(Flag.GOOD, result.getOverallFlag());
+  }
+
+  @Test
+  public void storedJsonTest() throws Exception {
+    AutoQCResult result = AutoQCResult.buildFromJson(STORED_JSON);
+
+    assertEquals(2, result.size());
+    assertEquals(Flag.BAD, result.getOverallFlag());
+    assertEquals("SensorValues.RangeCheck", result.get(0).getRoutineName());
+    assertEquals("Out of range - Should be in 8.0:12.0, actual value is 13.5",
+      result.get(0).getLongMessage());
+    assertEquals("12", result.get(1).getActualValue());
+    assertEquals(STORED_JSON, result.toJson());
+  }
+
+  @Test
+  public void numericValuesTest() throws Exception {
+    AutoQCResult result = new AutoQCResult();
+    result.add(new RoutineFlag(new HighDeltaRoutine(), Flag.BAD, 4.0, 5.25));
+    result.add(
+      new RoutineFlag(new ConstantValueRoutine(), Flag.BAD, 5.0, 12L));
+
+    assertEquals("4.0", result.get(0).getRequiredValue());
+    assertEquals("5.25", result.get(0).getActualValue());
+    assertEquals("Changes too quickly - 5.25/min, limit is 4.0/min",
+      result.get(0).getLongMessage());
+    assertEquals("12", result.get(1).getActualValue());
+    assertEquals(
+      new HashSet<String>(
+        Arrays.asList("Changes too quickly", "Constant for too long")),
+      result.getAllMessagesSet());
+
+    String json = result.toJson();
+    assertEquals("[{\"routineName\":\"SensorValues.HighDelta\","
+      + "\"requiredValue\":\"4.0\",\"actualValue\":\"5.25\",\"flagValue\":4},"
+      + "{\"routineName\":\"SensorValues.ConstantValue\","
+      + "\"requiredValue\":\"5.0\",\"actualValue\":\"12\",\"flagValue\":4}]",
+      json);
+    assertEquals(json, AutoQCResult.buildFromJson(json).toJson());
+  }
+
+  @Test
+  public void routineIdTest() {
+    byte rangeCheck = RoutineFlag.getRoutineId("SensorValues.RangeCheck");
+    assertEquals(rangeCheck,
+      RoutineFlag.getRoutineId(new String("SensorValues.RangeCheck")));
+    assertNotEquals(rangeCheck,
+      RoutineFlag.getRoutineId("SensorValues.HighDelta"));
+  }
+}
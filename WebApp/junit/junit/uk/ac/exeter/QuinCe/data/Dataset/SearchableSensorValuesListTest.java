@@ -222,6 +222,108 @@ public class SearchableSensorValuesListTest extends BaseTest {
 
   }
 
+  private SearchableSensorValuesList interpolationTestList() {
+    SearchableSensorValuesList list = new SearchableSensorValuesList(1);
+
+    list.add(makeSensorValue(1, 20));
+    list.add(makeSensorValue(2, 25, Flag.NO_QC, false));
+    list.add(makeSensorValue(3, 30, Flag.QUESTIONABLE, true));
+    list.add(makeSensorValue(4, 35, Flag.NO_QC, false));
+    list.add(makeSensorValue(5, 40));
+
+    return list;
+  }
+
+  /**
+   * Check that the prior and post values from an interpolation search have
+   * the expected IDs.
+   *
+   * @param searchResult
+   *          The search result
+   * @param priorId
+   *          The expected prior ID, or -1 if there should be no prior value
+   * @param postId
+   *          The expected post ID, or -1 if there should be no post value
+   */
+  private void checkPriorPost(List<SensorValue> searchResult, long priorId,
+    long postId) {
+
+    assertEquals(2, searchResult.size());
+    assertEquals(priorId,
+      null == searchResult.get(0) ? -1 : searchResult.get(0).getId());
+    assertEquals(postId,
+      null == searchResult.get(1) ? -1 : searchResult.get(1).getId());
+  }
+
+  /**
+   * Test that an exact time match returns the value at that time
+   */
+  @Test
+  public void interpolationExactMatchTest() {
+    SearchableSensorValuesList list = interpolationTestList();
+    assertTrue(checkSearchResultIds(
+      list.getWithInterpolation(makeTime(25), true), new long[] { 2 }));
+  }
+
+  /**
+   * Test that a search between values finds the closest values either side
+   * that have usable flags
+   */
+  @Test
+  public void interpolationPriorPostTest() {
+    SearchableSensorValuesList list = interpolationTestList();
+    checkPriorPost(list.getWithInterpolation(makeTime(32), true), 3, 5);
+    checkPriorPost(list.getWithInterpolation(makeTime(27), true), 1, 3);
+  }
+
+  /**
+   * Test that a search outside the range of the list returns only the
+   * closest value
+   */
+  @Test
+  public void interpolationOutsideRangeTest() {
+    SearchableSensorValuesList list = interpolationTestList();
+    checkPriorPost(list.getWithInterpolation(makeTime(10), true), -1, 1);
+    checkPriorPost(list.getWithInterpolation(makeTime(50), true), 5, -1);
+  }
+
+  /**
+   * Test that changing the flags on values after a search is reflected in
+   * later searches
+   */
+  @Test
+  public void interpolationFlagChangedTest() {
+    SearchableSensorValuesList list = interpolationTestList();
+    checkPriorPost(list.getWithInterpolation(makeTime(32), true), 3, 5);
+
+    list.get(3).setUserQC(Flag.GOOD, "Good");
+    checkPriorPost(list.getWithInterpolation(makeTime(32), true), 3, 4);
+
+    list.get(2).setUserQC(Flag.NO_QC, "None");
+    checkPriorPost(list.getWithInterpolation(makeTime(32), true), 1, 4);
+
+    list.get(0).setUserQC(Flag.NO_QC, "None");
+    list.get(1).setUserQC(Flag.BAD, "Bad");
+    checkPriorPost(list.getWithInterpolation(makeTime(32), true), 2, 4);
+
+    list.get(3).setUserQC(Flag.NO_QC, "None");
+    list.get(4).setUserQC(Flag.NO_QC, "None");
+    checkPriorPost(list.getWithInterpolation(makeTime(32), true), 2, -1);
+  }
+
+  /**
+   * Test that adding values after a search is reflected in later searches
+   */
+  @Test
+  public void interpolationValueAddedTest() {
+    SearchableSensorValuesList list = interpolationTestList();
+    checkPriorPost(list.getWithInterpolation(makeTime(50), true), 5, -1);
+
+    list.add(makeSensorValue(6, 45, Flag.NO_QC, false));
+    list.add(makeSensorValue(7, 55));
+    checkPriorPost(list.getWithInterpolation(makeTime(50), true), 5, 7);
+  }
+
   private SensorValue mockSensorValueWithColumnId(long columnId) {
     SensorValue value = Mockito.mock(SensorValue.class);
     Mockito.when(value.getColumnId()).thenReturn(4L);
@@ -0,0 +1,151 @@
+package junit.uk.ac.exeter.QuinCe.data.Dataset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import junit.uk.ac.exeter.QuinCe.TestBase.BaseTest;
+import uk.ac.exeter.QuinCe.data.Dataset.DatasetSensorValues;
+import uk.ac.exeter.QuinCe.data.Dataset.SearchableSensorValuesList;
+import uk.ac.exeter.QuinCe.data.Dataset.SensorValue;
+import uk.ac.exeter.QuinCe.data.Dataset.SensorValuesCursor;
+import uk.ac.exeter.QuinCe.data.Dataset.SensorValuesCursors;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.AutoQCResult;
+
+/**
+ * Tests for {@link SensorValuesCursor}. The cursor's results are checked
+ * against the equivalent lookups in {@link SearchableSensorValuesList}.
+ */
+public class SensorValuesCursorTest extends BaseTest {
+
+  private SearchableSensorValuesList makeList() {
+    SearchableSensorValuesList list = new SearchableSensorValuesList(1);
+
+    list.add(makeSensorValue(1, 20, Flag.GOOD));
+    list.add(makeSensorValue(2, 25, Flag.NO_QC));
+    list.add(makeSensorValue(3, 30, Flag.FLUSHING));
+    list.add(makeSensorValue(4, 35, Flag.BAD));
+    list.add(makeSensorValue(5, 40, Flag.GOOD));
+
+    return list;
+  }
+
+  private SensorValue makeSensorValue(long id, int minute, Flag flag) {
+    AutoQCResult autoQC = Mockito.mock(AutoQCResult.class);
+    Mockito.when(autoQC.getOverallFlag()).thenReturn(Flag.GOOD);
+
+    return new SensorValue(id, 1, 1, makeTime(minute), "29.111", autoQC, flag,
+      "Dummy");
+  }
+
+  private LocalDateTime makeTime(int minute) {
+    return LocalDateTime.of(2020, 12, 3, 0, minute, 0);
+  }
+
+  private void checkMatchesList(SearchableSensorValuesList list,
+    SensorValuesCursor cursor, int minute) {
+
+    LocalDateTime time = makeTime(minute);
+    assertEquals(list.get(time), cursor.get(time));
+    assertEquals(list.getWithInterpolation(time, true),
+      cursor.getWithInterpolation(time, true));
+    assertEquals(list.getWithInterpolation(time, false),
+      cursor.getWithInterpolation(time, false));
+  }
+
+  /**
+   * Test lookups at increasing times, including exact matches, times between
+   * values and times outside the list
+   */
+  @Test
+  public void forwardLookupsTest() {
+    SearchableSensorValuesList list = makeList();
+    SensorValuesCursor cursor = list.cursor();
+
+    for (int minute = 10; minute <= 50; minute++) {
+      checkMatchesList(list, cursor, minute);
+    }
+  }
+
+  /**
+   * Test that repeated lookups at the same time give the same result
+   */
+  @Test
+  public void repeatedLookupTest() {
+    SearchableSensorValuesList list = makeList();
+    SensorValuesCursor cursor = list.cursor();
+
+    checkMatchesList(list, cursor, 25);
+    checkMatchesList(list, cursor, 25);
+    checkMatchesList(list, cursor, 32);
+    checkMatchesList(list, cursor, 32);
+  }
+
+  /**
+   * Test that lookups still work if the cursor is moved backwards
+   */
+  @Test
+  public void backwardLookupsTest() {
+    SearchableSensorValuesList list = makeList();
+    SensorValuesCursor cursor = list.cursor();
+
+    for (int minute = 50; minute >= 10; minute--) {
+      checkMatchesList(list, cursor, minute);
+    }
+  }
+
+  /**
+   * Test that the cursor sees values added to the list after it was created
+   */
+  @Test
+  public void listModifiedTest() {
+    SearchableSensorValuesList list = makeList();
+    SensorValuesCursor cursor = list.cursor();
+
+    assertNull(cursor.get(makeTime(45)));
+
+    list.add(makeSensorValue(6, 45, Flag.GOOD));
+    assertEquals(6, cursor.get(makeTime(45)).getId());
+    checkMatchesList(list, cursor, 50);
+  }
+
+  /**
+   * Test that a FLUSHING value is not returned
+   */
+  @Test
+  public void flushingValueTest() {
+    SearchableSensorValuesList list = makeList();
+    SensorValuesCursor cursor = list.cursor();
+
+    assertNull(cursor.get(makeTime(30)));
+    assertEquals(0, cursor.getWithInterpolation(makeTime(30), true).size());
+  }
+
+  /**
+   * Test that a set of cursors keeps one cursor for each column, and that
+   * separate sets do not share cursors
+   */
+  @Test
+  public void cursorsTest() {
+    SearchableSensorValuesList list = makeList();
+    DatasetSensorValues sensorValues = Mockito.mock(DatasetSensorValues.class);
+    Mockito.when(sensorValues.containsColumn(1L)).thenReturn(true);
+    Mockito.when(sensorValues.getColumnValues(1L)).thenReturn(list);
+
+    SensorValuesCursors cursors = new SensorValuesCursors(sensorValues);
+    SensorValuesCursor cursor = cursors.get(1L);
+    assertSame(cursor, cursors.get(1L));
+    assertNull(cursors.get(2L));
+
+    SensorValuesCursors otherCursors = new SensorValuesCursors(sensorValues);
+    assertNotSame(cursor, otherCursors.get(1L));
+    checkMatchesList(list, otherCursors.get(1L), 35);
+  }
+}
@@ -0,0 +1,149 @@
+package junit.uk.ac.exeter.QuinCe.data.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import uk.ac.exeter.QuinCe.data.Files.DataFile;
+import uk.ac.exeter.QuinCe.data.Instrument.FileDefinition;
+import uk.ac.exeter.QuinCe.data.Instrument.DataFormats.DateTimeSpecification;
+import uk.ac.exeter.QuinCe.data.Instrument.DataFormats.LatitudeSpecification;
+import uk.ac.exeter.QuinCe.data.Instrument.DataFormats.LongitudeSpecification;
+
+/**
+ * Tests for searching the lines of a {@link DataFile} by time.
+ *
+ * @author Steve Jones
+ *
+ */
+public class DataFileTest {
+
+  /**
+   * The format of the times in the test files
+   */
+  private static final String TIME_FORMAT = "yyyy-MM-dd HH:mm:ss";
+
+  /**
+   * Make a data file with no header whose lines have the specified times.
+   * Each line contains the time followed by a position. A {@code null} time
+   * creates a line whose time cannot be read.
+   *
+   * @param times
+   *          The line times in seconds since the epoch
+   * @return The data file
+   * @throws Exception
+   *           If the file cannot be created
+   */
+  private DataFile makeFile(Long... times) throws Exception {
+    DateTimeSpecification dateTimeSpec = new DateTimeSpecification(false);
+    dateTimeSpec.assign(DateTimeSpecification.DATE_TIME, 0, TIME_FORMAT);
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(TIME_FORMAT);
+
+    FileDefinition fileDefinition = new FileDefinition(1L, "Test", ",",
+      FileDefinition.HEADER_TYPE_LINE_COUNT, 0, null, 0, 3,
+      new LongitudeSpecification(LongitudeSpecification.FORMAT_MINUS180_180,
+        1, -1),
+      new LatitudeSpecification(LatitudeSpecification.FORMAT_MINUS90_90, 2,
+        -1),
+      dateTimeSpec, null);
+
+    String[] lines = new String[times.length];
+    for (int i = 0; i < times.length; i++) {
+      lines[i] = (null == times[i] ? "Not a time"
+        : time(times[i]).format(formatter)) + ",1,2";
+    }
+
+    return new DataFile(null, fileDefinition, "test.csv",
+      Arrays.asList(lines));
+  }
+
+  /**
+   * Get the time for a number of seconds since the epoch.
+   *
+   * @param seconds
+   *          The seconds
+   * @return The time
+   */
+  private LocalDateTime time(long seconds) {
+    return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+  }
+
+  @Test
+  public void findFirstLineTest() throws Exception {
+    DataFile file = makeFile(100L, 200L, 200L, 300L, 400L);
+    assertTrue(file.hasMonotonicTimes());
+
+    assertEquals(0, file.findFirstLine(time(100)));
+    assertEquals(1, file.findFirstLine(time(150)));
+    assertEquals(1, file.findFirstLine(time(200)));
+    assertEquals(3, file.findFirstLine(time(201)));
+    assertEquals(4, file.findFirstLine(time(400)));
+  }
+
+  @Test
+  public void allBeforeTest() throws Exception {
+    DataFile file = makeFile(100L, 200L, 300L);
+    assertEquals(file.getContentLineCount(), file.findFirstLine(time(301)));
+  }
+
+  @Test
+  public void allAfterTest() throws Exception {
+    DataFile file = makeFile(100L, 200L, 300L);
+    assertEquals(0, file.findFirstLine(time(50)));
+  }
+
+  @Test
+  public void unreadableTimesTest() throws Exception {
+    DataFile file = makeFile(null, 100L, null, null, 300L, 400L, null);
+    assertTrue(file.hasMonotonicTimes());
+
+    // Lines without a readable time are never returned
+    assertEquals(1, file.findFirstLine(time(50)));
+    assertEquals(1, file.findFirstLine(time(100)));
+    assertEquals(4, file.findFirstLine(time(200)));
+    assertEquals(5, file.findFirstLine(time(301)));
+    assertEquals(file.getContentLineCount(), file.findFirstLine(time(401)));
+  }
+
+  @Test
+  public void allUnreadableTest() throws Exception {
+    DataFile file = makeFile(null, null, null);
+    assertEquals(file.getContentLineCount(), file.findFirstLine(time(100)));
+  }
+
+  @Test
+  public void nonMonotonicTest() throws Exception {
+    DataFile file = makeFile(100L, 500L, 200L, 300L, 50L);
+    assertFalse(file.hasMonotonicTimes());
+
+    // The first line in file order at or after the time is found, even
+    // though a binary search would miss it
+    assertEquals(1, file.findFirstLine(time(250)));
+    assertEquals(0, file.findFirstLine(time(100)));
+    assertEquals(file.getContentLineCount(), file.findFirstLine(time(501)));
+  }
+
+  @Test
+  public void monotonicNotRecordedTest() throws Exception {
+    DataFile file = makeFile(100L, 200L, 300L, 400L);
+
+    // Files stored before the monotonic flag was recorded are scanned
+    file.getProperties().remove(DataFile.MONOTONIC_TIMES_PROP);
+    assertFalse(file.hasMonotonicTimes());
+    assertEquals(2, file.findFirstLine(time(250)));
+  }
+
+  @Test
+  public void backwardsStepTest() throws Exception {
+    DataFile file = makeFile(100L, 200L, 300L, 250L, 400L);
+    assertFalse(file.hasMonotonicTimes());
+    assertEquals(2, file.findFirstLine(time(250)));
+  }
+}
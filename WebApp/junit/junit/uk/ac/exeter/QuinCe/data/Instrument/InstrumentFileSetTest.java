@@ -0,0 +1,144 @@
+package junit.uk.ac.exeter.QuinCe.data.Instrument;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import uk.ac.exeter.QuinCe.data.Instrument.FileDefinition;
+import uk.ac.exeter.QuinCe.data.Instrument.InstrumentFileSet;
+import uk.ac.exeter.QuinCe.data.Instrument.DataFormats.DateTimeSpecification;
+import uk.ac.exeter.QuinCe.data.Instrument.DataFormats.LatitudeSpecification;
+import uk.ac.exeter.QuinCe.data.Instrument.DataFormats.LongitudeSpecification;
+
+/**
+ * Tests for matching file contents to the definitions in an
+ * {@link InstrumentFileSet}.
+ *
+ * @author Steve Jones
+ *
+ */
+public class InstrumentFileSetTest {
+
+  /**
+   * A line with three columns whether it is split on commas or semicolons
+   */
+  private static final String BOTH_LINE = "1,2;3,4;5";
+
+  /**
+   * A line with three columns if it is split on semicolons, but only one if
+   * it is split on commas
+   */
+  private static final String SEMICOLON_LINE = "1;2;3";
+
+  /**
+   * Make a file definition with no header.
+   *
+   * @param description
+   *          The file description
+   * @param separator
+   *          The column separator
+   * @return The file definition
+   */
+  private FileDefinition makeDefinition(String description, String separator) {
+    return new FileDefinition(1L, description, separator,
+      FileDefinition.HEADER_TYPE_LINE_COUNT, 0, null, 0, 3,
+      new LongitudeSpecification(), new LatitudeSpecification(),
+      new DateTimeSpecification(false), null);
+  }
+
+  /**
+   * Make a file set containing the specified definitions in order.
+   *
+   * @param definitions
+   *          The definitions
+   * @return The file set
+   */
+  private InstrumentFileSet makeFileSet(FileDefinition... definitions) {
+    InstrumentFileSet fileSet = new InstrumentFileSet() {
+      private static final long serialVersionUID = 1L;
+    };
+
+    for (FileDefinition definition : definitions) {
+      fileSet.add(definition);
+    }
+
+    return fileSet;
+  }
+
+  /**
+   * Make the lines of a file.
+   *
+   * @param bothLines
+   *          The number of {@link #BOTH_LINE}s at the start of the file
+   * @param semicolonLines
+   *          The number of {@link #SEMICOLON_LINE}s at the end of the file
+   * @return The file lines
+   */
+  private List<String> makeLines(int bothLines, int semicolonLines) {
+    List<String> lines = new ArrayList<String>();
+
+    for (int i = 0; i < bothLines; i++) {
+      lines.add(BOTH_LINE);
+    }
+
+    for (int i = 0; i < semicolonLines; i++) {
+      lines.add(SEMICOLON_LINE);
+    }
+
+    return lines;
+  }
+
+  @Test
+  public void firstMatchTest() {
+    FileDefinition comma = makeDefinition("Comma", ",");
+    FileDefinition semicolon = makeDefinition("Semicolon", ";");
+    List<String> lines = makeLines(20, 0);
+
+    assertSame(comma,
+      makeFileSet(comma, semicolon).getMatchingFileDefinition(lines));
+    assertSame(semicolon,
+      makeFileSet(semicolon, comma).getMatchingFileDefinition(lines));
+  }
+
+  @Test
+  public void orderKeptOverSampleTest() {
+    FileDefinition comma = makeDefinition("Comma", ",");
+    FileDefinition semicolon = makeDefinition("Semicolon", ";");
+
+    // Most of the end of the file only fits the semicolon definition, but
+    // enough of the whole file fits the comma definition for it to match
+    List<String> lines = makeLines(41, 9);
+    assertTrue(comma.fileMatches(lines));
+    assertTrue(semicolon.fileMatches(lines));
+
+    assertSame(comma,
+      makeFileSet(comma, semicolon).getMatchingFileDefinition(lines));
+  }
+
+  @Test
+  public void sampleSkipTest() {
+    FileDefinition comma = makeDefinition("Comma", ",");
+    FileDefinition semicolon = makeDefinition("Semicolon", ";");
+
+    // None of the end of the file fits the comma definition
+    List<String> lines = makeLines(30, 20);
+    assertFalse(comma.sampleMatches(lines.subList(40, 50)));
+    assertFalse(comma.fileMatches(lines));
+
+    assertSame(semicolon,
+      makeFileSet(comma, semicolon).getMatchingFileDefinition(lines));
+  }
+
+  @Test
+  public void noMatchTest() {
+    FileDefinition comma = makeDefinition("Comma", ",");
+    List<String> lines = makeLines(10, 40);
+    assertNull(makeFileSet(comma).getMatchingFileDefinition(lines));
+  }
+}
@@ -0,0 +1,67 @@
+package junit.uk.ac.exeter.QuinCe.data.Instrument.RunTypes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import uk.ac.exeter.QuinCe.data.Instrument.RunTypes.RunTypeDictionary;
+
+/**
+ * Tests for the {@link RunTypeDictionary} class.
+ *
+ * @author Steve Jones
+ *
+ */
+public class RunTypeDictionaryTest {
+
+  @Test
+  public void emptyTest() {
+    RunTypeDictionary dictionary = new RunTypeDictionary();
+    assertEquals(0, dictionary.size());
+  }
+
+  @Test
+  public void nullRunTypeTest() {
+    RunTypeDictionary dictionary = new RunTypeDictionary();
+    assertEquals(RunTypeDictionary.NO_RUN_TYPE, dictionary.getCode(null));
+    assertNull(dictionary.getRunType(RunTypeDictionary.NO_RUN_TYPE));
+    assertEquals(0, dictionary.size());
+  }
+
+  @Test
+  public void sequentialCodesTest() {
+    RunTypeDictionary dictionary = new RunTypeDictionary();
+    assertEquals(0, dictionary.getCode("std1"));
+    assertEquals(1, dictionary.getCode("std2"));
+    assertEquals(2, dictionary.getCode("equ"));
+    assertEquals(3, dictionary.size());
+  }
+
+  @Test
+  public void repeatedRunTypeTest() {
+    RunTypeDictionary dictionary = new RunTypeDictionary();
+    int code = dictionary.getCode("std1");
+    dictionary.getCode("std2");
+
+    // A new String instance must give the same code
+    assertEquals(code, dictionary.getCode(new String("std1")));
+    assertEquals(2, dictionary.size());
+  }
+
+  @Test
+  public void caseSensitiveTest() {
+    RunTypeDictionary dictionary = new RunTypeDictionary();
+    assertNotEquals(dictionary.getCode("std1"), dictionary.getCode("STD1"));
+  }
+
+  @Test
+  public void roundTripTest() {
+    RunTypeDictionary dictionary = new RunTypeDictionary();
+    String[] runTypes = { "equ", "atm", "std1", "std2" };
+    for (String runType : runTypes) {
+      assertEquals(runType, dictionary.getRunType(dictionary.getCode(runType)));
+    }
+  }
+}
@@ -741,4 +741,46 @@ public class DatabaseUtilsTest extends BaseTest {
 
     assertEquals(output, DatabaseUtils.makeInStatementSql(input, 3, 4));
   }
+
+  /**
+   * Test {@link DatabaseUtils#makeMultiRowInsertSql(String, String, int)} with
+   * a single row.
+   *
+   * @throws Exception
+   *           If any internal errors are encountered.
+   */
+  @Test
+  public void makeMultiRowInsertSqlOneRowTest() throws Exception {
+    String output = "INSERT INTO table (a, b) VALUES (?, ?)";
+
+    assertEquals(output, DatabaseUtils
+      .makeMultiRowInsertSql("INSERT INTO table (a, b) VALUES ", "(?, ?)", 1));
+  }
+
+  /**
+   * Test {@link DatabaseUtils#makeMultiRowInsertSql(String, String, int)} with
+   * multiple rows.
+   *
+   * @throws Exception
+   *           If any internal errors are encountered.
+   */
+  @Test
+  public void makeMultiRowInsertSqlThreeRowsTest() throws Exception {
+    String output = "INSERT INTO table (a, b) VALUES (?, ?),(?, ?),(?, ?)";
+
+    assertEquals(output, DatabaseUtils
+      .makeMultiRowInsertSql("INSERT INTO table (a, b) VALUES ", "(?, ?)", 3));
+  }
+
+  /**
+   * Test that {@link DatabaseUtils#makeMultiRowInsertSql(String, String, int)}
+   * rejects a zero row count.
+   */
+  @Test
+  public void makeMultiRowInsertSqlZeroRowsTest() {
+    assertThrows(MissingParamException.class, () -> {
+      DatabaseUtils.makeMultiRowInsertSql("INSERT INTO table (a) VALUES ",
+        "(?)", 0);
+    });
+  }
 }
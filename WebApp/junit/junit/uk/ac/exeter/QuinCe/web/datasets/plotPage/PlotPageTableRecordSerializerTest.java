@@ -0,0 +1,79 @@
+package junit.uk.ac.exeter.QuinCe.web.datasets.plotPage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
+import uk.ac.exeter.QuinCe.web.datasets.plotPage.NullPlotPageTableValue;
+import uk.ac.exeter.QuinCe.web.datasets.plotPage.PlotPageTableRecord;
+import uk.ac.exeter.QuinCe.web.datasets.plotPage.PlotPageTableRecordSerializer;
+
+/**
+ * Tests for {@link PlotPageTableRecordSerializer}.
+ */
+public class PlotPageTableRecordSerializerTest {
+
+  private static final Gson GSON = new GsonBuilder()
+    .registerTypeAdapter(PlotPageTableRecord.class,
+      new PlotPageTableRecordSerializer())
+    .create();
+
+  @Test
+  public void emptyRecordTest() {
+    assertEquals("{\"DT_RowId\":5}", GSON.toJson(new PlotPageTableRecord(5L)));
+  }
+
+  @Test
+  public void valueColumnTest() {
+    PlotPageTableRecord record = new PlotPageTableRecord(5L);
+    record.addColumn("12.5", Flag.BAD, "Out of range", true, 'S');
+
+    assertEquals("{\"DT_RowId\":5,\"0\":{\"value\":\"12.500\",\"qcFlag\":4,"
+      + "\"qcMessage\":\"Out of range\",\"flagNeeded\":true,\"type\":\"S\"}}",
+      GSON.toJson(record));
+  }
+
+  @Test
+  public void nullFieldsOmittedTest() {
+    PlotPageTableRecord record = new PlotPageTableRecord(5L);
+    record.addColumn("1", Flag.GOOD, null, false, 'D');
+
+    assertEquals("{\"DT_RowId\":5,\"0\":{\"value\":\"1.000\",\"qcFlag\":2,"
+      + "\"flagNeeded\":false,\"type\":\"D\"}}", GSON.toJson(record));
+  }
+
+  @Test
+  public void nullValueTest() {
+    PlotPageTableRecord record = new PlotPageTableRecord(5L);
+    record.addColumn(new NullPlotPageTableValue());
+
+    assertEquals("{\"DT_RowId\":5,\"0\":{}}", GSON.toJson(record));
+  }
+
+  @Test
+  public void recordListTest() {
+    List<PlotPageTableRecord> records = new ArrayList<PlotPageTableRecord>();
+
+    PlotPageTableRecord record1 = new PlotPageTableRecord(1L);
+    record1.addBlankColumn('S');
+    records.add(record1);
+
+    PlotPageTableRecord record2 = new PlotPageTableRecord(2L);
+    record2.addColumn("3", Flag.QUESTIONABLE, "Check", false, 'S');
+    record2.addColumn(new NullPlotPageTableValue());
+    records.add(record2);
+
+    assertEquals("[{\"DT_RowId\":1,\"0\":{\"value\":\"\",\"qcFlag\":2,"
+      + "\"flagNeeded\":false,\"type\":\"S\"}},"
+      + "{\"DT_RowId\":2,\"0\":{\"value\":\"3.000\",\"qcFlag\":3,"
+      + "\"qcMessage\":\"Check\",\"flagNeeded\":false,\"type\":\"S\"},"
+      + "\"1\":{}}]", GSON.toJson(records));
+  }
+}
@@ -0,0 +1,185 @@
+package junit.uk.ac.exeter.QuinCe.web.datasets.plotPage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import uk.ac.exeter.QuinCe.web.datasets.plotPage.TablePageCache;
+
+/**
+ * Tests for {@link TablePageCache}.
+ */
+public class TablePageCacheTest {
+
+  @Test
+  public void putGetTest() {
+    TablePageCache cache = new TablePageCache(2);
+    cache.put(cache.getGeneration(), 0, 10, "page1");
+    assertEquals("page1", cache.get(0, 10));
+    assertNull(cache.get(0, 20));
+    assertNull(cache.get(10, 10));
+  }
+
+  @Test
+  public void leastRecentlyUsedRemovedTest() {
+    TablePageCache cache = new TablePageCache(2);
+    cache.put(cache.getGeneration(), 0, 10, "page1");
+    cache.put(cache.getGeneration(), 10, 10, "page2");
+
+    // Use the first page so the second is the least recently used
+    cache.get(0, 10);
+    cache.put(cache.getGeneration(), 20, 10, "page3");
+
+    assertEquals("page1", cache.get(0, 10));
+    assertNull(cache.get(10, 10));
+    assertEquals("page3", cache.get(20, 10));
+  }
+
+  @Test
+  public void clearTest() {
+    TablePageCache cache = new TablePageCache(2);
+    cache.put(cache.getGeneration(), 0, 10, "page1");
+    cache.clear();
+    assertNull(cache.get(0, 10));
+  }
+
+  @Test
+  public void stalePageIgnoredTest() {
+    TablePageCache cache = new TablePageCache(2);
+    int generation = cache.getGeneration();
+    cache.clear();
+    cache.put(generation, 0, 10, "page1");
+    assertNull(cache.get(0, 10));
+  }
+
+  @Test
+  public void prefetchTest() throws Exception {
+    TablePageCache cache = new TablePageCache(2);
+    CountDownLatch latch = new CountDownLatch(1);
+
+    cache.prefetch(10, 10, (start, length) -> {
+      latch.countDown();
+      return start + "-" + length;
+    });
+
+    latch.await(5, TimeUnit.SECONDS);
+    assertEquals("10-10", waitForPage(cache, 10, 10));
+  }
+
+  @Test
+  public void prefetchFailureTest() throws Exception {
+    TablePageCache cache = new TablePageCache(2);
+    CountDownLatch latch = new CountDownLatch(1);
+
+    cache.prefetch(10, 10, (start, length) -> {
+      latch.countDown();
+      throw new IllegalStateException("Test prefetch failure");
+    });
+
+    latch.await(5, TimeUnit.SECONDS);
+
+    // The failed page is not stored, and can be requested again once the
+    // failure has been handled
+    String page = null;
+    for (int i = 0; i < 50 && null == page; i++) {
+      cache.prefetch(10, 10, (start, length) -> start + "-" + length);
+      page = waitForPage(cache, 10, 10, 1);
+    }
+
+    assertEquals("10-10", page);
+  }
+
+  @Test
+  public void clearedPrefetchSkippedTest() throws Exception {
+    TablePageCache cache = new TablePageCache(5);
+    CountDownLatch started = new CountDownLatch(2);
+    CountDownLatch release = new CountDownLatch(1);
+
+    // Occupy all the prefetch threads
+    for (int i = 0; i < 2; i++) {
+      cache.prefetch(i * 10, 10, (start, length) -> {
+        started.countDown();
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return start + "-" + length;
+      });
+    }
+
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    // This page is queued, and the data changes before it is generated
+    AtomicBoolean generated = new AtomicBoolean(false);
+    cache.prefetch(20, 10, (start, length) -> {
+      generated.set(true);
+      return start + "-" + length;
+    });
+
+    cache.clear();
+    release.countDown();
+
+    // Wait for a page requested after the change, which is queued behind the
+    // skipped page
+    cache.prefetch(30, 10, (start, length) -> start + "-" + length);
+    assertEquals("30-10", waitForPage(cache, 30, 10));
+    Thread.sleep(200);
+
+    assertFalse(generated.get());
+    assertNull(cache.get(20, 10));
+  }
+
+  /**
+   * Wait for a page generated in the background to be stored in the cache.
+   *
+   * @param cache
+   *          The cache
+   * @param start
+   *          The first row of the page
+   * @param length
+   *          The number of rows in the page
+   * @return The page, or {@code null} if it is not stored within 5 seconds
+   * @throws InterruptedException
+   *           If the wait is interrupted
+   */
+  private String waitForPage(TablePageCache cache, int start, int length)
+    throws InterruptedException {
+    return waitForPage(cache, start, length, 50);
+  }
+
+  /**
+   * Wait for a page generated in the background to be stored in the cache,
+   * checking a limited number of times.
+   *
+   * @param cache
+   *          The cache
+   * @param start
+   *          The first row of the page
+   * @param length
+   *          The number of rows in the page
+   * @param checks
+   *          The number of times to check, 100ms apart
+   * @return The page, or {@code null} if it is not stored in time
+   * @throws InterruptedException
+   *           If the wait is interrupted
+   */
+  private String waitForPage(TablePageCache cache, int start, int length,
+    int checks) throws InterruptedException {
+
+    String page = null;
+    for (int i = 0; i < checks && null == page; i++) {
+      Thread.sleep(100);
+      page = cache.get(start, length);
+    }
+
+    return page;
+  }
+}
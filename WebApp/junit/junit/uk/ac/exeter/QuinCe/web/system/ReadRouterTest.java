@@ -0,0 +1,116 @@
+package junit.uk.ac.exeter.QuinCe.web.system;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.test.annotation.FlywayTest;
+import org.junit.jupiter.api.Test;
+
+import junit.uk.ac.exeter.QuinCe.TestBase.BaseTest;
+import uk.ac.exeter.QuinCe.data.Dataset.DataSet;
+import uk.ac.exeter.QuinCe.data.Dataset.DataSetDB;
+import uk.ac.exeter.QuinCe.jobs.JobMetricsDataSource;
+import uk.ac.exeter.QuinCe.web.system.ReadRouter;
+
+/**
+ * Tests for the {@link ReadRouter} class.
+ *
+ * <p>
+ * The test database stands in for both the main database and the replica, so
+ * the replica is always up to date unless a test changes the dataset.
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public class ReadRouterTest extends BaseTest {
+
+  /**
+   * The ID of the dataset used in the tests
+   */
+  private static final long DATASET_ID = 1001L;
+
+  /**
+   * Make a separate data source for the replica, so it can be distinguished
+   * from the main database.
+   *
+   * @return The replica data source
+   */
+  private DataSource makeReplica() {
+    return new JobMetricsDataSource(getDataSource());
+  }
+
+  @Test
+  public void noReplicaTest() throws Exception {
+    ReadRouter router = new ReadRouter(getDataSource(), null, null);
+    assertFalse(router.hasReplica());
+    assertSame(getDataSource(), router.getDataSource());
+  }
+
+  @FlywayTest(locationsForMigrate = {
+    "resources/sql/data/Dataset/DataSetDataDBTest/replaceSensorValues" })
+  @Test
+  public void noReplicaDatasetTest() throws Exception {
+    ReadRouter router = new ReadRouter(getDataSource(), null, null);
+    DataSet dataset = DataSetDB.getDataSet(getDataSource(), DATASET_ID);
+    assertSame(getDataSource(), router.getDataSource(dataset));
+  }
+
+  @Test
+  public void replicaTest() throws Exception {
+    DataSource replica = makeReplica();
+    ReadRouter router = new ReadRouter(getDataSource(), replica, null);
+    assertTrue(router.hasReplica());
+    assertSame(replica, router.getDataSource());
+  }
+
+  @FlywayTest(locationsForMigrate = {
+    "resources/sql/data/Dataset/DataSetDataDBTest/replaceSensorValues" })
+  @Test
+  public void replicaUpToDateTest() throws Exception {
+    DataSource replica = makeReplica();
+    ReadRouter router = new ReadRouter(getDataSource(), replica, null);
+    DataSet dataset = DataSetDB.getDataSet(getDataSource(), DATASET_ID);
+    assertSame(replica, router.getDataSource(dataset));
+  }
+
+  @FlywayTest(locationsForMigrate = {
+    "resources/sql/data/Dataset/DataSetDataDBTest/replaceSensorValues" })
+  @Test
+  public void replicaOutOfDateTest() throws Exception {
+    ReadRouter router = new ReadRouter(getDataSource(), makeReplica(), null);
+
+    // The dataset's status has changed since the replica was updated
+    DataSet dataset = DataSetDB.getDataSet(getDataSource(), DATASET_ID);
+    dataset.setStatus(DataSet.STATUS_WAITING);
+
+    assertSame(getDataSource(), router.getDataSource(dataset));
+  }
+
+  @FlywayTest(locationsForMigrate = {
+    "resources/sql/data/Dataset/DataSetDataDBTest/replaceSensorValues" })
+  @Test
+  public void recentWriteTest() throws Exception {
+    ReadRouter router = new ReadRouter(getDataSource(), makeReplica(), "60");
+    DataSet dataset = DataSetDB.getDataSet(getDataSource(), DATASET_ID);
+
+    router.recordWrite(DATASET_ID);
+    assertSame(getDataSource(), router.getDataSource(dataset));
+  }
+
+  @FlywayTest(locationsForMigrate = {
+    "resources/sql/data/Dataset/DataSetDataDBTest/replaceSensorValues" })
+  @Test
+  public void replicatedWriteTest() throws Exception {
+    DataSource replica = makeReplica();
+    ReadRouter router = new ReadRouter(getDataSource(), replica, "0");
+    DataSet dataset = DataSetDB.getDataSet(getDataSource(), DATASET_ID);
+
+    // With no replication lag the write is visible in the replica immediately
+    router.recordWrite(DATASET_ID);
+    assertSame(replica, router.getDataSource(dataset));
+  }
+}
@@ -0,0 +1,16 @@
+-- Sensor values for a dataset with an ID at or below this value have been
+-- replaced, and are waiting to be removed
+ALTER TABLE dataset ADD COLUMN sensor_values_base_id BIGINT(20) NOT NULL DEFAULT 0;
+
+-- Queue of replaced sensor values to be deleted in the background
+CREATE TABLE sensor_values_purge (
+  dataset_id INT(11) NOT NULL,
+  max_id BIGINT(20) NOT NULL,
+  PRIMARY KEY (dataset_id, max_id)
+);
+
+
+-- ROLLBACK
+
+-- DROP TABLE sensor_values_purge;
+-- ALTER TABLE dataset DROP COLUMN sensor_values_base_id;
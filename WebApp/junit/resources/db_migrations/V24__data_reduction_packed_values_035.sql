@@ -0,0 +1,12 @@
+-- Packed calculation values for data reduction records. New records are
+-- stored in the packed column only; the JSON calculation_values column is
+-- kept for records stored before this change.
+ALTER TABLE data_reduction ADD COLUMN calculation_data MEDIUMBLOB NULL;
+
+ALTER TABLE data_reduction MODIFY COLUMN calculation_values MEDIUMTEXT NULL;
+
+
+-- ROLLBACK
+
+-- ALTER TABLE data_reduction MODIFY COLUMN calculation_values MEDIUMTEXT NOT NULL;
+-- ALTER TABLE data_reduction DROP COLUMN calculation_data;
@@ -0,0 +1,27 @@
+-- A dataset with three existing sensor values
+
+-- User
+INSERT INTO user (id, email, salt, password, firstname, surname, permissions)
+  VALUES (1000000, 'test@test.com', 'FF', 'FF', 'FF', 'FF', 0);
+
+-- Instrument
+INSERT INTO instrument (id, owner, name)
+  VALUES (1000000, 1000000, 'Test Instrument');
+
+-- 2019-06-03T00:00:00 to 2019-06-05T00:00:00
+INSERT INTO dataset (id, instrument_id, name, start, end, status, status_date)
+  VALUES (1001, 1000000, 'A', 1559520000000, 1559692800000, 4, 0);
+
+-- Sensor values at 2019-06-03T00:00:00, 2019-06-03T00:01:00
+-- and 2019-06-03T00:02:00
+INSERT INTO sensor_values (dataset_id, file_column, date, value, auto_qc,
+    user_qc_flag, user_qc_message)
+  VALUES (1001, 1, 1559520000000, '1', NULL, -1000, NULL);
+
+INSERT INTO sensor_values (dataset_id, file_column, date, value, auto_qc,
+    user_qc_flag, user_qc_message)
+  VALUES (1001, 1, 1559520060000, '2', NULL, -1000, NULL);
+
+INSERT INTO sensor_values (dataset_id, file_column, date, value, auto_qc,
+    user_qc_flag, user_qc_message)
+  VALUES (1001, 1, 1559520120000, '3', NULL, -1000, NULL);
@@ -20,13 +20,14 @@ import uk.ac.exeter.QuinCe.web.system.ResourceManager;
 /**
  * This class provides authentication checking for the QuinCe REST API services.
  * API calls are restricted by user authentication, and only users with the
- * {@link User#BIT_API_USER} bit set are allowed to make API calls.
+ * {@link User#BIT_API_USER} bit set are allowed to make API calls. The same
+ * restriction applies to the job metrics.
  *
  *
  * @author Steve Jones
  *
  */
-@WebFilter(servletNames = { "API Servlet" })
+@WebFilter(servletNames = { "API Servlet", "Job Metrics" })
 public class ApiAuthenticationFilter implements javax.servlet.Filter {
 
   /**
@@ -66,7 +66,7 @@ public class ExportList {
     try {
       ResourceManager resourceManager = ResourceManager.getInstance();
 
-      conn = resourceManager.getDBDataSource().getConnection();
+      conn = resourceManager.getReadRouter().getDataSource().getConnection();
       List<DataSet> datasets = DataSetDB.getDatasetsWithStatus(conn,
         DataSet.STATUS_READY_FOR_EXPORT);
 
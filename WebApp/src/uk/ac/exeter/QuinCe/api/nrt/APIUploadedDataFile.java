@@ -1,11 +1,9 @@
 package uk.ac.exeter.QuinCe.api.nrt;
 
-import java.io.IOException;
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
-import org.apache.commons.io.IOUtils;
-
 import uk.ac.exeter.QuinCe.web.files.UploadedDataFile;
 
 /**
@@ -24,7 +22,7 @@ public class APIUploadedDataFile extends UploadedDataFile {
   /**
    * The file contents
    */
-  private String contents;
+  private InputStream contents;
 
   /**
    * Basic constructor for pre-prepared strings
@@ -37,28 +35,28 @@ public class APIUploadedDataFile extends UploadedDataFile {
   protected APIUploadedDataFile(String filename, String contents) {
     super();
     this.filename = filename;
-    this.contents = contents;
+    this.contents = new ByteArrayInputStream(
+      contents.getBytes(StandardCharsets.UTF_8));
   }
 
   /**
    * Constructor to build a file from an {@link InputStream}. Assumes data is in
    * UTF-8.
    *
-   * Note that the InputStream is not closed by this constructor.
+   * <p>
+   * The stream is not read until the file is extracted, and it will be closed
+   * once it has been read. It must therefore remain open until then.
+   * </p>
    *
    * @param filename
    *          The filename.
    * @param inputStream
    *          The input stream.
-   * @throws IOException
-   *           If the {@link InputStream} contents cannot be read.
    */
-  protected APIUploadedDataFile(String filename, InputStream inputStream)
-    throws IOException {
+  protected APIUploadedDataFile(String filename, InputStream inputStream) {
     super();
     this.filename = filename;
-    this.contents = IOUtils.toString(inputStream,
-      StandardCharsets.UTF_8.displayName());
+    this.contents = inputStream;
   }
 
   @Override
@@ -67,7 +65,7 @@ public class APIUploadedDataFile extends UploadedDataFile {
   }
 
   @Override
-  protected String getFileContents() {
+  protected InputStream getInputStream() {
     return contents;
   }
 }
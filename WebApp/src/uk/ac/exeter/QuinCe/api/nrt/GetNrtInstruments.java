@@ -19,7 +19,8 @@ public class GetNrtInstruments {
   public List<NrtInstrument> getNrtInstruments() throws Exception {
 
     try {
-      DataSource dataSource = ResourceManager.getInstance().getDBDataSource();
+      DataSource dataSource = ResourceManager.getInstance().getReadRouter()
+        .getDataSource();
       return InstrumentDB.getNrtInstruments(dataSource);
     } catch (Exception e) {
       e.printStackTrace();
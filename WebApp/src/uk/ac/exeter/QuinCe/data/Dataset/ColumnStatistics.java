@@ -0,0 +1,233 @@
+package uk.ac.exeter.QuinCe.data.Dataset;
+
+import java.time.LocalDateTime;
+
+import uk.ac.exeter.QuinCe.utils.DateTimeUtils;
+
+/**
+ * Streaming summary statistics for the values in a single column of a
+ * {@link DataSet}.
+ *
+ * <p>
+ * Values are added one at a time, so the statistics can be collected while the
+ * values are being extracted without holding them all in memory or
+ * reading them back from the database. The mean and variance are calculated
+ * using Welford's algorithm, and two sets of statistics can be combined with
+ * {@link #merge(ColumnStatistics)}.
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public class ColumnStatistics {
+
+  /**
+   * The number of numeric values
+   */
+  private long count = 0;
+
+  /**
+   * The number of missing or non-numeric values
+   */
+  private long nanCount = 0;
+
+  /**
+   * The minimum value
+   */
+  private double min = Double.NaN;
+
+  /**
+   * The maximum value
+   */
+  private double max = Double.NaN;
+
+  /**
+   * The mean of the values
+   */
+  private double mean = 0D;
+
+  /**
+   * The sum of the squared differences from the mean
+   */
+  private double m2 = 0D;
+
+  /**
+   * The time of the first value, in milliseconds since the epoch
+   */
+  private Long firstTime = null;
+
+  /**
+   * The time of the last value, in milliseconds since the epoch
+   */
+  private Long lastTime = null;
+
+  /**
+   * Add a value to the statistics. {@code NaN} values are counted but not
+   * included in the numeric statistics.
+   *
+   * @param time
+   *          The time of the value
+   * @param value
+   *          The value
+   */
+  public void add(LocalDateTime time, double value) {
+    addTime(DateTimeUtils.dateToLong(time));
+
+    if (Double.isNaN(value)) {
+      nanCount++;
+    } else {
+      count++;
+
+      if (count == 1) {
+        min = value;
+        max = value;
+      } else {
+        if (value < min) {
+          min = value;
+        }
+
+        if (value > max) {
+          max = value;
+        }
+      }
+
+      double delta = value - mean;
+      mean += delta / count;
+      m2 += delta * (value - mean);
+    }
+  }
+
+  /**
+   * Combine another set of statistics into this one. The result is the same
+   * as if all the values added to {@code other} had been added to this object.
+   *
+   * @param other
+   *          The statistics to combine
+   */
+  public void merge(ColumnStatistics other) {
+    if (null != other.firstTime) {
+      addTime(other.firstTime);
+      addTime(other.lastTime);
+    }
+
+    nanCount += other.nanCount;
+
+    if (other.count > 0) {
+      if (count == 0) {
+        min = other.min;
+        max = other.max;
+        mean = other.mean;
+        m2 = other.m2;
+      } else {
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+
+        double total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+      }
+
+      count += other.count;
+    }
+  }
+
+  /**
+   * Update the first and last times with a new time.
+   *
+   * @param time
+   *          The time in milliseconds since the epoch
+   */
+  private void addTime(long time) {
+    if (null == firstTime || time < firstTime) {
+      firstTime = time;
+    }
+
+    if (null == lastTime || time > lastTime) {
+      lastTime = time;
+    }
+  }
+
+  /**
+   * Get the number of numeric values
+   *
+   * @return The number of values
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Get the number of missing or non-numeric values
+   *
+   * @return The number of {@code NaN} values
+   */
+  public long getNanCount() {
+    return nanCount;
+  }
+
+  /**
+   * Get the minimum value
+   *
+   * @return The minimum value, or {@code NaN} if there are no numeric values
+   */
+  public double getMin() {
+    return min;
+  }
+
+  /**
+   * Get the maximum value
+   *
+   * @return The maximum value, or {@code NaN} if there are no numeric values
+   */
+  public double getMax() {
+    return max;
+  }
+
+  /**
+   * Get the mean of the values
+   *
+   * @return The mean, or {@code NaN} if there are no numeric values
+   */
+  public double getMean() {
+    return count == 0 ? Double.NaN : mean;
+  }
+
+  /**
+   * Get the sample variance of the values
+   *
+   * @return The variance, or {@code NaN} if there are fewer than two numeric
+   *         values
+   */
+  public double getVariance() {
+    return count < 2 ? Double.NaN : m2 / (count - 1);
+  }
+
+  /**
+   * Get the sample standard deviation of the values
+   *
+   * @return The standard deviation, or {@code NaN} if there are fewer than two
+   *         numeric values
+   */
+  public double getStandardDeviation() {
+    return Math.sqrt(getVariance());
+  }
+
+  /**
+   * Get the time of the first value
+   *
+   * @return The first time, or {@code null} if no values have been added
+   */
+  public LocalDateTime getFirstTime() {
+    return null == firstTime ? null : DateTimeUtils.longToDate(firstTime);
+  }
+
+  /**
+   * Get the time of the last value
+   *
+   * @return The last time, or {@code null} if no values have been added
+   */
+  public LocalDateTime getLastTime() {
+    return null == lastTime ? null : DateTimeUtils.longToDate(lastTime);
+  }
+}
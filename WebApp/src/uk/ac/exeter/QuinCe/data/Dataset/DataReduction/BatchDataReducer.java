@@ -0,0 +1,45 @@
+package uk.ac.exeter.QuinCe.data.Dataset.DataReduction;
+
+/**
+ * Interface for {@link DataReducer}s that can perform their calculations on a
+ * block of measurements at once.
+ *
+ * <p>
+ * The reducer is given one column of input values for each of its required
+ * sensor types, in the order returned by
+ * {@link DataReducer#getRequiredTypeStrings()}, and must fill one column of
+ * output values for each of its calculation parameters, in the order returned
+ * by {@link DataReducer#getCalculationParameters()}. Entry {@code i} of every
+ * column belongs to the same measurement. Missing input values are given as
+ * {@link Double#NaN}.
+ * </p>
+ *
+ * <p>
+ * {@link DataReducer#performDataReduction(uk.ac.exeter.QuinCe.data.Instrument.Instrument, java.util.List, java.sql.Connection)}
+ * uses this interface when it is available. Reducers should implement
+ * {@link DataReducer#doCalculation} by calling
+ * {@link DataReducer#calculateSingle} so that both paths give the same
+ * results.
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public interface BatchDataReducer {
+
+  /**
+   * Perform the data reduction calculations for a block of measurements.
+   *
+   * @param inputs
+   *          The input columns, indexed by required sensor type position
+   * @param outputs
+   *          The output columns, indexed by calculation parameter position
+   * @param count
+   *          The number of measurements in the block. The columns may be
+   *          longer than this.
+   * @throws DataReductionException
+   *           If the calculations cannot be performed
+   */
+  public void calculate(double[][] inputs, double[][] outputs, int count)
+    throws DataReductionException;
+}
@@ -0,0 +1,250 @@
+package uk.ac.exeter.QuinCe.data.Dataset.DataReduction;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.Variable;
+
+/**
+ * Packed binary storage for the calculation values of
+ * {@link DataReductionRecord}s.
+ *
+ * <p>
+ * The calculation parameters for a variable are fixed by its
+ * {@link DataReducer}, so the values can be stored in parameter order without
+ * their names. The packed format is:
+ * </p>
+ * <ul>
+ * <li>A format version byte</li>
+ * <li>A hash of the parameter names (4 bytes), used to detect data that was
+ * stored with a different parameter list</li>
+ * <li>The number of parameters (2 bytes)</li>
+ * <li>A bitmap with one bit per parameter, set if the value is missing (null or
+ * NaN)</li>
+ * <li>The non-missing values as 8 byte doubles, in parameter order</li>
+ * </ul>
+ *
+ * <p>
+ * Decoded values are returned as a {@code double[]} in parameter order with
+ * {@code NaN} for missing values, which matches the JSON storage where
+ * {@code NaN}s are stored as {@code null}.
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public class CalculationValuesCodec {
+
+  /**
+   * The current version of the packed format
+   */
+  private static final byte FORMAT_VERSION = 1;
+
+  /**
+   * The size of the header before the missing value bitmap
+   */
+  private static final int HEADER_SIZE = 7;
+
+  /**
+   * The codecs for each variable, keyed by variable name
+   */
+  private static final Map<String, CalculationValuesCodec> variableCodecs = new ConcurrentHashMap<String, CalculationValuesCodec>();
+
+  /**
+   * The codecs for each list of parameter names
+   */
+  private static final Map<List<String>, CalculationValuesCodec> codecs = new ConcurrentHashMap<List<String>, CalculationValuesCodec>();
+
+  /**
+   * The calculation parameter names in storage order
+   */
+  private final List<String> parameterNames;
+
+  /**
+   * The position of each parameter in {@link #parameterNames}
+   */
+  private final Map<String, Integer> indices;
+
+  /**
+   * The hash of the parameter names
+   */
+  private final int schemaHash;
+
+  /**
+   * Create a codec for a list of parameter names.
+   *
+   * @param parameterNames
+   *          The parameter names
+   */
+  protected CalculationValuesCodec(List<String> parameterNames) {
+    this.parameterNames = Collections.unmodifiableList(parameterNames);
+    this.schemaHash = parameterNames.hashCode();
+
+    indices = new HashMap<String, Integer>();
+    for (int i = 0; i < parameterNames.size(); i++) {
+      indices.put(parameterNames.get(i), i);
+    }
+  }
+
+  /**
+   * Get the codec for a variable's calculation parameters.
+   *
+   * @param variable
+   *          The variable
+   * @return The codec
+   * @throws DataReductionException
+   *           If the variable's calculation parameters cannot be retrieved
+   */
+  public static CalculationValuesCodec getCodec(Variable variable)
+    throws DataReductionException {
+
+    CalculationValuesCodec result = variableCodecs.get(variable.getName());
+
+    if (null == result) {
+      List<String> names = DataReducerFactory
+        .getCalculationParameters(variable, true).stream()
+        .map(CalculationParameter::getShortName).collect(Collectors.toList());
+
+      result = getCodec(names);
+      variableCodecs.put(variable.getName(), result);
+    }
+
+    return result;
+  }
+
+  /**
+   * Get the codec for a list of calculation parameter names.
+   *
+   * @param parameterNames
+   *          The parameter names, in the order given by
+   *          {@link DataReducer#getCalculationParameterNames()}
+   * @return The codec
+   */
+  public static CalculationValuesCodec getCodec(List<String> parameterNames) {
+    return codecs.computeIfAbsent(parameterNames,
+      k -> new CalculationValuesCodec(new ArrayList<String>(k)));
+  }
+
+  /**
+   * Get the calculation parameter names in storage order.
+   *
+   * @return The parameter names
+   */
+  public List<String> getParameterNames() {
+    return parameterNames;
+  }
+
+  /**
+   * Get the storage position of a parameter.
+   *
+   * @param parameterName
+   *          The parameter name
+   * @return The parameter's position, or {@code -1} if it is not one of the
+   *         parameters
+   */
+  public int getIndex(String parameterName) {
+    Integer index = indices.get(parameterName);
+    return null == index ? -1 : index;
+  }
+
+  /**
+   * Pack the calculation values from a data reduction record.
+   *
+   * @param record
+   *          The record
+   * @return The packed values
+   */
+  public byte[] encode(DataReductionRecord record) {
+    double[] values = new double[parameterNames.size()];
+
+    for (int i = 0; i < values.length; i++) {
+      Double value = record.getCalculationValue(parameterNames.get(i));
+      values[i] = null == value ? Double.NaN : value;
+    }
+
+    return encode(values);
+  }
+
+  /**
+   * Pack a set of calculation values.
+   *
+   * @param values
+   *          The values in parameter order, with {@code NaN} for missing
+   *          values
+   * @return The packed values
+   */
+  public byte[] encode(double[] values) {
+    int count = parameterNames.size();
+    int bitmapSize = (count + 7) / 8;
+
+    byte[] bitmap = new byte[bitmapSize];
+    int valueCount = 0;
+
+    for (int i = 0; i < count; i++) {
+      if (Double.isNaN(values[i])) {
+        bitmap[i / 8] |= 1 << (i % 8);
+      } else {
+        valueCount++;
+      }
+    }
+
+    ByteBuffer buffer = ByteBuffer
+      .allocate(HEADER_SIZE + bitmapSize + valueCount * 8);
+    buffer.put(FORMAT_VERSION);
+    buffer.putInt(schemaHash);
+    buffer.putShort((short) count);
+    buffer.put(bitmap);
+
+    for (int i = 0; i < count; i++) {
+      if ((bitmap[i / 8] & (1 << (i % 8))) == 0) {
+        buffer.putDouble(values[i]);
+      }
+    }
+
+    return buffer.array();
+  }
+
+  /**
+   * Unpack calculation values.
+   *
+   * @param packed
+   *          The packed values
+   * @return The values in parameter order, with {@code NaN} for missing
+   *         values, or {@code null} if the values were packed with a different
+   *         format or parameter list
+   */
+  public double[] decode(byte[] packed) {
+    double[] result = null;
+
+    if (null != packed && packed.length >= HEADER_SIZE) {
+      ByteBuffer buffer = ByteBuffer.wrap(packed);
+      byte version = buffer.get();
+      int hash = buffer.getInt();
+      int count = buffer.getShort();
+
+      if (version == FORMAT_VERSION && hash == schemaHash
+        && count == parameterNames.size()) {
+
+        int bitmapStart = HEADER_SIZE;
+        buffer.position(bitmapStart + (count + 7) / 8);
+
+        result = new double[count];
+        for (int i = 0; i < count; i++) {
+          if ((packed[bitmapStart + i / 8] & (1 << (i % 8))) != 0) {
+            result[i] = Double.NaN;
+          } else {
+            result[i] = buffer.getDouble();
+          }
+        }
+      }
+    }
+
+    return result;
+  }
+}
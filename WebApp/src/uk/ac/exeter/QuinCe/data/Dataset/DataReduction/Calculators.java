@@ -30,6 +30,17 @@ public class Calculators {
    * @return Kelvin temperature
    */
   public static Double kelvin(Double celsius) {
+    return kelvin(celsius.doubleValue());
+  }
+
+  /**
+   * Convert a temperature in °C to °K
+   *
+   * @param celsius
+   *          Celsius temperature
+   * @return Kelvin temperature
+   */
+  public static double kelvin(double celsius) {
     return celsius + 273.15;
   }
 
@@ -52,6 +63,17 @@ public class Calculators {
    * @return Pressure in atmospheres
    */
   public static Double hPaToAtmospheres(Double hPa) {
+    return hPaToAtmospheres(hPa.doubleValue());
+  }
+
+  /**
+   * Convert a pressure in hPa it atmospheres
+   *
+   * @param hPa
+   *          Pressure in hPa
+   * @return Pressure in atmospheres
+   */
+  public static double hPaToAtmospheres(double hPa) {
     return hPa * 100 * PASCALS_TO_ATMOSPHERES;
   }
 
@@ -70,11 +92,30 @@ public class Calculators {
    */
   public static Double calcfCO2(Double pco2, Double xCO2InGas, Double pressure,
     Double temperature) {
+    return calcfCO2(pco2.doubleValue(), xCO2InGas.doubleValue(),
+      pressure.doubleValue(), temperature.doubleValue());
+  }
 
-    Double kelvin = Calculators.kelvin(temperature);
-    Double B = -1636.75 + 12.0408 * kelvin - 0.0327957 * Math.pow(kelvin, 2)
+  /**
+   * Converts pCO<sub>2</sub> to fCO<sub>2</sub>
+   *
+   * @param pco2
+   *          pCO<sub>2</sub> at target temperature
+   * @param xCO2InGas
+   *          The calibrated, dried xCO<sub>2</sub> value
+   * @param pressure
+   *          The pressure in hPa
+   * @param temperature
+   *          The temperature in °C
+   * @return The fCO<sub>2</sub> value
+   */
+  public static double calcfCO2(double pco2, double xCO2InGas, double pressure,
+    double temperature) {
+
+    double kelvin = kelvin(temperature);
+    double B = -1636.75 + 12.0408 * kelvin - 0.0327957 * Math.pow(kelvin, 2)
       + (3.16528 * 1e-5) * Math.pow(kelvin, 3);
-    Double delta = 57.7 - 0.118 * kelvin;
+    double delta = 57.7 - 0.118 * kelvin;
 
     return pco2 * Math.exp(((B + 2 * Math.pow(1 - xCO2InGas * 1e-6, 2) * delta)
       * hPaToAtmospheres(pressure)) / (82.0575 * kelvin));
@@ -93,6 +134,23 @@ public class Calculators {
    */
   public static Double calcpCO2TEWet(Double xCO2, Double pressure,
     Double pH2O) {
+    return calcpCO2TEWet(xCO2.doubleValue(), pressure.doubleValue(),
+      pH2O.doubleValue());
+  }
+
+  /**
+   * Calculates pCO<sub>2</sub> in water
+   *
+   * @param xCO2
+   *          The dry, calibrated xCO<sub>2</sub> value
+   * @param pressure
+   *          The pressure
+   * @param pH2O
+   *          The water vapour pressure
+   * @return pCO<sub>2</sub> in water
+   */
+  public static double calcpCO2TEWet(double xCO2, double pressure,
+    double pH2O) {
     return xCO2 * (hPaToAtmospheres(pressure) - pH2O);
   }
 
@@ -107,7 +165,21 @@ public class Calculators {
    * @return The calculated pH2O value
    */
   public static Double calcPH2O(Double salinity, Double temperature) {
-    double kelvin = Calculators.kelvin(temperature);
+    return calcPH2O(salinity.doubleValue(), temperature.doubleValue());
+  }
+
+  /**
+   * Calculates the water vapour pressure (pH<sub>2</sub>O). From Weiss and
+   * Price (1980)
+   *
+   * @param salinity
+   *          Salinity
+   * @param temperature
+   *          Temperature (in celsius)
+   * @return The calculated pH2O value
+   */
+  public static double calcPH2O(double salinity, double temperature) {
+    double kelvin = kelvin(temperature);
     return Math.exp(24.4543 - 67.4509 * (100 / kelvin)
       - 4.8489 * Math.log(kelvin / 100) - 0.000544 * salinity);
   }
@@ -132,14 +204,32 @@ public class Calculators {
     Double result = measuredPressure;
 
     if (null != sensorHeight) {
-      Double correction = (measuredPressure * MOLAR_MASS_AIR)
-        / (Calculators.kelvin(temperature) * 8.314) * 9.8 * sensorHeight;
-      result = measuredPressure + correction;
+      result = calcSeaLevelPressure(measuredPressure.doubleValue(),
+        temperature.doubleValue(), sensorHeight.floatValue());
     }
 
     return result;
   }
 
+  /**
+   * Adjust a measured pressure to sea level.
+   *
+   * @param measuredPressure
+   *          The measured pressure.
+   * @param temperature
+   *          The temperature at which the pressure was measured.
+   * @param sensorHeight
+   *          The height of the sensor.
+   * @return The adjusted pressure.
+   */
+  public static double calcSeaLevelPressure(double measuredPressure,
+    double temperature, float sensorHeight) {
+
+    double correction = (measuredPressure * MOLAR_MASS_AIR)
+      / (kelvin(temperature) * 8.314) * 9.8 * sensorHeight;
+    return measuredPressure + correction;
+  }
+
   public static Double interpolate(LocalDateTime time0, Double y0,
     LocalDateTime time1, Double y1, LocalDateTime measurementTime) {
     Double result = null;
@@ -238,7 +328,24 @@ public class Calculators {
    */
   public static Double calcCO2AtSST(Double co2AtEquilibrator, Double eqt,
     Double sst) {
-    return co2AtEquilibrator
-      * Math.exp(0.0423 * (Calculators.kelvin(sst) - Calculators.kelvin(eqt)));
+    return calcCO2AtSST(co2AtEquilibrator.doubleValue(), eqt.doubleValue(),
+      sst.doubleValue());
+  }
+
+  /**
+   * Calculates pCO<sub>2</sub> at the intake (sea surface) temperature. From
+   * Takahashi et al. (2009)
+   *
+   * @param co2AtEquilibrator
+   *          The pCO<sub>2</sub> at equilibrator temperature
+   * @param eqt
+   *          The equilibrator temperature
+   * @param sst
+   *          The intake temperature
+   * @return The pCO<sub>2</sub> at intake temperature
+   */
+  public static double calcCO2AtSST(double co2AtEquilibrator, double eqt,
+    double sst) {
+    return co2AtEquilibrator * Math.exp(0.0423 * (kelvin(sst) - kelvin(eqt)));
   }
 }
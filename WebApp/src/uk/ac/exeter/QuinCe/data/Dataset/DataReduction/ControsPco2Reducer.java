@@ -9,8 +9,6 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.TreeMap;
 
-import com.google.gson.Gson;
-
 import uk.ac.exeter.QuinCe.data.Dataset.DataSet;
 import uk.ac.exeter.QuinCe.data.Dataset.Measurement;
 import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
@@ -19,6 +17,7 @@ import uk.ac.exeter.QuinCe.data.Instrument.Calibration.CalculationCoefficientDB;
 import uk.ac.exeter.QuinCe.data.Instrument.Calibration.CalibrationSet;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorTypeNotFoundException;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.Variable;
+import uk.ac.exeter.QuinCe.utils.JsonUtils;
 import uk.ac.exeter.QuinCe.utils.MeanCalculator;
 
 public class ControsPco2Reducer extends DataReducer {
@@ -129,7 +128,8 @@ public class ControsPco2Reducer extends DataReducer {
       s2Beams = new MeanCalculator();
     }
 
-    dataset.setProperty(variable, ZEROS_PROP, new Gson().toJson(zeroS2Beams));
+    dataset.setProperty(variable, ZEROS_PROP,
+      JsonUtils.GSON.toJson(zeroS2Beams));
   }
 
   @Override
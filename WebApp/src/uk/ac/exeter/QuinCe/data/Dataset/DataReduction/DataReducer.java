@@ -43,6 +43,20 @@ public abstract class DataReducer {
    */
   protected Map<String, Properties> properties;
 
+  /**
+   * The sensor types named by {@link #getRequiredTypeStrings()}, in the same
+   * order. These are resolved once by {@link #bindRequiredTypes()} so that
+   * {@link #getValue(Measurement, int)} does not need to look up the sensor
+   * types by name for every measurement.
+   */
+  private SensorType[] requiredTypes = null;
+
+  /**
+   * The number of measurements passed to
+   * {@link BatchDataReducer#calculate(double[][], double[][], int)} at a time
+   */
+  private static final int BATCH_SIZE = 1024;
+
   public DataReducer(Variable variable, Map<String, Properties> properties) {
 
     this.variable = variable;
@@ -69,6 +83,97 @@ public abstract class DataReducer {
       getCalculationParameterNames());
 
     doCalculation(instrument, measurement, record, conn);
+    applyQc(instrument, measurement, record);
+
+    return record;
+  }
+
+  /**
+   * Perform the data reduction and set up the QC flags for a set of
+   * measurements.
+   *
+   * <p>
+   * If this reducer implements {@link BatchDataReducer}, the measurements are
+   * processed in blocks using
+   * {@link BatchDataReducer#calculate(double[][], double[][], int)}. Otherwise
+   * each measurement is passed to
+   * {@link #performDataReduction(Instrument, Measurement, Connection)} in
+   * turn.
+   * </p>
+   *
+   * @param instrument
+   *          The instrument that took the measurements
+   * @param measurements
+   *          The measurements
+   * @param conn
+   *          A database connection
+   * @return The data reduction results, in the same order as the measurements
+   */
+  public List<DataReductionRecord> performDataReduction(Instrument instrument,
+    List<Measurement> measurements, Connection conn) throws Exception {
+
+    List<DataReductionRecord> records = new ArrayList<DataReductionRecord>(
+      measurements.size());
+
+    if (this instanceof BatchDataReducer) {
+      if (null == requiredTypes) {
+        bindRequiredTypes();
+      }
+
+      List<String> parameterNames = getCalculationParameterNames();
+      int blockSize = Math.min(BATCH_SIZE, measurements.size());
+      double[][] inputs = new double[requiredTypes.length][blockSize];
+      double[][] outputs = new double[parameterNames.size()][blockSize];
+
+      for (int start = 0; start < measurements.size(); start += blockSize) {
+        List<Measurement> block = measurements.subList(start,
+          Math.min(start + blockSize, measurements.size()));
+
+        for (int i = 0; i < block.size(); i++) {
+          for (int slot = 0; slot < inputs.length; slot++) {
+            inputs[slot][i] = toPrimitive(getValue(block.get(i), slot));
+          }
+        }
+
+        ((BatchDataReducer) this).calculate(inputs, outputs, block.size());
+
+        for (int i = 0; i < block.size(); i++) {
+          Measurement measurement = block.get(i);
+          DataReductionRecord record = new DataReductionRecord(measurement,
+            variable, parameterNames);
+
+          for (int slot = 0; slot < outputs.length; slot++) {
+            record.put(slot, outputs[slot][i]);
+          }
+
+          applyQc(instrument, measurement, record);
+          records.add(record);
+        }
+      }
+    } else {
+      for (Measurement measurement : measurements) {
+        records.add(performDataReduction(instrument, measurement, conn));
+      }
+    }
+
+    return records;
+  }
+
+  /**
+   * Set the QC flags on a data reduction record from the QC flags of the
+   * measurement's sensor values.
+   *
+   * @param instrument
+   *          The instrument that took the measurement
+   * @param measurement
+   *          The measurement
+   * @param record
+   *          The data reduction record
+   * @throws SensorConfigurationException
+   *           If the QC flag cascade cannot be determined
+   */
+  private void applyQc(Instrument instrument, Measurement measurement,
+    DataReductionRecord record) throws SensorConfigurationException {
 
     // Apply QC flags to the data reduction records
     for (SensorType sensorType : variable.getAllSensorTypes(true)) {
@@ -96,8 +201,6 @@ public abstract class DataReducer {
         record.setQc(cascadeFlag, qcMessages);
       }
     }
-
-    return record;
   }
 
   /**
@@ -118,6 +221,96 @@ public abstract class DataReducer {
     Measurement measurement, DataReductionRecord record, Connection conn)
     throws Exception;
 
+  /**
+   * Resolve the names returned by {@link #getRequiredTypeStrings()} into
+   * their {@link SensorType}s.
+   *
+   * @throws SensorTypeNotFoundException
+   *           If any of the sensor types do not exist
+   */
+  private void bindRequiredTypes() throws SensorTypeNotFoundException {
+    SensorsConfiguration sensorConfig = ResourceManager.getInstance()
+      .getSensorsConfiguration();
+
+    String[] typeNames = getRequiredTypeStrings();
+    SensorType[] types = new SensorType[typeNames.length];
+    for (int i = 0; i < typeNames.length; i++) {
+      types[i] = sensorConfig.getSensorType(typeNames[i]);
+    }
+
+    requiredTypes = types;
+  }
+
+  /**
+   * Get the calculated value of one of the reducer's required sensor types
+   * from a measurement. The sensor type is identified by its position in the
+   * array returned by {@link #getRequiredTypeStrings()}.
+   *
+   * @param measurement
+   *          The measurement
+   * @param slot
+   *          The position of the sensor type in
+   *          {@link #getRequiredTypeStrings()}
+   * @return The value
+   * @throws SensorTypeNotFoundException
+   *           If the required sensor types cannot be resolved
+   */
+  protected Double getValue(Measurement measurement, int slot)
+    throws SensorTypeNotFoundException {
+
+    if (null == requiredTypes) {
+      bindRequiredTypes();
+    }
+
+    return measurement.getMeasurementValue(requiredTypes[slot])
+      .getCalculatedValue();
+  }
+
+  /**
+   * Perform the calculations for a single measurement using
+   * {@link BatchDataReducer#calculate(double[][], double[][], int)}. Reducers
+   * that implement {@link BatchDataReducer} use this to implement
+   * {@link #doCalculation(Instrument, Measurement, DataReductionRecord, Connection)}.
+   *
+   * @param measurement
+   *          The measurement
+   * @param record
+   *          The data reduction record
+   * @throws Exception
+   *           If the calculation fails
+   */
+  protected void calculateSingle(Measurement measurement,
+    DataReductionRecord record) throws Exception {
+
+    if (null == requiredTypes) {
+      bindRequiredTypes();
+    }
+
+    double[][] inputs = new double[requiredTypes.length][1];
+    for (int slot = 0; slot < inputs.length; slot++) {
+      inputs[slot][0] = toPrimitive(getValue(measurement, slot));
+    }
+
+    double[][] outputs = new double[getCalculationParameters().size()][1];
+    ((BatchDataReducer) this).calculate(inputs, outputs, 1);
+
+    for (int slot = 0; slot < outputs.length; slot++) {
+      record.put(slot, outputs[slot][0]);
+    }
+  }
+
+  /**
+   * Convert a value to a primitive, replacing {@code null} with
+   * {@link Double#NaN}.
+   *
+   * @param value
+   *          The value
+   * @return The primitive value
+   */
+  private static double toPrimitive(Double value) {
+    return null == value ? Double.NaN : value.doubleValue();
+  }
+
   /**
    * Set the state for a non-calculated record (used for unused run types etc)
    *
@@ -2,15 +2,14 @@ package uk.ac.exeter.QuinCe.data.Dataset.DataReduction;
 
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
-import com.google.gson.Gson;
-
 import uk.ac.exeter.QuinCe.data.Dataset.Measurement;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.Variable;
+import uk.ac.exeter.QuinCe.utils.JsonUtils;
 import uk.ac.exeter.QuinCe.utils.MathUtils;
 import uk.ac.exeter.QuinCe.utils.NoEmptyStringList;
 
@@ -29,9 +28,16 @@ public class DataReductionRecord implements Comparable<DataReductionRecord> {
   private final List<String> parameterNames;
 
   /**
-   * Intermediate calculation values
+   * The codec for {@link #parameterNames}, used to find the slot for a
+   * parameter name
    */
-  private Map<String, Double> calculationValues;
+  private final CalculationValuesCodec codec;
+
+  /**
+   * Intermediate calculation values, indexed by their position in
+   * {@link #parameterNames}, with {@code NaN} for missing values
+   */
+  private final double[] calculationValues;
 
   /**
    * QC Flag
@@ -54,19 +60,22 @@ public class DataReductionRecord implements Comparable<DataReductionRecord> {
     this.measurementId = measurement.getId();
     this.variableId = variable.getId();
     this.parameterNames = Collections.unmodifiableList(parameterNames);
+    this.codec = CalculationValuesCodec.getCodec(parameterNames);
 
-    this.calculationValues = new HashMap<String, Double>();
+    this.calculationValues = new double[parameterNames.size()];
+    Arrays.fill(calculationValues, Double.NaN);
     this.qcFlag = Flag.ASSUMED_GOOD;
     this.qcMessages = new NoEmptyStringList();
   }
 
   protected DataReductionRecord(long measurementId, long variableId,
-    List<String> parameterNames, Map<String, Double> calculationValues,
-    Flag qcFlag, NoEmptyStringList qcMessages) {
+    List<String> parameterNames, double[] calculationValues, Flag qcFlag,
+    NoEmptyStringList qcMessages) {
 
     this.measurementId = measurementId;
     this.variableId = variableId;
     this.parameterNames = Collections.unmodifiableList(parameterNames);
+    this.codec = CalculationValuesCodec.getCodec(parameterNames);
 
     this.calculationValues = calculationValues;
     this.qcFlag = qcFlag;
@@ -106,11 +115,31 @@ public class DataReductionRecord implements Comparable<DataReductionRecord> {
    */
   protected void put(String parameter, Double value)
     throws DataReductionException {
-    if (!parameterNames.contains(parameter)) {
+    int slot = codec.getIndex(parameter);
+    if (slot == -1) {
       throw new DataReductionException(
         "Unrecognised calculation parameter '" + parameter + "'");
     }
-    calculationValues.put(parameter, value);
+    calculationValues[slot] = null == value ? Double.NaN : value;
+  }
+
+  /**
+   * Store a calculation value, identifying the parameter by its position in
+   * the reducer's calculation parameters.
+   *
+   * @param slot
+   *          The parameter position
+   * @param value
+   *          The value
+   * @throws DataReductionException
+   *           If the slot is not a valid parameter position
+   */
+  protected void put(int slot, double value) throws DataReductionException {
+    if (slot < 0 || slot >= calculationValues.length) {
+      throw new DataReductionException(
+        "Unrecognised calculation parameter " + slot);
+    }
+    calculationValues[slot] = value;
   }
 
   /**
@@ -126,6 +155,15 @@ public class DataReductionRecord implements Comparable<DataReductionRecord> {
     return variableId;
   }
 
+  /**
+   * Get the names of the calculation parameters for the record's variable.
+   *
+   * @return The parameter names
+   */
+  public List<String> getParameterNames() {
+    return parameterNames;
+  }
+
   /**
    * Get the QC flag
    *
@@ -144,18 +182,63 @@ public class DataReductionRecord implements Comparable<DataReductionRecord> {
     return qcMessages;
   }
 
+  /**
+   * Get the calculation values packed by a {@link CalculationValuesCodec} for
+   * the record's parameters
+   *
+   * @return The packed values
+   */
+  public byte[] getPackedCalculationValues() {
+    return codec.encode(calculationValues);
+  }
+
+  /**
+   * Get the calculation values keyed by parameter name, in parameter order.
+   * Missing values are {@code null}.
+   *
+   * @return The calculation values
+   */
+  public Map<String, Double> getCalculationValues() {
+    Map<String, Double> result = new LinkedHashMap<String, Double>();
+    for (int i = 0; i < calculationValues.length; i++) {
+      result.put(parameterNames.get(i), getSlotValue(i));
+    }
+
+    return result;
+  }
+
   /**
    * Get the calculation values as a JSON string
    *
    * @return The calculation JSON
    */
   public String getCalculationJson() {
-    Gson gson = new Gson();
-    return gson.toJson(MathUtils.nanToNull(calculationValues));
+    return JsonUtils.GSON.toJson(MathUtils.nanToNull(getCalculationValues()));
   }
 
+  /**
+   * Get a calculation value.
+   *
+   * @param param
+   *          The parameter name
+   * @return The value, or {@code null} if it is missing or the parameter is
+   *         not one of the record's parameters
+   */
   public Double getCalculationValue(String param) {
-    return calculationValues.get(param);
+    int slot = codec.getIndex(param);
+    return slot == -1 ? null : getSlotValue(slot);
+  }
+
+  /**
+   * Get the calculation value in the specified slot.
+   *
+   * @param slot
+   *          The parameter position
+   * @return The value, or {@code null} if it is missing
+   */
+  private Double getSlotValue(int slot) {
+    double value = calculationValues[slot];
+    return Double.isNaN(value) ? null : value;
   }
 
   @Override
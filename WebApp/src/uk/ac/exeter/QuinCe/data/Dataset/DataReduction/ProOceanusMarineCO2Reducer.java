@@ -14,6 +14,15 @@ public class ProOceanusMarineCO2Reducer extends DataReducer {
 
   private static List<CalculationParameter> calculationParameters = null;
 
+  // Positions of the required sensor types
+  private static final int INTAKE_TEMPERATURE = 0;
+  private static final int MEMBRANE_PRESSURE = 1;
+  private static final int XCO2 = 2;
+
+  // Positions of the calculation parameters
+  private static final int PCO2_SST = 0;
+  private static final int FCO2 = 1;
+
   public ProOceanusMarineCO2Reducer(Variable variable,
     Map<String, Properties> properties) {
     super(variable, properties);
@@ -23,19 +32,16 @@ public class ProOceanusMarineCO2Reducer extends DataReducer {
   public void doCalculation(Instrument instrument, Measurement measurement,
     DataReductionRecord record, Connection conn) throws Exception {
 
-    Double intakeTemperature = measurement
-      .getMeasurementValue("Intake Temperature").getCalculatedValue();
-    Double membranePressure = measurement
-      .getMeasurementValue("Membrane Pressure").getCalculatedValue();
-    Double xCO2 = measurement.getMeasurementValue("xCO₂ (wet, no standards)")
-      .getCalculatedValue();
+    Double intakeTemperature = getValue(measurement, INTAKE_TEMPERATURE);
+    Double membranePressure = getValue(measurement, MEMBRANE_PRESSURE);
+    Double xCO2 = getValue(measurement, XCO2);
 
     Double p = Calculators.hPaToAtmospheres(membranePressure);
     Double pCO2WetSST = xCO2 * p;
     Double fCO2 = Calculators.calcfCO2(pCO2WetSST, xCO2, p, intakeTemperature);
 
-    record.put("pCO₂ SST", pCO2WetSST);
-    record.put("fCO₂", fCO2);
+    record.put(PCO2_SST, pCO2WetSST);
+    record.put(FCO2, fCO2);
   }
 
   @Override
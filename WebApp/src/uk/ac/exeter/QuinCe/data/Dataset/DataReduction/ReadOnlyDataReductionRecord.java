@@ -44,18 +44,54 @@ public class ReadOnlyDataReductionRecord extends DataReductionRecord {
     long variableId, Map<String, Double> calculationValues, Flag qcFlag,
     String qcMessage) {
 
-    List<String> parameterNames = new ArrayList<String>();
+    List<String> parameterNames = new ArrayList<String>(
+      calculationValues.keySet());
+
+    double[] values = new double[parameterNames.size()];
+    for (int i = 0; i < values.length; i++) {
+      Double value = calculationValues.get(parameterNames.get(i));
+      values[i] = null == value ? Double.NaN : value;
+    }
 
     ReadOnlyDataReductionRecord record = new ReadOnlyDataReductionRecord(
-      measurementId, variableId, parameterNames, calculationValues, qcFlag,
+      measurementId, variableId, parameterNames, values, qcFlag,
+      new NoEmptyStringList(StringUtils.delimitedToList(qcMessage, ";")));
+
+    return record;
+  }
+
+  /**
+   * Create a record from unpacked calculation values (see
+   * {@link CalculationValuesCodec#decode(byte[])}).
+   *
+   * @param measurementId
+   *          The measurement ID
+   * @param variableId
+   *          The variable ID
+   * @param codec
+   *          The codec that defines the order of the values
+   * @param values
+   *          The calculation values
+   * @param qcFlag
+   *          The QC flag
+   * @param qcMessage
+   *          The QC messages
+   * @return The record
+   */
+  public static ReadOnlyDataReductionRecord makeRecord(long measurementId,
+    long variableId, CalculationValuesCodec codec, double[] values,
+    Flag qcFlag, String qcMessage) {
+
+    ReadOnlyDataReductionRecord record = new ReadOnlyDataReductionRecord(
+      measurementId, variableId, codec.getParameterNames(), values, qcFlag,
       new NoEmptyStringList(StringUtils.delimitedToList(qcMessage, ";")));
 
     return record;
   }
 
   private ReadOnlyDataReductionRecord(long measurementId, long variableId,
-    List<String> parameterNames, Map<String, Double> calculationValues,
-    Flag qcFlag, NoEmptyStringList qcMessages) {
+    List<String> parameterNames, double[] calculationValues, Flag qcFlag,
+    NoEmptyStringList qcMessages) {
     super(measurementId, variableId, parameterNames, calculationValues, qcFlag,
       qcMessages);
   }
@@ -66,6 +102,11 @@ public class ReadOnlyDataReductionRecord extends DataReductionRecord {
     throw new NotImplementedException("This record is read only");
   }
 
+  @Override
+  protected void put(int slot, double value) throws DataReductionException {
+    throw new NotImplementedException("This record is read only");
+  }
+
   /**
    * This sets the override QC flag. It does not take into account previous QC
    * flag values.
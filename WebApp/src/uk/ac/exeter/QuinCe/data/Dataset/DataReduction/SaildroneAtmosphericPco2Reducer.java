@@ -27,6 +27,16 @@ public class SaildroneAtmosphericPco2Reducer extends DataReducer {
    */
   private static List<CalculationParameter> calculationParameters = null;
 
+  // Positions of the required sensor types
+  private static final int AIR_TEMPERATURE = 0;
+  private static final int SALINITY = 1;
+  private static final int LICOR_PRESSURE = 2;
+  private static final int XCO2 = 3;
+
+  // Positions of the calculation parameters
+  private static final int PCO2 = 1;
+  private static final int FCO2 = 2;
+
   public SaildroneAtmosphericPco2Reducer(Variable variable,
     Map<String, Properties> properties) {
 
@@ -37,15 +47,10 @@ public class SaildroneAtmosphericPco2Reducer extends DataReducer {
   public void doCalculation(Instrument instrument, Measurement measurement,
     DataReductionRecord record, Connection conn) throws Exception {
 
-    Double airTemperature = measurement.getMeasurementValue("Air Temperature")
-      .getCalculatedValue();
-    Double salinity = measurement.getMeasurementValue("Salinity")
-      .getCalculatedValue();
-    Double licorPressure = measurement
-      .getMeasurementValue("LICOR Pressure (Atmosphere)").getCalculatedValue();
-    Double xCo2 = measurement
-      .getMeasurementValue("xCO₂ atmosphere (dry, no standards)")
-      .getCalculatedValue();
+    Double airTemperature = getValue(measurement, AIR_TEMPERATURE);
+    Double salinity = getValue(measurement, SALINITY);
+    Double licorPressure = getValue(measurement, LICOR_PRESSURE);
+    Double xCo2 = getValue(measurement, XCO2);
 
     Double pH2O = Calculators.calcPH2O(salinity, airTemperature);
 
@@ -53,8 +58,8 @@ public class SaildroneAtmosphericPco2Reducer extends DataReducer {
     Double fCO2 = Calculators.calcfCO2(pCO2, xCo2, licorPressure,
       airTemperature);
 
-    record.put("pCO₂", pCO2);
-    record.put("fCO₂", fCO2);
+    record.put(PCO2, pCO2);
+    record.put(FCO2, fCO2);
   }
 
   @Override
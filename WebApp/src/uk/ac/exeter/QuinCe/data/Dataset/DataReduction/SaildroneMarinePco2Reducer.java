@@ -24,6 +24,16 @@ public class SaildroneMarinePco2Reducer extends DataReducer {
 
   private static List<CalculationParameter> calculationParameters = null;
 
+  // Positions of the required sensor types
+  private static final int INTAKE_TEMPERATURE = 0;
+  private static final int SALINITY = 1;
+  private static final int LICOR_PRESSURE = 2;
+  private static final int XCO2 = 3;
+
+  // Positions of the calculation parameters
+  private static final int PCO2 = 1;
+  private static final int FCO2 = 2;
+
   public SaildroneMarinePco2Reducer(Variable variable,
     Map<String, Properties> properties) {
 
@@ -34,24 +44,18 @@ public class SaildroneMarinePco2Reducer extends DataReducer {
   public void doCalculation(Instrument instrument, Measurement measurement,
     DataReductionRecord record, Connection conn) throws Exception {
 
-    Double intakeTemperature = measurement
-      .getMeasurementValue("Intake Temperature").getCalculatedValue();
-    Double salinity = measurement.getMeasurementValue("Salinity")
-      .getCalculatedValue();
-    Double licorPressure = measurement
-      .getMeasurementValue("LICOR Pressure (Equilibrator)")
-      .getCalculatedValue();
-    Double co2InGas = measurement
-      .getMeasurementValue("xCO₂ water (dry, no standards)")
-      .getCalculatedValue();
+    Double intakeTemperature = getValue(measurement, INTAKE_TEMPERATURE);
+    Double salinity = getValue(measurement, SALINITY);
+    Double licorPressure = getValue(measurement, LICOR_PRESSURE);
+    Double co2InGas = getValue(measurement, XCO2);
 
     Double pH2O = Calculators.calcPH2O(salinity, intakeTemperature);
     Double pCO2 = Calculators.calcpCO2TEWet(co2InGas, licorPressure, pH2O);
     Double fCO2 = Calculators.calcfCO2(pCO2, co2InGas, licorPressure,
       intakeTemperature);
 
-    record.put("pCO₂", pCO2);
-    record.put("fCO₂", fCO2);
+    record.put(PCO2, pCO2);
+    record.put(FCO2, fCO2);
   }
 
   @Override
@@ -25,6 +25,15 @@ public class SamiPco2DataReducer extends DataReducer {
 
   private static List<CalculationParameter> calculationParameters = null;
 
+  // Positions of the required sensor types
+  private static final int INTAKE_TEMPERATURE = 0;
+  private static final int EQUILIBRATOR_TEMPERATURE = 1;
+  private static final int PCO2_TE_WET = 2;
+
+  // Positions of the calculation parameters
+  private static final int DELTA_T = 0;
+  private static final int PCO2_SST = 1;
+
   public SamiPco2DataReducer(Variable variable,
     Map<String, Properties> properties) {
     super(variable, properties);
@@ -34,18 +43,16 @@ public class SamiPco2DataReducer extends DataReducer {
   public void doCalculation(Instrument instrument, Measurement measurement,
     DataReductionRecord record, Connection conn) throws Exception {
 
-    Double intakeTemperature = measurement
-      .getMeasurementValue("Intake Temperature").getCalculatedValue();
-    Double equilibrationTemperature = measurement
-      .getMeasurementValue("Equilibrator Temperature").getCalculatedValue();
-    Double pCO2TEWet = measurement
-      .getMeasurementValue("pCO₂ (wet at equilibration)").getCalculatedValue();
+    Double intakeTemperature = getValue(measurement, INTAKE_TEMPERATURE);
+    Double equilibrationTemperature = getValue(measurement,
+      EQUILIBRATOR_TEMPERATURE);
+    Double pCO2TEWet = getValue(measurement, PCO2_TE_WET);
 
     Double pCO2SST = Calculators.calcCO2AtSST(pCO2TEWet,
       equilibrationTemperature, intakeTemperature);
 
-    record.put("ΔT", Math.abs(intakeTemperature - equilibrationTemperature));
-    record.put("pCO₂ SST", pCO2SST);
+    record.put(DELTA_T, Math.abs(intakeTemperature - equilibrationTemperature));
+    record.put(PCO2_SST, pCO2SST);
   }
 
   @Override
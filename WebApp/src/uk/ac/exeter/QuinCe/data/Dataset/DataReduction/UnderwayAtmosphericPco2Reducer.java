@@ -16,10 +16,23 @@ import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.Variable;
  * @author Steve Jones
  *
  */
-public class UnderwayAtmosphericPco2Reducer extends DataReducer {
+public class UnderwayAtmosphericPco2Reducer extends DataReducer
+  implements BatchDataReducer {
 
   private static List<CalculationParameter> calculationParameters = null;
 
+  // Positions of the required sensor types
+  private static final int EQUILIBRATOR_TEMPERATURE = 0;
+  private static final int SALINITY = 1;
+  private static final int ATMOSPHERIC_PRESSURE = 2;
+  private static final int XCO2 = 3;
+
+  // Positions of the calculation parameters
+  private static final int SEA_LEVEL_PRESSURE = 0;
+  private static final int PH2O = 1;
+  private static final int PCO2 = 2;
+  private static final int FCO2 = 3;
+
   public UnderwayAtmosphericPco2Reducer(Variable variable,
     Map<String, Properties> properties) {
 
@@ -29,32 +42,41 @@ public class UnderwayAtmosphericPco2Reducer extends DataReducer {
   @Override
   public void doCalculation(Instrument instrument, Measurement measurement,
     DataReductionRecord record, Connection conn) throws Exception {
+    calculateSingle(measurement, record);
+  }
+
+  @Override
+  public void calculate(double[][] inputs, double[][] outputs, int count) {
 
     // We use equilibrator temperature as the presumed most realistic gas
     // temperature
-    Double equilibratorTemperature = measurement
-      .getMeasurementValue("Equilibrator Temperature").getCalculatedValue();
-    Double salinity = measurement.getMeasurementValue("Salinity")
-      .getCalculatedValue();
-    Double atmosphericPressure = measurement
-      .getMeasurementValue("Atmospheric Pressure").getCalculatedValue();
-    Double co2InGas = measurement.getMeasurementValue(getXCO2Parameter())
-      .getCalculatedValue();
-
-    Double seaLevelPressure = Calculators.calcSeaLevelPressure(
-      atmosphericPressure, equilibratorTemperature,
-      getFloatProperty("atm_pres_sensor_height"));
-
-    Double pH2O = Calculators.calcPH2O(salinity, equilibratorTemperature);
-
-    Double pCO2 = Calculators.calcpCO2TEWet(co2InGas, seaLevelPressure, pH2O);
-    Double fCO2 = Calculators.calcfCO2(pCO2, co2InGas, seaLevelPressure,
-      equilibratorTemperature);
-
-    record.put("Sea Level Pressure", seaLevelPressure);
-    record.put("pH₂O", pH2O);
-    record.put("pCO₂", pCO2);
-    record.put("fCO₂", fCO2);
+    double[] equilibratorTemperature = inputs[EQUILIBRATOR_TEMPERATURE];
+    double[] salinity = inputs[SALINITY];
+    double[] atmosphericPressure = inputs[ATMOSPHERIC_PRESSURE];
+    double[] co2InGas = inputs[XCO2];
+
+    Float sensorHeight = getFloatProperty("atm_pres_sensor_height");
+
+    for (int i = 0; i < count; i++) {
+      double seaLevelPressure = atmosphericPressure[i];
+      if (null != sensorHeight) {
+        seaLevelPressure = Calculators.calcSeaLevelPressure(
+          atmosphericPressure[i], equilibratorTemperature[i],
+          sensorHeight.floatValue());
+      }
+
+      double pH2O = Calculators.calcPH2O(salinity[i],
+        equilibratorTemperature[i]);
+
+      double pCO2 = Calculators.calcpCO2TEWet(co2InGas[i], seaLevelPressure,
+        pH2O);
+
+      outputs[SEA_LEVEL_PRESSURE][i] = seaLevelPressure;
+      outputs[PH2O][i] = pH2O;
+      outputs[PCO2][i] = pCO2;
+      outputs[FCO2][i] = Calculators.calcfCO2(pCO2, co2InGas[i],
+        seaLevelPressure, equilibratorTemperature[i]);
+    }
   }
 
   @Override
@@ -16,10 +16,26 @@ import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.Variable;
  * @author Steve Jones
  *
  */
-public class UnderwayMarinePco2Reducer extends DataReducer {
+public class UnderwayMarinePco2Reducer extends DataReducer
+  implements BatchDataReducer {
 
   private static List<CalculationParameter> calculationParameters = null;
 
+  // Positions of the required sensor types
+  private static final int INTAKE_TEMPERATURE = 0;
+  private static final int SALINITY = 1;
+  private static final int EQUILIBRATOR_TEMPERATURE = 2;
+  private static final int EQUILIBRATOR_PRESSURE = 3;
+  private static final int XCO2 = 4;
+
+  // Positions of the calculation parameters
+  private static final int DELTA_T = 0;
+  private static final int PH2O = 1;
+  private static final int PCO2_TE_WET = 2;
+  private static final int FCO2_TE_WET = 3;
+  private static final int PCO2_SST = 4;
+  private static final int FCO2 = 5;
+
   public UnderwayMarinePco2Reducer(Variable variable,
     Map<String, Properties> properties) {
     super(variable, properties);
@@ -28,38 +44,38 @@ public class UnderwayMarinePco2Reducer extends DataReducer {
   @Override
   public void doCalculation(Instrument instrument, Measurement measurement,
     DataReductionRecord record, Connection conn) throws Exception {
+    calculateSingle(measurement, record);
+  }
 
-    Double intakeTemperature = measurement
-      .getMeasurementValue("Intake Temperature").getCalculatedValue();
-    Double salinity = measurement.getMeasurementValue("Salinity")
-      .getCalculatedValue();
-    Double equilibratorTemperature = measurement
-      .getMeasurementValue("Equilibrator Temperature").getCalculatedValue();
-    Double equilibratorPressure = measurement
-      .getMeasurementValue("Equilibrator Pressure").getCalculatedValue();
-    Double co2InGas = measurement.getMeasurementValue(getXCO2Parameter())
-      .getCalculatedValue();
-
-    Double pH2O = Calculators.calcPH2O(salinity, equilibratorTemperature);
-
-    Double pCo2TEWet = Calculators.calcpCO2TEWet(co2InGas, equilibratorPressure,
-      pH2O);
-    Double fCo2TEWet = Calculators.calcfCO2(pCo2TEWet, co2InGas,
-      equilibratorPressure, equilibratorTemperature);
-
-    Double pCO2SST = Calculators.calcCO2AtSST(pCo2TEWet,
-      equilibratorTemperature, intakeTemperature);
-
-    Double fCO2 = Calculators.calcCO2AtSST(fCo2TEWet, equilibratorTemperature,
-      intakeTemperature);
-
-    // Store the calculated values
-    record.put("ΔT", Math.abs(intakeTemperature - equilibratorTemperature));
-    record.put("pH₂O", pH2O);
-    record.put("pCO₂ TE Wet", pCo2TEWet);
-    record.put("fCO₂ TE Wet", fCo2TEWet);
-    record.put("pCO₂ SST", pCO2SST);
-    record.put("fCO₂", fCO2);
+  @Override
+  public void calculate(double[][] inputs, double[][] outputs, int count) {
+
+    double[] intakeTemperature = inputs[INTAKE_TEMPERATURE];
+    double[] salinity = inputs[SALINITY];
+    double[] equilibratorTemperature = inputs[EQUILIBRATOR_TEMPERATURE];
+    double[] equilibratorPressure = inputs[EQUILIBRATOR_PRESSURE];
+    double[] co2InGas = inputs[XCO2];
+
+    for (int i = 0; i < count; i++) {
+      double pH2O = Calculators.calcPH2O(salinity[i],
+        equilibratorTemperature[i]);
+
+      double pCo2TEWet = Calculators.calcpCO2TEWet(co2InGas[i],
+        equilibratorPressure[i], pH2O);
+      double fCo2TEWet = Calculators.calcfCO2(pCo2TEWet, co2InGas[i],
+        equilibratorPressure[i], equilibratorTemperature[i]);
+
+      // Store the calculated values
+      outputs[DELTA_T][i] = Math
+        .abs(intakeTemperature[i] - equilibratorTemperature[i]);
+      outputs[PH2O][i] = pH2O;
+      outputs[PCO2_TE_WET][i] = pCo2TEWet;
+      outputs[FCO2_TE_WET][i] = fCo2TEWet;
+      outputs[PCO2_SST][i] = Calculators.calcCO2AtSST(pCo2TEWet,
+        equilibratorTemperature[i], intakeTemperature[i]);
+      outputs[FCO2][i] = Calculators.calcCO2AtSST(fCo2TEWet,
+        equilibratorTemperature[i], intakeTemperature[i]);
+    }
   }
 
   @Override
@@ -19,7 +19,6 @@ import javax.sql.DataSource;
 import org.primefaces.json.JSONArray;
 import org.primefaces.json.JSONObject;
 
-import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
 import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
@@ -28,6 +27,7 @@ import uk.ac.exeter.QuinCe.data.Instrument.InstrumentException;
 import uk.ac.exeter.QuinCe.utils.DatabaseException;
 import uk.ac.exeter.QuinCe.utils.DatabaseUtils;
 import uk.ac.exeter.QuinCe.utils.DateTimeUtils;
+import uk.ac.exeter.QuinCe.utils.JsonUtils;
 import uk.ac.exeter.QuinCe.utils.Message;
 import uk.ac.exeter.QuinCe.utils.MissingParam;
 import uk.ac.exeter.QuinCe.utils.MissingParamException;
@@ -91,6 +91,22 @@ public class DataSetDB {
     + "FROM dataset ds INNER JOIN instrument i ON ds.instrument_id = i.id "
     + "WHERE ds.nrt = 1 ORDER BY i.platform_code ASC";
 
+  /**
+   * Statement to store the summary statistics for a dataset
+   *
+   * @see #storeStatistics(Connection, long, DatasetStatistics)
+   */
+  private static final String STORE_STATISTICS_STATEMENT = "UPDATE dataset "
+    + "SET statistics = ? WHERE id = ?";
+
+  /**
+   * Query to get the summary statistics for a dataset
+   *
+   * @see #getStatistics(Connection, long)
+   */
+  private static final String GET_STATISTICS_QUERY = "SELECT statistics "
+    + "FROM dataset WHERE id = ?";
+
   /**
    * Make an SQL query for retrieving complete datasets using a specified WHERE
    * clause
@@ -221,7 +237,7 @@ public class DataSetDB {
 
     Type propertiesType = new TypeToken<Map<String, Properties>>() {
     }.getType();
-    Map<String, Properties> properties = new Gson()
+    Map<String, Properties> properties = JsonUtils.GSON
       .fromJson(record.getString(9), propertiesType);
 
     LocalDateTime createdDate = DateTimeUtils
@@ -336,7 +352,7 @@ public class DataSetDB {
       stmt.setInt(5, dataSet.getStatus());
       stmt.setLong(6, DateTimeUtils.dateToLong(dataSet.getStatusDate()));
       stmt.setBoolean(7, dataSet.isNrt());
-      stmt.setString(8, new Gson().toJson(dataSet.getAllProperties()));
+      stmt.setString(8, JsonUtils.GSON.toJson(dataSet.getAllProperties()));
       stmt.setLong(9, DateTimeUtils.dateToLong(LocalDateTime.now()));
 
       if (dataSet.getMessageCount() > 0) {
@@ -822,7 +838,11 @@ public class DataSetDB {
     result.put("last_touched",
       DateTimeUtils.toIsoDate(dataset.getLastTouched()));
 
-    int recordCount = DataSetDataDB.getRecordCount(conn, dataset.getId());
+    // Use the stored statistics if we have them. Datasets extracted before
+    // statistics were recorded need the sensor values to be counted.
+    DatasetStatistics statistics = getStatistics(conn, dataset.getId());
+    long recordCount = null != statistics ? statistics.getRecordCount()
+      : DataSetDataDB.getRecordCount(conn, dataset.getId());
     result.put("records", recordCount);
 
     JSONObject boundsObject = new JSONObject();
@@ -835,6 +855,83 @@ public class DataSetDB {
     return result;
   }
 
+  /**
+   * Store the summary statistics for a dataset
+   *
+   * @param conn
+   *          A database connection
+   * @param datasetId
+   *          The dataset's database ID
+   * @param statistics
+   *          The statistics
+   * @throws DatabaseException
+   *           If a database error occurs
+   * @throws MissingParamException
+   *           If any required parameters are missing
+   */
+  public static void storeStatistics(Connection conn, long datasetId,
+    DatasetStatistics statistics)
+    throws MissingParamException, DatabaseException {
+
+    MissingParam.checkMissing(conn, "conn");
+    MissingParam.checkPositive(datasetId, "datasetId");
+    MissingParam.checkMissing(statistics, "statistics");
+
+    try (PreparedStatement stmt = conn
+      .prepareStatement(STORE_STATISTICS_STATEMENT)) {
+
+      stmt.setString(1, statistics.toJson());
+      stmt.setLong(2, datasetId);
+      stmt.execute();
+    } catch (SQLException e) {
+      throw new DatabaseException("Error while storing dataset statistics", e);
+    }
+  }
+
+  /**
+   * Get the stored summary statistics for a dataset
+   *
+   * @param conn
+   *          A database connection
+   * @param datasetId
+   *          The dataset's database ID
+   * @return The statistics, or {@code null} if none have been stored
+   * @throws DatabaseException
+   *           If a database error occurs
+   * @throws MissingParamException
+   *           If any required parameters are missing
+   * @throws RecordNotFoundException
+   *           If the dataset does not exist
+   */
+  public static DatasetStatistics getStatistics(Connection conn,
+    long datasetId)
+    throws MissingParamException, DatabaseException, RecordNotFoundException {
+
+    MissingParam.checkMissing(conn, "conn");
+    MissingParam.checkPositive(datasetId, "datasetId");
+
+    DatasetStatistics result = null;
+
+    try (PreparedStatement stmt = conn
+      .prepareStatement(GET_STATISTICS_QUERY)) {
+
+      stmt.setLong(1, datasetId);
+
+      try (ResultSet record = stmt.executeQuery()) {
+        if (!record.next()) {
+          throw new RecordNotFoundException("Dataset does not exist",
+            "dataset", datasetId);
+        }
+
+        result = DatasetStatistics.fromJson(record.getString(1));
+      }
+    } catch (SQLException e) {
+      throw new DatabaseException("Error while getting dataset statistics", e);
+    }
+
+    return result;
+  }
+
   /**
    * Get the all the datasets that are ready for export, but not already
    * being/been exported
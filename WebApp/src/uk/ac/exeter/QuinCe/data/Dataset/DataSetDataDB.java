@@ -21,13 +21,16 @@ import java.util.stream.Collectors;
 
 import javax.sql.DataSource;
 
-import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
+import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.CalculationValuesCodec;
+import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.DataReductionException;
 import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.DataReductionRecord;
 import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.ReadOnlyDataReductionRecord;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.InvalidFlagException;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.RoutineException;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.DataReduction.DataReductionRecordHandler;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.AutoQCResult;
 import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
 import uk.ac.exeter.QuinCe.data.Instrument.InstrumentDB;
@@ -39,6 +42,7 @@ import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.Variable;
 import uk.ac.exeter.QuinCe.utils.DatabaseException;
 import uk.ac.exeter.QuinCe.utils.DatabaseUtils;
 import uk.ac.exeter.QuinCe.utils.DateTimeUtils;
+import uk.ac.exeter.QuinCe.utils.JsonUtils;
 import uk.ac.exeter.QuinCe.utils.MissingParam;
 import uk.ac.exeter.QuinCe.utils.MissingParamException;
 import uk.ac.exeter.QuinCe.utils.RecordNotFoundException;
@@ -90,16 +94,61 @@ public class DataSetDataDB {
   private static final String DELETE_SENSOR_VALUES_STATEMENT = "DELETE FROM "
     + "sensor_values WHERE dataset_id = ?";
 
+  /**
+   * Join and filter that restricts sensor value queries to the current values
+   * for a dataset. Values that have been replaced by
+   * {@link #replaceSensorValues(Connection, long, Collection)} but not yet
+   * purged are excluded.
+   */
+  private static final String CURRENT_SENSOR_VALUES_JOIN = "INNER JOIN "
+    + "dataset svd ON sv.dataset_id = svd.id "
+    + "AND sv.id > svd.sensor_values_base_id ";
+
   private static final String GET_SENSOR_VALUES_FOR_DATASET_QUERY = "SELECT "
-    + "id, file_column, date, value, auto_qc, " // 5
-    + "user_qc_flag, user_qc_message " // 7
-    + "FROM sensor_values WHERE dataset_id = ?";
+    + "sv.id, sv.file_column, sv.date, sv.value, sv.auto_qc, " // 5
+    + "sv.user_qc_flag, sv.user_qc_message " // 7
+    + "FROM sensor_values sv " + CURRENT_SENSOR_VALUES_JOIN
+    + "WHERE sv.dataset_id = ?";
 
   private static final String GET_SENSOR_VALUES_FOR_DATASET_NO_FLUSHING_QUERY = "SELECT "
-    + "id, file_column, date, value, auto_qc, " // 5
-    + "user_qc_flag, user_qc_message " // 7
-    + "FROM sensor_values WHERE dataset_id = ? AND user_qc_flag != "
-    + Flag.VALUE_FLUSHING;
+    + "sv.id, sv.file_column, sv.date, sv.value, sv.auto_qc, " // 5
+    + "sv.user_qc_flag, sv.user_qc_message " // 7
+    + "FROM sensor_values sv " + CURRENT_SENSOR_VALUES_JOIN
+    + "WHERE sv.dataset_id = ? AND sv.user_qc_flag != " + Flag.VALUE_FLUSHING;
+
+  /**
+   * Statement to add multiple sensor values in one go. The row parameters are
+   * added by {@link DatabaseUtils#makeMultiRowInsertSql(String, String, int)}.
+   */
+  private static final String MULTI_STORE_SENSOR_VALUES_STATEMENT = "INSERT INTO "
+    + "sensor_values (dataset_id, file_column, date, value, "
+    + "auto_qc, user_qc_flag, user_qc_message) VALUES ";
+
+  private static final String MULTI_STORE_SENSOR_VALUES_ROW = "(?, ?, ?, ?, ?, ?, ?)";
+
+  private static final String GET_MAX_SENSOR_VALUE_ID_QUERY = "SELECT "
+    + "COALESCE(MAX(id), 0) FROM sensor_values WHERE dataset_id = ?";
+
+  private static final String SET_SENSOR_VALUES_BASE_ID_STATEMENT = "UPDATE "
+    + "dataset SET sensor_values_base_id = ? WHERE id = ?";
+
+  private static final String QUEUE_SENSOR_VALUES_PURGE_STATEMENT = "INSERT INTO "
+    + "sensor_values_purge (dataset_id, max_id) VALUES (?, ?)";
+
+  private static final String GET_SENSOR_VALUES_PURGE_QUEUE_QUERY = "SELECT "
+    + "dataset_id, max_id FROM sensor_values_purge ORDER BY dataset_id";
+
+  private static final String PURGE_SENSOR_VALUES_STATEMENT = "DELETE FROM "
+    + "sensor_values WHERE dataset_id = ? AND id <= ? LIMIT ?";
+
+  private static final String DEQUEUE_SENSOR_VALUES_PURGE_STATEMENT = "DELETE "
+    + "FROM sensor_values_purge WHERE dataset_id = ? AND max_id = ?";
+
+  /**
+   * The maximum number of rows written by a single multi-row INSERT statement
+   * when replacing sensor values
+   */
+  private static final int SENSOR_VALUES_ROWS_PER_STATEMENT = 500;
 
   /**
    * Statement to store a measurement record
@@ -125,10 +174,12 @@ public class DataSetDataDB {
     + DatabaseUtils.IN_PARAMS_TOKEN + " ORDER BY date ASC";
 
   /**
-   * Statement to store a data reduction result
+   * Statement to store a data reduction result. The calculation values are
+   * only stored in packed form, so the JSON {@code calculation_values} column
+   * is left empty.
    */
   private static final String STORE_DATA_REDUCTION_STATEMENT = "INSERT INTO "
-    + "data_reduction (measurement_id, variable_id, calculation_values, "
+    + "data_reduction (measurement_id, variable_id, calculation_data, "
     + "qc_flag, qc_message) VALUES (?, ?, ?, ?, ?)";
 
   /**
@@ -150,31 +201,53 @@ public class DataSetDataDB {
     + "measurements WHERE dataset_id = ?";
 
   private static final String GET_SENSOR_VALUES_FOR_COLUMNS_QUERY = "SELECT "
-    + "id, file_column, date, value, auto_qc, " // 5
-    + "user_qc_flag, user_qc_message " // 8
-    + "FROM sensor_values WHERE dataset_id = ? AND file_column IN "
-    + DatabaseUtils.IN_PARAMS_TOKEN + "ORDER BY date";
+    + "sv.id, sv.file_column, sv.date, sv.value, sv.auto_qc, " // 5
+    + "sv.user_qc_flag, sv.user_qc_message " // 8
+    + "FROM sensor_values sv " + CURRENT_SENSOR_VALUES_JOIN
+    + "WHERE sv.dataset_id = ? AND sv.file_column IN "
+    + DatabaseUtils.IN_PARAMS_TOKEN + "ORDER BY sv.date";
 
   private static final String GET_SENSOR_VALUE_DATES_QUERY = "SELECT DISTINCT "
-    + "date FROM sensor_values WHERE dataset_id = ? ORDER BY date ASC";
+    + "sv.date FROM sensor_values sv " + CURRENT_SENSOR_VALUES_JOIN
+    + "WHERE sv.dataset_id = ? ORDER BY sv.date ASC";
 
   private static final String GET_REQUIRED_FLAGS_QUERY = "SELECT "
-    + "COUNT(*) FROM sensor_values WHERE dataset_id = ? "
-    + "AND user_qc_flag = " + Flag.VALUE_NEEDED;
+    + "COUNT(*) FROM sensor_values sv " + CURRENT_SENSOR_VALUES_JOIN
+    + "WHERE sv.dataset_id = ? AND sv.user_qc_flag = " + Flag.VALUE_NEEDED;
 
   private static final String GET_DATA_REDUCTION_QUERY = "SELECT "
-    + "dr.measurement_id, dr.variable_id, dr.calculation_values, "
-    + "dr.qc_flag, dr.qc_message FROM data_reduction dr INNER JOIN "
+    + "dr.measurement_id, dr.variable_id, dr.calculation_values, " // 3
+    + "dr.calculation_data, dr.qc_flag, dr.qc_message " // 6
+    + "FROM data_reduction dr INNER JOIN "
     + "measurements m ON dr.measurement_id = m.id WHERE m.dataset_id = ? "
     + "ORDER BY dr.measurement_id ASC";
 
+  /**
+   * Query to get the measurements for a dataset along with their data
+   * reduction records, in time order
+   */
+  private static final String GET_MEASUREMENTS_WITH_DATA_REDUCTION_QUERY = "SELECT "
+    + "m.id, m.date, m.measurement_values, dr.variable_id, " // 4
+    + "dr.calculation_values, dr.calculation_data, dr.qc_flag, " // 7
+    + "dr.qc_message " // 8
+    + "FROM measurements m INNER JOIN data_reduction dr "
+    + "ON dr.measurement_id = m.id WHERE m.dataset_id = ? "
+    + "ORDER BY m.date ASC, m.id ASC";
+
+  /**
+   * The type of the calculation values map stored in data reduction records
+   */
+  private static final Type CALCULATION_VALUES_TYPE = new TypeToken<HashMap<String, Double>>() {
+  }.getType();
+
   private static final String GET_RECORD_COUNT_QUERY = "SELECT "
-    + "COUNT(DISTINCT(date)) FROM sensor_values WHERE dataset_id = ?";
+    + "COUNT(DISTINCT(sv.date)) FROM sensor_values sv "
+    + CURRENT_SENSOR_VALUES_JOIN + "WHERE sv.dataset_id = ?";
 
   private static final String GET_RUN_TYPES_QUERY = "SELECT "
-    + "date, value FROM sensor_values "
-    + " WHERE dataset_id = ? AND file_column IN "
-    + DatabaseUtils.IN_PARAMS_TOKEN + " ORDER BY date ASC";
+    + "sv.date, sv.value FROM sensor_values sv " + CURRENT_SENSOR_VALUES_JOIN
+    + "WHERE sv.dataset_id = ? AND sv.file_column IN "
+    + DatabaseUtils.IN_PARAMS_TOKEN + " ORDER BY sv.date ASC";
 
   private static final String STORE_MEASUREMENT_VALUES_STATEMENT = "UPDATE measurements "
     + "SET measurement_values = ? WHERE id = ?";
@@ -182,7 +255,7 @@ public class DataSetDataDB {
   private static final String GET_INTERNAL_CALIBRATION_SENSOR_VALUES_QUERY = "SELECT "
     + "sv.id, sv.file_column, sv.date, sv.value, sv.auto_qc, "
     + "sv.user_qc_flag, sv.user_qc_message, mrt.run_type "
-    + "FROM sensor_values sv "
+    + "FROM sensor_values sv " + CURRENT_SENSOR_VALUES_JOIN
     + "INNER JOIN measurements m ON m.date = sv.date "
     + "INNER JOIN measurement_run_types mrt ON m.id = mrt.measurement_id "
     + "WHERE m.dataset_id = ? AND mrt.run_type IN "
@@ -391,6 +464,246 @@ public class DataSetDataDB {
     }
   }
 
+  /**
+   * Replace all the sensor values for a dataset with a new set of values.
+   *
+   * <p>
+   * The new values are written to the {@code sensor_values} table using
+   * multi-row INSERT statements. The dataset's {@code sensor_values_base_id}
+   * is then moved past the IDs of the existing values, which hides them from
+   * all sensor value queries. The old values are
+   * queued to be deleted in the background by
+   * {@link #purgeReplacedSensorValues(DataSource, int)}, so the cost of this
+   * method depends only on the number of new values.
+   * </p>
+   *
+   * <p>
+   * The swap is only atomic if the connection is not in auto-commit mode; the
+   * caller is responsible for committing the transaction. The new values must
+   * all belong to the specified dataset and not be in the database already.
+   * They must be re-read from the database to obtain their IDs.
+   * </p>
+   *
+   * @param conn
+   *          A database connection
+   * @param datasetId
+   *          The dataset's database ID
+   * @param sensorValues
+   *          The new sensor values
+   * @throws DatabaseException
+   *           If a database error occurs
+   * @throws MissingParamException
+   *           If any required parameters are missing
+   */
+  public static void replaceSensorValues(Connection conn, long datasetId,
+    Collection<SensorValue> sensorValues)
+    throws MissingParamException, DatabaseException {
+
+    MissingParam.checkMissing(conn, "conn");
+    MissingParam.checkPositive(datasetId, "datasetId");
+    MissingParam.checkMissing(sensorValues, "sensorValues", true);
+
+    try {
+      // The new values will be given IDs above the existing values
+      long oldMaxId;
+      try (PreparedStatement maxIdStmt = conn
+        .prepareStatement(GET_MAX_SENSOR_VALUE_ID_QUERY)) {
+        maxIdStmt.setLong(1, datasetId);
+        try (ResultSet maxId = maxIdStmt.executeQuery()) {
+          maxId.next();
+          oldMaxId = maxId.getLong(1);
+        }
+      }
+
+      insertSensorValues(conn, datasetId, sensorValues);
+
+      try (PreparedStatement baseIdStmt = conn
+        .prepareStatement(SET_SENSOR_VALUES_BASE_ID_STATEMENT)) {
+        baseIdStmt.setLong(1, oldMaxId);
+        baseIdStmt.setLong(2, datasetId);
+        baseIdStmt.execute();
+      }
+
+      if (oldMaxId > 0) {
+        try (PreparedStatement queueStmt = conn
+          .prepareStatement(QUEUE_SENSOR_VALUES_PURGE_STATEMENT)) {
+          queueStmt.setLong(1, datasetId);
+          queueStmt.setLong(2, oldMaxId);
+          queueStmt.execute();
+        }
+      }
+    } catch (SQLException e) {
+      throw new DatabaseException("Error replacing sensor values", e);
+    }
+
+    SensorValue.clearDirtyFlag(sensorValues);
+  }
+
+  /**
+   * Write a set of sensor values to the database using multi-row INSERT
+   * statements. The values are written in the collection's iteration order.
+   *
+   * @param conn
+   *          A database connection
+   * @param datasetId
+   *          The dataset's database ID
+   * @param sensorValues
+   *          The values to write
+   * @throws SQLException
+   *           If a database error occurs
+   * @throws MissingParamException
+   *           If any required parameters are missing
+   */
+  private static void insertSensorValues(Connection conn, long datasetId,
+    Collection<SensorValue> sensorValues)
+    throws SQLException, MissingParamException {
+
+    String fullSql = DatabaseUtils.makeMultiRowInsertSql(
+      MULTI_STORE_SENSOR_VALUES_STATEMENT, MULTI_STORE_SENSOR_VALUES_ROW,
+      SENSOR_VALUES_ROWS_PER_STATEMENT);
+
+    try (PreparedStatement fullStmt = conn.prepareStatement(fullSql)) {
+
+      List<SensorValue> block = new ArrayList<SensorValue>(
+        SENSOR_VALUES_ROWS_PER_STATEMENT);
+
+      for (SensorValue value : sensorValues) {
+        block.add(value);
+        if (block.size() == SENSOR_VALUES_ROWS_PER_STATEMENT) {
+          setMultiStoreParams(fullStmt, datasetId, block);
+          fullStmt.execute();
+          block.clear();
+        }
+      }
+
+      // The last block will be smaller
+      if (block.size() > 0) {
+        String partSql = DatabaseUtils.makeMultiRowInsertSql(
+          MULTI_STORE_SENSOR_VALUES_STATEMENT, MULTI_STORE_SENSOR_VALUES_ROW,
+          block.size());
+
+        try (PreparedStatement partStmt = conn.prepareStatement(partSql)) {
+          setMultiStoreParams(partStmt, datasetId, block);
+          partStmt.execute();
+        }
+      }
+    }
+  }
+
+  /**
+   * Set the parameters of a multi-row INSERT statement for a block of sensor
+   * values.
+   *
+   * @param stmt
+   *          The statement
+   * @param datasetId
+   *          The dataset's database ID
+   * @param values
+   *          The sensor values
+   * @throws SQLException
+   *           If the parameters cannot be set
+   */
+  private static void setMultiStoreParams(PreparedStatement stmt, long datasetId,
+    List<SensorValue> values) throws SQLException {
+
+    int param = 0;
+    for (SensorValue value : values) {
+      stmt.setLong(++param, datasetId);
+      stmt.setLong(++param, value.getColumnId());
+      stmt.setLong(++param, DateTimeUtils.dateToLong(value.getTime()));
+      if (null == value.getValue()) {
+        stmt.setNull(++param, Types.VARCHAR);
+      } else {
+        stmt.setString(++param, value.getValue());
+      }
+      stmt.setString(++param, value.getAutoQcResult().toJson());
+      stmt.setInt(++param, value.getUserQCFlag().getFlagValue());
+      stmt.setString(++param, value.getUserQCMessage());
+    }
+  }
+
+  /**
+   * Delete sensor values that have been replaced by
+   * {@link #replaceSensorValues(Connection, long, Collection)}.
+   *
+   * <p>
+   * The values are deleted in chunks of the specified size, with each chunk
+   * committed separately, so that no single transaction holds locks on a large
+   * number of rows.
+   * </p>
+   *
+   * @param dataSource
+   *          A data source
+   * @param chunkSize
+   *          The maximum number of rows to delete in one statement
+   * @return The number of sensor values deleted
+   * @throws DatabaseException
+   *           If a database error occurs
+   * @throws MissingParamException
+   *           If any required parameters are missing
+   */
+  public static int purgeReplacedSensorValues(DataSource dataSource,
+    int chunkSize) throws MissingParamException, DatabaseException {
+
+    MissingParam.checkMissing(dataSource, "dataSource");
+    MissingParam.checkPositive(chunkSize, "chunkSize");
+
+    int deleted = 0;
+
+    try (Connection conn = dataSource.getConnection()) {
+
+      Map<Long, List<Long>> queue = new TreeMap<Long, List<Long>>();
+
+      try (
+        PreparedStatement queueStmt = conn
+          .prepareStatement(GET_SENSOR_VALUES_PURGE_QUEUE_QUERY);
+        ResultSet records = queueStmt.executeQuery()) {
+
+        while (records.next()) {
+          long datasetId = records.getLong(1);
+          if (!queue.containsKey(datasetId)) {
+            queue.put(datasetId, new ArrayList<Long>());
+          }
+          queue.get(datasetId).add(records.getLong(2));
+        }
+      }
+
+      try (
+        PreparedStatement purgeStmt = conn
+          .prepareStatement(PURGE_SENSOR_VALUES_STATEMENT);
+        PreparedStatement dequeueStmt = conn
+          .prepareStatement(DEQUEUE_SENSOR_VALUES_PURGE_STATEMENT)) {
+
+        for (Map.Entry<Long, List<Long>> entry : queue.entrySet()) {
+
+          // Deleting up to the largest queued ID covers all the others
+          long maxId = entry.getValue().stream().mapToLong(Long::longValue)
+            .max().getAsLong();
+
+          boolean finished = false;
+          while (!finished) {
+            purgeStmt.setLong(1, entry.getKey());
+            purgeStmt.setLong(2, maxId);
+            purgeStmt.setInt(3, chunkSize);
+            int chunkDeleted = purgeStmt.executeUpdate();
+            deleted += chunkDeleted;
+            finished = chunkDeleted < chunkSize;
+          }
+
+          for (long queuedId : entry.getValue()) {
+            dequeueStmt.setLong(1, entry.getKey());
+            dequeueStmt.setLong(2, queuedId);
+            dequeueStmt.execute();
+          }
+        }
+      }
+    } catch (SQLException e) {
+      throw new DatabaseException("Error while purging sensor values", e);
+    }
+
+    return deleted;
+  }
+
   /**
    * Get all the sensor values for a dataset grouped by their column in the
    * source data file(s)
@@ -591,12 +904,14 @@ public class DataSetDataDB {
     throws MissingParamException, DatabaseException {
 
     MissingParam.checkMissing(conn, "conn");
+    MissingParam.checkMissing(instrument, "instrument");
     MissingParam.checkZeroPositive(datasetId, "datasetId");
 
     PreparedStatement stmt = null;
     ResultSet records = null;
 
-    DatasetMeasurements measurements = new DatasetMeasurements();
+    DatasetMeasurements measurements = new DatasetMeasurements(
+      instrument.getRunTypeDictionary());
 
     try {
 
@@ -728,7 +1043,8 @@ public class DataSetDataDB {
 
         dataReductionStmt.setLong(1, dataReduction.getMeasurementId());
         dataReductionStmt.setLong(2, dataReduction.getVariableId());
-        dataReductionStmt.setString(3, dataReduction.getCalculationJson());
+        dataReductionStmt.setBytes(3,
+          dataReduction.getPackedCalculationValues());
         dataReductionStmt.setInt(4, dataReduction.getQCFlag().getFlagValue());
         dataReductionStmt.setString(5, StringUtils
           .collectionToDelimited(dataReduction.getQCMessages(), ";"));
@@ -1013,6 +1329,7 @@ public class DataSetDataDB {
     MissingParam.checkMissing(dataSet, "dataSet");
 
     Map<Long, Map<Variable, ReadOnlyDataReductionRecord>> result = new HashMap<Long, Map<Variable, ReadOnlyDataReductionRecord>>();
+    Map<Variable, CalculationValuesCodec> codecs = new HashMap<Variable, CalculationValuesCodec>();
 
     try (PreparedStatement stmt = conn
       .prepareStatement(GET_DATA_REDUCTION_QUERY)) {
@@ -1026,19 +1343,10 @@ public class DataSetDataDB {
 
           long measurementId = records.getLong(1);
           long variableId = records.getLong(2);
+          Variable variable = instrument.getVariable(variableId);
 
-          String calculationValuesJson = records.getString(3);
-          Type mapType = new TypeToken<HashMap<String, Double>>() {
-          }.getType();
-          Map<String, Double> calculationValues = new Gson()
-            .fromJson(calculationValuesJson, mapType);
-
-          Flag qcFlag = new Flag(records.getInt(4));
-          String qcMessage = records.getString(5);
-
-          ReadOnlyDataReductionRecord record = ReadOnlyDataReductionRecord
-            .makeRecord(measurementId, variableId, calculationValues, qcFlag,
-              qcMessage);
+          ReadOnlyDataReductionRecord record = readDataReductionRecord(records,
+            3, measurementId, variable, codecs);
 
           if (measurementId != currentMeasurement) {
             result.put(measurementId,
@@ -1046,8 +1354,7 @@ public class DataSetDataDB {
             currentMeasurement = measurementId;
           }
 
-          result.get(currentMeasurement).put(instrument.getVariable(variableId),
-            record);
+          result.get(currentMeasurement).put(variable, record);
         }
       }
     } catch (Exception e) {
@@ -1058,6 +1365,163 @@ public class DataSetDataDB {
     return result;
   }
 
+  /**
+   * Read the measurements and data reduction records for a dataset in time
+   * order, passing them to a handler one measurement at a time.
+   *
+   * <p>
+   * The records are streamed from the database, so only the records for the
+   * current measurement are held in memory. The measurements include their
+   * measurement values but not their run types. No other statements can be
+   * executed on the connection until this method returns, so the handler
+   * must not access the database.
+   * </p>
+   *
+   * @param conn
+   *          A database connection
+   * @param instrument
+   *          The instrument
+   * @param dataSet
+   *          The dataset
+   * @param handler
+   *          The handler for the records
+   * @return The number of measurements processed
+   * @throws MissingParamException
+   *           If any required parameters are missing
+   * @throws DatabaseException
+   *           If a database error occurs
+   * @throws RoutineException
+   *           If the handler fails
+   */
+  public static int processDataReductionData(Connection conn,
+    Instrument instrument, DataSet dataSet, DataReductionRecordHandler handler)
+    throws MissingParamException, DatabaseException, RoutineException {
+
+    MissingParam.checkMissing(conn, "conn");
+    MissingParam.checkMissing(instrument, "instrument");
+    MissingParam.checkMissing(dataSet, "dataSet");
+    MissingParam.checkMissing(handler, "handler");
+
+    int count = 0;
+    Map<Variable, CalculationValuesCodec> codecs = new HashMap<Variable, CalculationValuesCodec>();
+
+    try (PreparedStatement stmt = conn
+      .prepareStatement(GET_MEASUREMENTS_WITH_DATA_REDUCTION_QUERY)) {
+
+      DatabaseUtils.streamResults(stmt);
+      stmt.setLong(1, dataSet.getId());
+
+      try (ResultSet records = stmt.executeQuery()) {
+
+        Measurement measurement = null;
+        Map<Variable, ReadOnlyDataReductionRecord> measurementRecords = null;
+
+        while (records.next()) {
+          long measurementId = records.getLong(1);
+
+          if (null == measurement || measurement.getId() != measurementId) {
+            if (null != measurement) {
+              handler.handle(measurement, measurementRecords);
+              count++;
+            }
+
+            String measurementValuesJson = records.getString(3);
+            HashMap<Long, MeasurementValue> measurementValues = null == measurementValuesJson
+              ? null
+              : Measurement.gson.fromJson(measurementValuesJson,
+                Measurement.MEASUREMENT_VALUES_TYPE);
+
+            measurement = new Measurement(measurementId, dataSet.getId(),
+              DateTimeUtils.longToDate(records.getLong(2)),
+              new HashMap<Long, String>(), measurementValues);
+            measurementRecords = new HashMap<Variable, ReadOnlyDataReductionRecord>();
+          }
+
+          Variable variable = instrument.getVariable(records.getLong(4));
+          measurementRecords.put(variable, readDataReductionRecord(records, 5,
+            measurementId, variable, codecs));
+        }
+
+        if (null != measurement) {
+          handler.handle(measurement, measurementRecords);
+          count++;
+        }
+      }
+    } catch (RoutineException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new DatabaseException("Error while retrieving data reduction data",
+        e);
+    }
+
+    return count;
+  }
+
+  /**
+   * Build a data reduction record from a query result. The calculation
+   * values are read from the packed column if possible, falling back to the
+   * JSON column for records stored before the packed format was introduced.
+   * Records that were packed with a different list of calculation parameters
+   * and have no JSON values are returned with no calculation values.
+   *
+   * <p>
+   * The result set must contain the {@code calculation_values},
+   * {@code calculation_data}, {@code qc_flag} and {@code qc_message} columns
+   * in that order.
+   * </p>
+   *
+   * @param records
+   *          The query result, positioned at the record
+   * @param firstColumn
+   *          The index of the {@code calculation_values} column
+   * @param measurementId
+   *          The measurement ID
+   * @param variable
+   *          The record's variable
+   * @param codecs
+   *          The codecs for each variable, which will be added to as required
+   * @return The record
+   * @throws SQLException
+   *           If the values cannot be read
+   * @throws DataReductionException
+   *           If the variable's calculation parameters cannot be retrieved
+   * @throws InvalidFlagException
+   *           If the QC flag is invalid
+   */
+  private static ReadOnlyDataReductionRecord readDataReductionRecord(
+    ResultSet records, int firstColumn, long measurementId, Variable variable,
+    Map<Variable, CalculationValuesCodec> codecs)
+    throws SQLException, DataReductionException, InvalidFlagException {
+
+    CalculationValuesCodec codec = codecs.get(variable);
+    if (null == codec) {
+      codec = CalculationValuesCodec.getCodec(variable);
+      codecs.put(variable, codec);
+    }
+
+    double[] values = codec.decode(records.getBytes(firstColumn + 1));
+    Flag qcFlag = new Flag(records.getInt(firstColumn + 2));
+    String qcMessage = records.getString(firstColumn + 3);
+
+    ReadOnlyDataReductionRecord result;
+
+    if (null != values) {
+      result = ReadOnlyDataReductionRecord.makeRecord(measurementId,
+        variable.getId(), codec, values, qcFlag, qcMessage);
+    } else {
+      Map<String, Double> calculationValues = JsonUtils.GSON
+        .fromJson(records.getString(firstColumn), CALCULATION_VALUES_TYPE);
+      if (null == calculationValues) {
+        calculationValues = new HashMap<String, Double>();
+      }
+
+      result = ReadOnlyDataReductionRecord.makeRecord(measurementId,
+        variable.getId(), calculationValues, qcFlag, qcMessage);
+    }
+
+    return result;
+  }
+
   public static Map<LocalDateTime, Long> getMeasurementTimes(Connection conn,
     long datasetId, List<String> runTypes)
     throws MissingParamException, DatabaseException {
@@ -1104,7 +1568,8 @@ public class DataSetDataDB {
     MissingParam.checkMissing(dataSet, "dataSet");
     MissingParam.checkMissing(allowedRunTypes, "allowedRunTypes", false);
 
-    RunTypePeriods result = new RunTypePeriods();
+    RunTypePeriods result = new RunTypePeriods(
+      instrument.getRunTypeDictionary());
 
     List<Long> runTypeColumnIds = instrument.getSensorAssignments()
       .getRunTypeColumnIDs();
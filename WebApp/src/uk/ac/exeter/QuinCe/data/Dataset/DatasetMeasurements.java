@@ -10,6 +10,8 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 
+import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
+import uk.ac.exeter.QuinCe.data.Instrument.RunTypes.RunTypeDictionary;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.Variable;
 
 /**
@@ -46,11 +48,29 @@ public class DatasetMeasurements {
    */
   private List<LocalDateTime> measurementTimes = null;;
 
+  /**
+   * The dictionary used to encode run types in the map keys.
+   */
+  private final RunTypeDictionary runTypeDictionary;
+
   /**
    * Basic constructor.
    */
   public DatasetMeasurements() {
+    this(new RunTypeDictionary());
+  }
+
+  /**
+   * Create an empty set of measurements whose run types are encoded using the
+   * specified dictionary. This will normally be the instrument's dictionary
+   * (see {@link Instrument#getRunTypeDictionary()}).
+   *
+   * @param runTypeDictionary
+   *          The run type dictionary.
+   */
+  public DatasetMeasurements(RunTypeDictionary runTypeDictionary) {
     measurements = new HashMap<VariableRunType, ArrayList<Measurement>>();
+    this.runTypeDictionary = runTypeDictionary;
   }
 
   /**
@@ -60,7 +80,8 @@ public class DatasetMeasurements {
    */
   public Set<String> getRunTypes(Variable variable) {
     return measurements.keySet().stream()
-      .filter(k -> k.variableId == variable.getId()).map(k -> k.runType)
+      .filter(k -> k.variableId == variable.getId())
+      .map(k -> runTypeDictionary.getRunType(k.runTypeCode))
       .collect(Collectors.toSet());
   }
 
@@ -72,18 +93,20 @@ public class DatasetMeasurements {
    * @return The measurements.
    */
   public List<Measurement> getMeasurements(Variable variable, String runType) {
-    return measurements.get(new VariableRunType(variable, runType));
+    return getMeasurements(variable.getId(), runType);
   }
 
   public List<Measurement> getMeasurements(long variableId, String runType) {
-    return measurements.get(new VariableRunType(variableId, runType));
+    return measurements.get(
+      new VariableRunType(variableId, runTypeDictionary.getCode(runType)));
   }
 
   public void addMeasurement(Measurement measurement) {
 
     for (Map.Entry<Long, String> runTypeEntry : measurement.getRunTypes()
       .entrySet()) {
-      VariableRunType varRunType = new VariableRunType(runTypeEntry);
+      VariableRunType varRunType = new VariableRunType(runTypeEntry.getKey(),
+        runTypeDictionary.getCode(runTypeEntry.getValue()));
 
       if (!measurements.containsKey(varRunType)) {
         measurements.put(varRunType, new ArrayList<Measurement>());
@@ -185,30 +208,24 @@ public class DatasetMeasurements {
     return result;
   }
 
+  /**
+   * Map key combining a variable ID and a run type code from the
+   * {@link RunTypeDictionary}.
+   */
   private static class VariableRunType {
     private final long variableId;
-    private final String runType;
+    private final int runTypeCode;
 
-    private VariableRunType(long variableId, String runType) {
+    private VariableRunType(long variableId, int runTypeCode) {
       this.variableId = variableId;
-      this.runType = runType;
-    }
-
-    private VariableRunType(Variable variable, String runType) {
-      this.variableId = variable.getId();
-      this.runType = runType;
-    }
-
-    private VariableRunType(Map.Entry<Long, String> mapEntry) {
-      this.variableId = mapEntry.getKey();
-      this.runType = mapEntry.getValue();
+      this.runTypeCode = runTypeCode;
     }
 
     @Override
     public int hashCode() {
       final int prime = 31;
       int result = 1;
-      result = prime * result + ((runType == null) ? 0 : runType.hashCode());
+      result = prime * result + runTypeCode;
       result = prime * result + (int) (variableId ^ (variableId >>> 32));
       return result;
     }
@@ -222,10 +239,7 @@ public class DatasetMeasurements {
       if (getClass() != obj.getClass())
         return false;
       VariableRunType other = (VariableRunType) obj;
-      if (runType == null) {
-        if (other.runType != null)
-          return false;
-      } else if (!runType.equals(other.runType))
+      if (runTypeCode != other.runTypeCode)
         return false;
       if (variableId != other.variableId)
         return false;
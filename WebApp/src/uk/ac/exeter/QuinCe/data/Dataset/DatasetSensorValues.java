@@ -38,11 +38,13 @@ public class DatasetSensorValues {
   public static final long FLAG_TOTAL = -1L;
 
   /**
-   * A cache of all the times in the dataset
+   * A cache of all the times in the dataset. Instances can be shared between
+   * threads once they have been loaded, so the cache is published through a
+   * volatile field.
    *
    * @see #getTimes()
    */
-  private List<LocalDateTime> times = null;
+  private volatile List<LocalDateTime> times = null;
 
   public DatasetSensorValues(Instrument instrument) {
     valuesById = new HashMap<Long, SensorValue>();
@@ -64,6 +66,28 @@ public class DatasetSensorValues {
     addByDateAndColumn(sensorValue);
   }
 
+  /**
+   * Make a copy of this object containing copies of all the
+   * {@link SensorValue}s, so that they can be modified without affecting the
+   * original.
+   *
+   * @return The copy
+   * @throws RecordNotFoundException
+   *           If the sensor type for any value cannot be found
+   */
+  public DatasetSensorValues copy() throws RecordNotFoundException {
+    DatasetSensorValues copy = new DatasetSensorValues(instrument);
+
+    // Copy column by column so each column's values stay in time order
+    for (SearchableSensorValuesList columnValues : valuesByColumn.values()) {
+      for (SensorValue value : columnValues) {
+        copy.add((SensorValue) value.clone());
+      }
+    }
+
+    return copy;
+  }
+
   public Set<Long> getColumnIds() {
     return valuesByColumn.keySet();
   }
@@ -121,11 +145,17 @@ public class DatasetSensorValues {
   }
 
   public List<LocalDateTime> getTimes() {
-    if (null == times) {
-      times = new ArrayList<LocalDateTime>(valuesByDateAndColumn.keySet());
+    List<LocalDateTime> result = times;
+
+    // If two threads build the cache at the same time they will build the
+    // same list, so no lock is needed
+    if (null == result) {
+      result = Collections.unmodifiableList(
+        new ArrayList<LocalDateTime>(valuesByDateAndColumn.keySet()));
+      times = result;
     }
 
-    return times;
+    return result;
   }
 
   public Map<Long, SensorValue> get(LocalDateTime time) {
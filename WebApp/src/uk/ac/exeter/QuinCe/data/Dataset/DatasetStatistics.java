@@ -0,0 +1,164 @@
+package uk.ac.exeter.QuinCe.data.Dataset;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import uk.ac.exeter.QuinCe.utils.JsonUtils;
+
+/**
+ * Summary statistics for a {@link DataSet}, collected while its sensor values
+ * are extracted.
+ *
+ * <p>
+ * The statistics are stored with the dataset (see
+ * {@link DataSetDB#storeStatistics(java.sql.Connection, long, DatasetStatistics)})
+ * so that summaries of the dataset can be produced without reading all of its
+ * sensor values from the database.
+ * </p>
+ *
+ * <p>
+ * QC flags are not included, because users can change them at any time
+ * without the statistics being rebuilt.
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public class DatasetStatistics {
+
+  /**
+   * The number of distinct times in the dataset
+   */
+  private long recordCount = 0;
+
+  /**
+   * The statistics for each file column, keyed by column ID
+   */
+  private TreeMap<Long, ColumnStatistics> columns = new TreeMap<Long, ColumnStatistics>();
+
+  /**
+   * Add a sensor value to the statistics for its column. Values that cannot
+   * be parsed as numbers are counted as {@code NaN}.
+   *
+   * @param value
+   *          The sensor value
+   */
+  public void add(SensorValue value) {
+    double doubleValue;
+
+    try {
+      doubleValue = value.getDoubleValue();
+    } catch (NumberFormatException e) {
+      doubleValue = Double.NaN;
+    }
+
+    getOrCreateColumn(value.getColumnId()).add(value.getTime(), doubleValue);
+  }
+
+  /**
+   * Get the statistics for a column, creating them if they do not exist.
+   *
+   * @param columnId
+   *          The column ID
+   * @return The column statistics
+   */
+  private ColumnStatistics getOrCreateColumn(long columnId) {
+    ColumnStatistics result = columns.get(columnId);
+    if (null == result) {
+      result = new ColumnStatistics();
+      columns.put(columnId, result);
+    }
+
+    return result;
+  }
+
+  /**
+   * Get the number of distinct times in the dataset
+   *
+   * @return The record count
+   */
+  public long getRecordCount() {
+    return recordCount;
+  }
+
+  /**
+   * Set the number of distinct times in the dataset
+   *
+   * @param recordCount
+   *          The record count
+   */
+  public void setRecordCount(long recordCount) {
+    this.recordCount = recordCount;
+  }
+
+  /**
+   * Get the statistics for a column.
+   *
+   * @param columnId
+   *          The column ID
+   * @return The column statistics, or {@code null} if the column has no values
+   */
+  public ColumnStatistics getColumn(long columnId) {
+    return columns.get(columnId);
+  }
+
+  /**
+   * Get the statistics for all columns, keyed by column ID
+   *
+   * @return The column statistics
+   */
+  public Map<Long, ColumnStatistics> getColumns() {
+    return columns;
+  }
+
+  /**
+   * Get the minimum value of a column.
+   *
+   * @param columnId
+   *          The column ID
+   * @param defaultValue
+   *          The value to return if the column has no numeric values
+   * @return The minimum value
+   */
+  public double getMin(long columnId, double defaultValue) {
+    ColumnStatistics column = columns.get(columnId);
+    return null == column || column.getCount() == 0 ? defaultValue
+      : column.getMin();
+  }
+
+  /**
+   * Get the maximum value of a column.
+   *
+   * @param columnId
+   *          The column ID
+   * @param defaultValue
+   *          The value to return if the column has no numeric values
+   * @return The maximum value
+   */
+  public double getMax(long columnId, double defaultValue) {
+    ColumnStatistics column = columns.get(columnId);
+    return null == column || column.getCount() == 0 ? defaultValue
+      : column.getMax();
+  }
+
+  /**
+   * Get the JSON representation of the statistics for storage
+   *
+   * @return The JSON string
+   */
+  public String toJson() {
+    return JsonUtils.GSON_SPECIAL_FLOATS.toJson(this);
+  }
+
+  /**
+   * Build a statistics object from its stored JSON representation.
+   *
+   * @param json
+   *          The JSON string
+   * @return The statistics, or {@code null} if {@code json} is {@code null}
+   */
+  public static DatasetStatistics fromJson(String json) {
+    return null == json ? null
+      : JsonUtils.GSON_SPECIAL_FLOATS.fromJson(json, DatasetStatistics.class);
+  }
+}
@@ -42,7 +42,8 @@ public class DefaultMeasurementValueCalculator
   public MeasurementValue calculate(Instrument instrument,
     Measurement measurement, SensorType sensorType,
     DatasetMeasurements allMeasurements, DatasetSensorValues allSensorValues,
-    Connection conn) throws MeasurementValueCalculatorException {
+    SensorValuesCursors cursors, Connection conn)
+    throws MeasurementValueCalculatorException {
 
     try {
       // TODO #1128 This currently assumes only one sensor for each SensorType.
@@ -60,10 +61,14 @@ public class DefaultMeasurementValueCalculator
       SearchableSensorValuesList sensorValues = allSensorValues
         .getColumnValues(columnId);
 
+      // Measurements are usually processed in time order, so the cursor
+      // avoids searching the whole column for each one
+      SensorValuesCursor cursor = cursors.get(columnId);
+
       MeasurementValue result = new MeasurementValue(sensorType);
 
       if (sensorConfig.isCoreSensor(sensorType)) {
-        SensorValue sensorValue = sensorValues.get(measurement.getTime());
+        SensorValue sensorValue = cursor.get(measurement.getTime());
         if (null != sensorValue) {
           result.addSensorValue(sensorValue, true);
           result.setCalculatedValue(sensorValue.getDoubleValue());
@@ -72,7 +77,7 @@ public class DefaultMeasurementValueCalculator
 
         // Otherwise we get the closest GOOD (or best available quality) values
         // we can, interpolating where required.
-        List<SensorValue> valuesToUse = sensorValues
+        List<SensorValue> valuesToUse = cursor
           .getWithInterpolation(measurement.getTime(), true);
 
         switch (valuesToUse.size()) {
@@ -15,7 +15,8 @@ public class DiffEqPresMeasurementValueCalculator
   public MeasurementValue calculate(Instrument instrument,
     Measurement measurement, SensorType sensorType,
     DatasetMeasurements allMeasurements, DatasetSensorValues allSensorValues,
-    Connection conn) throws MeasurementValueCalculatorException {
+    SensorValuesCursors cursors, Connection conn)
+    throws MeasurementValueCalculatorException {
 
     try {
       SensorsConfiguration sensorConfig = ResourceManager.getInstance()
@@ -25,11 +26,11 @@ public class DiffEqPresMeasurementValueCalculator
 
       MeasurementValue diffEqPress = new DefaultMeasurementValueCalculator()
         .calculate(instrument, measurement, sensorType, allMeasurements,
-          allSensorValues, conn);
+          allSensorValues, cursors, conn);
 
       MeasurementValue pressAtInstrument = new DefaultMeasurementValueCalculator()
         .calculate(instrument, measurement, pressAtInstrumentSensorType,
-          allMeasurements, allSensorValues, conn);
+          allMeasurements, allSensorValues, cursors, conn);
 
       Double finalPressure = pressAtInstrument.getCalculatedValue()
         + diffEqPress.getCalculatedValue();
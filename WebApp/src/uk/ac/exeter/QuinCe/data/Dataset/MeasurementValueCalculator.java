@@ -14,7 +14,8 @@ public abstract class MeasurementValueCalculator {
   public abstract MeasurementValue calculate(Instrument instrument,
     Measurement measurement, SensorType sensorType,
     DatasetMeasurements allMeasurements, DatasetSensorValues allSensorValues,
-    Connection conn) throws MeasurementValueCalculatorException;
+    SensorValuesCursors cursors, Connection conn)
+    throws MeasurementValueCalculatorException;
 
   protected static List<SensorValue> getSensorValues(
     Collection<MeasurementValue> measurementValues,
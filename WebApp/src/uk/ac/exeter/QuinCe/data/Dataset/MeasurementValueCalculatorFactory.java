@@ -12,10 +12,11 @@ public class MeasurementValueCalculatorFactory {
   public static MeasurementValue calculateMeasurementValue(
     Instrument instrument, Measurement measurement, SensorType sensorType,
     DatasetMeasurements allMeasurements, DatasetSensorValues allSensorValues,
-    Connection conn) throws MeasurementValueCalculatorException {
+    SensorValuesCursors cursors, Connection conn)
+    throws MeasurementValueCalculatorException {
 
     return getCalculator(sensorType).calculate(instrument, measurement,
-      sensorType, allMeasurements, allSensorValues, conn);
+      sensorType, allMeasurements, allSensorValues, cursors, conn);
   }
 
   private static MeasurementValueCalculator getCalculator(SensorType sensorType)
@@ -17,7 +17,8 @@ public class ParentSensorTypeMeasurementValueCalculator
   public MeasurementValue calculate(Instrument instrument,
     Measurement measurement, SensorType sensorType,
     DatasetMeasurements allMeasurements, DatasetSensorValues allSensorValues,
-    Connection conn) throws MeasurementValueCalculatorException {
+    SensorValuesCursors cursors, Connection conn)
+    throws MeasurementValueCalculatorException {
 
     SensorsConfiguration sensorConfig = ResourceManager.getInstance()
       .getSensorsConfiguration();
@@ -28,7 +29,7 @@ public class ParentSensorTypeMeasurementValueCalculator
       if (instrument.getSensorAssignments().isAssigned(childType)) {
         childMeasurementValues.add(MeasurementValueCalculatorFactory
           .calculateMeasurementValue(instrument, measurement, childType,
-            allMeasurements, allSensorValues, conn));
+            allMeasurements, allSensorValues, cursors, conn));
       }
     }
 
@@ -2,7 +2,6 @@ package uk.ac.exeter.QuinCe.data.Dataset.QC.DataReduction;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import uk.ac.exeter.QuinCe.data.Dataset.DatasetSensorValues;
@@ -79,8 +78,35 @@ public abstract class DataReductionQCRoutine implements Routine {
     }
   }
 
-  public void qc(Instrument instrument,
-    TreeMap<Measurement, ReadOnlyDataReductionRecord> dataReductionRecords,
+  /**
+   * Get the number of records either side of the record being checked that
+   * the routine needs to see. Routines that only look at one record at a time
+   * do not need to override this.
+   *
+   * @return The window radius
+   * @see DataReductionQCWindow
+   */
+  public int getWindowRadius() {
+    return 0;
+  }
+
+  /**
+   * Check the current record in a window of data reduction records.
+   *
+   * @param instrument
+   *          The instrument that the records belong to
+   * @param window
+   *          The window of records, which will contain at least
+   *          {@link #getWindowRadius()} records either side of the current
+   *          record unless it is at the start or end of the dataset
+   * @param allSensorValues
+   *          The dataset's sensor values
+   * @param flaggedItems
+   *          The collection of items flagged by the QC routines
+   * @throws RoutineException
+   *           If the routine cannot be run
+   */
+  public void qc(Instrument instrument, DataReductionQCWindow window,
     DatasetSensorValues allSensorValues, FlaggedItems flaggedItems)
     throws RoutineException {
 
@@ -88,13 +114,12 @@ public abstract class DataReductionQCRoutine implements Routine {
       throw new RoutineException("Settings not initialised");
     }
 
-    qcAction(instrument, dataReductionRecords, allSensorValues, flaggedItems);
+    qcAction(instrument, window, allSensorValues, flaggedItems);
   }
 
   protected abstract void qcAction(Instrument instrument,
-    TreeMap<Measurement, ReadOnlyDataReductionRecord> dataReductionRecords,
-    DatasetSensorValues allSensorValues, FlaggedItems flaggedItems)
-    throws RoutineException;
+    DataReductionQCWindow window, DatasetSensorValues allSensorValues,
+    FlaggedItems flaggedItems) throws RoutineException;
 
   @Override
   public String toString() {
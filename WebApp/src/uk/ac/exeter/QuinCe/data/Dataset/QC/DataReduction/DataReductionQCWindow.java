@@ -0,0 +1,171 @@
+package uk.ac.exeter.QuinCe.data.Dataset.QC.DataReduction;
+
+import java.util.ArrayList;
+
+import uk.ac.exeter.QuinCe.data.Dataset.Measurement;
+import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.ReadOnlyDataReductionRecord;
+
+/**
+ * A sliding window over the time-ordered data reduction records for a single
+ * variable, used to pass records to {@link DataReductionQCRoutine}s as they
+ * are read from the database.
+ *
+ * <p>
+ * The window has a <i>current</i> record, which is the one that the QC
+ * routines should check, and holds up to {@link #getRadius()} records either
+ * side of it for routines that need to look at neighbouring values. Records
+ * are added to the end of the window with {@link #add}. Once the current
+ * record has enough following records (or {@link #finish()} has been called)
+ * it is {@link #isReady() ready} to be checked, after which
+ * {@link #advance()} moves on to the next record and discards any records
+ * that are no longer needed.
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public class DataReductionQCWindow {
+
+  /**
+   * The number of records held either side of the current record
+   */
+  private final int radius;
+
+  /**
+   * The measurements in the window, in time order
+   */
+  private final ArrayList<Measurement> measurements;
+
+  /**
+   * The data reduction records for the measurements
+   */
+  private final ArrayList<ReadOnlyDataReductionRecord> records;
+
+  /**
+   * The index of the current record
+   */
+  private int current = 0;
+
+  /**
+   * Indicates whether or not all records have been added
+   */
+  private boolean finished = false;
+
+  /**
+   * Create an empty window.
+   *
+   * @param radius
+   *          The number of records to hold either side of the current record
+   */
+  public DataReductionQCWindow(int radius) {
+    this.radius = radius;
+    measurements = new ArrayList<Measurement>(radius * 2 + 1);
+    records = new ArrayList<ReadOnlyDataReductionRecord>(radius * 2 + 1);
+  }
+
+  /**
+   * Get the number of records held either side of the current record.
+   *
+   * @return The window radius
+   */
+  public int getRadius() {
+    return radius;
+  }
+
+  /**
+   * Add a record to the end of the window. Records must be added in time
+   * order.
+   *
+   * @param measurement
+   *          The measurement
+   * @param record
+   *          The measurement's data reduction record
+   */
+  public void add(Measurement measurement,
+    ReadOnlyDataReductionRecord record) {
+    measurements.add(measurement);
+    records.add(record);
+  }
+
+  /**
+   * Indicate that all records have been added, so the remaining records can
+   * be checked without waiting for any more following records.
+   */
+  public void finish() {
+    finished = true;
+  }
+
+  /**
+   * Determine whether or not the current record can be checked. This is the
+   * case once the window contains {@link #getRadius()} records after it, or
+   * all records have been added.
+   *
+   * @return {@code true} if the current record is ready to be checked;
+   *         {@code false} otherwise
+   */
+  public boolean isReady() {
+    int following = measurements.size() - current - 1;
+    return following >= 0 && (finished || following >= radius);
+  }
+
+  /**
+   * Move to the next record, discarding any records that are no longer
+   * needed.
+   */
+  public void advance() {
+    current++;
+    if (current > radius) {
+      measurements.remove(0);
+      records.remove(0);
+      current--;
+    }
+  }
+
+  /**
+   * Get the measurement for the current record.
+   *
+   * @return The measurement
+   */
+  public Measurement getMeasurement() {
+    return getMeasurement(0);
+  }
+
+  /**
+   * Get the current data reduction record.
+   *
+   * @return The record
+   */
+  public ReadOnlyDataReductionRecord getRecord() {
+    return getRecord(0);
+  }
+
+  /**
+   * Get the measurement at the specified offset from the current record.
+   * Negative offsets are before the current record, and positive offsets are
+   * after it.
+   *
+   * @param offset
+   *          The offset from the current record
+   * @return The measurement, or {@code null} if there is no measurement at
+   *         that offset
+   */
+  public Measurement getMeasurement(int offset) {
+    int index = current + offset;
+    return index < 0 || index >= measurements.size() ? null
+      : measurements.get(index);
+  }
+
+  /**
+   * Get the data reduction record at the specified offset from the current
+   * record. Negative offsets are before the current record, and positive
+   * offsets are after it.
+   *
+   * @param offset
+   *          The offset from the current record
+   * @return The record, or {@code null} if there is no record at that offset
+   */
+  public ReadOnlyDataReductionRecord getRecord(int offset) {
+    int index = current + offset;
+    return index < 0 || index >= records.size() ? null : records.get(index);
+  }
+}
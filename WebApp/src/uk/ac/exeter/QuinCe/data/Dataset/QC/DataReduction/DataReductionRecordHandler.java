@@ -0,0 +1,33 @@
+package uk.ac.exeter.QuinCe.data.Dataset.QC.DataReduction;
+
+import java.util.Map;
+
+import uk.ac.exeter.QuinCe.data.Dataset.DataSetDataDB;
+import uk.ac.exeter.QuinCe.data.Dataset.Measurement;
+import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.ReadOnlyDataReductionRecord;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.RoutineException;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.Variable;
+
+/**
+ * Receives the data reduction records for a dataset one measurement at a
+ * time, as they are read from the database.
+ *
+ * @author Steve Jones
+ * @see DataSetDataDB#processDataReductionData
+ */
+public interface DataReductionRecordHandler {
+
+  /**
+   * Process the data reduction records for a measurement.
+   *
+   * @param measurement
+   *          The measurement
+   * @param records
+   *          The measurement's data reduction records for each variable
+   * @throws RoutineException
+   *           If the records cannot be processed
+   */
+  void handle(Measurement measurement,
+    Map<Variable, ReadOnlyDataReductionRecord> records)
+    throws RoutineException;
+}
@@ -1,8 +1,5 @@
 package uk.ac.exeter.QuinCe.data.Dataset.QC.DataReduction;
 
-import java.util.Map;
-import java.util.TreeMap;
-
 import uk.ac.exeter.QuinCe.data.Dataset.DatasetSensorValues;
 import uk.ac.exeter.QuinCe.data.Dataset.Measurement;
 import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.ReadOnlyDataReductionRecord;
@@ -19,37 +16,32 @@ public class DeltaTRangeRoutine extends DataReductionQCRoutine {
   }
 
   @Override
-  protected void qcAction(Instrument instrument,
-    TreeMap<Measurement, ReadOnlyDataReductionRecord> dataReductionRecords,
+  protected void qcAction(Instrument instrument, DataReductionQCWindow window,
     DatasetSensorValues allSensorValues, FlaggedItems flaggedItems)
     throws RoutineException {
 
-    for (Map.Entry<Measurement, ReadOnlyDataReductionRecord> entry : dataReductionRecords
-      .entrySet()) {
-
-      Measurement measurement = entry.getKey();
-      ReadOnlyDataReductionRecord record = entry.getValue();
+    Measurement measurement = window.getMeasurement();
+    ReadOnlyDataReductionRecord record = window.getRecord();
 
-      Double value = record.getCalculationValue("ΔT");
+    Double value = record.getCalculationValue("ΔT");
 
-      if (null != value) {
-        RoutineFlag flag = null;
+    if (null != value) {
+      RoutineFlag flag = null;
 
-        if (Math.abs(value) > settings.getDoubleOption("bad_limit")) {
-          flag = new RoutineFlag(this, Flag.BAD,
-            settings.getOption("bad_limit"), String.valueOf(value));
+      if (Math.abs(value) > settings.getDoubleOption("bad_limit")) {
+        flag = new RoutineFlag(this, Flag.BAD, settings.getOption("bad_limit"),
+          value.doubleValue());
 
-          // flag = Flag.BAD;
-        } else if (Math.abs(value) > settings
-          .getDoubleOption("questionable_limit")) {
-          flag = new RoutineFlag(this, Flag.QUESTIONABLE,
-            settings.getOption("questionable_limit"), String.valueOf(value));
-        }
+        // flag = Flag.BAD;
+      } else if (Math.abs(value) > settings
+        .getDoubleOption("questionable_limit")) {
+        flag = new RoutineFlag(this, Flag.QUESTIONABLE,
+          settings.getOption("questionable_limit"), value.doubleValue());
+      }
 
-        if (null != flag) {
-          flagSensors(instrument, measurement, record, allSensorValues, flag,
-            flaggedItems);
-        }
+      if (null != flag) {
+        flagSensors(instrument, measurement, record, allSensorValues, flag,
+          flaggedItems);
       }
     }
   }
@@ -1,31 +1,276 @@
 package uk.ac.exeter.QuinCe.data.Dataset.QC;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.google.gson.annotations.JsonAdapter;
+
 import uk.ac.exeter.QuinCe.data.Dataset.QC.DataReduction.DataReductionQCRoutinesConfiguration;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.QCRoutinesConfiguration;
 
+/**
+ * A {@link Flag} set by a QC {@link Routine}, with the value required by the
+ * routine and the actual value that caused the flag.
+ *
+ * <p>
+ * Auto QC can create very large numbers of these flags, so they are stored
+ * compactly. The routine is held as a one-byte ID (see
+ * {@link #getRoutineId(String)}), and numeric required and actual values are
+ * held as {@code double}s. The values are only converted to strings when a
+ * message or the JSON representation is requested. Values that are not
+ * numeric (e.g. a range) are held as strings.
+ * </p>
+ *
+ * @see RoutineFlagSerializer
+ */
+@JsonAdapter(RoutineFlagSerializer.class)
 public class RoutineFlag extends Flag {
 
   /**
-   * The routine that generated this flag
+   * Indicates that a value is a number, formatted with
+   * {@link String#valueOf(double)}
+   */
+  private static final byte NUMBER = 0;
+
+  /**
+   * Indicates that a value is a whole number, formatted with
+   * {@link String#valueOf(long)}
+   */
+  private static final byte WHOLE_NUMBER = 1;
+
+  /**
+   * Indicates that a value is held as a string
+   */
+  private static final byte TEXT = 2;
+
+  /**
+   * The routine names, indexed by routine ID
+   */
+  private static final List<String> routineNames =
+    new CopyOnWriteArrayList<String>();
+
+  /**
+   * The routine IDs, keyed by routine name
+   */
+  private static final Map<String, Byte> routineIds =
+    new ConcurrentHashMap<String, Byte>();
+
+  /**
+   * Instances of the routines, used to generate messages
+   */
+  private static final Map<Byte, Routine> routineInstances =
+    new ConcurrentHashMap<Byte, Routine>();
+
+  /**
+   * The ID of the routine that generated this flag
+   */
+  private final byte routineId;
+
+  /**
+   * The type of the required value
+   */
+  private final byte requiredType;
+
+  /**
+   * The type of the actual value
+   */
+  private final byte actualType;
+
+  /**
+   * The value required by the routine, if it is numeric
    */
-  protected final String routineName;
+  private final double requiredValue;
 
   /**
-   * The value required by the routine
+   * The actual value, if it is numeric
    */
-  private final String requiredValue;
+  private final double actualValue;
 
   /**
-   * The actual value
+   * The value required by the routine, if it is not numeric
    */
-  private final String actualValue;
+  private final String requiredText;
 
+  /**
+   * The actual value, if it is not numeric
+   */
+  private final String actualText;
+
+  /**
+   * Create a flag with string required and actual values.
+   *
+   * @param routine
+   *          The routine that generated the flag
+   * @param flag
+   *          The flag
+   * @param requiredValue
+   *          The value required by the routine
+   * @param actualValue
+   *          The actual value
+   */
   public RoutineFlag(Routine routine, Flag flag, String requiredValue,
     String actualValue) {
+    this(getRoutineId(routine.getName()), flag, TEXT, Double.NaN,
+      requiredValue, TEXT, Double.NaN, actualValue);
+  }
+
+  /**
+   * Create a flag with numeric required and actual values.
+   *
+   * @param routine
+   *          The routine that generated the flag
+   * @param flag
+   *          The flag
+   * @param requiredValue
+   *          The value required by the routine
+   * @param actualValue
+   *          The actual value
+   */
+  public RoutineFlag(Routine routine, Flag flag, double requiredValue,
+    double actualValue) {
+    this(getRoutineId(routine.getName()), flag, NUMBER, requiredValue, null,
+      NUMBER, actualValue, null);
+  }
+
+  /**
+   * Create a flag with a numeric required value and a whole number actual
+   * value.
+   *
+   * @param routine
+   *          The routine that generated the flag
+   * @param flag
+   *          The flag
+   * @param requiredValue
+   *          The value required by the routine
+   * @param actualValue
+   *          The actual value
+   */
+  public RoutineFlag(Routine routine, Flag flag, double requiredValue,
+    long actualValue) {
+    this(getRoutineId(routine.getName()), flag, NUMBER, requiredValue, null,
+      WHOLE_NUMBER, actualValue, null);
+  }
+
+  /**
+   * Create a flag with a string required value and a numeric actual value.
+   *
+   * @param routine
+   *          The routine that generated the flag
+   * @param flag
+   *          The flag
+   * @param requiredValue
+   *          The value required by the routine
+   * @param actualValue
+   *          The actual value
+   */
+  public RoutineFlag(Routine routine, Flag flag, String requiredValue,
+    double actualValue) {
+    this(getRoutineId(routine.getName()), flag, TEXT, Double.NaN,
+      requiredValue, NUMBER, actualValue, null);
+  }
+
+  /**
+   * Create a flag from its stored representation. The required and actual
+   * values are kept as strings.
+   *
+   * @param routineName
+   *          The name of the routine that generated the flag
+   * @param flag
+   *          The flag
+   * @param requiredValue
+   *          The value required by the routine
+   * @param actualValue
+   *          The actual value
+   */
+  protected RoutineFlag(String routineName, Flag flag, String requiredValue,
+    String actualValue) {
+    this(getRoutineId(routineName), flag, TEXT, Double.NaN, requiredValue,
+      TEXT, Double.NaN, actualValue);
+  }
+
+  /**
+   * Create a flag with all fields specified.
+   *
+   * @param routineId
+   *          The routine ID
+   * @param flag
+   *          The flag
+   * @param requiredType
+   *          The type of the required value
+   * @param requiredValue
+   *          The numeric required value
+   * @param requiredText
+   *          The string required value
+   * @param actualType
+   *          The type of the actual value
+   * @param actualValue
+   *          The numeric actual value
+   * @param actualText
+   *          The string actual value
+   */
+  private RoutineFlag(byte routineId, Flag flag, byte requiredType,
+    double requiredValue, String requiredText, byte actualType,
+    double actualValue, String actualText) {
     super(flag);
-    this.routineName = routine.getName();
+    this.routineId = routineId;
+    this.requiredType = requiredType;
     this.requiredValue = requiredValue;
+    this.requiredText = requiredText;
+    this.actualType = actualType;
     this.actualValue = actualValue;
+    this.actualText = actualText;
+  }
+
+  /**
+   * Get the ID for a routine name, allocating a new ID if the routine has not
+   * been seen before. IDs are only valid for the lifetime of the application;
+   * flags are always stored with the routine name.
+   *
+   * @param routineName
+   *          The routine name
+   * @return The routine ID
+   */
+  public static byte getRoutineId(String routineName) {
+    Byte result = routineIds.get(routineName);
+    if (null == result) {
+      result = registerRoutine(routineName);
+    }
+
+    return result;
+  }
+
+  /**
+   * Allocate an ID for a routine name.
+   *
+   * @param routineName
+   *          The routine name
+   * @return The routine ID
+   */
+  private static synchronized byte registerRoutine(String routineName) {
+    Byte result = routineIds.get(routineName);
+
+    if (null == result) {
+      if (routineNames.size() > Byte.MAX_VALUE) {
+        throw new IllegalStateException("Too many QC routines");
+      }
+
+      result = (byte) routineNames.size();
+      routineNames.add(routineName);
+      routineIds.put(routineName, result);
+    }
+
+    return result;
+  }
+
+  /**
+   * Get the name of the routine that generated this flag.
+   *
+   * @return The routine name
+   */
+  public String getRoutineName() {
+    return routineNames.get(routineId);
   }
 
   /**
@@ -35,23 +280,28 @@ public class RoutineFlag extends Flag {
    */
   protected Routine getRoutineInstance() throws RoutineException {
 
-    Routine result;
+    Routine result = routineInstances.get(routineId);
 
-    String[] routineNameParts = routineName.split("\\.");
+    if (null == result) {
+      String routineName = getRoutineName();
+      String[] routineNameParts = routineName.split("\\.");
 
-    switch (routineNameParts[0]) {
-    case "SensorValues": {
-      result = QCRoutinesConfiguration.getRoutine(routineName);
-      break;
-    }
-    case "DataReduction": {
-      result = DataReductionQCRoutinesConfiguration.getRoutine(routineName);
-      break;
-    }
-    default: {
-      throw new RoutineException(
-        "Cannot determine routine type " + routineNameParts[0]);
-    }
+      switch (routineNameParts[0]) {
+      case "SensorValues": {
+        result = QCRoutinesConfiguration.getRoutine(routineName);
+        break;
+      }
+      case "DataReduction": {
+        result = DataReductionQCRoutinesConfiguration.getRoutine(routineName);
+        break;
+      }
+      default: {
+        throw new RoutineException(
+          "Cannot determine routine type " + routineNameParts[0]);
+      }
+      }
+
+      routineInstances.put(routineId, result);
     }
 
     return result;
@@ -80,10 +330,41 @@ public class RoutineFlag extends Flag {
   }
 
   public String getRequiredValue() {
-    return requiredValue;
+    return format(requiredType, requiredValue, requiredText);
   }
 
   public String getActualValue() {
-    return actualValue;
+    return format(actualType, actualValue, actualText);
+  }
+
+  /**
+   * Get the string form of a required or actual value.
+   *
+   * @param type
+   *          The value type
+   * @param value
+   *          The numeric value
+   * @param text
+   *          The string value
+   * @return The string form of the value
+   */
+  private static String format(byte type, double value, String text) {
+    String result;
+
+    switch (type) {
+    case NUMBER: {
+      result = String.valueOf(value);
+      break;
+    }
+    case WHOLE_NUMBER: {
+      result = String.valueOf((long) value);
+      break;
+    }
+    default: {
+      result = text;
+    }
+    }
+
+    return result;
   }
 }
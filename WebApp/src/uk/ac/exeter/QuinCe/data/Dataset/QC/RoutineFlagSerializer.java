@@ -0,0 +1,109 @@
+package uk.ac.exeter.QuinCe.data.Dataset.QC;
+
+import java.io.IOException;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Reads and writes {@link RoutineFlag}s directly from and to JSON streams.
+ *
+ * <p>
+ * This adapter is attached to {@link RoutineFlag} with
+ * {@link com.google.gson.annotations.JsonAdapter}, so it is used by all
+ * {@link com.google.gson.Gson} instances. The JSON has the same fields as
+ * earlier versions of {@link RoutineFlag}, which were serialized by
+ * reflection, so existing stored flags can still be read. The numeric values
+ * are converted to strings as they are written.
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public class RoutineFlagSerializer extends TypeAdapter<RoutineFlag> {
+
+  @Override
+  public void write(JsonWriter out, RoutineFlag src) throws IOException {
+    if (null == src) {
+      out.nullValue();
+    } else {
+      out.beginObject();
+      out.name("routineName").value(src.getRoutineName());
+
+      String requiredValue = src.getRequiredValue();
+      if (null != requiredValue) {
+        out.name("requiredValue").value(requiredValue);
+      }
+
+      String actualValue = src.getActualValue();
+      if (null != actualValue) {
+        out.name("actualValue").value(actualValue);
+      }
+
+      out.name("flagValue").value(src.getFlagValue());
+      out.endObject();
+    }
+  }
+
+  @Override
+  public RoutineFlag read(JsonReader in) throws IOException {
+    RoutineFlag result = null;
+
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+    } else {
+      String routineName = null;
+      String requiredValue = null;
+      String actualValue = null;
+      Integer flagValue = null;
+
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+
+        if (in.peek() == JsonToken.NULL) {
+          in.nextNull();
+        } else {
+          switch (name) {
+          case "routineName": {
+            routineName = in.nextString();
+            break;
+          }
+          case "requiredValue": {
+            requiredValue = in.nextString();
+            break;
+          }
+          case "actualValue": {
+            actualValue = in.nextString();
+            break;
+          }
+          case "flagValue": {
+            flagValue = in.nextInt();
+            break;
+          }
+          default: {
+            in.skipValue();
+          }
+          }
+        }
+      }
+      in.endObject();
+
+      if (null == routineName || null == flagValue) {
+        throw new JsonParseException("Incomplete routine flag");
+      }
+
+      try {
+        result = new RoutineFlag(routineName, new Flag(flagValue),
+          requiredValue, actualValue);
+      } catch (InvalidFlagException e) {
+        throw new JsonParseException("Invalid flag value");
+      }
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,153 @@
+package uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import uk.ac.exeter.QuinCe.data.Dataset.SensorValue;
+
+/**
+ * A column of {@link SensorValue}s prepared for the {@link AutoQCEngine}.
+ *
+ * <p>
+ * The times and values of the sensor values are extracted into primitive
+ * arrays once, so the QC steps do not need to parse the values again.
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public class AutoQCColumn {
+
+  /**
+   * The number of nanoseconds in a minute
+   */
+  private static final double NANOS_PER_MINUTE = 60.0 * 1000000000;
+
+  /**
+   * The sensor values
+   */
+  private final List<SensorValue> sensorValues;
+
+  /**
+   * The times of the sensor values, in nanoseconds since the epoch
+   */
+  private final long[] times;
+
+  /**
+   * The numeric values of the sensor values
+   */
+  private final double[] values;
+
+  /**
+   * Extract the times and values from a list of sensor values
+   *
+   * @param sensorValues
+   *          The sensor values
+   */
+  protected AutoQCColumn(List<SensorValue> sensorValues) {
+    this.sensorValues = sensorValues;
+    this.times = new long[sensorValues.size()];
+    this.values = new double[sensorValues.size()];
+
+    for (int i = 0; i < sensorValues.size(); i++) {
+      SensorValue sensorValue = sensorValues.get(i);
+      times[i] = toNanos(sensorValue.getTime());
+      values[i] = sensorValue.getDoubleValue();
+    }
+  }
+
+  /**
+   * Convert a time to nanoseconds since the epoch
+   *
+   * @param time
+   *          The time
+   * @return The nanoseconds since the epoch
+   */
+  private static long toNanos(LocalDateTime time) {
+    return time.toEpochSecond(ZoneOffset.UTC) * 1000000000L + time.getNano();
+  }
+
+  /**
+   * Get the number of values in the column
+   *
+   * @return The number of values
+   */
+  public int size() {
+    return values.length;
+  }
+
+  /**
+   * Get the {@link SensorValue} at the specified position
+   *
+   * @param index
+   *          The position
+   * @return The sensor value
+   */
+  public SensorValue getSensorValue(int index) {
+    return sensorValues.get(index);
+  }
+
+  /**
+   * Get the value at the specified position
+   *
+   * @param index
+   *          The position
+   * @return The value
+   */
+  public double getValue(int index) {
+    return values[index];
+  }
+
+  /**
+   * Determine whether or not the value at the specified position is missing
+   *
+   * @param index
+   *          The position
+   * @return {@code true} if the value is missing; {@code false} if it is not
+   */
+  public boolean isNaN(int index) {
+    return Double.isNaN(values[index]);
+  }
+
+  /**
+   * Get the number of whole seconds between two values. This gives the same
+   * result as {@link java.time.temporal.ChronoUnit#SECONDS}.
+   *
+   * @param from
+   *          The position of the first value
+   * @param to
+   *          The position of the second value
+   * @return The number of seconds
+   */
+  public long secondsBetween(int from, int to) {
+    return (times[to] - times[from]) / 1000000000L;
+  }
+
+  /**
+   * Get the number of whole minutes between two values. This gives the same
+   * result as {@link java.time.temporal.ChronoUnit#MINUTES}.
+   *
+   * @param from
+   *          The position of the first value
+   * @param to
+   *          The position of the second value
+   * @return The number of minutes
+   */
+  public long wholeMinutesBetween(int from, int to) {
+    return (times[to] - times[from]) / 60000000000L;
+  }
+
+  /**
+   * Get the exact number of minutes between two values.
+   *
+   * @param from
+   *          The position of the first value
+   * @param to
+   *          The position of the second value
+   * @return The number of minutes
+   */
+  public double minutesBetween(int from, int to) {
+    return (times[to] - times[from]) / NANOS_PER_MINUTE;
+  }
+}
@@ -0,0 +1,100 @@
+package uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import uk.ac.exeter.QuinCe.data.Dataset.SensorValue;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.RoutineException;
+
+/**
+ * Runs the QC routines for a sensor type in a single pass over the values.
+ *
+ * <p>
+ * Each routine that supports it provides an {@link AutoQCStep} (see
+ * {@link AutoQCRoutine#makeStep()}). The values are extracted into an
+ * {@link AutoQCColumn} once, and every non-missing value is passed to all the
+ * steps in turn. Routines that do not provide a step are run separately using
+ * {@link AutoQCRoutine#qc(List)}.
+ * </p>
+ *
+ * <p>
+ * The flags are added to the values in routine order, so the results are the
+ * same as running each routine's {@link AutoQCRoutine#qc(List)} one after the
+ * other. The engine holds no state between runs, so one instance can be used
+ * by several jobs at once.
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public class AutoQCEngine {
+
+  /**
+   * The routines to run, in order
+   */
+  private final List<AutoQCRoutine> routines;
+
+  /**
+   * Create an engine for a list of routines
+   *
+   * @param routines
+   *          The routines
+   */
+  protected AutoQCEngine(List<AutoQCRoutine> routines) {
+    this.routines = routines;
+  }
+
+  /**
+   * Perform the QC on the specified values.
+   *
+   * @param values
+   *          The values to be QCed.
+   * @throws RoutineException
+   *           If any routine is not configured correctly, or fails during
+   *           processing.
+   */
+  public void qc(List<SensorValue> values) throws RoutineException {
+
+    if (routines.size() > 0) {
+      List<AutoQCStep> steps = new ArrayList<AutoQCStep>(routines.size());
+      List<AutoQCStep> activeSteps = new ArrayList<AutoQCStep>(routines.size());
+
+      for (AutoQCRoutine routine : routines) {
+        if (null == routine.parameters) {
+          throw new RoutineException("Routine parameters not set");
+        }
+
+        AutoQCStep step = routine.makeStep();
+        steps.add(step);
+        if (null != step) {
+          activeSteps.add(step);
+        }
+      }
+
+      AutoQCColumn column = new AutoQCColumn(values);
+
+      if (activeSteps.size() > 0) {
+        for (int i = 0; i < column.size(); i++) {
+          if (!column.isNaN(i)) {
+            for (AutoQCStep step : activeSteps) {
+              step.accept(column, i);
+            }
+          }
+        }
+
+        for (AutoQCStep step : activeSteps) {
+          step.finish(column);
+        }
+      }
+
+      for (int i = 0; i < routines.size(); i++) {
+        AutoQCStep step = steps.get(i);
+        if (null == step) {
+          routines.get(i).qc(values);
+        } else {
+          step.applyFlags(column);
+        }
+      }
+    }
+  }
+}
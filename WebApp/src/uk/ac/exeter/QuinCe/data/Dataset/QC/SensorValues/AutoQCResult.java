@@ -4,11 +4,10 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
 
-import com.google.gson.Gson;
-
 import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.RoutineException;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.RoutineFlag;
+import uk.ac.exeter.QuinCe.utils.JsonUtils;
 import uk.ac.exeter.QuinCe.utils.StringUtils;
 
 public class AutoQCResult extends ArrayList<RoutineFlag> {
@@ -18,8 +17,6 @@ public class AutoQCResult extends ArrayList<RoutineFlag> {
    */
   private static final long serialVersionUID = 5112798751950377386L;
 
-  private static Gson GSON = null;
-
   /**
    * Create an empty AutoQCResult
    */
@@ -39,20 +36,12 @@ public class AutoQCResult extends ArrayList<RoutineFlag> {
     if (null == json || json.trim().length() == 0) {
       result = new AutoQCResult();
     } else {
-      result = getGson().fromJson(json, AutoQCResult.class);
+      result = JsonUtils.GSON.fromJson(json, AutoQCResult.class);
     }
 
     return result;
   }
 
-  private static Gson getGson() {
-    if (null == GSON) {
-      GSON = new Gson();
-    }
-
-    return GSON;
-  }
-
   /**
    * Return the overall flag that results from a set of flags from QC routines.
    * This is the most significant flag of the set
@@ -82,7 +71,7 @@ public class AutoQCResult extends ArrayList<RoutineFlag> {
     String json = null;
 
     if (size() > 0) {
-      json = getGson().toJson(this);
+      json = JsonUtils.GSON.toJson(this);
     }
 
     return json;
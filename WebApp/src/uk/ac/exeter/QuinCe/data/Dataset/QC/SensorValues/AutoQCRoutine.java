@@ -21,6 +21,11 @@ public abstract class AutoQCRoutine implements Routine {
    */
   protected List<String> parameters = null;
 
+  /**
+   * The routine name. This is generated when it is first needed.
+   */
+  private String name = null;
+
   /**
    * Basic constructor
    *
@@ -40,7 +45,7 @@ public abstract class AutoQCRoutine implements Routine {
 
   /**
    * Add a QC flag to a value. The QC message is generated by calling
-   * {@link #getShortMessage()} or {@link #getShortMessage()}.
+   * {@link #getShortMessage()} or {@link #getLongMessage(RoutineFlag)}.
    *
    * @param value
    *          The value
@@ -49,48 +54,40 @@ public abstract class AutoQCRoutine implements Routine {
    */
   protected void addFlag(SensorValue value, Flag flag, String requiredValue,
     String actualValue) throws RoutineException {
-
-    try {
-      value
-        .addAutoQCFlag(new RoutineFlag(this, flag, requiredValue, actualValue));
-    } catch (RecordNotFoundException e) {
-      throw new RoutineException("Sensor Value ID is not stored in database");
-    }
+    addFlag(value, new RoutineFlag(this, flag, requiredValue, actualValue));
   }
 
   /**
    * Add a QC flag to a value. The QC message is generated by calling
-   * {@link #getShortMessage()} or {@link #getShortMessage()}.
+   * {@link #getShortMessage()} or {@link #getLongMessage(RoutineFlag)}.
    *
    * @param value
    *          The value
    * @param flag
    *          The flag
    */
-  protected void addFlag(SensorValue value, Flag flag, Double requiredValue,
-    Double actualValue) throws RoutineException {
-    addFlag(value, flag, String.valueOf(requiredValue),
-      String.valueOf(actualValue));
+  protected void addFlag(SensorValue value, Flag flag, double requiredValue,
+    double actualValue) throws RoutineException {
+    addFlag(value, new RoutineFlag(this, flag, requiredValue, actualValue));
   }
 
   /**
    * Add a QC flag to a value. The QC message is generated by calling
-   * {@link #getShortMessage()} or {@link #getShortMessage()}.
+   * {@link #getShortMessage()} or {@link #getLongMessage(RoutineFlag)}.
    *
    * @param value
    *          The value
    * @param flag
    *          The flag
    */
-  protected void addFlag(SensorValue value, Flag flag, Double requiredValue,
+  protected void addFlag(SensorValue value, Flag flag, double requiredValue,
     long actualValue) throws RoutineException {
-    addFlag(value, flag, String.valueOf(requiredValue),
-      String.valueOf(actualValue));
+    addFlag(value, new RoutineFlag(this, flag, requiredValue, actualValue));
   }
 
   /**
    * Add a QC flag to a value. The QC message is generated by calling
-   * {@link #getShortMessage()} or {@link #getShortMessage()}.
+   * {@link #getShortMessage()} or {@link #getLongMessage(RoutineFlag)}.
    *
    * @param value
    *          The value
@@ -98,8 +95,25 @@ public abstract class AutoQCRoutine implements Routine {
    *          The flag
    */
   protected void addFlag(SensorValue value, Flag flag, String requiredValue,
-    Double actualValue) throws RoutineException {
-    addFlag(value, flag, requiredValue, String.valueOf(actualValue));
+    double actualValue) throws RoutineException {
+    addFlag(value, new RoutineFlag(this, flag, requiredValue, actualValue));
+  }
+
+  /**
+   * Add a {@link RoutineFlag} to a value.
+   *
+   * @param value
+   *          The value
+   * @param flag
+   *          The flag
+   */
+  private void addFlag(SensorValue value, RoutineFlag flag)
+    throws RoutineException {
+    try {
+      value.addAutoQCFlag(flag);
+    } catch (RecordNotFoundException e) {
+      throw new RoutineException("Sensor Value ID is not stored in database");
+    }
   }
 
   /**
@@ -141,6 +155,22 @@ public abstract class AutoQCRoutine implements Routine {
   protected abstract void qcAction(List<SensorValue> values)
     throws RoutineException;
 
+  /**
+   * Create a step that performs this routine's QC as part of a single pass
+   * over a column of values by the {@link AutoQCEngine}. The step must give
+   * the same flags as {@link #qcAction(List)}.
+   *
+   * <p>
+   * The default returns {@code null}, which means that the routine is run
+   * separately using {@link #qc(List)}.
+   * </p>
+   *
+   * @return The step, or {@code null} if the routine does not support it
+   */
+  protected AutoQCStep makeStep() {
+    return null;
+  }
+
   /**
    * Filter a list of {@link SensorValue} objects to remove any NaN values.
    *
@@ -158,6 +188,10 @@ public abstract class AutoQCRoutine implements Routine {
 
   @Override
   public String getName() {
-    return QCRoutinesConfiguration.getRoutineName(this);
+    if (null == name) {
+      name = QCRoutinesConfiguration.getRoutineName(this);
+    }
+
+    return name;
   }
 }
@@ -0,0 +1,114 @@
+package uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues;
+
+import java.util.BitSet;
+
+import uk.ac.exeter.QuinCe.data.Dataset.QC.RoutineException;
+
+/**
+ * One {@link AutoQCRoutine}'s part of a single pass of the
+ * {@link AutoQCEngine} over an {@link AutoQCColumn}.
+ *
+ * <p>
+ * A step is created for each run of the engine, so it can keep whatever state
+ * it needs between values. {@link #accept(AutoQCColumn, int)} is called for
+ * each non-missing value in the column, in order, and
+ * {@link #finish(AutoQCColumn)} is called once all the values have been
+ * seen. The step records the values it wants to flag with
+ * {@link #flag(AutoQCColumn, int, double)}. The flags are added to the
+ * {@link uk.ac.exeter.QuinCe.data.Dataset.SensorValue}s afterwards by
+ * {@link #applyFlag(AutoQCColumn, int, double)}, so that they are added in
+ * the same order as running the routines one after the other.
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public abstract class AutoQCStep {
+
+  /**
+   * The positions of the flagged values
+   */
+  private final BitSet flagged = new BitSet();
+
+  /**
+   * The actual values reported by the routine for each flagged value. This is
+   * only created when the first flag is set.
+   */
+  private double[] actualValues = null;
+
+  /**
+   * Process a value.
+   *
+   * @param column
+   *          The column being processed
+   * @param index
+   *          The position of the value
+   * @throws RoutineException
+   *           If the value cannot be processed
+   */
+  protected abstract void accept(AutoQCColumn column, int index)
+    throws RoutineException;
+
+  /**
+   * Complete any processing once all values have been passed to
+   * {@link #accept(AutoQCColumn, int)}. The default does nothing.
+   *
+   * @param column
+   *          The column being processed
+   * @throws RoutineException
+   *           If the processing fails
+   */
+  protected void finish(AutoQCColumn column) throws RoutineException {
+    // Do nothing
+  }
+
+  /**
+   * Add the flag for a flagged value to its
+   * {@link uk.ac.exeter.QuinCe.data.Dataset.SensorValue}.
+   *
+   * @param column
+   *          The column being processed
+   * @param index
+   *          The position of the flagged value
+   * @param actualValue
+   *          The actual value recorded when the value was flagged
+   * @throws RoutineException
+   *           If the flag cannot be added
+   */
+  protected abstract void applyFlag(AutoQCColumn column, int index,
+    double actualValue) throws RoutineException;
+
+  /**
+   * Record that a value should be flagged.
+   *
+   * @param column
+   *          The column being processed
+   * @param index
+   *          The position of the value
+   * @param actualValue
+   *          The actual value to be reported in the flag
+   */
+  protected void flag(AutoQCColumn column, int index, double actualValue) {
+    if (null == actualValues) {
+      actualValues = new double[column.size()];
+    }
+
+    flagged.set(index);
+    actualValues[index] = actualValue;
+  }
+
+  /**
+   * Add all the recorded flags to their sensor values.
+   *
+   * @param column
+   *          The column that was processed
+   * @throws RoutineException
+   *           If any flags cannot be added
+   */
+  protected void applyFlags(AutoQCColumn column) throws RoutineException {
+    for (int i = flagged.nextSetBit(0); i >= 0; i = flagged
+      .nextSetBit(i + 1)) {
+      applyFlag(column, i, actualValues[i]);
+    }
+  }
+}
@@ -81,6 +81,82 @@ public class ConstantValueRoutine extends AutoQCRoutine {
     }
   }
 
+  @Override
+  protected AutoQCStep makeStep() {
+    return new AutoQCStep() {
+
+      /**
+       * The position of the first value in the current constant period
+       */
+      private int firstIndex = -1;
+
+      /**
+       * The position of the last value in the current constant period
+       */
+      private int lastIndex = -1;
+
+      /**
+       * The number of values in the current constant period
+       */
+      private int count = 0;
+
+      @Override
+      protected void accept(AutoQCColumn column, int index) {
+        // Compare in the same way as Double.equals
+        if (count > 0 && Double.compare(column.getValue(index),
+          column.getValue(firstIndex)) == 0) {
+          lastIndex = index;
+          count++;
+        } else {
+          if (count > 0) {
+            checkDuration(column);
+          }
+
+          firstIndex = index;
+          lastIndex = index;
+          count = 1;
+        }
+      }
+
+      @Override
+      protected void finish(AutoQCColumn column) {
+        if (count > 1) {
+          checkDuration(column);
+        }
+      }
+
+      /**
+       * The equivalent of {@link ConstantValueRoutine#doDurationCheck(List)}
+       * for the current constant period.
+       *
+       * @param column
+       *          The column being processed
+       */
+      private void checkDuration(AutoQCColumn column) {
+        if (count > 2) {
+          long minutesDifference = column.wholeMinutesBetween(firstIndex,
+            lastIndex);
+
+          if (minutesDifference > maxDuration) {
+            // Any non-missing value in the period is part of it
+            for (int i = firstIndex; i <= lastIndex; i++) {
+              if (!column.isNaN(i)) {
+                flag(column, i, minutesDifference);
+              }
+            }
+          }
+        }
+      }
+
+      @Override
+      protected void applyFlag(AutoQCColumn column, int index,
+        double actualValue) throws RoutineException {
+        addFlag(column.getSensorValue(index), Flag.BAD, maxDuration,
+          (long) actualValue);
+      }
+    };
+  }
+
   /**
    * Determines whether or not the value in the passed record is identical to
    * that in the list of constant records. Null values always return a 'not
@@ -97,6 +97,121 @@ public class GradientTestRoutine extends AutoQCRoutine {
     }
   }
 
+  @Override
+  protected AutoQCStep makeStep() {
+    return new GradientStep();
+  }
+
+  /**
+   * A streaming version of {@link GradientTestRoutine#qcAction(List)}.
+   *
+   * <p>
+   * The routine examines each non-missing value with the values either side
+   * of it. The step therefore examines a value once the next value has been
+   * received, keeping the positions of the last three values. A position is
+   * the number of non-missing values before a value, which is the same as the
+   * index used by {@link GradientTestRoutine#qcAction(List)}.
+   * </p>
+   */
+  private class GradientStep extends AutoQCStep {
+
+    /**
+     * The column indices of the last three values, stored by
+     * {@code position % 3}
+     */
+    private final int[] window = new int[3];
+
+    /**
+     * The number of values received
+     */
+    private int count = 0;
+
+    /**
+     * The position of the next value to be examined
+     */
+    private int position = 1;
+
+    /**
+     * Indicates whether the step is following a gradient
+     */
+    private boolean inGradient = false;
+
+    /**
+     * The most recent delta while following a gradient
+     */
+    private double gradientDelta = 0.0;
+
+    @Override
+    protected void accept(AutoQCColumn column, int index) {
+      window[count % 3] = index;
+      count++;
+
+      int last = count - 1;
+
+      // The routine only examines a value if there is a value after it
+      while (position + 1 <= last) {
+        if (inGradient) {
+          if (gradientDelta > maxDelta) {
+            flag(column, window[position % 3], gradientDelta);
+            position++;
+            gradientDelta = delta(column, position);
+          } else {
+            inGradient = false;
+            position++;
+          }
+        } else {
+          int prev = window[(position - 1) % 3];
+          int curr = window[position % 3];
+          int next = window[(position + 1) % 3];
+
+          double tDiff = column.minutesBetween(prev, curr);
+          double delta = Math
+            .abs(column.getValue(curr) - column.getValue(prev)) / tDiff;
+
+          if (delta > maxDelta) { // spike or gradient
+            double deltaNext = Math
+              .abs(column.getValue(next) - column.getValue(prev)) / tDiff;
+
+            if (deltaNext < maxDelta) { // Spike
+              flag(column, curr, delta);
+              position += 2;
+            } else { // Gradient
+              flag(column, prev, delta);
+              inGradient = true;
+              gradientDelta = delta;
+            }
+          } else {
+            position++;
+          }
+        }
+      }
+    }
+
+    /**
+     * Calculate the change per minute between the value at the specified
+     * position and the one before it.
+     *
+     * @param column
+     *          The column being processed
+     * @param position
+     *          The position
+     * @return The change per minute
+     */
+    private double delta(AutoQCColumn column, int position) {
+      int prev = window[(position - 1) % 3];
+      int curr = window[position % 3];
+
+      return Math.abs(column.getValue(curr) - column.getValue(prev))
+        / column.minutesBetween(prev, curr);
+    }
+
+    @Override
+    protected void applyFlag(AutoQCColumn column, int index,
+      double actualValue) throws RoutineException {
+      addFlag(column.getSensorValue(index), Flag.BAD, maxDelta, actualValue);
+    }
+  }
+
   /**
    * Get the short form QC message
    *
@@ -76,6 +76,43 @@ public class HighDeltaRoutine extends AutoQCRoutine {
     }
   }
 
+  @Override
+  protected AutoQCStep makeStep() {
+    return new AutoQCStep() {
+
+      /**
+       * The position of the last non-missing value
+       */
+      private int lastIndex = -1;
+
+      @Override
+      protected void accept(AutoQCColumn column, int index) {
+        if (lastIndex > -1) {
+          // Calculate the change between this record and the previous one
+          double minutesDifference = column.secondsBetween(lastIndex, index)
+            / 60.0;
+
+          double valueDelta = Math
+            .abs(column.getValue(index) - column.getValue(lastIndex));
+
+          double deltaPerMinute = valueDelta / minutesDifference;
+
+          if (deltaPerMinute > maxDelta) {
+            flag(column, index, deltaPerMinute);
+          }
+        }
+
+        lastIndex = index;
+      }
+
+      @Override
+      protected void applyFlag(AutoQCColumn column, int index,
+        double actualValue) throws RoutineException {
+        addFlag(column.getSensorValue(index), Flag.BAD, maxDelta, actualValue);
+      }
+    };
+  }
+
   /**
    * Get the short form QC message
    *
@@ -85,6 +85,59 @@ public class OutlierRoutine extends AutoQCRoutine {
     }
   }
 
+  @Override
+  protected AutoQCStep makeStep() {
+    return new AutoQCStep() {
+
+      private int valueCount = 0;
+
+      private double mean = 0.0;
+
+      private double stdev = 0.0;
+
+      @Override
+      protected void accept(AutoQCColumn column, int index) {
+        double value = column.getValue(index);
+        valueCount++;
+
+        if (valueCount == 1) {
+          mean = value;
+        } else {
+          double d = value - mean;
+          stdev += (valueCount - 1) * d * d / valueCount;
+          mean += d / valueCount;
+        }
+      }
+
+      @Override
+      protected void finish(AutoQCColumn column) {
+        if (valueCount > 0) {
+          // Finalise the stdev calculation
+          stdev = Math.sqrt(stdev / valueCount);
+
+          // The mean is only known at the end of the pass, so the values have
+          // to be checked again
+          for (int i = 0; i < column.size(); i++) {
+            if (!column.isNaN(i)) {
+              double diffFromMean = Math.abs(column.getValue(i) - mean);
+
+              if (diffFromMean > (stdev * stdevLimit)) {
+                flag(column, i, stdev);
+              }
+            }
+          }
+        }
+      }
+
+      @Override
+      protected void applyFlag(AutoQCColumn column, int index,
+        double actualValue) throws RoutineException {
+        addFlag(column.getSensorValue(index), Flag.BAD, stdevLimit,
+          actualValue);
+      }
+    };
+  }
+
   /**
    * Get the short form QC message
    *
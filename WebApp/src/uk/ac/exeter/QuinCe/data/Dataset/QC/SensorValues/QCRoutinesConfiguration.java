@@ -41,6 +41,11 @@ public class QCRoutinesConfiguration {
    */
   private Map<SensorType, List<AutoQCRoutine>> routines;
 
+  /**
+   * The QC engines for each sensor type, built from {@link #routines}
+   */
+  private Map<SensorType, AutoQCEngine> engines;
+
   /**
    * Main constructor - parses supplied config file and builds all Routine
    * objects.
@@ -59,6 +64,12 @@ public class QCRoutinesConfiguration {
     MissingParam.checkMissing(configFile, "configFile");
     routines = new HashMap<SensorType, List<AutoQCRoutine>>();
     init(sensorsConfig, configFile);
+
+    engines = new HashMap<SensorType, AutoQCEngine>();
+    for (Map.Entry<SensorType, List<AutoQCRoutine>> entry : routines
+      .entrySet()) {
+      engines.put(entry.getKey(), new AutoQCEngine(entry.getValue()));
+    }
   }
 
   /**
@@ -158,6 +169,22 @@ public class QCRoutinesConfiguration {
     return result;
   }
 
+  /**
+   * Get the QC engine that runs all the QC routines for a given sensor type
+   *
+   * @param sensorType
+   *          The sensor type
+   * @return The QC engine
+   */
+  public AutoQCEngine getEngine(SensorType sensorType) {
+    AutoQCEngine result = engines.get(sensorType);
+    if (null == result) {
+      result = new AutoQCEngine(new ArrayList<AutoQCRoutine>());
+    }
+
+    return result;
+  }
+
   /**
    * Get the full class name from a routine name
    *
@@ -62,6 +62,16 @@ public class RangeCheckRoutine extends AutoQCRoutine {
    */
   private boolean hasBadRange = false;
 
+  /**
+   * The Questionable range, as reported in QC flags
+   */
+  private String questionableRange = null;
+
+  /**
+   * The Bad range, as reported in QC flags
+   */
+  private String badRange = null;
+
   /**
    * Basic constructor
    *
@@ -105,6 +115,9 @@ public class RangeCheckRoutine extends AutoQCRoutine {
       }
     }
 
+    questionableRange = "" + questionableMin + ":" + questionableMax;
+    badRange = "" + badMin + ":" + badMax;
+
     if (hasQuestionableRange && hasBadRange) {
       if (badMin > questionableMin || badMax < questionableMax) {
         throw new RoutineException(
@@ -119,19 +132,59 @@ public class RangeCheckRoutine extends AutoQCRoutine {
       Double value = sensorValue.getDoubleValue();
 
       if (!value.isNaN()) {
-        if (hasBadRange && (value < badMin || value > badMax)) {
-          addFlag(sensorValue, Flag.BAD, "" + badMin + ":" + badMax,
-            String.valueOf(value));
-        } else if (hasQuestionableRange
-          && (value < questionableMin || value > questionableMax)) {
-          addFlag(sensorValue, Flag.QUESTIONABLE,
-            "" + questionableMin + ":" + questionableMax,
-            String.valueOf(value));
+        checkValue(sensorValue, value);
+      }
+    }
+  }
+
+  @Override
+  protected AutoQCStep makeStep() {
+    return new AutoQCStep() {
+      @Override
+      protected void accept(AutoQCColumn column, int index) {
+        double value = column.getValue(index);
+        if (isBad(value) || isQuestionable(value)) {
+          flag(column, index, value);
         }
       }
+
+      @Override
+      protected void applyFlag(AutoQCColumn column, int index,
+        double actualValue) throws RoutineException {
+        checkValue(column.getSensorValue(index), actualValue);
+      }
+    };
+  }
+
+  /**
+   * Flag a value if it is outside the Bad or Questionable range.
+   *
+   * @param sensorValue
+   *          The sensor value
+   * @param value
+   *          The numeric value
+   * @throws RoutineException
+   *           If the flag cannot be added
+   */
+  private void checkValue(SensorValue sensorValue, double value)
+    throws RoutineException {
+
+    if (isBad(value)) {
+      addFlag(sensorValue, Flag.BAD, badRange, value);
+    } else if (isQuestionable(value)) {
+      addFlag(sensorValue, Flag.QUESTIONABLE, questionableRange, value);
     }
   }
 
+  private boolean isBad(double value) {
+    return hasBadRange && (value < badMin || value > badMax);
+  }
+
+  private boolean isQuestionable(double value) {
+    return hasQuestionableRange
+      && (value < questionableMin || value > questionableMax);
+  }
+
   /**
    * Get the short form QC message
    *
@@ -2,22 +2,41 @@ package uk.ac.exeter.QuinCe.data.Dataset;
 
 import java.time.LocalDateTime;
 
+import uk.ac.exeter.QuinCe.data.Instrument.RunTypes.RunTypeDictionary;
+
 public class RunTypePeriod {
 
-  private String runType;
+  /**
+   * The dictionary from which the run type code was obtained
+   */
+  private final RunTypeDictionary runTypeDictionary;
+
+  private final int runTypeCode;
 
   private LocalDateTime start;
 
   private LocalDateTime end;
 
-  protected RunTypePeriod(String runType, LocalDateTime start) {
-    this.runType = runType;
+  protected RunTypePeriod(RunTypeDictionary runTypeDictionary,
+    int runTypeCode, LocalDateTime start) {
+    this.runTypeDictionary = runTypeDictionary;
+    this.runTypeCode = runTypeCode;
     this.start = start;
     this.end = start;
   }
 
   public String getRunType() {
-    return runType;
+    return runTypeDictionary.getRunType(runTypeCode);
+  }
+
+  /**
+   * Get the code for this period's run type from the {@link RunTypeDictionary}
+   * used by the parent {@link RunTypePeriods}.
+   *
+   * @return The run type code
+   */
+  public int getRunTypeCode() {
+    return runTypeCode;
   }
 
   public LocalDateTime getStart() {
@@ -3,13 +3,38 @@ package uk.ac.exeter.QuinCe.data.Dataset;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 
+import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
+import uk.ac.exeter.QuinCe.data.Instrument.RunTypes.RunTypeDictionary;
+
 @SuppressWarnings("serial")
 public class RunTypePeriods extends ArrayList<RunTypePeriod> {
 
   boolean finished = false;
 
+  /**
+   * The dictionary used to encode the run types
+   */
+  private final RunTypeDictionary runTypeDictionary;
+
+  /**
+   * Create an empty set of periods with its own run type dictionary
+   */
   public RunTypePeriods() {
+    this(new RunTypeDictionary());
+  }
+
+  /**
+   * Create an empty set of periods whose run types are encoded using the
+   * specified dictionary. This will normally be the instrument's dictionary
+   * (see {@link Instrument#getRunTypeDictionary()}) so that the periods' run
+   * type codes can be passed to the instrument.
+   *
+   * @param runTypeDictionary
+   *          The run type dictionary
+   */
+  public RunTypePeriods(RunTypeDictionary runTypeDictionary) {
     super();
+    this.runTypeDictionary = runTypeDictionary;
   }
 
   public void add(String runType, LocalDateTime time) throws DataSetException {
@@ -18,8 +43,10 @@ public class RunTypePeriods extends ArrayList<RunTypePeriod> {
       throw new DataSetException("RunTypePeriods is finished");
     }
 
+    int runTypeCode = runTypeDictionary.getCode(runType);
+
     if (size() == 0) {
-      add(new RunTypePeriod(runType, time));
+      add(new RunTypePeriod(runTypeDictionary, runTypeCode, time));
     } else {
       if (time.isBefore(getLastTime()) || time.equals(getLastTime())) {
         throw new DataSetException(
@@ -27,8 +54,8 @@ public class RunTypePeriods extends ArrayList<RunTypePeriod> {
       }
 
       RunTypePeriod currentPeriod = get(size() - 1);
-      if (!currentPeriod.getRunType().equals(runType)) {
-        add(new RunTypePeriod(runType, time));
+      if (currentPeriod.getRunTypeCode() != runTypeCode) {
+        add(new RunTypePeriod(runTypeDictionary, runTypeCode, time));
       } else {
         currentPeriod.setEnd(time);
       }
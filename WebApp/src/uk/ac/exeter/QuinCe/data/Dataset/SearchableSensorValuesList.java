@@ -4,10 +4,9 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.TreeSet;
-import java.util.function.IntPredicate;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
@@ -32,16 +31,69 @@ import uk.ac.exeter.QuinCe.utils.MissingParamException;
  * the correct order.</b>
  * </p>
  *
+ * <p>
+ * Interpolation searches use a neighbour index that holds, for each position
+ * in the list, the closest value at or before it (and at or after it) with a
+ * {@link Flag#GOOD} flag, and with any usable flag ({@link Flag#GOOD},
+ * {@link Flag#QUESTIONABLE} or {@link Flag#BAD}). The index is built the first
+ * time it is needed and rebuilt if the list is modified. The values in the
+ * list tell it when their QC flags change, so the index can be updated
+ * incrementally.
+ * </p>
+ *
  * @author Steve Jones
  *
  */
 @SuppressWarnings("serial")
 public class SearchableSensorValuesList extends ArrayList<SensorValue> {
 
-  private static final SensorValueTimeComparator TIME_COMPARATOR = new SensorValueTimeComparator();
-
   private final TreeSet<Long> columnIds;
 
+  /**
+   * For each position in the list, the index of the closest value at or
+   * before it with a {@link Flag#GOOD} flag, or {@code -1} if there is none
+   */
+  private int[] prevGood = null;
+
+  /**
+   * For each position in the list, the index of the closest value at or
+   * after it with a {@link Flag#GOOD} flag, or {@code -1} if there is none
+   */
+  private int[] nextGood = null;
+
+  /**
+   * For each position in the list, the index of the closest value at or
+   * before it with a {@link Flag#GOOD}, {@link Flag#QUESTIONABLE} or
+   * {@link Flag#BAD} flag, or {@code -1} if there is none
+   */
+  private int[] prevUsable = null;
+
+  /**
+   * For each position in the list, the index of the closest value at or
+   * after it with a {@link Flag#GOOD}, {@link Flag#QUESTIONABLE} or
+   * {@link Flag#BAD} flag, or {@code -1} if there is none
+   */
+  private int[] nextUsable = null;
+
+  /**
+   * The version of the neighbour index. This is incremented whenever the index
+   * becomes out of date. It can be changed without holding the list's lock,
+   * since values may invalidate the index of a list other than the one whose
+   * lock is held (see {@link SensorValue#setFlagIndexList}).
+   */
+  private final AtomicInteger flagIndexVersion = new AtomicInteger();
+
+  /**
+   * The {@link #flagIndexVersion} that the neighbour index was built for, or
+   * {@code -1} if it has not been built
+   */
+  private int builtFlagIndexVersion = -1;
+
+  /**
+   * The modification count of the list when the neighbour index was built
+   */
+  private int flagIndexModCount = -1;
+
   /**
    * Constructor for an empty list with one supported column ID
    */
@@ -102,6 +154,13 @@ public class SearchableSensorValuesList extends ArrayList<SensorValue> {
     return true;
   }
 
+  @Override
+  public SensorValue set(int index, SensorValue value) {
+    checkColumnId(value);
+    invalidateFlagIndex();
+    return super.set(index, value);
+  }
+
   private void checkColumnId(SensorValue value) {
     if (!columnIds.contains(value.getColumnId())) {
       throw new IllegalArgumentException("Invalid column ID");
@@ -123,8 +182,7 @@ public class SearchableSensorValuesList extends ArrayList<SensorValue> {
 
     SensorValue result = null;
 
-    int searchIndex = Collections.binarySearch(this, dummySensorValue(time),
-      TIME_COMPARATOR);
+    int searchIndex = timeIndex(time);
 
     if (searchIndex > -1) {
       result = get(searchIndex);
@@ -170,8 +228,7 @@ public class SearchableSensorValuesList extends ArrayList<SensorValue> {
 
     List<SensorValue> result = new ArrayList<SensorValue>();
 
-    int startPoint = Collections.binarySearch(this, dummySensorValue(start),
-      TIME_COMPARATOR);
+    int startPoint = timeIndex(start);
 
     // If the search result is -(list size), all the values are before the start
     // so we don't do anything and return an empty list. The easiest way to do
@@ -197,9 +254,19 @@ public class SearchableSensorValuesList extends ArrayList<SensorValue> {
   }
 
   public SensorValue get(LocalDateTime time) {
-    int valueIndex = Collections.binarySearch(this, dummySensorValue(time),
-      TIME_COMPARATOR);
+    return getAtSearchIndex(timeIndex(time));
+  }
 
+  /**
+   * Get the value for a search result from {@link #timeIndex(LocalDateTime)}
+   * or a {@link SensorValuesCursor}, applying the same rules as
+   * {@link #get(LocalDateTime)}.
+   *
+   * @param valueIndex
+   *          The search result
+   * @return The value, or {@code null} if there is no usable exact match
+   */
+  protected SensorValue getAtSearchIndex(int valueIndex) {
     SensorValue result = valueIndex >= 0 ? get(valueIndex) : null;
     if (null != result && result.getUserQCFlag().equals(Flag.FLUSHING)) {
       result = null;
@@ -237,11 +304,25 @@ public class SearchableSensorValuesList extends ArrayList<SensorValue> {
    */
   public List<SensorValue> getWithInterpolation(LocalDateTime time,
     boolean preferGoodFlags) {
+    return getWithInterpolation(timeIndex(time), preferGoodFlags);
+  }
 
-    List<SensorValue> result;
+  /**
+   * Get the {@link SensorValue}(s) most relevant for a search result from
+   * {@link #timeIndex(LocalDateTime)} or a {@link SensorValuesCursor},
+   * applying the same rules as
+   * {@link #getWithInterpolation(LocalDateTime, boolean)}.
+   *
+   * @param startPoint
+   *          The search result
+   * @param preferGoodFlags
+   *          Only return values with {@link Flag#GOOD} QC flags if possible.
+   * @return The most relevant values
+   */
+  protected List<SensorValue> getWithInterpolation(int startPoint,
+    boolean preferGoodFlags) {
 
-    int startPoint = Collections.binarySearch(this, dummySensorValue(time),
-      TIME_COMPARATOR);
+    List<SensorValue> result;
 
     SensorValue exactTimeValue = null;
     List<SensorValue> priorPostValues = null;
@@ -300,8 +381,14 @@ public class SearchableSensorValuesList extends ArrayList<SensorValue> {
       startPoint = Math.abs(startPoint) - 1;
     }
 
-    int priorIndex = priorSearch(startPoint - 1, goodOnly);
-    int postIndex = postSearch(startPoint, goodOnly);
+    int priorIndex;
+    int postIndex;
+
+    synchronized (this) {
+      ensureFlagIndex();
+      priorIndex = priorSearch(startPoint - 1, goodOnly);
+      postIndex = postSearch(startPoint, goodOnly);
+    }
 
     SensorValue prior = priorIndex == -1 ? null : get(priorIndex);
     SensorValue post = postIndex == -1 ? null : get(postIndex);
@@ -364,78 +451,252 @@ public class SearchableSensorValuesList extends ArrayList<SensorValue> {
    */
 
   private int priorSearch(int startPoint, boolean goodFlagsOnly) {
-    return search(startPoint, goodFlagsOnly, -1, (x) -> x > -1);
+    return startPoint < 0 ? -1
+      : (goodFlagsOnly ? prevGood : prevUsable)[startPoint];
   }
 
   private int postSearch(int startPoint, boolean goodFlagsOnly) {
-    return search(startPoint, goodFlagsOnly, 1, (x) -> x < size());
+    return startPoint >= size() ? -1
+      : (goodFlagsOnly ? nextGood : nextUsable)[startPoint];
   }
 
-  private int search(int startPoint, boolean goodFlagsOnly, int searchStep,
-    IntPredicate limitTest) {
+  /**
+   * Search for the value at the specified time.
+   *
+   * <p>
+   * The result follows the same convention as
+   * {@link Collections#binarySearch(List, Object, java.util.Comparator)}: the
+   * index of a value at the time if one exists, or
+   * {@code (-(insertion point) - 1)} if not.
+   * </p>
+   *
+   * @param time
+   *          The time to search for
+   * @return The search result
+   */
+  protected int timeIndex(LocalDateTime time) {
+    int low = 0;
+    int high = size() - 1;
+
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int comparison = get(mid).getTime().compareTo(time);
+
+      if (comparison < 0) {
+        low = mid + 1;
+      } else if (comparison > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
 
-    int result = -1;
+    return -(low + 1);
+  }
 
-    int closestGood = -1;
-    int closestQuestionable = -1;
-    int closestBad = -1;
+  /**
+   * Make sure that the neighbour index is up to date, building it if
+   * necessary.
+   *
+   * <p>
+   * Lists may be shared between threads for reading, so the index is only
+   * built, updated and read under the list's lock.
+   * </p>
+   */
+  private synchronized void ensureFlagIndex() {
+    if (!isFlagIndexValid()) {
+      int version = flagIndexVersion.get();
+      int size = size();
+      prevGood = new int[size];
+      nextGood = new int[size];
+      prevUsable = new int[size];
+      nextUsable = new int[size];
+
+      for (int i = 0; i < size; i++) {
+        get(i).setFlagIndexList(this);
+        updatePrev(i);
+      }
 
-    int currentIndex = startPoint;
-    mainLoop: while (limitTest.test(currentIndex)) {
+      for (int i = size - 1; i >= 0; i--) {
+        updateNext(i);
+      }
 
-      Flag qcFlag = getQCFlag(currentIndex);
+      flagIndexModCount = modCount;
+      builtFlagIndexVersion = version;
+    }
+  }
 
-      switch (qcFlag.getFlagValue()) {
-      case Flag.VALUE_GOOD:
-      case Flag.VALUE_ASSUMED_GOOD: {
-        closestGood = currentIndex;
-        break mainLoop;
-      }
-      case Flag.VALUE_BAD: {
-        // Only do something if we aren't looking for GOOD flags only
-        if (!goodFlagsOnly && closestBad == -1) {
-          closestBad = currentIndex;
-          break mainLoop; // Remove for #1558
+  /**
+   * Determine whether the neighbour index is up to date. The index is out of
+   * date if it has been invalidated or the list has been modified since it
+   * was built.
+   *
+   * @return {@code true} if the index is up to date; {@code false} if not
+   */
+  private boolean isFlagIndexValid() {
+    return builtFlagIndexVersion == flagIndexVersion.get()
+      && flagIndexModCount == modCount;
+  }
+
+  /**
+   * Get a {@link SensorValuesCursor} for looking up values in this list in
+   * time order.
+   *
+   * @return The cursor
+   */
+  public SensorValuesCursor cursor() {
+    return new SensorValuesCursor(this);
+  }
+
+  /**
+   * Get the number of structural modifications made to the list, so that
+   * {@link SensorValuesCursor}s can detect when their position is out of
+   * date.
+   *
+   * @return The modification count
+   */
+  protected int getModCount() {
+    return modCount;
+  }
+
+  /**
+   * Mark the neighbour index as out of date, so it will be rebuilt the next
+   * time it is needed.
+   */
+  protected void invalidateFlagIndex() {
+    flagIndexVersion.incrementAndGet();
+  }
+
+  /**
+   * Update the neighbour index after the QC flags of a value have changed.
+   * Only the entries that depend on the value are changed.
+   *
+   * @param value
+   *          The value whose flags have changed
+   */
+  protected synchronized void flagChanged(SensorValue value) {
+    if (isFlagIndexValid()) {
+      int index = indexOfValue(value);
+
+      if (index == -1) {
+        invalidateFlagIndex();
+      } else {
+        int i = index;
+        while (i < size() && (updatePrev(i) || i == index)) {
+          i++;
         }
-        break;
-      }
-      case Flag.VALUE_QUESTIONABLE: {
-        // Only do something if we aren't looking for GOOD flags only
-        if (!goodFlagsOnly && closestQuestionable == -1) {
-          closestQuestionable = currentIndex;
-          break mainLoop; // Remove for #1558
+
+        i = index;
+        while (i >= 0 && (updateNext(i) || i == index)) {
+          i--;
         }
-        break;
-      }
-      default: {
-        // Ignore all other flags
       }
-      }
-
-      currentIndex = currentIndex + searchStep;
     }
+  }
 
-    if (closestGood > -1) {
-      result = closestGood;
-    } else if (closestQuestionable > -1) {
-      result = closestQuestionable;
-    } else if (closestBad > -1) {
-      result = closestBad;
+  /**
+   * Recalculate the entries in {@link #prevGood} and {@link #prevUsable} for
+   * a position in the list from its flag and the entries for the previous
+   * position.
+   *
+   * @param index
+   *          The position in the list
+   * @return {@code true} if either entry has changed; {@code false} if not
+   */
+  private boolean updatePrev(int index) {
+    int flag = getQCFlag(index).getFlagValue();
+
+    int good = isGood(flag) ? index : index == 0 ? -1 : prevGood[index - 1];
+    int usable = isUsable(flag) ? index
+      : index == 0 ? -1 : prevUsable[index - 1];
+
+    boolean changed = good != prevGood[index] || usable != prevUsable[index];
+    prevGood[index] = good;
+    prevUsable[index] = usable;
+    return changed;
+  }
+
+  /**
+   * Recalculate the entries in {@link #nextGood} and {@link #nextUsable} for
+   * a position in the list from its flag and the entries for the next
+   * position.
+   *
+   * @param index
+   *          The position in the list
+   * @return {@code true} if either entry has changed; {@code false} if not
+   */
+  private boolean updateNext(int index) {
+    int flag = getQCFlag(index).getFlagValue();
+    int last = size() - 1;
+
+    int good = isGood(flag) ? index : index == last ? -1 : nextGood[index + 1];
+    int usable = isUsable(flag) ? index
+      : index == last ? -1 : nextUsable[index + 1];
+
+    boolean changed = good != nextGood[index] || usable != nextUsable[index];
+    nextGood[index] = good;
+    nextUsable[index] = usable;
+    return changed;
+  }
+
+  /**
+   * Find the position of a specific value in the list.
+   *
+   * @param value
+   *          The value
+   * @return The value's position, or {@code -1} if it is not in the list
+   */
+  private int indexOfValue(SensorValue value) {
+    int result = -1;
+
+    int searchIndex = timeIndex(value.getTime());
+    if (searchIndex >= 0) {
+      // There may be more than one value with the same time
+      int i = searchIndex;
+      while (i >= 0 && result == -1
+        && get(i).getTime().equals(value.getTime())) {
+        if (get(i) == value) {
+          result = i;
+        }
+        i--;
+      }
+
+      i = searchIndex + 1;
+      while (i < size() && result == -1
+        && get(i).getTime().equals(value.getTime())) {
+        if (get(i) == value) {
+          result = i;
+        }
+        i++;
+      }
     }
 
     return result;
   }
 
   /**
-   * Generate a dummy {@link SensorValue} for a specified time, for use with
-   * {@link #TIME_COMPARATOR}.
+   * Determine whether a QC flag value counts as {@link Flag#GOOD} for
+   * interpolation.
    *
-   * @param time
-   *          The time to use.
-   * @return The dummy {@link SensorValue}.
+   * @param flagValue
+   *          The flag value
+   * @return {@code true} if the flag is good; {@code false} otherwise
    */
-  private SensorValue dummySensorValue(LocalDateTime time) {
-    return new SensorValue(-1, -1, time, null);
+  private static boolean isGood(int flagValue) {
+    return flagValue == Flag.VALUE_GOOD || flagValue == Flag.VALUE_ASSUMED_GOOD;
+  }
+
+  /**
+   * Determine whether a value with a given QC flag value can be used for
+   * interpolation if no {@link Flag#GOOD} values are available.
+   *
+   * @param flagValue
+   *          The flag value
+   * @return {@code true} if the flag is usable; {@code false} otherwise
+   */
+  private static boolean isUsable(int flagValue) {
+    return isGood(flagValue) || flagValue == Flag.VALUE_QUESTIONABLE
+      || flagValue == Flag.VALUE_BAD;
   }
 
   private Flag getQCFlag(int index) {
@@ -444,10 +705,3 @@ public class SearchableSensorValuesList extends ArrayList<SensorValue> {
       : get(index).getUserQCFlag();
   }
 }
-
-class SensorValueTimeComparator implements Comparator<SensorValue> {
-  @Override
-  public int compare(SensorValue o1, SensorValue o2) {
-    return o1.getTime().compareTo(o2.getTime());
-  }
-}
@@ -82,6 +82,14 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
    */
   private boolean dirty;
 
+  /**
+   * The list whose neighbour index includes this value, which must be told
+   * when the value's QC flags change
+   *
+   * @see SearchableSensorValuesList#flagChanged(SensorValue)
+   */
+  private transient SearchableSensorValuesList flagIndexList = null;
+
   /**
    * Build a sensor value with default QC flags
    *
@@ -279,6 +287,7 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
     }
 
     dirty = true;
+    flagsChanged();
   }
 
   /**
@@ -306,6 +315,7 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
     }
 
     dirty = true;
+    flagsChanged();
   }
 
   /**
@@ -343,6 +353,7 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
     userQCFlag = flag;
     userQCMessage = message;
     dirty = true;
+    flagsChanged();
   }
 
   /**
@@ -412,6 +423,8 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
         dirty = true;
       }
     }
+
+    flagsChanged();
   }
 
   private void addUserQCMessage(String message) {
@@ -433,6 +446,32 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
     }
   }
 
+  /**
+   * Register the list whose neighbour index includes this value. If the value
+   * was already registered with a different list, that list's index is
+   * invalidated because it will no longer be told about flag changes.
+   *
+   * @param list
+   *          The list
+   */
+  protected void setFlagIndexList(SearchableSensorValuesList list) {
+    if (null != flagIndexList && flagIndexList != list) {
+      flagIndexList.invalidateFlagIndex();
+    }
+
+    flagIndexList = list;
+  }
+
+  /**
+   * Tell the registered {@link SearchableSensorValuesList} (if there is one)
+   * that the QC flags of this value have changed.
+   */
+  private void flagsChanged() {
+    if (null != flagIndexList) {
+      flagIndexList.flagChanged(this);
+    }
+  }
+
   /**
    * Determine whether or not this value needs to be saved to the database
    *
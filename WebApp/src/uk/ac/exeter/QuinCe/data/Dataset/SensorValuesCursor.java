@@ -0,0 +1,127 @@
+package uk.ac.exeter.QuinCe.data.Dataset;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
+
+/**
+ * A forward-only cursor for looking up values in a
+ * {@link SearchableSensorValuesList} at a sequence of increasing times.
+ *
+ * <p>
+ * Each lookup moves the cursor forward from its previous position instead of
+ * searching the whole list, so looking up the values for a time-ordered set of
+ * measurements is a single pass through the list. Lookups return the same
+ * results as the equivalent methods in {@link SearchableSensorValuesList}.
+ * </p>
+ *
+ * <p>
+ * If a lookup is for an earlier time than the previous lookup, or the list has
+ * been modified since the previous lookup, the cursor is repositioned with a
+ * binary search. This is always correct but loses the benefit of the cursor,
+ * so callers should make their lookups in time order wherever possible.
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public class SensorValuesCursor {
+
+  /**
+   * The list being searched
+   */
+  private final SearchableSensorValuesList list;
+
+  /**
+   * The index of the first value in the list whose time is on or after
+   * {@link #lastTime}
+   */
+  private int position = 0;
+
+  /**
+   * The time of the most recent lookup
+   */
+  private LocalDateTime lastTime = null;
+
+  /**
+   * The list's modification count at the most recent lookup
+   */
+  private int modCount;
+
+  /**
+   * Create a cursor positioned at the start of a list.
+   *
+   * @param list
+   *          The list
+   */
+  protected SensorValuesCursor(SearchableSensorValuesList list) {
+    this.list = list;
+    this.modCount = list.getModCount();
+  }
+
+  /**
+   * Get the value at the specified time. See
+   * {@link SearchableSensorValuesList#get(LocalDateTime)}.
+   *
+   * @param time
+   *          The time
+   * @return The value, or {@code null} if there is no usable value at that
+   *         time
+   */
+  public SensorValue get(LocalDateTime time) {
+    return list.getAtSearchIndex(seek(time));
+  }
+
+  /**
+   * Get the value at the specified time, or the closest values either side of
+   * it. See
+   * {@link SearchableSensorValuesList#getWithInterpolation(LocalDateTime, boolean)}.
+   *
+   * @param time
+   *          The time
+   * @param preferGoodFlags
+   *          Only return values with {@link Flag#GOOD} QC flags if possible.
+   * @return The most relevant values
+   */
+  public List<SensorValue> getWithInterpolation(LocalDateTime time,
+    boolean preferGoodFlags) {
+    return list.getWithInterpolation(seek(time), preferGoodFlags);
+  }
+
+  /**
+   * Move the cursor to the specified time and return the search result in the
+   * same form as {@link SearchableSensorValuesList#timeIndex(LocalDateTime)}.
+   *
+   * @param time
+   *          The time
+   * @return The search result
+   */
+  private int seek(LocalDateTime time) {
+
+    if (null == lastTime || time.isBefore(lastTime)
+      || modCount != list.getModCount()) {
+
+      // Reposition the cursor at the first value on or after the time
+      int searchResult = list.timeIndex(time);
+      position = searchResult >= 0 ? searchResult : -searchResult - 1;
+      while (position > 0
+        && list.get(position - 1).getTime().equals(time)) {
+        position--;
+      }
+
+      modCount = list.getModCount();
+    } else {
+      while (position < list.size()
+        && list.get(position).getTime().isBefore(time)) {
+        position++;
+      }
+    }
+
+    lastTime = time;
+
+    return position < list.size() && list.get(position).getTime().equals(time)
+      ? position
+      : -(position + 1);
+  }
+}
@@ -0,0 +1,71 @@
+package uk.ac.exeter.QuinCe.data.Dataset;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A set of {@link SensorValuesCursor}s, one for each column of a
+ * {@link DatasetSensorValues} object.
+ *
+ * <p>
+ * Cursors hold their position between lookups, so they belong to the process
+ * that uses them rather than to the sensor values themselves, which may be
+ * shared between user sessions. A process that looks up values in time order
+ * should create one instance of this class and use it for all its lookups.
+ * Instances must not be used by more than one thread.
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public class SensorValuesCursors {
+
+  /**
+   * The sensor values
+   */
+  private final DatasetSensorValues sensorValues;
+
+  /**
+   * The cursors for each column
+   */
+  private final Map<Long, SensorValuesCursor> cursors;
+
+  /**
+   * Create an empty set of cursors for a set of sensor values. The cursors are
+   * created as they are needed.
+   *
+   * @param sensorValues
+   *          The sensor values
+   */
+  public SensorValuesCursors(DatasetSensorValues sensorValues) {
+    this.sensorValues = sensorValues;
+    this.cursors = new HashMap<Long, SensorValuesCursor>();
+  }
+
+  /**
+   * Get the cursor for the values in a column.
+   *
+   * @param columnId
+   *          The column ID
+   * @return The cursor, or {@code null} if there are no values for the column
+   */
+  public SensorValuesCursor get(long columnId) {
+    SensorValuesCursor cursor = cursors.get(columnId);
+
+    if (null == cursor && sensorValues.containsColumn(columnId)) {
+      cursor = sensorValues.getColumnValues(columnId).cursor();
+      cursors.put(columnId, cursor);
+    }
+
+    return cursor;
+  }
+
+  /**
+   * Get the sensor values that the cursors look up.
+   *
+   * @return The sensor values
+   */
+  public DatasetSensorValues getSensorValues() {
+    return sensorValues;
+  }
+}
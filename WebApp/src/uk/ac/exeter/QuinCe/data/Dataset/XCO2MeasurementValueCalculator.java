@@ -28,7 +28,8 @@ public class XCO2MeasurementValueCalculator extends MeasurementValueCalculator {
   public MeasurementValue calculate(Instrument instrument,
     Measurement measurement, SensorType sensorType,
     DatasetMeasurements allMeasurements, DatasetSensorValues allSensorValues,
-    Connection conn) throws MeasurementValueCalculatorException {
+    SensorValuesCursors cursors, Connection conn)
+    throws MeasurementValueCalculatorException {
 
     MeasurementValue result;
 
@@ -36,7 +37,7 @@ public class XCO2MeasurementValueCalculator extends MeasurementValueCalculator {
     // contain one
     MeasurementValue xCO2 = new DefaultMeasurementValueCalculator().calculate(
       instrument, measurement, xco2SensorType, allMeasurements, allSensorValues,
-      conn);
+      cursors, conn);
 
     if (xCO2.getMemberCount() == 0) {
       // The CO2 value is missing, or in flushing. So we don't do anything
@@ -48,7 +49,7 @@ public class XCO2MeasurementValueCalculator extends MeasurementValueCalculator {
 
         MeasurementValue xH2O = new DefaultMeasurementValueCalculator()
           .calculate(instrument, measurement, xh2oSensorType, allMeasurements,
-            allSensorValues, conn);
+            allSensorValues, cursors, conn);
 
         result = new MeasurementValue(xco2SensorType);
         result.addSensorValues(xCO2, allSensorValues, true);
@@ -37,6 +37,14 @@ public class DataFile {
 
   public static final String TIME_OFFSET_PROP = "timeOffset";
 
+  /**
+   * Property recording whether the times in the file never go backwards. Set
+   * when the file is validated on upload.
+   *
+   * @see #hasMonotonicTimes()
+   */
+  public static final String MONOTONIC_TIMES_PROP = "monotonicTimes";
+
   /**
    * The database ID of this file
    */
@@ -328,6 +336,12 @@ public class DataFile {
       // (c) The Run Type is recognised
 
       LocalDateTime lastDateTime = null;
+
+      // Record whether the times go backwards, so that extraction can search
+      // the file by time. Lines whose time cannot be read are ignored.
+      boolean monotonic = true;
+      LocalDateTime lastReadableTime = null;
+
       for (int lineNumber = firstDataLine; lineNumber < getContentLineCount(); lineNumber++) {
         String line = contents.get(lineNumber);
 
@@ -339,6 +353,11 @@ public class DataFile {
               addMessage(lineNumber, "Date/Time is not monotonic");
             }
           }
+
+          if (null != lastReadableTime && dateTime.isBefore(lastReadableTime)) {
+            monotonic = false;
+          }
+          lastReadableTime = dateTime;
         } catch (DateTimeSpecificationException e) {
           addMessage(lineNumber, e.getMessage());
         }
@@ -364,6 +383,8 @@ public class DataFile {
           addMessage(lineNumber, "Incorrect number of columns");
         }
       }
+
+      properties.setProperty(MONOTONIC_TIMES_PROP, String.valueOf(monotonic));
     }
   }
 
@@ -548,6 +569,129 @@ public class DataFile {
     return getOffsetTime(fileDefinition.extractFields(contents.get(line)));
   }
 
+  /**
+   * Determine whether the times in the file never go backwards, so that
+   * every line after a given line has the same or a later time. Lines whose
+   * time cannot be read are ignored.
+   *
+   * <p>
+   * This is recorded when the file is validated on upload (see
+   * {@link #validate()}), so the file contents are not read. Files stored
+   * before this was recorded are treated as not monotonic.
+   * </p>
+   *
+   * @return {@code true} if the times are known to be monotonic;
+   *         {@code false} otherwise
+   */
+  public boolean hasMonotonicTimes() {
+    return Boolean.parseBoolean(properties.getProperty(MONOTONIC_TIMES_PROP));
+  }
+
+  /**
+   * Find the first line in the file whose time (with the defined offset
+   * applied) is at or after the specified time. Lines whose time cannot be
+   * read are skipped.
+   *
+   * <p>
+   * If the file's times are monotonic (see {@link #hasMonotonicTimes()}) the
+   * line is located by a binary search. Otherwise the lines are checked in
+   * order. Note that in that case later lines in the file may still be before
+   * the specified time.
+   * </p>
+   *
+   * @param time
+   *          The time to search for
+   * @return The line number, or {@link #getContentLineCount()} if all lines
+   *         are before the specified time
+   * @throws DataFileException
+   *           If the file contents cannot be loaded
+   */
+  public int findFirstLine(LocalDateTime time) throws DataFileException {
+    loadContents();
+
+    int startLine = getFirstDataLine();
+    if (hasMonotonicTimes()) {
+      startLine = searchFirstLine(time);
+    }
+
+    return scanFirstLine(time, startLine);
+  }
+
+  /**
+   * Find the first line in the file from the specified line onwards whose
+   * time is at or after the specified time by checking each line in turn.
+   *
+   * @param time
+   *          The time to search for
+   * @param startLine
+   *          The line to start from
+   * @return The line number, or {@link #getContentLineCount()} if all lines
+   *         are before the specified time
+   */
+  private int scanFirstLine(LocalDateTime time, int startLine) {
+    int result = getContentLineCount();
+
+    int line = startLine;
+    while (result == getContentLineCount() && line < getContentLineCount()) {
+      try {
+        if (!getOffsetTime(line).isBefore(time)) {
+          result = line;
+        }
+      } catch (Exception e) {
+        // Lines without a readable time are skipped
+      }
+
+      line++;
+    }
+
+    return result;
+  }
+
+  /**
+   * Use a binary search to find the line from which to look for the first
+   * line whose time is at or after the specified time. All readable lines
+   * before the returned line are before the time, but the returned line
+   * itself may not have a readable time. The file's times must be monotonic.
+   *
+   * @param time
+   *          The time to search for
+   * @return The line number, or {@link #getContentLineCount()} if all lines
+   *         are before the specified time
+   * @throws DataFileException
+   *           If the file contents cannot be loaded
+   */
+  private int searchFirstLine(LocalDateTime time) throws DataFileException {
+    int low = getFirstDataLine();
+    int high = getContentLineCount();
+
+    // Find the first line at or after the time in the range [low, high)
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+
+      // Find the nearest line at or after mid with a readable time
+      int probe = mid;
+      LocalDateTime probeTime = null;
+      while (null == probeTime && probe < high) {
+        try {
+          probeTime = getOffsetTime(probe);
+        } catch (Exception e) {
+          probe++;
+        }
+      }
+
+      if (null == probeTime) {
+        // Everything from mid onwards is unreadable, so search below it
+        high = mid;
+      } else if (probeTime.isBefore(time)) {
+        low = probe + 1;
+      } else {
+        high = probe;
+      }
+    }
+
+    return low;
+  }
+
   /**
    * Get the time of a line in the file, without the define offset applied
    *
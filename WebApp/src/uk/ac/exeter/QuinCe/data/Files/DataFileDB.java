@@ -17,8 +17,6 @@ import java.util.stream.Collectors;
 
 import javax.sql.DataSource;
 
-import com.google.gson.Gson;
-
 import uk.ac.exeter.QuinCe.User.User;
 import uk.ac.exeter.QuinCe.data.Instrument.FileDefinition;
 import uk.ac.exeter.QuinCe.data.Instrument.InstrumentDB;
@@ -27,6 +25,7 @@ import uk.ac.exeter.QuinCe.data.Instrument.InstrumentFileSet;
 import uk.ac.exeter.QuinCe.utils.DatabaseException;
 import uk.ac.exeter.QuinCe.utils.DatabaseUtils;
 import uk.ac.exeter.QuinCe.utils.DateTimeUtils;
+import uk.ac.exeter.QuinCe.utils.JsonUtils;
 import uk.ac.exeter.QuinCe.utils.MissingParam;
 import uk.ac.exeter.QuinCe.utils.MissingParamException;
 import uk.ac.exeter.QuinCe.utils.RecordNotFoundException;
@@ -263,7 +262,7 @@ public class DataFileDB {
       stmt.setLong(3, DateTimeUtils.dateToLong(dataFile.getRawStartTime()));
       stmt.setLong(4, DateTimeUtils.dateToLong(dataFile.getRawEndTime()));
       stmt.setInt(5, dataFile.getRecordCount());
-      stmt.setString(6, new Gson().toJson(dataFile.getProperties()));
+      stmt.setString(6, JsonUtils.GSON.toJson(dataFile.getProperties()));
 
       stmt.execute();
 
@@ -346,7 +345,7 @@ public class DataFileDB {
         stmt.setLong(2, DateTimeUtils.dateToLong(dataFile.getRawStartTime()));
         stmt.setLong(3, DateTimeUtils.dateToLong(dataFile.getRawEndTime()));
         stmt.setInt(4, dataFile.getRecordCount());
-        stmt.setString(5, new Gson().toJson(dataFile.getProperties()));
+        stmt.setString(5, JsonUtils.GSON.toJson(dataFile.getProperties()));
         stmt.setLong(6, replacementId);
 
         stmt.execute();
@@ -729,7 +728,7 @@ public class DataFileDB {
       LocalDateTime startDate = DateTimeUtils.longToDate(record.getLong(4));
       LocalDateTime endDate = DateTimeUtils.longToDate(record.getLong(5));
       int recordCount = record.getInt(6);
-      Properties properties = new Gson().fromJson(record.getString(7),
+      Properties properties = JsonUtils.GSON.fromJson(record.getString(7),
         Properties.class);
 
       result = new DataFile(fileStore, id, fileDefinition, filename, startDate,
@@ -877,7 +876,7 @@ public class DataFileDB {
    *          applied.
    * @return The filtered file list.
    */
-  private static List<DataFile> filterFilesByDates(List<DataFile> files,
+  public static List<DataFile> filterFilesByDates(List<DataFile> files,
     LocalDateTime start, LocalDateTime end, boolean applyOffset) {
 
     if (end.isEqual(start) || end.isBefore(start)) {
@@ -1058,7 +1057,7 @@ public class DataFileDB {
         result = DateTimeUtils.longToDate(records.getLong(1));
 
         if (applyOffset) {
-          Properties properties = new Gson().fromJson(records.getString(2),
+          Properties properties = JsonUtils.GSON.fromJson(records.getString(2),
             Properties.class);
           result.plusSeconds(Integer
             .parseInt(properties.getProperty(DataFile.TIME_OFFSET_PROP)));
@@ -1000,6 +1000,31 @@ public class FileDefinition implements Comparable<FileDefinition> {
     return getRunType(line, true).getCategory();
   }
 
+  /**
+   * Perform a quick check of whether a sample of data lines from a file could
+   * match this file definition. The sample fails only if none of its lines
+   * have the correct number of columns, which means the file is very unlikely
+   * to match. A positive result must be confirmed with
+   * {@link #fileMatches(List)}.
+   *
+   * @param sampleLines
+   *          The sample lines
+   * @return {@code true} if any of the sample lines have the correct number of
+   *         columns, or the sample is empty; {@code false} if not.
+   */
+  public boolean sampleMatches(List<String> sampleLines) {
+    boolean matches = sampleLines.isEmpty();
+
+    for (String line : sampleLines) {
+      if (extractFields(line).size() == columnCount) {
+        matches = true;
+        break;
+      }
+    }
+
+    return matches;
+  }
+
   /**
    * Examine the contents of a file to see if they match the format of this file
    * definition.
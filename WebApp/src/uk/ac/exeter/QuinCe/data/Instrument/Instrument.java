@@ -17,6 +17,7 @@ import uk.ac.exeter.QuinCe.data.Instrument.RunTypes.RunTypeAssignment;
 import uk.ac.exeter.QuinCe.data.Instrument.RunTypes.RunTypeAssignments;
 import uk.ac.exeter.QuinCe.data.Instrument.RunTypes.RunTypeCategory;
 import uk.ac.exeter.QuinCe.data.Instrument.RunTypes.RunTypeCategoryException;
+import uk.ac.exeter.QuinCe.data.Instrument.RunTypes.RunTypeDictionary;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorAssignment;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorAssignments;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorType;
@@ -112,6 +113,20 @@ public class Instrument {
    */
   private boolean nrt = false;
 
+  /**
+   * The codes for the run types used by this instrument
+   */
+  private final RunTypeDictionary runTypeDictionary = new RunTypeDictionary();
+
+  /**
+   * The Run Type categories for each variable, indexed by run type code. An
+   * instrument's run type assignments do not change once it has been created,
+   * so entries are never removed.
+   *
+   * @see #getRunTypeCategory(long, int)
+   */
+  private final Map<Long, RunTypeCategory[]> runTypeCategories = new HashMap<Long, RunTypeCategory[]>();
+
   /**
    * Create an instrument from an existing database record.
    *
@@ -341,6 +356,27 @@ public class Instrument {
     return getRunTypeCategory(runTypeEntry.getKey(), runTypeEntry.getValue());
   }
 
+  /**
+   * Get the dictionary of run type codes for this instrument
+   *
+   * @return The run type dictionary
+   */
+  public RunTypeDictionary getRunTypeDictionary() {
+    return runTypeDictionary;
+  }
+
+  /**
+   * Get the code for a run type from this instrument's
+   * {@link RunTypeDictionary}
+   *
+   * @param runType
+   *          The run type
+   * @return The run type code
+   */
+  public int getRunTypeCode(String runType) {
+    return runTypeDictionary.getCode(runType);
+  }
+
   /**
    * Get the Run Type category for a given Run Type value
    *
@@ -351,6 +387,93 @@ public class Instrument {
    */
   public RunTypeCategory getRunTypeCategory(long variableId,
     String runTypeValue) throws RunTypeCategoryException {
+    return getRunTypeCategory(variableId, getRunTypeCode(runTypeValue));
+  }
+
+  /**
+   * Get the Run Type category for a run type code from this instrument's
+   * {@link RunTypeDictionary}.
+   *
+   * <p>
+   * The category for each code is only worked out once. After that it is read
+   * from an array.
+   * </p>
+   *
+   * @param variableId
+   *          The variable ID
+   * @param runTypeCode
+   *          The run type code
+   * @return The Run Type category
+   * @throws RunTypeCategoryException
+   *           If the category cannot be determined
+   */
+  public RunTypeCategory getRunTypeCategory(long variableId, int runTypeCode)
+    throws RunTypeCategoryException {
+
+    RunTypeCategory result = null;
+
+    if (runTypeCode == RunTypeDictionary.NO_RUN_TYPE) {
+      result = lookupRunTypeCategory(variableId, null);
+    } else {
+      synchronized (runTypeCategories) {
+        RunTypeCategory[] categories = runTypeCategories.get(variableId);
+        if (null != categories && runTypeCode < categories.length) {
+          result = categories[runTypeCode];
+        }
+      }
+
+      if (null == result) {
+        result = lookupRunTypeCategory(variableId,
+          runTypeDictionary.getRunType(runTypeCode));
+        cacheRunTypeCategory(variableId, runTypeCode, result);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Store a Run Type category in {@link #runTypeCategories}
+   *
+   * @param variableId
+   *          The variable ID
+   * @param runTypeCode
+   *          The run type code
+   * @param category
+   *          The Run Type category
+   */
+  private void cacheRunTypeCategory(long variableId, int runTypeCode,
+    RunTypeCategory category) {
+
+    synchronized (runTypeCategories) {
+      RunTypeCategory[] categories = runTypeCategories.get(variableId);
+      if (null == categories || runTypeCode >= categories.length) {
+        RunTypeCategory[] grown = new RunTypeCategory[Math
+          .max(runTypeDictionary.size(), runTypeCode + 1)];
+        if (null != categories) {
+          System.arraycopy(categories, 0, grown, 0, categories.length);
+        }
+        categories = grown;
+        runTypeCategories.put(variableId, categories);
+      }
+
+      categories[runTypeCode] = category;
+    }
+  }
+
+  /**
+   * Work out the Run Type category for a given Run Type value
+   *
+   * @param variableId
+   *          The variable ID
+   * @param runTypeValue
+   *          The Run Type value
+   * @return The Run Type category
+   * @throws RunTypeCategoryException
+   *           If the category cannot be determined
+   */
+  private RunTypeCategory lookupRunTypeCategory(long variableId,
+    String runTypeValue) throws RunTypeCategoryException {
 
     RunTypeCategory result = null;
 
@@ -617,14 +740,32 @@ public class Instrument {
    */
   public boolean isRunTypeForVariable(Variable variable, String runType)
     throws RunTypeCategoryException {
+    return isRunTypeForVariable(variable, getRunTypeCode(runType));
+  }
+
+  /**
+   * Determine whether a run type code from this instrument's
+   * {@link RunTypeDictionary} is for the specified variable
+   *
+   * @param variable
+   *          The variable
+   * @param runTypeCode
+   *          The run type code
+   * @return {@code true} if the run type is for the variable; {@code false}
+   *         otherwise
+   * @throws RunTypeCategoryException
+   *           If the run type's category cannot be determined
+   */
+  public boolean isRunTypeForVariable(Variable variable, int runTypeCode)
+    throws RunTypeCategoryException {
 
     boolean result = false;
 
-    if (null != runType) {
+    if (runTypeCode != RunTypeDictionary.NO_RUN_TYPE) {
       if (null != variable.getRunType()
-        && variable.getRunType().equals(runType)) {
+        && getRunTypeCode(variable.getRunType()) == runTypeCode) {
         result = true;
-      } else if (getRunTypeCategory(variable.getId(), runType)
+      } else if (getRunTypeCategory(variable.getId(), runTypeCode)
         .getType() == variable.getId()) {
         result = true;
       }
@@ -39,6 +39,7 @@ import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.Variable;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.VariableNotFoundException;
 import uk.ac.exeter.QuinCe.utils.DatabaseException;
 import uk.ac.exeter.QuinCe.utils.DatabaseUtils;
+import uk.ac.exeter.QuinCe.utils.JsonUtils;
 import uk.ac.exeter.QuinCe.utils.MissingParam;
 import uk.ac.exeter.QuinCe.utils.MissingParamException;
 import uk.ac.exeter.QuinCe.utils.RecordNotFoundException;
@@ -259,7 +260,7 @@ public class InstrumentDB {
           variableStmt.setLong(1, instrumentId);
           variableStmt.setLong(2, variable.getId());
           variableStmt.setString(3,
-            new Gson().toJson(instrument.getVariableProperties(variable)));
+            JsonUtils.GSON.toJson(instrument.getVariableProperties(variable)));
           variableStmt.execute();
           subStatements.add(variableStmt);
         }
@@ -379,7 +380,7 @@ public class InstrumentDB {
     stmt.setString(2, instrument.getName()); // name
     stmt.setString(3, instrument.getPlatformCode()); // platform_code
     stmt.setBoolean(4, instrument.getNrt()); // nrt
-    stmt.setString(5, new Gson().toJson(instrument.getProperties())); // attributes
+    stmt.setString(5, JsonUtils.GSON.toJson(instrument.getProperties())); // attributes
 
     return stmt;
   }
@@ -404,7 +405,7 @@ public class InstrumentDB {
     Connection conn, FileDefinition file, long instrumentId)
     throws SQLException, IOException {
 
-    Gson gson = new Gson();
+    Gson gson = JsonUtils.GSON;
 
     PreparedStatement stmt = conn.prepareStatement(
       CREATE_FILE_DEFINITION_STATEMENT, Statement.RETURN_GENERATED_KEYS);
@@ -600,7 +601,7 @@ public class InstrumentDB {
     Map<Variable, Properties> processedVariableProperties = new HashMap<Variable, Properties>();
     for (Map.Entry<Long, String> entry : variableProperties.entrySet()) {
       Variable var = sensorConfig.getInstrumentVariable(entry.getKey());
-      Properties props = new Gson().fromJson(entry.getValue(),
+      Properties props = JsonUtils.GSON.fromJson(entry.getValue(),
         Properties.class);
 
       processedVariableProperties.put(var, props);
@@ -608,7 +609,7 @@ public class InstrumentDB {
 
     return new Instrument(UserDB.getUser(conn, ownerId), id, name, files,
       variables, processedVariableProperties, sensorAssignments, platformCode,
-      nrt, new Gson().fromJson(propertiesJson, Properties.class));
+      nrt, JsonUtils.GSON.fromJson(propertiesJson, Properties.class));
   }
 
   /**
@@ -747,7 +748,7 @@ public class InstrumentDB {
         boolean nrt = instrumentRecord.getBoolean(4);
         String propertiesJson = instrumentRecord.getString(5);
 
-        Properties properties = new Gson().fromJson(propertiesJson,
+        Properties properties = JsonUtils.GSON.fromJson(propertiesJson,
           Properties.class);
 
         // Now get the file definitions
@@ -802,7 +803,7 @@ public class InstrumentDB {
 
     InstrumentFileSet fileSet = new InstrumentFileSet();
 
-    Gson gson = new Gson();
+    Gson gson = JsonUtils.GSON;
     PreparedStatement stmt = null;
     ResultSet records = null;
 
@@ -959,7 +960,7 @@ public class InstrumentDB {
             .getInstrumentVariable(records.getLong(1));
           variables.add(variable);
           variableProperties.put(variable,
-            new Gson().fromJson(records.getString(2), Properties.class));
+            JsonUtils.GSON.fromJson(records.getString(2), Properties.class));
         }
       }
 
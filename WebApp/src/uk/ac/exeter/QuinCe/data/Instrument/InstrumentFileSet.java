@@ -16,6 +16,12 @@ public class InstrumentFileSet extends ArrayList<FileDefinition> {
    */
   private static final long serialVersionUID = -998081927701592751L;
 
+  /**
+   * The number of lines from the end of a file used to select candidate file
+   * definitions in {@link #getMatchingFileDefinition(List)}
+   */
+  private static final int MATCH_SAMPLE_LINES = 10;
+
   /**
    * Simple constructor to create an empty set
    */
@@ -147,4 +153,36 @@ public class InstrumentFileSet extends ArrayList<FileDefinition> {
 
     return result;
   }
+
+  /**
+   * Find the first file definition that matches the contents of a file.
+   *
+   * <p>
+   * The definitions are checked in order using
+   * {@link FileDefinition#fileMatches(List)}, which examines every line of the
+   * file. Definitions that clearly do not fit a small sample of lines from the
+   * end of the file (which will be data lines if the file contains any data)
+   * are skipped without the full check. See
+   * {@link FileDefinition#sampleMatches(List)}.
+   * </p>
+   *
+   * @param lines
+   *          The file lines
+   * @return The matching file definition, or {@code null} if there is no match
+   */
+  public FileDefinition getMatchingFileDefinition(List<String> lines) {
+    FileDefinition result = null;
+
+    List<String> sample = lines.subList(
+      Math.max(0, lines.size() - MATCH_SAMPLE_LINES), lines.size());
+
+    for (FileDefinition file : this) {
+      if (file.sampleMatches(sample) && file.fileMatches(lines)) {
+        result = file;
+        break;
+      }
+    }
+
+    return result;
+  }
 }
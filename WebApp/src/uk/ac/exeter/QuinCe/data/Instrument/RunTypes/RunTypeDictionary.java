@@ -0,0 +1,91 @@
+package uk.ac.exeter.QuinCe.data.Instrument.RunTypes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns a small integer code to each distinct run type seen for an
+ * instrument.
+ *
+ * <p>
+ * Run types are read from data files as strings. Comparing and hashing those
+ * strings for every sensor value and measurement is expensive, so code that
+ * handles large numbers of run types converts each one to a code once and
+ * works with the codes from then on. Codes are allocated in the order that
+ * run types are first seen, starting from zero, so they can be used as array
+ * indices.
+ * </p>
+ *
+ * <p>
+ * The codes are only valid for the {@link RunTypeDictionary} that issued them.
+ * They are not stored in the database.
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public class RunTypeDictionary {
+
+  /**
+   * The code used for a {@code null} run type
+   */
+  public static final int NO_RUN_TYPE = -1;
+
+  /**
+   * The codes for each run type
+   */
+  private final Map<String, Integer> codes = new HashMap<String, Integer>();
+
+  /**
+   * The run types, indexed by code
+   */
+  private final List<String> runTypes = new ArrayList<String>();
+
+  /**
+   * Get the code for a run type, allocating a new code if the run type has not
+   * been seen before.
+   *
+   * @param runType
+   *          The run type
+   * @return The code
+   */
+  public synchronized int getCode(String runType) {
+    int result = NO_RUN_TYPE;
+
+    if (null != runType) {
+      Integer code = codes.get(runType);
+      if (null == code) {
+        code = runTypes.size();
+        runTypes.add(runType);
+        codes.put(runType, code);
+      }
+
+      result = code;
+    }
+
+    return result;
+  }
+
+  /**
+   * Get the run type for a code.
+   *
+   * @param code
+   *          The code
+   * @return The run type, or {@code null} if the code is
+   *         {@link #NO_RUN_TYPE}
+   */
+  public synchronized String getRunType(int code) {
+    return code == NO_RUN_TYPE ? null : runTypes.get(code);
+  }
+
+  /**
+   * Get the number of codes that have been allocated.
+   *
+   * @return The number of codes
+   */
+  public synchronized int size() {
+    return runTypes.size();
+  }
+}
@@ -18,13 +18,13 @@ import java.util.stream.Collectors;
 
 import javax.sql.DataSource;
 
-import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
 import uk.ac.exeter.QuinCe.data.Dataset.ColumnHeading;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.InvalidFlagException;
 import uk.ac.exeter.QuinCe.utils.DatabaseException;
 import uk.ac.exeter.QuinCe.utils.DatabaseUtils;
+import uk.ac.exeter.QuinCe.utils.JsonUtils;
 import uk.ac.exeter.QuinCe.utils.MissingParam;
 import uk.ac.exeter.QuinCe.utils.MissingParamException;
 
@@ -68,6 +68,11 @@ public class SensorsConfiguration {
    */
   private Map<Long, SensorType> sensorTypes;
 
+  /**
+   * The sensor types keyed by their short names
+   */
+  private Map<String, SensorType> sensorTypesByName;
+
   /**
    * The set of variables an instrument can measure
    */
@@ -86,6 +91,7 @@ public class SensorsConfiguration {
       checkReferences();
       checkParentsAndChildren();
       buildSpecialSensors();
+      indexSensorTypeNames();
     } catch (Exception e) {
       e.printStackTrace();
       throw new SensorConfigurationException(
@@ -235,7 +241,7 @@ public class SensorsConfiguration {
     } else {
       Type mapType = new TypeToken<LinkedHashMap<String, String>>() {
       }.getType();
-      result = new Gson().fromJson(attributesJson, mapType);
+      result = JsonUtils.GSON.fromJson(attributesJson, mapType);
     }
 
     return result;
@@ -286,6 +292,17 @@ public class SensorsConfiguration {
       SensorType.RUN_TYPE_SENSOR_TYPE);
   }
 
+  /**
+   * Build the lookup of sensor types by name. If more than one sensor type has
+   * the same name, the first one found is used.
+   */
+  private void indexSensorTypeNames() {
+    sensorTypesByName = new HashMap<String, SensorType>();
+    for (SensorType type : sensorTypes.values()) {
+      sensorTypesByName.putIfAbsent(type.getShortName(), type);
+    }
+  }
+
   /**
    * Check a list of sensor names to ensure they are all present in the sensor
    * configuration.
@@ -538,14 +555,7 @@ public class SensorsConfiguration {
    */
   public SensorType getSensorType(String typeName)
     throws SensorTypeNotFoundException {
-    SensorType result = null;
-
-    for (SensorType type : sensorTypes.values()) {
-      if (type.getShortName().equals(typeName)) {
-        result = type;
-        break;
-      }
-    }
+    SensorType result = sensorTypesByName.get(typeName);
 
     if (null == result) {
       throw new SensorTypeNotFoundException(typeName);
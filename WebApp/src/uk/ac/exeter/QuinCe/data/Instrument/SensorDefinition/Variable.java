@@ -9,11 +9,10 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
-import com.google.gson.Gson;
-
 import uk.ac.exeter.QuinCe.data.Dataset.ColumnHeading;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.InvalidFlagException;
+import uk.ac.exeter.QuinCe.utils.JsonUtils;
 import uk.ac.exeter.QuinCe.web.system.ResourceManager;
 
 /**
@@ -114,7 +113,7 @@ public class Variable implements Comparable<Variable> {
     if (null == propertiesJson || propertiesJson.length() == 0) {
       this.properties = new VariableProperties();
     } else {
-      this.properties = new Gson().fromJson(propertiesJson,
+      this.properties = JsonUtils.GSON.fromJson(propertiesJson,
         VariableProperties.class);
     }
 
@@ -17,8 +17,6 @@ import java.util.TreeSet;
 
 import javax.sql.DataSource;
 
-import com.google.gson.Gson;
-
 import uk.ac.exeter.QuinCe.User.NoSuchUserException;
 import uk.ac.exeter.QuinCe.User.User;
 import uk.ac.exeter.QuinCe.User.UserDB;
@@ -26,6 +24,7 @@ import uk.ac.exeter.QuinCe.data.Files.DataFileDB;
 import uk.ac.exeter.QuinCe.jobs.files.FileJob;
 import uk.ac.exeter.QuinCe.utils.DatabaseException;
 import uk.ac.exeter.QuinCe.utils.DatabaseUtils;
+import uk.ac.exeter.QuinCe.utils.JsonUtils;
 import uk.ac.exeter.QuinCe.utils.MissingParam;
 import uk.ac.exeter.QuinCe.utils.MissingParamException;
 import uk.ac.exeter.QuinCe.utils.RecordNotFoundException;
@@ -312,7 +311,7 @@ public class JobManager {
 
         stmt.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
         stmt.setString(3, jobClass);
-        stmt.setString(4, new Gson().toJson(properties));
+        stmt.setString(4, JsonUtils.GSON.toJson(properties));
 
         stmt.execute();
 
@@ -617,7 +616,7 @@ public class JobManager {
 
       return (Job) jobConstructor.newInstance(resourceManager, config,
         result.getLong(1),
-        new Gson().fromJson(result.getString(3), Properties.class));
+        JsonUtils.GSON.fromJson(result.getString(3), Properties.class));
     } catch (SQLException e) {
       throw e;
     } catch (Throwable e) {
@@ -1643,7 +1642,7 @@ public class JobManager {
       while (jobs.next()) {
         String jobClass = jobs.getString(2);
         if (isFileJob(jobClass)) {
-          Properties properties = new Gson().fromJson(jobs.getString(3),
+          Properties properties = JsonUtils.GSON.fromJson(jobs.getString(3),
             Properties.class);
           long jobFileId = Long
             .parseLong(properties.getProperty(FileJob.FILE_ID_KEY));
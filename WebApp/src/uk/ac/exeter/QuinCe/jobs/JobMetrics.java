@@ -0,0 +1,609 @@
+package uk.ac.exeter.QuinCe.jobs;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timing and database usage metrics for a single run of a {@link Job}.
+ *
+ * <p>
+ * A {@code JobMetrics} object is created by the {@link JobThread} when a job
+ * starts, and bound to the thread for the duration of the job. While it is
+ * bound:
+ * </p>
+ * <ul>
+ * <li>The job can divide its work into phases by calling
+ * {@link #startPhase(String)}. The time between one call and the next (or the
+ * end of the job) is added to the named phase. The dataset jobs use the
+ * {@link #LOAD_PHASE}, {@link #COMPUTE_PHASE} and {@link #PERSIST_PHASE}
+ * phases.</li>
+ * <li>The job records how many rows of data it has processed using
+ * {@link #addRows(long)}.</li>
+ * <li>Every SQL statement executed through the application's
+ * {@link JobMetricsDataSource} is counted and timed.</li>
+ * </ul>
+ *
+ * <p>
+ * All the static methods do nothing if no metrics are bound to the current
+ * thread, so jobs can call them without checking how they are being run.
+ * </p>
+ *
+ * <p>
+ * The metrics for the most recent {@link #MAX_RETAINED_JOBS} jobs are kept in
+ * memory so they can be displayed on the jobs page and exported in Prometheus
+ * text format (see {@link #getPrometheusText()}). Totals for each job class
+ * are kept for the life of the application.
+ * </p>
+ *
+ * @author Steve Jones
+ */
+public class JobMetrics {
+
+  /**
+   * Phase name for loading data from the database or files
+   */
+  public static final String LOAD_PHASE = "load";
+
+  /**
+   * Phase name for processing loaded data
+   */
+  public static final String COMPUTE_PHASE = "compute";
+
+  /**
+   * Phase name for writing results to the database
+   */
+  public static final String PERSIST_PHASE = "persist";
+
+  /**
+   * The number of jobs whose metrics are kept
+   */
+  protected static final int MAX_RETAINED_JOBS = 100;
+
+  /**
+   * Nanoseconds per second, for converting times
+   */
+  private static final double NANOS_PER_SECOND = 1000000000D;
+
+  /**
+   * The metrics of the most recently started jobs, keyed by job ID
+   */
+  private static final Map<Long, JobMetrics> RECENT_METRICS = new LinkedHashMap<Long, JobMetrics>() {
+
+    private static final long serialVersionUID = -1960539004346931227L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, JobMetrics> eldest) {
+      return size() > MAX_RETAINED_JOBS;
+    }
+  };
+
+  /**
+   * The accumulated metrics of all finished jobs, keyed by job class
+   */
+  private static final Map<String, long[]> CLASS_TOTALS = new TreeMap<String, long[]>();
+
+  /**
+   * Index of the run count in the {@link #CLASS_TOTALS} arrays
+   */
+  private static final int TOTAL_RUNS = 0;
+
+  /**
+   * Index of the total elapsed time in the {@link #CLASS_TOTALS} arrays
+   */
+  private static final int TOTAL_NANOS = 1;
+
+  /**
+   * Index of the statement count in the {@link #CLASS_TOTALS} arrays
+   */
+  private static final int TOTAL_STATEMENTS = 2;
+
+  /**
+   * Index of the statement time in the {@link #CLASS_TOTALS} arrays
+   */
+  private static final int TOTAL_STATEMENT_NANOS = 3;
+
+  /**
+   * Index of the rows processed in the {@link #CLASS_TOTALS} arrays
+   */
+  private static final int TOTAL_ROWS = 4;
+
+  /**
+   * The metrics bound to each thread
+   */
+  private static final ThreadLocal<JobMetrics> CURRENT = new ThreadLocal<JobMetrics>();
+
+  /**
+   * The job's database ID
+   */
+  private final long jobId;
+
+  /**
+   * The job's class (without the package)
+   */
+  private final String jobClass;
+
+  /**
+   * The time that the job started, from {@link System#nanoTime()}
+   */
+  private final long startTime;
+
+  /**
+   * The time that the job finished, from {@link System#nanoTime()}. Negative
+   * while the job is running.
+   */
+  private long endTime = -1L;
+
+  /**
+   * The accumulated time of each phase in nanoseconds, in the order the
+   * phases were first started
+   */
+  private final LinkedHashMap<String, Long> phaseTimes = new LinkedHashMap<String, Long>();
+
+  /**
+   * The phase that is currently running
+   */
+  private String currentPhase = null;
+
+  /**
+   * The time that the current phase started, from {@link System#nanoTime()}
+   */
+  private long phaseStartTime = 0L;
+
+  /**
+   * The number of SQL statements executed
+   */
+  private final AtomicLong statementCount = new AtomicLong(0L);
+
+  /**
+   * The time spent executing SQL statements in nanoseconds
+   */
+  private final AtomicLong statementTime = new AtomicLong(0L);
+
+  /**
+   * The number of rows processed
+   */
+  private final AtomicLong rowsProcessed = new AtomicLong(0L);
+
+  /**
+   * Constructor
+   *
+   * @param jobId
+   *          The job's database ID
+   * @param jobClass
+   *          The job's class
+   */
+  protected JobMetrics(long jobId, String jobClass) {
+    this.jobId = jobId;
+    this.jobClass = jobClass;
+    this.startTime = System.nanoTime();
+  }
+
+  /**
+   * Create the metrics for a job, register them and bind them to the current
+   * thread.
+   *
+   * @param job
+   *          The job
+   * @return The job's metrics
+   */
+  protected static JobMetrics start(Job job) {
+    JobMetrics metrics = new JobMetrics(job.getID(),
+      job.getClass().getSimpleName());
+
+    synchronized (RECENT_METRICS) {
+      // Re-inserting moves the job to the end of the list
+      RECENT_METRICS.remove(metrics.jobId);
+      RECENT_METRICS.put(metrics.jobId, metrics);
+    }
+
+    CURRENT.set(metrics);
+    return metrics;
+  }
+
+  /**
+   * Mark the job as finished, add its metrics to the totals for its class and
+   * unbind them from the current thread.
+   */
+  protected void finish() {
+    synchronized (this) {
+      endPhase(System.nanoTime());
+      endTime = System.nanoTime();
+    }
+
+    synchronized (CLASS_TOTALS) {
+      long[] totals = CLASS_TOTALS.computeIfAbsent(jobClass, k -> new long[5]);
+      totals[TOTAL_RUNS]++;
+      totals[TOTAL_NANOS] += getElapsedTime();
+      totals[TOTAL_STATEMENTS] += statementCount.get();
+      totals[TOTAL_STATEMENT_NANOS] += statementTime.get();
+      totals[TOTAL_ROWS] += rowsProcessed.get();
+    }
+
+    if (CURRENT.get() == this) {
+      CURRENT.remove();
+    }
+  }
+
+  /**
+   * Get the metrics bound to the current thread.
+   *
+   * @return The metrics, or {@code null} if no job is running in the thread
+   */
+  public static JobMetrics getCurrent() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Finish the current phase of the job running in this thread (if there is
+   * one) and start a new one.
+   *
+   * @param phase
+   *          The phase name
+   */
+  public static void startPhase(String phase) {
+    JobMetrics metrics = CURRENT.get();
+    if (null != metrics) {
+      synchronized (metrics) {
+        long now = System.nanoTime();
+        metrics.endPhase(now);
+        metrics.currentPhase = phase;
+        metrics.phaseStartTime = now;
+      }
+    }
+  }
+
+  /**
+   * Record that the job running in this thread has processed a number of
+   * rows.
+   *
+   * @param rows
+   *          The number of rows
+   */
+  public static void addRows(long rows) {
+    JobMetrics metrics = CURRENT.get();
+    if (null != metrics) {
+      metrics.rowsProcessed.addAndGet(rows);
+    }
+  }
+
+  /**
+   * Record the execution of an SQL statement.
+   *
+   * @param nanos
+   *          The execution time in nanoseconds
+   */
+  protected void recordStatement(long nanos) {
+    statementCount.incrementAndGet();
+    statementTime.addAndGet(nanos);
+  }
+
+  /**
+   * Add the time of the current phase to its total.
+   *
+   * @param now
+   *          The current time from {@link System#nanoTime()}
+   */
+  private void endPhase(long now) {
+    if (null != currentPhase) {
+      phaseTimes.merge(currentPhase, now - phaseStartTime, Long::sum);
+      currentPhase = null;
+    }
+  }
+
+  /**
+   * Get the metrics for a job.
+   *
+   * @param jobId
+   *          The job's database ID
+   * @return The metrics, or {@code null} if the job has not been run
+   *         recently
+   */
+  public static JobMetrics getMetrics(long jobId) {
+    synchronized (RECENT_METRICS) {
+      return RECENT_METRICS.get(jobId);
+    }
+  }
+
+  /**
+   * Get the metrics for the most recently started jobs.
+   *
+   * @return The metrics, keyed by job ID
+   */
+  public static Map<Long, JobMetrics> getRecentMetrics() {
+    synchronized (RECENT_METRICS) {
+      return new LinkedHashMap<Long, JobMetrics>(RECENT_METRICS);
+    }
+  }
+
+  /**
+   * Get the job's database ID.
+   *
+   * @return The job ID
+   */
+  public long getJobId() {
+    return jobId;
+  }
+
+  /**
+   * Get the job's class name (without the package).
+   *
+   * @return The job class
+   */
+  public String getJobClass() {
+    return jobClass;
+  }
+
+  /**
+   * Determine whether or not the job is still running.
+   *
+   * @return {@code true} if the job is running; {@code false} if it has
+   *         finished
+   */
+  public synchronized boolean isRunning() {
+    return endTime < 0;
+  }
+
+  /**
+   * Get the time that the job has been running, or took to run if it has
+   * finished.
+   *
+   * @return The elapsed time in nanoseconds
+   */
+  public synchronized long getElapsedTime() {
+    return (endTime < 0 ? System.nanoTime() : endTime) - startTime;
+  }
+
+  /**
+   * Get the accumulated time of each phase. The time for a phase that is
+   * currently running includes the time so far.
+   *
+   * @return The phase times in nanoseconds, in the order the phases were
+   *         started
+   */
+  public synchronized Map<String, Long> getPhaseTimes() {
+    LinkedHashMap<String, Long> result = new LinkedHashMap<String, Long>(
+      phaseTimes);
+    if (null != currentPhase) {
+      result.merge(currentPhase, System.nanoTime() - phaseStartTime,
+        Long::sum);
+    }
+    return result;
+  }
+
+  /**
+   * Get the number of SQL statements executed by the job.
+   *
+   * @return The statement count
+   */
+  public long getStatementCount() {
+    return statementCount.get();
+  }
+
+  /**
+   * Get the time spent executing SQL statements.
+   *
+   * @return The statement time in nanoseconds
+   */
+  public long getStatementTime() {
+    return statementTime.get();
+  }
+
+  /**
+   * Get the number of rows processed by the job.
+   *
+   * @return The number of rows
+   */
+  public long getRowsProcessed() {
+    return rowsProcessed.get();
+  }
+
+  /**
+   * Get a one-line summary of the metrics for display.
+   *
+   * @return The summary
+   */
+  public String getSummary() {
+    StringBuilder result = new StringBuilder();
+
+    for (Map.Entry<String, Long> phase : getPhaseTimes().entrySet()) {
+      result.append(phase.getKey());
+      result.append(' ');
+      result.append(formatSeconds(phase.getValue()));
+      result.append("s, ");
+    }
+
+    result.append(getStatementCount());
+    result.append(" queries (");
+    result.append(formatSeconds(getStatementTime()));
+    result.append("s), ");
+    result.append(getRowsProcessed());
+    result.append(" rows");
+
+    return result.toString();
+  }
+
+  /**
+   * Get the metrics in Prometheus text exposition format. This includes the
+   * metrics for each recently run job, labelled with the job's ID and class,
+   * and the totals for each job class.
+   *
+   * @return The metrics
+   */
+  public static String getPrometheusText() {
+    List<JobMetrics> jobs = new ArrayList<JobMetrics>(
+      getRecentMetrics().values());
+
+    StringBuilder out = new StringBuilder();
+
+    header(out, "quince_job_running", "gauge",
+      "Whether the job is currently running");
+    for (JobMetrics job : jobs) {
+      sample(out, "quince_job_running", job.labels(), job.isRunning() ? 1 : 0);
+    }
+
+    header(out, "quince_job_duration_seconds", "gauge",
+      "Elapsed time of the job");
+    for (JobMetrics job : jobs) {
+      sample(out, "quince_job_duration_seconds", job.labels(),
+        job.getElapsedTime() / NANOS_PER_SECOND);
+    }
+
+    header(out, "quince_job_phase_seconds", "gauge",
+      "Time spent in each phase of the job");
+    for (JobMetrics job : jobs) {
+      for (Map.Entry<String, Long> phase : job.getPhaseTimes().entrySet()) {
+        sample(out, "quince_job_phase_seconds",
+          job.labels() + ",phase=\"" + escape(phase.getKey()) + "\"",
+          phase.getValue() / NANOS_PER_SECOND);
+      }
+    }
+
+    header(out, "quince_job_statements", "gauge",
+      "SQL statements executed by the job");
+    for (JobMetrics job : jobs) {
+      sample(out, "quince_job_statements", job.labels(),
+        job.getStatementCount());
+    }
+
+    header(out, "quince_job_statement_seconds", "gauge",
+      "Time spent executing SQL statements in the job");
+    for (JobMetrics job : jobs) {
+      sample(out, "quince_job_statement_seconds", job.labels(),
+        job.getStatementTime() / NANOS_PER_SECOND);
+    }
+
+    header(out, "quince_job_rows_processed", "gauge",
+      "Rows of data processed by the job");
+    for (JobMetrics job : jobs) {
+      sample(out, "quince_job_rows_processed", job.labels(),
+        job.getRowsProcessed());
+    }
+
+    Map<String, long[]> totals = new TreeMap<String, long[]>();
+    synchronized (CLASS_TOTALS) {
+      for (Map.Entry<String, long[]> entry : CLASS_TOTALS.entrySet()) {
+        totals.put(entry.getKey(), entry.getValue().clone());
+      }
+    }
+
+    totalSamples(out, totals, "quince_jobs_total", "Finished job runs",
+      TOTAL_RUNS, 1D);
+    totalSamples(out, totals, "quince_jobs_seconds_total",
+      "Elapsed time of finished jobs", TOTAL_NANOS, NANOS_PER_SECOND);
+    totalSamples(out, totals, "quince_jobs_statements_total",
+      "SQL statements executed by finished jobs", TOTAL_STATEMENTS, 1D);
+    totalSamples(out, totals, "quince_jobs_statement_seconds_total",
+      "Time spent executing SQL statements in finished jobs",
+      TOTAL_STATEMENT_NANOS, NANOS_PER_SECOND);
+    totalSamples(out, totals, "quince_jobs_rows_processed_total",
+      "Rows of data processed by finished jobs", TOTAL_ROWS, 1D);
+
+    return out.toString();
+  }
+
+  /**
+   * Write the per-class totals for one metric.
+   *
+   * @param out
+   *          The output
+   * @param totals
+   *          The class totals
+   * @param name
+   *          The metric name
+   * @param help
+   *          The metric description
+   * @param index
+   *          The index of the metric in the totals arrays
+   * @param divisor
+   *          The divisor to convert the total to the metric's units
+   */
+  private static void totalSamples(StringBuilder out,
+    Map<String, long[]> totals, String name, String help, int index,
+    double divisor) {
+
+    header(out, name, "counter", help);
+
+    for (Map.Entry<String, long[]> entry : totals.entrySet()) {
+      sample(out, name, "job_class=\"" + escape(entry.getKey()) + "\"",
+        entry.getValue()[index] / divisor);
+    }
+  }
+
+  /**
+   * Get the Prometheus labels identifying this job.
+   *
+   * @return The labels
+   */
+  private String labels() {
+    return "job_id=\"" + jobId + "\",job_class=\"" + escape(jobClass) + "\"";
+  }
+
+  /**
+   * Write the {@code HELP} and {@code TYPE} lines for a metric.
+   *
+   * @param out
+   *          The output
+   * @param name
+   *          The metric name
+   * @param type
+   *          The metric type
+   * @param help
+   *          The metric description
+   */
+  private static void header(StringBuilder out, String name, String type,
+    String help) {
+    out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  /**
+   * Write a single metric sample.
+   *
+   * @param out
+   *          The output
+   * @param name
+   *          The metric name
+   * @param labels
+   *          The sample labels
+   * @param value
+   *          The value
+   */
+  private static void sample(StringBuilder out, String name, String labels,
+    double value) {
+    out.append(name).append('{').append(labels).append("} ");
+    if (value == Math.rint(value)) {
+      out.append((long) value);
+    } else {
+      out.append(value);
+    }
+    out.append('\n');
+  }
+
+  /**
+   * Escape a Prometheus label value.
+   *
+   * @param value
+   *          The value
+   * @return The escaped value
+   */
+  private static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n",
+      "\\n");
+  }
+
+  /**
+   * Format a time in seconds to three decimal places.
+   *
+   * @param nanos
+   *          The time in nanoseconds
+   * @return The formatted time
+   */
+  private static String formatSeconds(long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / NANOS_PER_SECOND);
+  }
+}
@@ -0,0 +1,209 @@
+package uk.ac.exeter.QuinCe.jobs;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * A {@link DataSource} that records the SQL statements executed by jobs in the
+ * job's {@link JobMetrics}.
+ *
+ * <p>
+ * Every {@link Connection} handed out by the data source is wrapped so that
+ * the {@link Statement}s it creates (including
+ * {@link java.sql.PreparedStatement}s and {@link java.sql.CallableStatement}s)
+ * are also wrapped. Each call to one of the {@code execute} methods of a
+ * statement counts as one statement; a batch counts as one statement
+ * regardless of its size. Statements are only recorded if they are executed
+ * in a thread that has {@link JobMetrics} bound to it; otherwise they are
+ * passed straight through.
+ * </p>
+ *
+ * @author Steve Jones
+ */
+public class JobMetricsDataSource implements DataSource {
+
+  /**
+   * The wrapped data source
+   */
+  private final DataSource dataSource;
+
+  /**
+   * Constructor
+   *
+   * @param dataSource
+   *          The data source to be wrapped
+   */
+  public JobMetricsDataSource(DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return wrapConnection(dataSource.getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password)
+    throws SQLException {
+    return wrapConnection(dataSource.getConnection(username, password));
+  }
+
+  /**
+   * Wrap a connection so that the statements it creates are recorded.
+   *
+   * @param conn
+   *          The connection
+   * @return The wrapped connection
+   */
+  private Connection wrapConnection(Connection conn) {
+    return (Connection) Proxy.newProxyInstance(
+      Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+      new ConnectionHandler(conn));
+  }
+
+  /**
+   * Invoke a method on a wrapped object, unwrapping any exception thrown by
+   * the method so that it reaches the caller unchanged.
+   *
+   * @param target
+   *          The wrapped object
+   * @param method
+   *          The method
+   * @param args
+   *          The method arguments
+   * @return The method result
+   * @throws Throwable
+   *           Any exception thrown by the method
+   */
+  private static Object invoke(Object target, Method method, Object[] args)
+    throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Proxy handler for connections. Any {@link Statement} returned from the
+   * connection is wrapped with a {@link StatementHandler}.
+   */
+  private static class ConnectionHandler implements InvocationHandler {
+
+    /**
+     * The wrapped connection
+     */
+    private final Connection conn;
+
+    /**
+     * Constructor
+     *
+     * @param conn
+     *          The connection to be wrapped
+     */
+    private ConnectionHandler(Connection conn) {
+      this.conn = conn;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args)
+      throws Throwable {
+
+      Object result = JobMetricsDataSource.invoke(conn, method, args);
+
+      if (result instanceof Statement) {
+        Class<?> statementInterface = method.getReturnType();
+        result = Proxy.newProxyInstance(
+          statementInterface.getClassLoader(),
+          new Class<?>[] { statementInterface },
+          new StatementHandler((Statement) result));
+      }
+
+      return result;
+    }
+  }
+
+  /**
+   * Proxy handler for statements. Records the time taken by each call to an
+   * {@code execute} method.
+   */
+  private static class StatementHandler implements InvocationHandler {
+
+    /**
+     * The wrapped statement
+     */
+    private final Statement statement;
+
+    /**
+     * Constructor
+     *
+     * @param statement
+     *          The statement to be wrapped
+     */
+    private StatementHandler(Statement statement) {
+      this.statement = statement;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args)
+      throws Throwable {
+
+      JobMetrics metrics = JobMetrics.getCurrent();
+      if (null == metrics || !method.getName().startsWith("execute")) {
+        return JobMetricsDataSource.invoke(statement, method, args);
+      }
+
+      long start = System.nanoTime();
+      try {
+        return JobMetricsDataSource.invoke(statement, method, args);
+      } finally {
+        metrics.recordStatement(System.nanoTime() - start);
+      }
+    }
+  }
+
+  @Override
+  public PrintWriter getLogWriter() throws SQLException {
+    return dataSource.getLogWriter();
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter out) throws SQLException {
+    dataSource.setLogWriter(out);
+  }
+
+  @Override
+  public void setLoginTimeout(int seconds) throws SQLException {
+    dataSource.setLoginTimeout(seconds);
+  }
+
+  @Override
+  public int getLoginTimeout() throws SQLException {
+    return dataSource.getLoginTimeout();
+  }
+
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    return dataSource.getParentLogger();
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    return dataSource.unwrap(iface);
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return dataSource.isWrapperFor(iface);
+  }
+}
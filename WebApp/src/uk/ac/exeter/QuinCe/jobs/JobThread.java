@@ -85,7 +85,13 @@ public class JobThread extends Thread implements Comparable<JobThread> {
       job.setFinishState(Job.FINISHED_STATUS);
       job.setProgress(0);
       job.logStarted(getName());
-      job.execute(this);
+
+      JobMetrics metrics = JobMetrics.start(job);
+      try {
+        job.execute(this);
+      } finally {
+        metrics.finish();
+      }
 
       switch (job.getFinishState()) {
       case (Job.KILLED_STATUS): {
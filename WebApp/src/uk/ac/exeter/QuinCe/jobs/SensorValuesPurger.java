@@ -0,0 +1,46 @@
+package uk.ac.exeter.QuinCe.jobs;
+
+import javax.servlet.annotation.WebListener;
+import javax.sql.DataSource;
+
+import uk.ac.exeter.QuinCe.data.Dataset.DataSetDataDB;
+import uk.ac.exeter.QuinCe.utils.BackgroundTask;
+import uk.ac.exeter.QuinCe.utils.BackgroundTaskException;
+import uk.ac.exeter.QuinCe.web.system.ResourceManager;
+
+/**
+ * Background task to remove sensor values that have been replaced during
+ * dataset reprocessing.
+ *
+ * <p>
+ * Replaced values are hidden from all queries as soon as they are replaced, so
+ * they can be deleted at leisure. They are deleted in small chunks to avoid
+ * blocking other queries on the {@code sensor_values} table.
+ * </p>
+ *
+ * @author Steve Jones
+ * @see DataSetDataDB#purgeReplacedSensorValues(DataSource, int)
+ */
+@WebListener
+public class SensorValuesPurger extends BackgroundTask {
+
+  /**
+   * The number of rows deleted in each chunk
+   */
+  private static final int CHUNK_SIZE = 10000;
+
+  @Override
+  protected void doTask() throws BackgroundTaskException {
+    try {
+      DataSetDataDB.purgeReplacedSensorValues(
+        ResourceManager.getInstance().getDBDataSource(), CHUNK_SIZE);
+    } catch (Exception e) {
+      throw new BackgroundTaskException(e);
+    }
+  }
+
+  @Override
+  protected long getRunInterval() {
+    return 300;
+  }
+}
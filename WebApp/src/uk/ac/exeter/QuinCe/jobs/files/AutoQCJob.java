@@ -2,6 +2,7 @@ package uk.ac.exeter.QuinCe.jobs.files;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,16 +16,17 @@ import uk.ac.exeter.QuinCe.data.Dataset.DataSet;
 import uk.ac.exeter.QuinCe.data.Dataset.DataSetDB;
 import uk.ac.exeter.QuinCe.data.Dataset.DataSetDataDB;
 import uk.ac.exeter.QuinCe.data.Dataset.DatasetSensorValues;
+import uk.ac.exeter.QuinCe.data.Dataset.DatasetStatistics;
 import uk.ac.exeter.QuinCe.data.Dataset.InvalidDataSetStatusException;
 import uk.ac.exeter.QuinCe.data.Dataset.SearchableSensorValuesList;
 import uk.ac.exeter.QuinCe.data.Dataset.SensorValue;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.AutoQCResult;
-import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.AutoQCRoutine;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.PositionQCRoutine;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.QCRoutinesConfiguration;
 import uk.ac.exeter.QuinCe.data.Instrument.FileDefinition;
 import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
+import uk.ac.exeter.QuinCe.data.Instrument.RunTypes.RunTypeDictionary;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorAssignment;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorAssignments;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorType;
@@ -32,6 +34,7 @@ import uk.ac.exeter.QuinCe.jobs.InvalidJobParametersException;
 import uk.ac.exeter.QuinCe.jobs.Job;
 import uk.ac.exeter.QuinCe.jobs.JobFailedException;
 import uk.ac.exeter.QuinCe.jobs.JobManager;
+import uk.ac.exeter.QuinCe.jobs.JobMetrics;
 import uk.ac.exeter.QuinCe.jobs.JobThread;
 import uk.ac.exeter.QuinCe.utils.DatabaseException;
 import uk.ac.exeter.QuinCe.utils.DatabaseUtils;
@@ -74,7 +77,11 @@ public class AutoQCJob extends DataSetJob {
    */
   private final String jobName = "Sensor Quality Control";
 
-  private List<String> measurementRunTypes;
+  /**
+   * The codes of the run types that indicate measurements, from the
+   * instrument's {@link RunTypeDictionary}
+   */
+  private BitSet measurementRunTypes;
 
   /**
    * Constructor that allows the {@link JobManager} to create an instance of
@@ -118,6 +125,7 @@ public class AutoQCJob extends DataSetJob {
     Connection conn = null;
 
     try {
+      JobMetrics.startPhase(JobMetrics.LOAD_PHASE);
       conn = dataSource.getConnection();
 
       // After automatic QC, all measurements must be recalculated.
@@ -136,7 +144,10 @@ public class AutoQCJob extends DataSetJob {
 
       SensorAssignments sensorAssignments = instrument.getSensorAssignments();
 
-      measurementRunTypes = instrument.getMeasurementRunTypes();
+      measurementRunTypes = new BitSet();
+      for (String runType : instrument.getMeasurementRunTypes()) {
+        measurementRunTypes.set(instrument.getRunTypeCode(runType));
+      }
 
       QCRoutinesConfiguration qcRoutinesConfig = ResourceManager.getInstance()
         .getQCRoutinesConfiguration();
@@ -145,6 +156,8 @@ public class AutoQCJob extends DataSetJob {
       DatasetSensorValues sensorValues = DataSetDataDB.getSensorValues(conn,
         instrument, dataSet.getId(), true);
 
+      JobMetrics.startPhase(JobMetrics.COMPUTE_PHASE);
+
       // First run the position QC, unless the instrument has a fixed position.
       // This will potentially set QC flags on all sensor values, and those
       // values will then be skipped by the 'normal' routines later on.
@@ -172,12 +185,13 @@ public class AutoQCJob extends DataSetJob {
           .getSensorTypeForDBColumn(columnId);
 
         // Where sensors have internal calibrations, their values need to be //
-        // QCed in separate groups.
-        Map<String, SearchableSensorValuesList> valuesForQC = new HashMap<String, SearchableSensorValuesList>();
+        // QCed in separate groups, keyed by run type code.
+        Map<Integer, SearchableSensorValuesList> valuesForQC = new HashMap<Integer, SearchableSensorValuesList>();
 
         if (!sensorType.hasInternalCalibration()) {
           // All the values can be QCed as a single group
-          valuesForQC.put("", sensorValues.getColumnValues(columnId));
+          valuesForQC.put(RunTypeDictionary.NO_RUN_TYPE,
+            sensorValues.getColumnValues(columnId));
         } else {
 
           // Get all the run type entries from the data set
@@ -196,18 +210,19 @@ public class AutoQCJob extends DataSetJob {
           for (SensorValue value : sensorValues.getColumnValues(columnId)) {
 
             SensorValue runType = runTypeValues.timeSearch(value.getTime());
+            int runTypeCode = instrument.getRunTypeCode(runType.getValue());
 
-            if (!valuesForQC.containsKey(runType.getValue())) {
-              valuesForQC.put(runType.getValue(),
+            if (!valuesForQC.containsKey(runTypeCode)) {
+              valuesForQC.put(runTypeCode,
                 new SearchableSensorValuesList(columnId));
             }
 
-            valuesForQC.get(runType.getValue()).add(value);
+            valuesForQC.get(runTypeCode).add(value);
           }
         }
 
         // QC each group of sensor values in turn
-        for (Map.Entry<String, SearchableSensorValuesList> values : valuesForQC
+        for (Map.Entry<Integer, SearchableSensorValuesList> values : valuesForQC
           .entrySet()) {
 
           SensorValue.clearAutoQC(values.getValue());
@@ -217,19 +232,41 @@ public class AutoQCJob extends DataSetJob {
               | x.getUserQCFlag().equals(Flag.QUESTIONABLE)))
             .collect(Collectors.toList());
 
-          if (values.getKey().equals("")
-            || measurementRunTypes.contains(values.getKey())) {
-            // Loop through all
-            // routines
-            for (AutoQCRoutine routine : qcRoutinesConfig
-              .getRoutines(sensorType)) {
-              routine.qc(filteredValues);
-            }
+          if (values.getKey() == RunTypeDictionary.NO_RUN_TYPE
+            || measurementRunTypes.get(values.getKey())) {
+            // Run all the routines in a single pass
+            qcRoutinesConfig.getEngine(sensorType).qc(filteredValues);
           }
 
         }
       }
 
+      // Datasets extracted before statistics were recorded get them built
+      // from their sensor values
+      DatasetStatistics statistics = DataSetDB.getStatistics(conn,
+        dataSet.getId());
+
+      if (null == statistics) {
+        statistics = new DatasetStatistics();
+        statistics.setRecordCount(DataSetDataDB.getRecordCount(conn,
+          dataSet.getId()));
+
+        List<Long> runTypeColumns = sensorAssignments.getRunTypeColumnIDs();
+        for (long columnId : sensorValues.getColumnIds()) {
+          if (!runTypeColumns.contains(columnId)) {
+            for (SensorValue value : sensorValues
+              .getColumnValues(columnId)) {
+              statistics.add(value);
+            }
+          }
+        }
+
+        DataSetDB.storeStatistics(conn, dataSet.getId(), statistics);
+      }
+
+      JobMetrics.addRows(sensorValues.getAll().size());
+      JobMetrics.startPhase(JobMetrics.PERSIST_PHASE);
+
       // Send all sensor values to be stored. The storeSensorValues method only
       // writes those values whose 'dirty' flag is set.
       DataSetDataDB.storeSensorValues(conn, sensorValues.getAll());
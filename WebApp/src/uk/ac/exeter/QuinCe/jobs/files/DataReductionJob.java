@@ -19,6 +19,7 @@ import uk.ac.exeter.QuinCe.data.Dataset.DatasetSensorValues;
 import uk.ac.exeter.QuinCe.data.Dataset.InvalidDataSetStatusException;
 import uk.ac.exeter.QuinCe.data.Dataset.Measurement;
 import uk.ac.exeter.QuinCe.data.Dataset.MeasurementValueCalculatorFactory;
+import uk.ac.exeter.QuinCe.data.Dataset.SensorValuesCursors;
 import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.DataReducer;
 import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.DataReducerFactory;
 import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.DataReductionRecord;
@@ -29,6 +30,7 @@ import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.Variable;
 import uk.ac.exeter.QuinCe.jobs.InvalidJobParametersException;
 import uk.ac.exeter.QuinCe.jobs.JobFailedException;
 import uk.ac.exeter.QuinCe.jobs.JobManager;
+import uk.ac.exeter.QuinCe.jobs.JobMetrics;
 import uk.ac.exeter.QuinCe.jobs.JobThread;
 import uk.ac.exeter.QuinCe.utils.DatabaseException;
 import uk.ac.exeter.QuinCe.utils.DatabaseUtils;
@@ -83,6 +85,7 @@ public class DataReductionJob extends DataSetJob {
     Connection conn = null;
 
     try {
+      JobMetrics.startPhase(JobMetrics.LOAD_PHASE);
       conn = dataSource.getConnection();
       reset(conn);
       DataSet dataSet = getDataset(conn);
@@ -101,12 +104,23 @@ public class DataReductionJob extends DataSetJob {
       DatasetSensorValues allSensorValues = DataSetDataDB.getSensorValues(conn,
         instrument, dataSet.getId(), false);
 
+      // The measurements are processed in time order, so the sensor values
+      // are looked up using cursors
+      SensorValuesCursors sensorValuesCursors = new SensorValuesCursors(
+        allSensorValues);
+
       // Get all the measurements grouped by run type
       DatasetMeasurements allMeasurements = DataSetDataDB
         .getMeasurementsByRunType(conn, instrument, dataSet.getId());
 
       ArrayList<DataReductionRecord> dataReductionRecords = new ArrayList<DataReductionRecord>();
 
+      JobMetrics.addRows(allMeasurements.getTimeOrderedMeasurements().size());
+
+      // Note that the measurement values are stored as they are calculated,
+      // so their storage time is included in the compute phase.
+      JobMetrics.startPhase(JobMetrics.COMPUTE_PHASE);
+
       // First we calculate measurement values for all measurements
       for (Measurement measurement : allMeasurements
         .getTimeOrderedMeasurements()) {
@@ -167,7 +181,8 @@ public class DataReductionJob extends DataSetJob {
             if (!measurement.hasMeasurementValue(sensorType)) {
               measurement.setMeasurementValue(MeasurementValueCalculatorFactory
                 .calculateMeasurementValue(instrument, measurement, sensorType,
-                  allMeasurements, allSensorValues, conn));
+                  allMeasurements, allSensorValues, sensorValuesCursors,
+                  conn));
             }
           }
 
@@ -206,6 +221,8 @@ public class DataReductionJob extends DataSetJob {
         reducer.preprocess(conn, instrument, dataSet,
           allMeasurements.getTimeOrderedMeasurements());
 
+        List<Measurement> variableMeasurements = new ArrayList<Measurement>();
+
         for (Measurement measurement : allMeasurements
           .getTimeOrderedMeasurements()) {
 
@@ -214,14 +231,15 @@ public class DataReductionJob extends DataSetJob {
             || instrument.isRunTypeForVariable(variable,
               measurement.getRunType(Measurement.GENERIC_RUN_TYPE_VARIABLE))) {
 
-            DataReductionRecord dataReductionRecord = reducer
-              .performDataReduction(instrument, measurement, conn);
-
-            dataReductionRecords.add(dataReductionRecord);
+            variableMeasurements.add(measurement);
           }
         }
+
+        dataReductionRecords.addAll(reducer.performDataReduction(instrument,
+          variableMeasurements, conn));
       }
 
+      JobMetrics.startPhase(JobMetrics.PERSIST_PHASE);
       DataSetDataDB.storeDataReduction(conn, dataReductionRecords);
 
       // If the thread was interrupted, undo everything
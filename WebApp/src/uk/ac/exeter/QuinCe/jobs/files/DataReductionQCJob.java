@@ -2,10 +2,10 @@ package uk.ac.exeter.QuinCe.jobs.files;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.TreeMap;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
 
@@ -14,17 +14,19 @@ import uk.ac.exeter.QuinCe.data.Dataset.DataSet;
 import uk.ac.exeter.QuinCe.data.Dataset.DataSetDB;
 import uk.ac.exeter.QuinCe.data.Dataset.DataSetDataDB;
 import uk.ac.exeter.QuinCe.data.Dataset.DatasetSensorValues;
-import uk.ac.exeter.QuinCe.data.Dataset.Measurement;
 import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.DataReducer;
 import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.DataReducerFactory;
 import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.ReadOnlyDataReductionRecord;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.RoutineException;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.DataReduction.DataReductionQCRoutine;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.DataReduction.DataReductionQCRoutinesConfiguration;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.DataReduction.DataReductionQCWindow;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.FlaggedItems;
 import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.Variable;
 import uk.ac.exeter.QuinCe.jobs.InvalidJobParametersException;
 import uk.ac.exeter.QuinCe.jobs.JobFailedException;
+import uk.ac.exeter.QuinCe.jobs.JobMetrics;
 import uk.ac.exeter.QuinCe.jobs.JobThread;
 import uk.ac.exeter.QuinCe.utils.DatabaseException;
 import uk.ac.exeter.QuinCe.utils.DatabaseUtils;
@@ -74,6 +76,7 @@ public class DataReductionQCJob extends DataSetJob {
     Connection conn = null;
 
     try {
+      JobMetrics.startPhase(JobMetrics.LOAD_PHASE);
       conn = dataSource.getConnection();
       DataSet dataSet = getDataset(conn);
       Instrument instrument = getInstrument(conn);
@@ -83,43 +86,64 @@ public class DataReductionQCJob extends DataSetJob {
       DataReductionQCRoutinesConfiguration config = resourceManager
         .getDataReductionQCRoutinesConfiguration();
 
-      // Load all the sensor values for this dataset
+      // Load all the sensor values for this dataset. These are needed to
+      // apply flags from the QC routines.
       DatasetSensorValues allSensorValues = DataSetDataDB.getSensorValues(conn,
         instrument, dataSet.getId(), false);
 
-      List<Measurement> measurements = DataSetDataDB.getMeasurements(conn,
-        dataSet.getId());
+      JobMetrics.startPhase(JobMetrics.COMPUTE_PHASE);
 
-      Map<Long, Map<Variable, ReadOnlyDataReductionRecord>> records = DataSetDataDB
-        .getDataReductionData(conn, instrument, dataSet);
-
-      FlaggedItems flaggedItems = new FlaggedItems();
+      // Each variable with QC routines gets a window of data reduction
+      // records large enough for all of its routines
+      Map<Variable, List<DataReductionQCRoutine>> variableRoutines = new HashMap<Variable, List<DataReductionQCRoutine>>();
+      Map<Variable, DataReductionQCWindow> windows = new HashMap<Variable, DataReductionQCWindow>();
 
       for (Variable var : instrument.getVariables()) {
-
-        TreeMap<Measurement, ReadOnlyDataReductionRecord> variableRecords = new TreeMap<Measurement, ReadOnlyDataReductionRecord>();
-        for (Measurement measurement : measurements) {
-          Map<Variable, ReadOnlyDataReductionRecord> measurementRecords = records
-            .get(measurement.getId());
-
-          if (null != measurementRecords
-            && measurementRecords.containsKey(var)) {
-            variableRecords.put(measurement, measurementRecords.get(var));
-          }
-        }
-
         Class<? extends DataReducer> reducer = DataReducerFactory
           .getReducerClass(var.getName());
 
         List<DataReductionQCRoutine> routines = config.getRoutines(reducer);
-        if (null != routines) {
+        if (null != routines && routines.size() > 0) {
+          int radius = 0;
           for (DataReductionQCRoutine routine : routines) {
-            routine.qc(instrument, variableRecords, allSensorValues,
-              flaggedItems);
+            radius = Math.max(radius, routine.getWindowRadius());
           }
+
+          variableRoutines.put(var, routines);
+          windows.put(var, new DataReductionQCWindow(radius));
         }
       }
 
+      FlaggedItems flaggedItems = new FlaggedItems();
+
+      // Stream the data reduction records through the windows in time order,
+      // running the routines on each record as soon as its window is full
+      int measurementCount = DataSetDataDB.processDataReductionData(conn,
+        instrument, dataSet, (measurement, records) -> {
+          for (Map.Entry<Variable, ReadOnlyDataReductionRecord> entry : records
+            .entrySet()) {
+
+            DataReductionQCWindow window = windows.get(entry.getKey());
+            if (null != window) {
+              window.add(measurement, entry.getValue());
+              runRoutines(instrument, variableRoutines.get(entry.getKey()),
+                window, allSensorValues, flaggedItems);
+            }
+          }
+        });
+
+      // Process the records left at the end of each window
+      for (Map.Entry<Variable, DataReductionQCWindow> entry : windows
+        .entrySet()) {
+
+        entry.getValue().finish();
+        runRoutines(instrument, variableRoutines.get(entry.getKey()),
+          entry.getValue(), allSensorValues, flaggedItems);
+      }
+
+      JobMetrics.addRows(measurementCount);
+
+      JobMetrics.startPhase(JobMetrics.PERSIST_PHASE);
       DataSetDataDB.storeSensorValues(conn, flaggedItems.getSensorValues());
       DataSetDataDB.storeDataReductionQC(conn,
         flaggedItems.getDataReductionRecords());
@@ -174,6 +198,36 @@ public class DataReductionQCJob extends DataSetJob {
     }
   }
 
+  /**
+   * Run a set of QC routines on all the records in a window that are ready
+   * to be checked.
+   *
+   * @param instrument
+   *          The instrument that the records belong to
+   * @param routines
+   *          The QC routines
+   * @param window
+   *          The window of records
+   * @param allSensorValues
+   *          The dataset's sensor values
+   * @param flaggedItems
+   *          The collection of items flagged by the QC routines
+   * @throws RoutineException
+   *           If any routine fails
+   */
+  private void runRoutines(Instrument instrument,
+    List<DataReductionQCRoutine> routines, DataReductionQCWindow window,
+    DatasetSensorValues allSensorValues, FlaggedItems flaggedItems)
+    throws RoutineException {
+
+    while (window.isReady()) {
+      for (DataReductionQCRoutine routine : routines) {
+        routine.qc(instrument, window, allSensorValues, flaggedItems);
+      }
+      window.advance();
+    }
+  }
+
   @Override
   public String getJobName() {
     return jobName;
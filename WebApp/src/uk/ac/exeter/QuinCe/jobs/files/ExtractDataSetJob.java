@@ -3,17 +3,24 @@ package uk.ac.exeter.QuinCe.jobs.files;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
 
 import uk.ac.exeter.QuinCe.data.Dataset.DataSet;
 import uk.ac.exeter.QuinCe.data.Dataset.DataSetDB;
 import uk.ac.exeter.QuinCe.data.Dataset.DataSetDataDB;
+import uk.ac.exeter.QuinCe.data.Dataset.DatasetStatistics;
 import uk.ac.exeter.QuinCe.data.Dataset.InvalidDataSetStatusException;
 import uk.ac.exeter.QuinCe.data.Dataset.Measurement;
 import uk.ac.exeter.QuinCe.data.Dataset.RunTypePeriod;
@@ -21,18 +28,19 @@ import uk.ac.exeter.QuinCe.data.Dataset.RunTypePeriods;
 import uk.ac.exeter.QuinCe.data.Dataset.SensorValue;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
 import uk.ac.exeter.QuinCe.data.Files.DataFile;
+import uk.ac.exeter.QuinCe.data.Files.DataFileException;
 import uk.ac.exeter.QuinCe.data.Files.DataFileDB;
 import uk.ac.exeter.QuinCe.data.Instrument.FileDefinition;
 import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
-import uk.ac.exeter.QuinCe.data.Instrument.Calibration.Calibration;
 import uk.ac.exeter.QuinCe.data.Instrument.Calibration.CalibrationSet;
 import uk.ac.exeter.QuinCe.data.Instrument.Calibration.SensorCalibrationDB;
 import uk.ac.exeter.QuinCe.data.Instrument.RunTypes.RunTypeCategory;
-import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorAssignment;
+import uk.ac.exeter.QuinCe.data.Instrument.RunTypes.RunTypeCategoryException;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorType;
 import uk.ac.exeter.QuinCe.jobs.InvalidJobParametersException;
 import uk.ac.exeter.QuinCe.jobs.JobFailedException;
 import uk.ac.exeter.QuinCe.jobs.JobManager;
+import uk.ac.exeter.QuinCe.jobs.JobMetrics;
 import uk.ac.exeter.QuinCe.jobs.JobThread;
 import uk.ac.exeter.QuinCe.utils.DatabaseException;
 import uk.ac.exeter.QuinCe.utils.DatabaseUtils;
@@ -54,6 +62,57 @@ public class ExtractDataSetJob extends DataSetJob {
    */
   private final String jobName = "Dataset Extraction";
 
+  /**
+   * Configuration property specifying how extracted sensor values are stored.
+   * Either {@link #REPLACE_STORAGE} (the default, used if the property is not
+   * set) or {@link #DIRECT_STORAGE}.
+   */
+  public static final String STORAGE_STRATEGY_PROPERTY = "sensor_values.storage";
+
+  /**
+   * Storage strategy that deletes the existing sensor values before the new
+   * values are inserted.
+   */
+  public static final String DIRECT_STORAGE = "direct";
+
+  /**
+   * Storage strategy that bulk inserts the new sensor values and hides the
+   * existing values, leaving them to be purged in the background. This is the
+   * default.
+   *
+   * @see DataSetDataDB#replaceSensorValues(Connection, long,
+   *      java.util.Collection)
+   */
+  public static final String REPLACE_STORAGE = "replace";
+
+  /**
+   * The number of lines extracted from a file by each {@link ExtractionChunk}
+   */
+  private static final int CHUNK_LINES = 20000;
+
+  /**
+   * The number of threads used to extract chunks of data files
+   */
+  private static final int EXTRACTION_THREADS = Runtime.getRuntime()
+    .availableProcessors();
+
+  /**
+   * The maximum number of chunks that are submitted for extraction but not
+   * yet merged. This limits the number of extracted values held in memory
+   * alongside the merged values, while keeping all the threads busy.
+   */
+  private static final int MAX_CHUNKS_IN_FLIGHT = EXTRACTION_THREADS * 2;
+
+  /**
+   * The thread pool used to extract chunks of data files
+   */
+  private static final ExecutorService EXTRACTION_EXECUTOR = Executors
+    .newFixedThreadPool(EXTRACTION_THREADS, r -> {
+      Thread thread = new Thread(r, "Data extraction");
+      thread.setDaemon(true);
+      return thread;
+    });
+
   /**
    * Initialise the job object so it is ready to run
    *
@@ -86,6 +145,7 @@ public class ExtractDataSetJob extends DataSetJob {
     Connection conn = null;
 
     try {
+      JobMetrics.startPhase(JobMetrics.LOAD_PHASE);
 
       conn = dataSource.getConnection();
       reset(conn);
@@ -113,214 +173,42 @@ public class ExtractDataSetJob extends DataSetJob {
         ResourceManager.getInstance().getConfig(),
         dataSet.getSourceFiles(conn));
 
-      TreeSet<SensorValue> sensorValues = new TreeSet<SensorValue>();
-
       // We want to store when run types begin and end
-      RunTypePeriods runTypePeriods = new RunTypePeriods();
+      RunTypePeriods runTypePeriods = new RunTypePeriods(
+        instrument.getRunTypeDictionary());
 
       CalibrationSet sensorCalibrations = SensorCalibrationDB.getInstance()
         .getMostRecentCalibrations(conn, instrument, dataSet.getStart());
 
-      // Collect the true start and end times of the dataset based on the
-      // actual data
-      LocalDateTime realStartTime = null;
-      LocalDateTime realEndTime = dataSet.getEnd();
-
-      // Collect the data bounds
-      double minLon = Double.MAX_VALUE;
-      double maxLon = -Double.MAX_VALUE;
-      double minLat = Double.MAX_VALUE;
-      double maxLat = -Double.MAX_VALUE;
-
-      for (DataFile file : files) {
-        FileDefinition fileDefinition = file.getFileDefinition();
-
-        int currentLine = file.getFirstDataLine();
-        while (currentLine < file.getContentLineCount()) {
-
-          try {
-
-            List<String> line = file.getLine(currentLine);
-            LocalDateTime time = file.getOffsetTime(line);
-
-            if ((time.equals(dataSet.getStart())
-              || time.isAfter(dataSet.getStart()))
-              && (time.isBefore(dataSet.getEnd())
-                || time.isEqual(dataSet.getEnd()))) {
-
-              if (null == realStartTime && null != time) {
-                realStartTime = time;
-              }
-
-              realEndTime = time;
-
-              if (!dataSet.fixedPosition()) {
-                String longitude = file.getLongitude(line);
-
-                sensorValues.add(new SensorValue(dataSet.getId(),
-                  FileDefinition.LONGITUDE_COLUMN_ID, time, longitude));
-
-                if (null != longitude) {
-                  try {
-                    double lonDouble = Double.parseDouble(longitude);
-                    if (lonDouble < minLon) {
-                      minLon = lonDouble;
-                    }
-
-                    if (lonDouble > maxLon) {
-                      maxLon = lonDouble;
-                    }
-                  } catch (NumberFormatException e) {
-                    // Ignore it now. QC will pick it up later.
-                  }
-                }
-
-                String latitude = file.getLatitude(line);
-
-                sensorValues.add(new SensorValue(dataSet.getId(),
-                  FileDefinition.LATITUDE_COLUMN_ID, time, latitude));
-
-                if (null != latitude) {
-                  try {
-                    double latDouble = Double.parseDouble(latitude);
-                    if (latDouble < minLat) {
-                      minLat = latDouble;
-                    }
-
-                    if (latDouble > maxLat) {
-                      maxLat = latDouble;
-                    }
-                  } catch (NumberFormatException e) {
-                    // Ignore it now. QC will pick it up later.
-                  }
-                }
-              }
-
-              // Assigned columns
-              for (Entry<SensorType, TreeSet<SensorAssignment>> entry : instrument
-                .getSensorAssignments().entrySet()) {
-
-                for (SensorAssignment assignment : entry.getValue()) {
-                  if (assignment.getDataFile()
-                    .equals(fileDefinition.getFileDescription())) {
-
-                    // For run types, follow all aliases
-                    if (entry.getKey()
-                      .equals(SensorType.RUN_TYPE_SENSOR_TYPE)) {
-                      String runType = file.getFileDefinition()
-                        .getRunType(line, true).getRunName();
-
-                      sensorValues.add(new SensorValue(dataSet.getId(),
-                        assignment.getDatabaseId(), time, runType));
-
-                      runTypePeriods.add(runType, time);
-                    } else {
-
-                      // Create the SensorValue object
-                      SensorValue value = new SensorValue(dataSet.getId(),
-                        assignment.getDatabaseId(), time,
-                        file.getStringValue(line, assignment.getColumn(),
-                          assignment.getMissingValue()));
-
-                      // Apply calibration if required
-                      Calibration sensorCalibration = sensorCalibrations
-                        .getTargetCalibration(
-                          String.valueOf(assignment.getDatabaseId()));
-
-                      if (null != sensorCalibration) {
-                        value.calibrateValue(sensorCalibration);
-                      }
-
-                      // Add to storage list
-                      sensorValues.add(value);
-                    }
-                  }
-                }
-              }
-            }
-          } catch (Exception e) {
-            // TODO #1967 Log error to dataset comments
-            // Log the error but continue with the next line
-            System.out.println(
-              "*** DATA EXTRACTION ERROR IN FILE " + file.getDatabaseId() + "("
-                + file.getFilename() + ") line " + currentLine);
-            e.printStackTrace();
-          }
+      JobMetrics.startPhase(JobMetrics.COMPUTE_PHASE);
 
-          currentLine++;
-        }
-      }
+      TreeSet<SensorValue> sensorValues = extractSensorValues(dataSet,
+        instrument, files, sensorCalibrations, runTypePeriods);
 
-      // The last run type will cover the rest of time
-      runTypePeriods.finish();
-
-      // Now flag all the values that have internal calibrations and are within
-      // the instrument's pre- and post-flushing periods (if they're defined),
-      // or are in an INGORED run type
-      if (runTypePeriods.size() > 0) {
-        RunTypePeriod currentPeriod = runTypePeriods.get(0);
-        int currentPeriodIndex = 0;
-
-        Iterator<SensorValue> valuesIter = sensorValues.iterator();
-        while (valuesIter.hasNext()) {
-          SensorValue value = valuesIter.next();
-          SensorType sensorType = instrument.getSensorAssignments()
-            .getSensorTypeForDBColumn(value.getColumnId());
-
-          if (sensorType.hasInternalCalibration()) {
-            boolean periodFound = false;
-
-            // Make sure we have the correct run type period
-            while (!periodFound) {
-
-              // If we have multiple file definitions, it's possible that
-              // timestamps in the file where the run type *isn't* defined will
-              // fall between run types.
-              //
-              // In this case, simply use the next known run type. Otherwise we
-              // find the run type that the timestamp is in.
-              if (value.getTime().isBefore(currentPeriod.getStart())
-                || currentPeriod.encompasses(value.getTime())) {
-                periodFound = true;
-              } else {
-                currentPeriodIndex++;
-                currentPeriod = runTypePeriods.get(currentPeriodIndex);
-              }
-            }
+      flagSensorValues(instrument, sensorValues, runTypePeriods);
 
-            // If the current period is an IGNORE run type, remove the value.
-            // We can only tell this for "Generic" instruments, ie those with a
-            // Run Type column
-            if (instrument
-              .getRunTypeCategory(Measurement.GENERIC_RUN_TYPE_VARIABLE,
-                currentPeriod.getRunType())
-              .equals(RunTypeCategory.IGNORED)) {
-              value.setValue(null);
-            } else if (inFlushingPeriod(value.getTime(), currentPeriod,
-              instrument)) {
-
-              // Flag flushing values
-              value.setUserQC(Flag.FLUSHING, "");
-            }
-          }
-        }
-      }
+      DatasetStatistics statistics = calculateStatistics(instrument,
+        sensorValues);
+
+      JobMetrics.addRows(sensorValues.size());
+      JobMetrics.startPhase(JobMetrics.PERSIST_PHASE);
 
       // Store the remaining values
-      if (sensorValues.size() > 0) {
+      if (useReplaceStorage()) {
+        DataSetDataDB.replaceSensorValues(conn, dataSet.getId(), sensorValues);
+      } else if (sensorValues.size() > 0) {
         DataSetDataDB.storeSensorValues(conn, sensorValues);
       }
 
-      // Adjust the Dataset limits to the actual extracted data
-      if (null != realStartTime) {
-        dataSet.setStart(realStartTime);
-      }
-
-      if (null != realEndTime) {
-        dataSet.setEnd(realEndTime);
-      }
+      dataSet.setBounds(
+        statistics.getMin(FileDefinition.LONGITUDE_COLUMN_ID, Double.MAX_VALUE),
+        statistics.getMin(FileDefinition.LATITUDE_COLUMN_ID, Double.MAX_VALUE),
+        statistics.getMax(FileDefinition.LONGITUDE_COLUMN_ID,
+          -Double.MAX_VALUE),
+        statistics.getMax(FileDefinition.LATITUDE_COLUMN_ID,
+          -Double.MAX_VALUE));
 
-      dataSet.setBounds(minLon, minLat, maxLon, maxLat);
+      DataSetDB.storeStatistics(conn, dataSet.getId(), statistics);
 
       // Trigger the Auto QC job
       dataSet.setStatus(DataSet.STATUS_SENSOR_QC);
@@ -363,7 +251,255 @@ public class ExtractDataSetJob extends DataSetJob {
     }
   }
 
-  private boolean inFlushingPeriod(LocalDateTime time,
+  /**
+   * Extract the sensor values for a data set from its data files.
+   *
+   * <p>
+   * Each file is split into chunks that are extracted in parallel. The chunks
+   * are merged in order so the results are the same as extracting the lines
+   * one by one. Only a limited number of chunks are submitted at a time, and
+   * more are submitted as the earlier ones are merged. The run types found in
+   * the files are added to the supplied {@link RunTypePeriods}, and the data
+   * set's start and end times are adjusted to match the extracted data.
+   * </p>
+   *
+   * @param dataSet
+   *          The data set
+   * @param instrument
+   *          The instrument that the data set belongs to
+   * @param files
+   *          The data set's source files
+   * @param sensorCalibrations
+   *          The sensor calibrations to apply to the values
+   * @param runTypePeriods
+   *          The run type periods to be populated
+   * @return The extracted sensor values
+   * @throws DataFileException
+   *           If a file's contents cannot be loaded
+   * @throws InterruptedException
+   *           If the extraction is interrupted
+   * @throws ExecutionException
+   *           If a chunk cannot be extracted
+   */
+  public static TreeSet<SensorValue> extractSensorValues(DataSet dataSet,
+    Instrument instrument, List<DataFile> files,
+    CalibrationSet sensorCalibrations, RunTypePeriods runTypePeriods)
+    throws DataFileException, InterruptedException, ExecutionException {
+
+    TreeSet<SensorValue> result = new TreeSet<SensorValue>();
+
+    // Collect the true start and end times of the dataset based on the
+    // actual data
+    LocalDateTime realStartTime = null;
+    LocalDateTime realEndTime = dataSet.getEnd();
+
+    List<ExtractionChunk> chunks = new ArrayList<ExtractionChunk>();
+    for (DataFile file : files) {
+      chunks.addAll(makeChunks(dataSet, instrument, file, sensorCalibrations));
+    }
+
+    Deque<Future<ExtractionChunk>> inFlight = new ArrayDeque<Future<ExtractionChunk>>();
+    int nextChunk = 0;
+
+    try {
+      while (nextChunk < chunks.size() || !inFlight.isEmpty()) {
+
+        // Keep the window of submitted chunks full
+        while (nextChunk < chunks.size()
+          && inFlight.size() < MAX_CHUNKS_IN_FLIGHT) {
+          inFlight.add(EXTRACTION_EXECUTOR.submit(chunks.get(nextChunk)));
+
+          // The future holds the chunk from now on, so it can be released
+          // once it has been merged
+          chunks.set(nextChunk, null);
+          nextChunk++;
+        }
+
+        // Merge the oldest chunk
+        ExtractionChunk chunk = inFlight.remove().get();
+        chunk.mergeInto(result, runTypePeriods);
+
+        if (null == realStartTime) {
+          realStartTime = chunk.getStartTime();
+        }
+
+        if (null != chunk.getEndTime()) {
+          realEndTime = chunk.getEndTime();
+        }
+      }
+    } finally {
+      // If anything failed, don't leave the remaining chunks running
+      for (Future<ExtractionChunk> future : inFlight) {
+        future.cancel(false);
+      }
+    }
+
+    // The last run type will cover the rest of time
+    runTypePeriods.finish();
+
+    // Adjust the Dataset limits to the actual extracted data
+    if (null != realStartTime) {
+      dataSet.setStart(realStartTime);
+    }
+
+    if (null != realEndTime) {
+      dataSet.setEnd(realEndTime);
+    }
+
+    return result;
+  }
+
+  /**
+   * Flag all the values that have internal calibrations and are within the
+   * instrument's pre- and post-flushing periods (if they're defined), and
+   * remove the values of any that are in an IGNORED run type.
+   *
+   * @param instrument
+   *          The instrument that the values belong to
+   * @param sensorValues
+   *          The sensor values, in time order
+   * @param runTypePeriods
+   *          The run type periods found during extraction
+   * @throws RecordNotFoundException
+   *           If a value's sensor type cannot be found
+   * @throws RunTypeCategoryException
+   *           If a run type's category cannot be found
+   */
+  public static void flagSensorValues(Instrument instrument,
+    TreeSet<SensorValue> sensorValues, RunTypePeriods runTypePeriods)
+    throws RecordNotFoundException, RunTypeCategoryException {
+
+    if (runTypePeriods.size() > 0) {
+      RunTypePeriod currentPeriod = runTypePeriods.get(0);
+      int currentPeriodIndex = 0;
+
+      Iterator<SensorValue> valuesIter = sensorValues.iterator();
+      while (valuesIter.hasNext()) {
+        SensorValue value = valuesIter.next();
+        SensorType sensorType = instrument.getSensorAssignments()
+          .getSensorTypeForDBColumn(value.getColumnId());
+
+        if (sensorType.hasInternalCalibration()) {
+          boolean periodFound = false;
+
+          // Make sure we have the correct run type period
+          while (!periodFound) {
+
+            // If we have multiple file definitions, it's possible that
+            // timestamps in the file where the run type *isn't* defined will
+            // fall between run types.
+            //
+            // In this case, simply use the next known run type. Otherwise we
+            // find the run type that the timestamp is in.
+            if (value.getTime().isBefore(currentPeriod.getStart())
+              || currentPeriod.encompasses(value.getTime())) {
+              periodFound = true;
+            } else {
+              currentPeriodIndex++;
+              currentPeriod = runTypePeriods.get(currentPeriodIndex);
+            }
+          }
+
+          // If the current period is an IGNORE run type, remove the value.
+          // We can only tell this for "Generic" instruments, ie those with a
+          // Run Type column
+          if (instrument
+            .getRunTypeCategory(Measurement.GENERIC_RUN_TYPE_VARIABLE,
+              currentPeriod.getRunTypeCode())
+            .equals(RunTypeCategory.IGNORED)) {
+            value.setValue(null);
+          } else if (inFlushingPeriod(value.getTime(), currentPeriod,
+            instrument)) {
+
+            // Flag flushing values
+            value.setUserQC(Flag.FLUSHING, "");
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Collect the dataset statistics from a set of extracted sensor values.
+   * Run type values are not included.
+   *
+   * @param instrument
+   *          The instrument that the values belong to
+   * @param sensorValues
+   *          The sensor values, in time order
+   * @return The statistics
+   */
+  public static DatasetStatistics calculateStatistics(Instrument instrument,
+    TreeSet<SensorValue> sensorValues) {
+
+    DatasetStatistics result = new DatasetStatistics();
+    List<Long> runTypeColumns = instrument.getSensorAssignments()
+      .getRunTypeColumnIDs();
+
+    // The values are in time order, so the records can be counted as we go
+    long recordCount = 0;
+    LocalDateTime lastTime = null;
+
+    for (SensorValue value : sensorValues) {
+      if (!value.getTime().equals(lastTime)) {
+        recordCount++;
+        lastTime = value.getTime();
+      }
+
+      if (!runTypeColumns.contains(value.getColumnId())) {
+        result.add(value);
+      }
+    }
+
+    result.setRecordCount(recordCount);
+    return result;
+  }
+
+  /**
+   * Split the lines of a file that are within the data set into chunks for
+   * extraction.
+   *
+   * @param dataSet
+   *          The data set
+   * @param instrument
+   *          The instrument that the data set belongs to
+   * @param file
+   *          The file
+   * @param sensorCalibrations
+   *          The sensor calibrations to apply to the values
+   * @return The chunks, in line order
+   * @throws DataFileException
+   *           If the file contents cannot be loaded
+   */
+  private static List<ExtractionChunk> makeChunks(DataSet dataSet,
+    Instrument instrument, DataFile file, CalibrationSet sensorCalibrations)
+    throws DataFileException {
+
+    List<ExtractionChunk> result = new ArrayList<ExtractionChunk>();
+
+    // If the file's times are monotonic, skip straight to the first line in
+    // the dataset and stop before the first line after its end. Otherwise
+    // every line must be checked.
+    int firstLine = file.getFirstDataLine();
+    int endLine = file.getContentLineCount();
+
+    if (file.hasMonotonicTimes()) {
+      firstLine = file.findFirstLine(dataSet.getStart());
+      endLine = file.findFirstLine(dataSet.getEnd().plusNanos(1));
+    }
+
+    int chunkStart = firstLine;
+    while (chunkStart < endLine) {
+      int chunkEnd = Math.min(chunkStart + CHUNK_LINES, endLine);
+      result.add(new ExtractionChunk(dataSet, instrument, file,
+        sensorCalibrations, chunkStart, chunkEnd));
+      chunkStart = chunkEnd;
+    }
+
+    return result;
+  }
+
+  private static boolean inFlushingPeriod(LocalDateTime time,
     RunTypePeriod runTypePeriod, Instrument instrument) {
 
     boolean result = false;
@@ -389,10 +525,24 @@ public class ExtractDataSetJob extends DataSetJob {
     return jobName;
   }
 
+  /**
+   * Determine whether extracted sensor values should be stored using the
+   * {@link #REPLACE_STORAGE} strategy.
+   *
+   * @return {@code true} unless the {@link #DIRECT_STORAGE} strategy is
+   *         configured
+   */
+  private boolean useReplaceStorage() {
+    return null == config || !DIRECT_STORAGE.equals(config
+      .getProperty(STORAGE_STRATEGY_PROPERTY, REPLACE_STORAGE).trim());
+  }
+
   /**
    * Reset the data set processing.
    *
-   * Delete all related records and reset the status
+   * Delete all related records and reset the status. If the
+   * {@link #REPLACE_STORAGE} strategy is in use, the existing sensor values are
+   * left in place to be replaced once the new values have been extracted.
    *
    * @throws MissingParamException
    *           If any of the parameters are invalid
@@ -408,7 +558,9 @@ public class ExtractDataSetJob extends DataSetJob {
     try {
       DataSetDataDB.deleteDataReduction(conn, getDataset(conn).getId());
       DataSetDataDB.deleteMeasurements(conn, getDataset(conn).getId());
-      DataSetDataDB.deleteSensorValues(conn, getDataset(conn).getId());
+      if (!useReplaceStorage()) {
+        DataSetDataDB.deleteSensorValues(conn, getDataset(conn).getId());
+      }
       DataSetDB.setDatasetStatus(conn, getDataset(conn).getId(),
         DataSet.STATUS_WAITING);
     } catch (Exception e) {
@@ -0,0 +1,383 @@
+package uk.ac.exeter.QuinCe.jobs.files;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import uk.ac.exeter.QuinCe.data.Dataset.DataSet;
+import uk.ac.exeter.QuinCe.data.Dataset.DataSetException;
+import uk.ac.exeter.QuinCe.data.Dataset.RunTypePeriods;
+import uk.ac.exeter.QuinCe.data.Dataset.SensorValue;
+import uk.ac.exeter.QuinCe.data.Files.DataFile;
+import uk.ac.exeter.QuinCe.data.Instrument.FileDefinition;
+import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
+import uk.ac.exeter.QuinCe.data.Instrument.Calibration.Calibration;
+import uk.ac.exeter.QuinCe.data.Instrument.Calibration.CalibrationSet;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorAssignment;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorType;
+
+/**
+ * Extracts the {@link SensorValue}s from a range of lines in a
+ * {@link DataFile} for the {@link ExtractDataSetJob}.
+ *
+ * <p>
+ * Chunks of the same file can be extracted in parallel because they do not
+ * share any state. Each chunk collects its own sensor values, start and end
+ * times and run types. The {@link ExtractDataSetJob} then
+ * merges the chunks with {@link #mergeInto(TreeSet, RunTypePeriods)} in file
+ * and line order, so the result is the same as extracting all the lines one
+ * after the other.
+ * </p>
+ *
+ * <p>
+ * Lines that cannot be extracted are logged and skipped, as are lines whose
+ * run type cannot be added to the run type periods when the chunk is merged.
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public class ExtractionChunk implements Callable<ExtractionChunk> {
+
+  /**
+   * The log for extraction errors. Uses the {@link ExtractDataSetJob}'s name
+   */
+  private static final Logger LOGGER = Logger
+    .getLogger(ExtractDataSetJob.class.getName());
+
+  /**
+   * The database ID of the data set being extracted
+   */
+  private final long dataSetId;
+
+  /**
+   * The start time of the data set
+   */
+  private final LocalDateTime dataSetStart;
+
+  /**
+   * The end time of the data set
+   */
+  private final LocalDateTime dataSetEnd;
+
+  /**
+   * Indicates whether the data set has a fixed position
+   */
+  private final boolean fixedPosition;
+
+  /**
+   * The file being extracted
+   */
+  private final DataFile file;
+
+  /**
+   * The sensor assignments for the file, in the order that the values are
+   * extracted
+   */
+  private final List<SensorAssignment> assignments;
+
+  /**
+   * Indicates which of the {@link #assignments} are run types
+   */
+  private final boolean[] runTypeAssignments;
+
+  /**
+   * The sensor calibrations to apply to the values
+   */
+  private final CalibrationSet sensorCalibrations;
+
+  /**
+   * The first line of the chunk
+   */
+  private final int firstLine;
+
+  /**
+   * The line after the last line of the chunk
+   */
+  private final int endLine;
+
+  /**
+   * The extracted sensor values, in the order they were extracted
+   */
+  private final List<SensorValue> sensorValues = new ArrayList<SensorValue>();
+
+  /**
+   * The run types found in the chunk, in line order. Lines whose extraction
+   * failed are not included.
+   */
+  private final List<RunTypeEntry> runTypes = new ArrayList<RunTypeEntry>();
+
+  /**
+   * The time of the first extracted line
+   */
+  private LocalDateTime startTime = null;
+
+  /**
+   * The time of the last extracted line
+   */
+  private LocalDateTime endTime = null;
+
+  /**
+   * Set up the extraction of a range of lines from a file
+   *
+   * @param dataSet
+   *          The data set being extracted
+   * @param instrument
+   *          The instrument that the data set belongs to
+   * @param file
+   *          The file
+   * @param sensorCalibrations
+   *          The sensor calibrations to apply to the values
+   * @param firstLine
+   *          The first line to extract
+   * @param endLine
+   *          The line after the last line to extract
+   */
+  protected ExtractionChunk(DataSet dataSet, Instrument instrument,
+    DataFile file, CalibrationSet sensorCalibrations, int firstLine,
+    int endLine) {
+
+    this.dataSetId = dataSet.getId();
+    this.dataSetStart = dataSet.getStart();
+    this.dataSetEnd = dataSet.getEnd();
+    this.fixedPosition = dataSet.fixedPosition();
+    this.file = file;
+    this.sensorCalibrations = sensorCalibrations;
+    this.firstLine = firstLine;
+    this.endLine = endLine;
+
+    // Find the assignments for this file, in the same order that they are
+    // held by the instrument
+    String fileDescription = file.getFileDefinition().getFileDescription();
+    assignments = new ArrayList<SensorAssignment>();
+    List<Boolean> runTypeFlags = new ArrayList<Boolean>();
+
+    for (Entry<SensorType, TreeSet<SensorAssignment>> entry : instrument
+      .getSensorAssignments().entrySet()) {
+
+      for (SensorAssignment assignment : entry.getValue()) {
+        if (assignment.getDataFile().equals(fileDescription)) {
+          assignments.add(assignment);
+          runTypeFlags
+            .add(entry.getKey().equals(SensorType.RUN_TYPE_SENSOR_TYPE));
+        }
+      }
+    }
+
+    runTypeAssignments = new boolean[runTypeFlags.size()];
+    for (int i = 0; i < runTypeAssignments.length; i++) {
+      runTypeAssignments[i] = runTypeFlags.get(i);
+    }
+  }
+
+  @Override
+  public ExtractionChunk call() {
+
+    int currentLine = firstLine;
+    while (currentLine < endLine) {
+
+      try {
+
+        // The position of the line's values in the extracted values, and its
+        // run types
+        int lineValuesStart = sensorValues.size();
+        List<String> lineRunTypes = new ArrayList<String>();
+
+        List<String> line = file.getLine(currentLine);
+        LocalDateTime time = file.getOffsetTime(line);
+
+        if ((time.equals(dataSetStart) || time.isAfter(dataSetStart))
+          && (time.isBefore(dataSetEnd) || time.isEqual(dataSetEnd))) {
+
+          if (null == startTime) {
+            startTime = time;
+          }
+
+          endTime = time;
+
+          if (!fixedPosition) {
+            sensorValues.add(new SensorValue(dataSetId,
+              FileDefinition.LONGITUDE_COLUMN_ID, time,
+              file.getLongitude(line)));
+
+            sensorValues.add(new SensorValue(dataSetId,
+              FileDefinition.LATITUDE_COLUMN_ID, time,
+              file.getLatitude(line)));
+          }
+
+          // Assigned columns
+          for (int i = 0; i < assignments.size(); i++) {
+            SensorAssignment assignment = assignments.get(i);
+
+            // For run types, follow all aliases
+            if (runTypeAssignments[i]) {
+              String runType = file.getFileDefinition().getRunType(line, true)
+                .getRunName();
+
+              sensorValues.add(new SensorValue(dataSetId,
+                assignment.getDatabaseId(), time, runType));
+
+              // The run type periods are built when the chunks are merged
+              lineRunTypes.add(runType);
+            } else {
+
+              // Create the SensorValue object
+              SensorValue value = new SensorValue(dataSetId,
+                assignment.getDatabaseId(), time,
+                file.getStringValue(line, assignment.getColumn(),
+                  assignment.getMissingValue()));
+
+              // Apply calibration if required
+              Calibration sensorCalibration = sensorCalibrations
+                .getTargetCalibration(
+                  String.valueOf(assignment.getDatabaseId()));
+
+              if (null != sensorCalibration) {
+                value.calibrateValue(sensorCalibration);
+              }
+
+              // Add to storage list
+              sensorValues.add(value);
+            }
+          }
+
+          for (String runType : lineRunTypes) {
+            runTypes.add(new RunTypeEntry(runType, time, currentLine,
+              lineValuesStart, sensorValues.size()));
+          }
+        }
+      } catch (Exception e) {
+        // Log the error but continue with the next line
+        LOGGER.log(Level.WARNING,
+          "Data extraction error in file " + file.getDatabaseId() + " ("
+            + file.getFilename() + ") line " + currentLine,
+          e);
+      }
+
+      currentLine++;
+    }
+
+    return this;
+  }
+
+  /**
+   * Add the chunk's sensor values and run types to the overall results.
+   *
+   * <p>
+   * The run types are added to the periods in line order. If a run type
+   * cannot be added (because its time is not after the end of the existing
+   * periods) the error is logged and the values from its line are skipped.
+   * </p>
+   *
+   * @param allSensorValues
+   *          The overall sensor values
+   * @param runTypePeriods
+   *          The overall run type periods
+   */
+  protected void mergeInto(TreeSet<SensorValue> allSensorValues,
+    RunTypePeriods runTypePeriods) {
+
+    boolean[] skippedValues = null;
+
+    for (RunTypeEntry runType : runTypes) {
+      try {
+        runTypePeriods.add(runType.runType, runType.time);
+      } catch (DataSetException e) {
+        LOGGER.log(Level.WARNING,
+          "Invalid run type in file " + file.getDatabaseId() + " ("
+            + file.getFilename() + ") line " + runType.line + ": "
+            + e.getMessage());
+
+        if (null == skippedValues) {
+          skippedValues = new boolean[sensorValues.size()];
+        }
+
+        for (int i = runType.valuesStart; i < runType.valuesEnd; i++) {
+          skippedValues[i] = true;
+        }
+      }
+    }
+
+    if (null == skippedValues) {
+      allSensorValues.addAll(sensorValues);
+    } else {
+      for (int i = 0; i < sensorValues.size(); i++) {
+        if (!skippedValues[i]) {
+          allSensorValues.add(sensorValues.get(i));
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the file that the chunk is extracted from
+   *
+   * @return The file
+   */
+  protected DataFile getFile() {
+    return file;
+  }
+
+  /**
+   * Get the time of the first extracted line
+   *
+   * @return The start time, or {@code null} if no lines were extracted
+   */
+  protected LocalDateTime getStartTime() {
+    return startTime;
+  }
+
+  /**
+   * Get the time of the last extracted line
+   *
+   * @return The end time, or {@code null} if no lines were extracted
+   */
+  protected LocalDateTime getEndTime() {
+    return endTime;
+  }
+
+  /**
+   * A run type read from a line in the chunk
+   */
+  private static class RunTypeEntry {
+
+    /**
+     * The run type
+     */
+    private final String runType;
+
+    /**
+     * The time of the line
+     */
+    private final LocalDateTime time;
+
+    /**
+     * The line number
+     */
+    private final int line;
+
+    /**
+     * The position of the line's first value in the chunk's sensor values
+     */
+    private final int valuesStart;
+
+    /**
+     * The position after the line's last value in the chunk's sensor values
+     */
+    private final int valuesEnd;
+
+    private RunTypeEntry(String runType, LocalDateTime time, int line,
+      int valuesStart, int valuesEnd) {
+      this.runType = runType;
+      this.time = time;
+      this.line = line;
+      this.valuesStart = valuesStart;
+      this.valuesEnd = valuesEnd;
+    }
+  }
+}
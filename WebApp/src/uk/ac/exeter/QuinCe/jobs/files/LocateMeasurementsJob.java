@@ -23,6 +23,7 @@ import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
 import uk.ac.exeter.QuinCe.jobs.InvalidJobParametersException;
 import uk.ac.exeter.QuinCe.jobs.JobFailedException;
 import uk.ac.exeter.QuinCe.jobs.JobManager;
+import uk.ac.exeter.QuinCe.jobs.JobMetrics;
 import uk.ac.exeter.QuinCe.jobs.JobThread;
 import uk.ac.exeter.QuinCe.utils.DatabaseException;
 import uk.ac.exeter.QuinCe.utils.DatabaseUtils;
@@ -80,6 +81,7 @@ public class LocateMeasurementsJob extends DataSetJob {
     Connection conn = null;
 
     try {
+      JobMetrics.startPhase(JobMetrics.LOAD_PHASE);
       conn = dataSource.getConnection();
 
       DataSet dataSet = getDataset(conn);
@@ -100,7 +102,9 @@ public class LocateMeasurementsJob extends DataSetJob {
           "No measurement locators found for instrument variables");
       }
 
-      // Now locate the measurements
+      // Now locate the measurements. The locators load the sensor values
+      // they need as they go.
+      JobMetrics.startPhase(JobMetrics.COMPUTE_PHASE);
       Map<LocalDateTime, Measurement> measurements = new HashMap<LocalDateTime, Measurement>();
 
       for (MeasurementLocator locator : measurementLocators) {
@@ -108,6 +112,9 @@ public class LocateMeasurementsJob extends DataSetJob {
           locator.locateMeasurements(conn, instrument, dataSet));
       }
 
+      JobMetrics.addRows(measurements.size());
+      JobMetrics.startPhase(JobMetrics.PERSIST_PHASE);
+
       DataSetDataDB.storeMeasurements(conn, measurements.values());
 
       // Trigger the Build Measurements job
@@ -29,6 +29,13 @@ public class DatabaseUtils {
    */
   public static final String IN_PARAMS_TOKEN = "%%IN_PARAMS%%";
 
+  /**
+   * The fetch size hint for streamed results on databases other than MySQL
+   *
+   * @see #streamResults(PreparedStatement)
+   */
+  private static final int STREAMING_FETCH_SIZE = 1000;
+
   /**
    * Close a set of {@link java.sql.ResultSet} objects, ignoring any errors
    *
@@ -186,6 +193,47 @@ public class DatabaseUtils {
     return sql.toString();
   }
 
+  /**
+   * Construct an SQL Prepared Statement string for a multi-row INSERT
+   * statement.
+   *
+   * <p>
+   * The {@code statement} must end with the {@code VALUES} keyword, and the
+   * {@code row} must contain the parameter placeholders for a single row, e.g.
+   * {@code (?, ?, ?)}. The row will be repeated the specified number of times.
+   * </p>
+   *
+   * @param statement
+   *          The INSERT statement up to and including the VALUES keyword
+   * @param row
+   *          The parameter placeholders for a single row
+   * @param rowCount
+   *          The number of rows
+   * @return The generated SQL statement
+   * @throws MissingParamException
+   *           If any required parameters are missing.
+   */
+  public static String makeMultiRowInsertSql(String statement, String row,
+    int rowCount) throws MissingParamException {
+
+    MissingParam.checkMissing(statement, "statement");
+    MissingParam.checkMissing(row, "row");
+    MissingParam.checkPositive(rowCount, "rowCount");
+
+    StringBuilder sql = new StringBuilder(
+      statement.length() + (row.length() + 1) * rowCount);
+
+    sql.append(statement);
+    for (int i = 0; i < rowCount; i++) {
+      sql.append(row);
+      if (i < rowCount - 1) {
+        sql.append(',');
+      }
+    }
+
+    return sql.toString();
+  }
+
   /**
    * Get the database field name for a human-readable data field name
    *
@@ -231,4 +279,31 @@ public class DatabaseUtils {
 
     return result;
   }
+
+  /**
+   * Configure a statement so that its results are read from the database as
+   * they are processed, instead of all being loaded into memory when the
+   * statement is executed.
+   *
+   * <p>
+   * The MySQL driver only streams results if the fetch size is
+   * {@link Integer#MIN_VALUE}. While the results are being streamed no other
+   * statements can be executed on the same connection. Other drivers are
+   * given an ordinary fetch size hint.
+   * </p>
+   *
+   * @param stmt
+   *          The statement
+   * @throws SQLException
+   *           If the fetch size cannot be set
+   */
+  public static void streamResults(PreparedStatement stmt)
+    throws SQLException {
+
+    String database = stmt.getConnection().getMetaData()
+      .getDatabaseProductName();
+
+    stmt.setFetchSize(
+      "MySQL".equals(database) ? Integer.MIN_VALUE : STREAMING_FETCH_SIZE);
+  }
 }
@@ -0,0 +1,46 @@
+package uk.ac.exeter.QuinCe.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Shared {@link Gson} instances.
+ *
+ * <p>
+ * {@link Gson} objects are thread safe, but creating them is expensive
+ * because they build a set of type adapters each time. Code that uses the
+ * default JSON conversions should use these instances instead of creating
+ * its own. Classes that need custom type adapters should build their own
+ * {@link Gson} object once and keep it in a static field.
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public class JsonUtils {
+
+  /**
+   * Gson with the default settings
+   */
+  public static final Gson GSON = new Gson();
+
+  /**
+   * Gson that includes {@code null} values in its output
+   */
+  public static final Gson GSON_WITH_NULLS = new GsonBuilder().serializeNulls()
+    .create();
+
+  /**
+   * Gson that allows {@code NaN} and infinite values, which are not valid
+   * JSON numbers and are rejected by the other instances
+   */
+  public static final Gson GSON_SPECIAL_FLOATS = new GsonBuilder()
+    .serializeSpecialFloatingPointValues().create();
+
+  /**
+   * This is a utility class, so it cannot be instantiated
+   */
+  private JsonUtils() {
+    // Do nothing
+  }
+}
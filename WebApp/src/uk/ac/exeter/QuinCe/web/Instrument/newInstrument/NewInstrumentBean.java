@@ -22,8 +22,6 @@ import org.primefaces.json.JSONArray;
 import org.primefaces.json.JSONObject;
 import org.primefaces.model.TreeNode;
 
-import com.google.gson.Gson;
-
 import uk.ac.exeter.QuinCe.data.Instrument.FileDefinition;
 import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
 import uk.ac.exeter.QuinCe.data.Instrument.InstrumentDB;
@@ -50,6 +48,7 @@ import uk.ac.exeter.QuinCe.utils.DatabaseException;
 import uk.ac.exeter.QuinCe.utils.DatabaseUtils;
 import uk.ac.exeter.QuinCe.utils.HighlightedString;
 import uk.ac.exeter.QuinCe.utils.HighlightedStringException;
+import uk.ac.exeter.QuinCe.utils.JsonUtils;
 import uk.ac.exeter.QuinCe.utils.MissingParamException;
 import uk.ac.exeter.QuinCe.web.FileUploadBean;
 import uk.ac.exeter.QuinCe.web.Instrument.InstrumentListBean;
@@ -2051,7 +2050,7 @@ public class NewInstrumentBean extends FileUploadBean {
 
     sensorTypes.addAll(sensorConfig.getDiagnosticSensorTypes());
 
-    return new Gson().toJson(sensorTypes);
+    return JsonUtils.GSON.toJson(sensorTypes);
   }
 
   public long getRemoveAssignmentSensorType() {
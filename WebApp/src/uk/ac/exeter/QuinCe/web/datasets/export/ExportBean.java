@@ -264,7 +264,8 @@ public class ExportBean extends BaseManagedBean {
   private static byte[] getDatasetExport(Instrument instrument, DataSet dataset,
     ExportOption exportOption) throws Exception {
 
-    DataSource dataSource = ResourceManager.getInstance().getDBDataSource();
+    DataSource dataSource = ResourceManager.getInstance().getReadRouter()
+      .getDataSource(dataset);
 
     ExportData data = exportOption.makeExportData(dataSource, instrument,
       dataset);
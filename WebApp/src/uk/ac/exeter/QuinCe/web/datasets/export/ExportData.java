@@ -62,6 +62,15 @@ public class ExportData extends ManualQCData {
     super(dataSource, instrument, dataset);
   }
 
+  /**
+   * Export data has its QC flags overridden during export, so it cannot use
+   * shared data.
+   */
+  @Override
+  protected boolean useSharedData() {
+    return false;
+  }
+
   @Override
   public void loadData() {
     try {
@@ -32,6 +32,8 @@ import uk.ac.exeter.QuinCe.web.datasets.plotPage.PlotPageData;
 import uk.ac.exeter.QuinCe.web.datasets.plotPage.PlotPageTableRecord;
 import uk.ac.exeter.QuinCe.web.datasets.plotPage.PlotPageTableValue;
 import uk.ac.exeter.QuinCe.web.datasets.plotPage.SimplePlotPageDataStructure;
+import uk.ac.exeter.QuinCe.web.datasets.plotPage.ManualQC.DatasetDataCache;
+import uk.ac.exeter.QuinCe.web.system.ResourceManager;
 
 public class InternalCalibrationData extends PlotPageData {
 
@@ -231,7 +233,7 @@ public class InternalCalibrationData extends PlotPageData {
       DateTimeUtils.longsToDates(selectedRows));
   }
 
-  protected void applyFlag(Flag flag, String message)
+  protected synchronized void applyFlag(Flag flag, String message)
     throws MissingParamException, DatabaseException {
 
     List<SensorValue> sensorValues = getSelectedSensorValues();
@@ -245,6 +247,11 @@ public class InternalCalibrationData extends PlotPageData {
       throw new DatabaseException("Error while applying QC flag", e);
     }
 
+    // Any cached copy of the dataset's data is now out of date
+    DatasetDataCache.getInstance().invalidate(dataset.getId());
+    ResourceManager.getInstance().getReadRouter()
+      .recordWrite(dataset.getId());
+
     initPlots();
   }
 }
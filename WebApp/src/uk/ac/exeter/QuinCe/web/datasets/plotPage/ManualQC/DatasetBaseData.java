@@ -0,0 +1,213 @@
+package uk.ac.exeter.QuinCe.web.datasets.plotPage.ManualQC;
+
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import uk.ac.exeter.QuinCe.data.Dataset.DataSet;
+import uk.ac.exeter.QuinCe.data.Dataset.DataSetDataDB;
+import uk.ac.exeter.QuinCe.data.Dataset.DatasetSensorValues;
+import uk.ac.exeter.QuinCe.data.Dataset.Measurement;
+import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.ReadOnlyDataReductionRecord;
+import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.Variable;
+import uk.ac.exeter.QuinCe.utils.DatabaseException;
+import uk.ac.exeter.QuinCe.utils.DateTimeUtils;
+import uk.ac.exeter.QuinCe.utils.MissingParamException;
+import uk.ac.exeter.QuinCe.utils.RecordNotFoundException;
+
+/**
+ * The data for a dataset as loaded from the database for the manual QC page:
+ * the sensor values, measurements and data reduction records.
+ *
+ * <p>
+ * Instances held in the {@link DatasetDataCache} are shared between user
+ * sessions, so they must never be modified. Sessions that need to change the
+ * data (e.g. by setting QC flags) must work on a copy.
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public class DatasetBaseData {
+
+  /**
+   * Estimated memory used by a {@link uk.ac.exeter.QuinCe.data.Dataset.SensorValue}
+   * and its entries in the {@link DatasetSensorValues} lookups
+   */
+  private static final long SENSOR_VALUE_BYTES = 400L;
+
+  /**
+   * Estimated memory used by a {@link Measurement}
+   */
+  private static final long MEASUREMENT_BYTES = 500L;
+
+  /**
+   * Estimated memory used by a data reduction record
+   */
+  private static final long DATA_REDUCTION_RECORD_BYTES = 1000L;
+
+  /**
+   * The ID of the dataset
+   */
+  private final long datasetId;
+
+  /**
+   * The dataset's status when the data was loaded
+   */
+  private final int status;
+
+  /**
+   * The date of the dataset's status when the data was loaded
+   */
+  private final LocalDateTime statusDate;
+
+  /**
+   * The dataset's sensor values
+   */
+  private final DatasetSensorValues sensorValues;
+
+  /**
+   * The dataset's measurements, keyed by time
+   */
+  private final TreeMap<LocalDateTime, Measurement> measurements;
+
+  /**
+   * The data reduction records for each measurement
+   */
+  private final Map<Long, Map<Variable, ReadOnlyDataReductionRecord>> dataReduction;
+
+  /**
+   * The row IDs for the dataset (the millisecond values of the sensor value
+   * times)
+   */
+  private final List<Long> rowIDs;
+
+  /**
+   * The estimated memory used by the data
+   */
+  private final long estimatedSize;
+
+  /**
+   * Load the data for a dataset from the database.
+   *
+   * @param conn
+   *          A database connection
+   * @param instrument
+   *          The instrument that the dataset belongs to
+   * @param dataset
+   *          The dataset
+   * @throws MissingParamException
+   *           If any required parameters are missing
+   * @throws DatabaseException
+   *           If a database error occurs
+   * @throws RecordNotFoundException
+   *           If any required records are not in the database
+   */
+  protected DatasetBaseData(Connection conn, Instrument instrument,
+    DataSet dataset)
+    throws MissingParamException, DatabaseException, RecordNotFoundException {
+
+    this.datasetId = dataset.getId();
+    this.status = dataset.getStatus();
+    this.statusDate = dataset.getStatusDate();
+
+    sensorValues = DataSetDataDB.getSensorValues(conn, instrument,
+      dataset.getId(), false);
+
+    List<Measurement> measurementsList = DataSetDataDB.getMeasurements(conn,
+      dataset.getId());
+
+    measurements = new TreeMap<LocalDateTime, Measurement>();
+    measurementsList.forEach(m -> measurements.put(m.getTime(), m));
+
+    dataReduction = DataSetDataDB.getDataReductionData(conn, instrument,
+      dataset);
+
+    rowIDs = Collections.unmodifiableList(sensorValues.getTimes().stream()
+      .map(t -> DateTimeUtils.dateToLong(t)).collect(Collectors.toList()));
+
+    long recordCount = dataReduction.values().stream().mapToLong(Map::size)
+      .sum();
+
+    estimatedSize = sensorValues.getAll().size() * SENSOR_VALUE_BYTES
+      + measurements.size() * MEASUREMENT_BYTES
+      + recordCount * DATA_REDUCTION_RECORD_BYTES;
+  }
+
+  /**
+   * Get the ID of the dataset.
+   *
+   * @return The dataset ID
+   */
+  public long getDatasetId() {
+    return datasetId;
+  }
+
+  /**
+   * Determine whether or not this data is still current for a dataset. The
+   * data is out of date if the dataset's status has been set since it was
+   * loaded, which happens whenever a processing job runs on the dataset.
+   *
+   * @param dataset
+   *          The dataset
+   * @return {@code true} if the data is current; {@code false} if it is out
+   *         of date
+   */
+  public boolean isCurrent(DataSet dataset) {
+    return dataset.getId() == datasetId && dataset.getStatus() == status
+      && null != dataset.getStatusDate()
+      && dataset.getStatusDate().equals(statusDate);
+  }
+
+  /**
+   * Get the dataset's sensor values. These must not be modified.
+   *
+   * @return The sensor values
+   */
+  public DatasetSensorValues getSensorValues() {
+    return sensorValues;
+  }
+
+  /**
+   * Get the dataset's measurements, keyed by time. These must not be
+   * modified.
+   *
+   * @return The measurements
+   */
+  public TreeMap<LocalDateTime, Measurement> getMeasurements() {
+    return measurements;
+  }
+
+  /**
+   * Get the data reduction records for each measurement. These must not be
+   * modified.
+   *
+   * @return The data reduction records
+   */
+  public Map<Long, Map<Variable, ReadOnlyDataReductionRecord>> getDataReduction() {
+    return dataReduction;
+  }
+
+  /**
+   * Get the row IDs for the dataset.
+   *
+   * @return The row IDs
+   */
+  public List<Long> getRowIDs() {
+    return rowIDs;
+  }
+
+  /**
+   * Get the estimated memory used by the data.
+   *
+   * @return The estimated size in bytes
+   */
+  public long getEstimatedSize() {
+    return estimatedSize;
+  }
+}
@@ -0,0 +1,242 @@
+package uk.ac.exeter.QuinCe.web.datasets.plotPage.ManualQC;
+
+import java.sql.Connection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import uk.ac.exeter.QuinCe.data.Dataset.DataSet;
+import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
+import uk.ac.exeter.QuinCe.utils.DatabaseException;
+import uk.ac.exeter.QuinCe.utils.MissingParam;
+import uk.ac.exeter.QuinCe.utils.MissingParamException;
+import uk.ac.exeter.QuinCe.utils.RecordNotFoundException;
+
+/**
+ * Application-wide cache of {@link DatasetBaseData}, so that several users
+ * viewing the same dataset share a single copy of its data and it is only
+ * loaded from the database once.
+ *
+ * <p>
+ * The cache is limited to an estimated memory budget (see
+ * {@link DatasetBaseData#getEstimatedSize()}). When the budget is exceeded
+ * the least recently used datasets are removed. Cached data is discarded when
+ * the dataset's status changes, which happens whenever a processing job runs
+ * on it, and must be explicitly {@link #invalidate(long) invalidated} when
+ * any other change is written to the database.
+ * </p>
+ *
+ * <p>
+ * The cached data is shared, so it must never be modified. Sessions that
+ * change QC flags must take their own copy first.
+ * </p>
+ *
+ * <p>
+ * Data must only be loaded into the cache from the main database, never from
+ * a read-only replica. A replica may not yet contain a recent QC change, and
+ * the cached data could then be shared long after the change had been
+ * replicated (see {@link uk.ac.exeter.QuinCe.web.system.ReadRouter}).
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public class DatasetDataCache {
+
+  /**
+   * The configuration property holding the memory budget in megabytes
+   */
+  public static final String MAX_SIZE_PROPERTY = "dataset_cache.max_mb";
+
+  /**
+   * The memory budget used if none is configured
+   */
+  private static final long DEFAULT_MAX_MB = 512L;
+
+  /**
+   * The singleton instance of the cache
+   */
+  private static DatasetDataCache instance = null;
+
+  /**
+   * The estimated memory budget for the cache, in bytes
+   */
+  private final long maxSize;
+
+  /**
+   * The cached data in least recently used order
+   */
+  private final LinkedHashMap<Long, DatasetBaseData> entries;
+
+  /**
+   * The estimated memory used by the cached data
+   */
+  private long currentSize = 0L;
+
+  /**
+   * Locks used to make sure that each dataset is only loaded by one thread at
+   * a time
+   */
+  private final ConcurrentHashMap<Long, Object> loadLocks;
+
+  /**
+   * Create an empty cache.
+   *
+   * @param maxSize
+   *          The estimated memory budget in bytes
+   */
+  private DatasetDataCache(long maxSize) {
+    this.maxSize = maxSize;
+    this.entries = new LinkedHashMap<Long, DatasetBaseData>(16, 0.75f, true);
+    this.loadLocks = new ConcurrentHashMap<Long, Object>();
+  }
+
+  /**
+   * Initialise the cache with the memory budget from the application
+   * configuration. If the budget is not configured, the default is used.
+   *
+   * @param maxMb
+   *          The configured budget in megabytes, or {@code null}
+   */
+  public static void init(String maxMb) {
+    long budget = null == maxMb || maxMb.trim().length() == 0 ? DEFAULT_MAX_MB
+      : Long.parseLong(maxMb.trim());
+
+    instance = new DatasetDataCache(budget * 1024L * 1024L);
+  }
+
+  /**
+   * Get the cache instance. If the cache has not been initialised it is
+   * created with the default memory budget.
+   *
+   * @return The cache
+   */
+  public static DatasetDataCache getInstance() {
+    if (null == instance) {
+      init(null);
+    }
+
+    return instance;
+  }
+
+  /**
+   * Get the data for a dataset, loading it from the database if it is not in
+   * the cache or the cached copy is out of date.
+   *
+   * @param conn
+   *          A connection to the main database
+   * @param instrument
+   *          The instrument that the dataset belongs to
+   * @param dataset
+   *          The dataset
+   * @return The dataset's data
+   * @throws MissingParamException
+   *           If any required parameters are missing
+   * @throws DatabaseException
+   *           If a database error occurs
+   * @throws RecordNotFoundException
+   *           If any required records are not in the database
+   */
+  public DatasetBaseData get(Connection conn, Instrument instrument,
+    DataSet dataset)
+    throws MissingParamException, DatabaseException, RecordNotFoundException {
+
+    MissingParam.checkMissing(conn, "conn");
+    MissingParam.checkMissing(instrument, "instrument");
+    MissingParam.checkMissing(dataset, "dataset");
+
+    DatasetBaseData result = getCurrent(dataset);
+
+    if (null == result) {
+      // Only one thread loads a given dataset; any others wait and then use
+      // the data it loaded
+      Object lock = loadLocks.computeIfAbsent(dataset.getId(),
+        k -> new Object());
+
+      synchronized (lock) {
+        result = getCurrent(dataset);
+        if (null == result) {
+          result = new DatasetBaseData(conn, instrument, dataset);
+          put(result);
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Remove a dataset's data from the cache.
+   *
+   * @param datasetId
+   *          The dataset's database ID
+   */
+  public synchronized void invalidate(long datasetId) {
+    DatasetBaseData removed = entries.remove(datasetId);
+    if (null != removed) {
+      currentSize -= removed.getEstimatedSize();
+    }
+  }
+
+  /**
+   * Get the estimated memory used by the cached data.
+   *
+   * @return The estimated size in bytes
+   */
+  public synchronized long getCurrentSize() {
+    return currentSize;
+  }
+
+  /**
+   * Get the number of datasets in the cache.
+   *
+   * @return The number of datasets
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Get the cached data for a dataset if it is present and current. Out of
+   * date data is removed from the cache.
+   *
+   * @param dataset
+   *          The dataset
+   * @return The cached data, or {@code null} if there is no current data
+   */
+  private synchronized DatasetBaseData getCurrent(DataSet dataset) {
+    DatasetBaseData result = entries.get(dataset.getId());
+
+    if (null != result && !result.isCurrent(dataset)) {
+      invalidate(dataset.getId());
+      result = null;
+    }
+
+    return result;
+  }
+
+  /**
+   * Add data to the cache, removing the least recently used datasets if the
+   * memory budget is exceeded. The new data is always kept, even if it is
+   * larger than the budget on its own.
+   *
+   * @param data
+   *          The data
+   */
+  private synchronized void put(DatasetBaseData data) {
+    invalidate(data.getDatasetId());
+
+    entries.put(data.getDatasetId(), data);
+    currentSize += data.getEstimatedSize();
+
+    Iterator<Map.Entry<Long, DatasetBaseData>> iterator = entries.entrySet()
+      .iterator();
+
+    while (currentSize > maxSize && entries.size() > 1) {
+      DatasetBaseData eldest = iterator.next().getValue();
+      iterator.remove();
+      currentSize -= eldest.getEstimatedSize();
+    }
+  }
+}
@@ -113,6 +113,12 @@ public class ManualQCData extends PlotPageData {
    */
   protected DatasetSensorValues sensorValues = null;
 
+  /**
+   * Indicates whether {@link #sensorValues} is this object's own copy, or is
+   * shared with other sessions through the {@link DatasetDataCache}.
+   */
+  private boolean ownSensorValues = false;
+
   /**
    * The values calculated by data reduction.
    */
@@ -184,23 +190,56 @@ public class ManualQCData extends PlotPageData {
   @Override
   public void loadDataAction() throws Exception {
 
-    try (Connection conn = dataSource.getConnection()) {
-      sensorValues = DataSetDataDB.getSensorValues(conn, instrument,
-        dataset.getId(), false);
+    // Shared data stays in the cache until the dataset changes, which can be
+    // much longer than the replica is trusted for after a write (see
+    // ReadRouter), so it is always loaded from the main database. Data for
+    // this session only can be read from the replica if it is up to date.
+    DataSource readDataSource = useSharedData() ? dataSource
+      : ResourceManager.getInstance().getReadRouter().getDataSource(dataset);
 
-      List<Measurement> measurementsList = DataSetDataDB.getMeasurements(conn,
-        dataset.getId());
+    try (Connection conn = readDataSource.getConnection()) {
 
-      measurements = new TreeMap<LocalDateTime, Measurement>();
+      DatasetBaseData baseData;
+      if (useSharedData()) {
+        baseData = DatasetDataCache.getInstance().get(conn, instrument,
+          dataset);
+      } else {
+        baseData = new DatasetBaseData(conn, instrument, dataset);
+      }
 
-      measurementsList.forEach(m -> measurements.put(m.getTime(), m));
+      sensorValues = baseData.getSensorValues();
+      ownSensorValues = !useSharedData();
+      measurements = baseData.getMeasurements();
+      dataReduction = baseData.getDataReduction();
+      rowIDs = baseData.getRowIDs();
+    }
+  }
 
-      dataReduction = DataSetDataDB.getDataReductionData(conn, instrument,
-        dataset);
+  /**
+   * Indicates whether the loaded data can be shared with other sessions
+   * through the {@link DatasetDataCache}. The data is only shared until the
+   * first time the session changes QC flags (see
+   * {@link #ensureOwnSensorValues()}). Subclasses that modify the data in any
+   * other way must override this method to return {@code false}.
+   *
+   * @return {@code true} if the data can be shared; {@code false} otherwise
+   */
+  protected boolean useSharedData() {
+    return true;
+  }
 
-      // Build the row IDs
-      rowIDs = sensorValues.getTimes().stream()
-        .map(t -> DateTimeUtils.dateToLong(t)).collect(Collectors.toList());
+  /**
+   * Make sure that this object has its own copy of the sensor values before
+   * their QC flags are changed, so that other sessions sharing the dataset are
+   * not affected.
+   *
+   * @throws RecordNotFoundException
+   *           If the sensor values cannot be copied
+   */
+  private void ensureOwnSensorValues() throws RecordNotFoundException {
+    if (!ownSensorValues) {
+      sensorValues = sensorValues.copy();
+      ownSensorValues = true;
     }
   }
 
@@ -550,10 +589,11 @@ public class ManualQCData extends PlotPageData {
    * @throws DatabaseException
    * @throws MissingParamException
    */
-  public void acceptAutoQC() {
+  public synchronized void acceptAutoQC() {
 
     try {
 
+      ensureOwnSensorValues();
       List<SensorValue> sensorValues = getSelectedSensorValues();
 
       for (SensorValue sensorValue : sensorValues) {
@@ -569,6 +609,9 @@ public class ManualQCData extends PlotPageData {
       try (Connection conn = dataSource.getConnection()) {
         DataSetDataDB.storeSensorValues(conn, sensorValues);
       }
+      DatasetDataCache.getInstance().invalidate(dataset.getId());
+      ResourceManager.getInstance().getReadRouter()
+        .recordWrite(dataset.getId());
       initPlots();
     } catch (Exception e) {
       error("Error while updating QC flags", e);
@@ -660,8 +703,9 @@ public class ManualQCData extends PlotPageData {
     this.userComment = userComment;
   }
 
-  public void applyManualFlag() {
+  public synchronized void applyManualFlag() {
     try {
+      ensureOwnSensorValues();
       List<SensorValue> selectedValues = getSelectedSensorValues();
 
       // If we're doing position QC, apply it and update all related sensor
@@ -700,6 +744,9 @@ public class ManualQCData extends PlotPageData {
       try (Connection conn = dataSource.getConnection()) {
         DataSetDataDB.storeSensorValues(conn, selectedValues);
       }
+      DatasetDataCache.getInstance().invalidate(dataset.getId());
+      ResourceManager.getInstance().getReadRouter()
+        .recordWrite(dataset.getId());
 
       initPlots();
 
@@ -7,13 +7,12 @@ import javax.faces.bean.ManagedBean;
 import javax.faces.bean.SessionScoped;
 import javax.sql.DataSource;
 
-import com.google.gson.Gson;
-
 import uk.ac.exeter.QuinCe.data.Dataset.DataSet;
 import uk.ac.exeter.QuinCe.data.Dataset.DataSetDB;
 import uk.ac.exeter.QuinCe.jobs.JobManager;
 import uk.ac.exeter.QuinCe.jobs.files.AutoQCJob;
 import uk.ac.exeter.QuinCe.jobs.files.DataReductionJob;
+import uk.ac.exeter.QuinCe.utils.JsonUtils;
 import uk.ac.exeter.QuinCe.web.datasets.plotPage.PlotPageBean;
 import uk.ac.exeter.QuinCe.web.datasets.plotPage.PlotPageData;
 
@@ -151,6 +150,6 @@ public class ManualQualityControlBean extends PlotPageBean {
   }
 
   public String getNeededFlagCounts() {
-    return new Gson().toJson(data.getNeedsFlagCounts());
+    return JsonUtils.GSON.toJson(data.getNeedsFlagCounts());
   }
 }
@@ -13,6 +13,7 @@ import com.google.gson.GsonBuilder;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
 import uk.ac.exeter.QuinCe.data.Instrument.FileDefinition;
 import uk.ac.exeter.QuinCe.utils.DateTimeUtils;
+import uk.ac.exeter.QuinCe.utils.JsonUtils;
 import uk.ac.exeter.QuinCe.utils.MathUtils;
 
 public class Plot {
@@ -209,7 +210,7 @@ public class Plot {
     labels.add("GHOST");
     labels.add(yAxis.getShortName());
 
-    return new Gson().toJson(labels);
+    return JsonUtils.GSON.toJson(labels);
 
   }
 
@@ -220,6 +221,6 @@ public class Plot {
     labels.add("QUESTIONABLE");
     labels.add("NEEDED");
 
-    return new Gson().toJson(labels);
+    return JsonUtils.GSON.toJson(labels);
   }
 }
@@ -24,6 +24,7 @@ import uk.ac.exeter.QuinCe.data.Dataset.DataSet;
 import uk.ac.exeter.QuinCe.data.Instrument.FileDefinition;
 import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
 import uk.ac.exeter.QuinCe.utils.DateTimeUtils;
+import uk.ac.exeter.QuinCe.utils.JsonUtils;
 
 public abstract class PlotPageData {
 
@@ -63,6 +64,12 @@ public abstract class PlotPageData {
    */
   private static Gson tableDataGson;
 
+  /**
+   * Recently generated table pages
+   */
+  private final TablePageCache tablePages = new TablePageCache(
+    TablePageCache.DEFAULT_PAGES);
+
   /**
    * An error string to display to the user if something goes wrong.
    */
@@ -160,8 +167,9 @@ public abstract class PlotPageData {
    *          A data source.
    * @see #loadDataAction(DataSource)
    */
-  public void loadData() {
+  public synchronized void loadData() {
     try {
+      tablePages.clear();
       loadDataAction();
 
       // Initialise the plots
@@ -331,7 +339,7 @@ public abstract class PlotPageData {
       }
 
       // Convert the reorganised data to JSON
-      result = new GsonBuilder().serializeNulls().create().toJson(jsonGroups);
+      result = JsonUtils.GSON_WITH_NULLS.toJson(jsonGroups);
     }
 
     return result;
@@ -553,14 +561,49 @@ public abstract class PlotPageData {
     String result = null;
 
     if (loaded) {
-      List<PlotPageTableRecord> records = generateTableDataRecords(start,
-        length);
-      result = tableDataGson.toJson(records);
+      result = tablePages.get(start, length);
+
+      if (null == result) {
+        int generation = tablePages.getGeneration();
+        result = buildTableData(start, length);
+        tablePages.put(generation, start, length, result);
+      }
+
+      // Generate the neighbouring pages in the background so they are ready
+      // when the user scrolls to them
+      if (start + length < size()) {
+        tablePages.prefetch(start + length, length, this::buildTableData);
+      }
+
+      if (start > 0) {
+        tablePages.prefetch(Math.max(0, start - length), length,
+          this::buildTableData);
+      }
     }
 
     return result;
   }
 
+  /**
+   * Generate the JSON for a page of table data.
+   *
+   * <p>
+   * Pages are also generated in the background by the {@link TablePageCache},
+   * so this holds the object's lock to make sure that the data is not changed
+   * while the page is being generated. Methods that change the data must also
+   * be {@code synchronized}.
+   * </p>
+   *
+   * @param start
+   *          The first row to generate.
+   * @param length
+   *          The number of rows to generate.
+   * @return The JSON string.
+   */
+  private synchronized String buildTableData(int start, int length) {
+    return tableDataGson.toJson(generateTableDataRecords(start, length));
+  }
+
   /**
    * Get the complete list of row IDs.
    *
@@ -581,7 +624,7 @@ public abstract class PlotPageData {
    * @return The row IDs as a JSON string.
    */
   public String getRowIDsJson() {
-    return new Gson().toJson(getRowIDs());
+    return JsonUtils.GSON.toJson(getRowIDs());
   }
 
   /**
@@ -645,7 +688,7 @@ public abstract class PlotPageData {
    * @return The selected rows.
    */
   public String getSelectedRows() {
-    return new Gson().toJson(selectedRows);
+    return JsonUtils.GSON.toJson(selectedRows);
   }
 
   /**
@@ -660,7 +703,7 @@ public abstract class PlotPageData {
    *          The selected rows.
    */
   public void setSelectedRows(String selectedRows) {
-    this.selectedRows = new Gson().fromJson(selectedRows, longList);
+    this.selectedRows = JsonUtils.GSON.fromJson(selectedRows, longList);
   }
 
   /**
@@ -789,6 +832,8 @@ public abstract class PlotPageData {
   }
 
   protected void initPlots() {
+    // The data has changed, so any generated table pages are out of date
+    tablePages.clear();
     plot1.init();
     plot2.init();
   }
@@ -1,40 +1,42 @@
 package uk.ac.exeter.QuinCe.web.datasets.plotPage;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.Map;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import org.apache.commons.lang3.NotImplementedException;
 
-public class PlotPageTableRecordSerializer
-  implements JsonSerializer<PlotPageTableRecord> {
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
-  private static Gson gson;
+/**
+ * Writes {@link PlotPageTableRecord}s directly to a {@link JsonWriter}, so
+ * pages of table data can be serialized without building a JSON tree.
+ */
+public class PlotPageTableRecordSerializer
+  extends TypeAdapter<PlotPageTableRecord> {
 
-  static {
-    gson = new GsonBuilder().registerTypeHierarchyAdapter(
-      PlotPageTableValue.class, new PlotPageTableValueSerializer()).create();
-  }
+  private static final PlotPageTableValueSerializer valueSerializer = new PlotPageTableValueSerializer();
 
   @Override
-  public JsonElement serialize(PlotPageTableRecord src, Type typeOfSrc,
-    JsonSerializationContext context) {
+  public void write(JsonWriter out, PlotPageTableRecord src)
+    throws IOException {
 
-    JsonObject jsonMap = new JsonObject();
-    jsonMap.addProperty(PlotPageTableRecord.ID_KEY, src.getId());
+    out.beginObject();
+    out.name(PlotPageTableRecord.ID_KEY).value(src.getId());
 
     for (Map.Entry<Integer, PlotPageTableValue> columnEntry : src.getColumns()
       .entrySet()) {
-      jsonMap.add(String.valueOf(columnEntry.getKey()),
-        gson.toJsonTree(columnEntry.getValue()));
+      out.name(String.valueOf(columnEntry.getKey()));
+      valueSerializer.write(out, columnEntry.getValue());
     }
 
-    // TODO Auto-generated method stub
-    return jsonMap;
+    out.endObject();
   }
 
+  @Override
+  public PlotPageTableRecord read(JsonReader in) throws IOException {
+    throw new NotImplementedException(
+      "Table records cannot be deserialized");
+  }
 }
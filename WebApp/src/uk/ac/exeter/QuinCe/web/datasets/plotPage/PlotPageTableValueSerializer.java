@@ -1,37 +1,46 @@
 package uk.ac.exeter.QuinCe.web.datasets.plotPage;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonNull;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import org.apache.commons.lang3.NotImplementedException;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes {@link PlotPageTableValue}s directly to a {@link JsonWriter}, so
+ * large tables can be serialized without building a JSON tree.
+ */
 public class PlotPageTableValueSerializer
-  implements JsonSerializer<PlotPageTableValue> {
+  extends TypeAdapter<PlotPageTableValue> {
 
   @Override
-  public JsonElement serialize(PlotPageTableValue src, Type typeOfSrc,
-    JsonSerializationContext context) {
+  public void write(JsonWriter out, PlotPageTableValue src)
+    throws IOException {
 
-    JsonObject json = new JsonObject();
+    out.beginObject();
 
     if (null == src || src.isNull()) {
-      json.add("value", JsonNull.INSTANCE);
-      json.add("qcFlag", JsonNull.INSTANCE);
-      json.add("qcMessage", JsonNull.INSTANCE);
-      json.add("flagNeeded", JsonNull.INSTANCE);
-      json.add("type", JsonNull.INSTANCE);
+      out.name("value").nullValue();
+      out.name("qcFlag").nullValue();
+      out.name("qcMessage").nullValue();
+      out.name("flagNeeded").nullValue();
+      out.name("type").nullValue();
     } else {
-      json.addProperty("value", src.getValue());
-      json.addProperty("qcFlag", src.getQcFlag().getFlagValue());
-      json.addProperty("qcMessage", src.getQcMessage());
-      json.addProperty("flagNeeded", src.getFlagNeeded());
-      json.addProperty("type", src.getType());
+      out.name("value").value(src.getValue());
+      out.name("qcFlag").value(src.getQcFlag().getFlagValue());
+      out.name("qcMessage").value(src.getQcMessage());
+      out.name("flagNeeded").value(src.getFlagNeeded());
+      out.name("type").value(String.valueOf(src.getType()));
     }
 
-    return json;
+    out.endObject();
   }
 
+  @Override
+  public PlotPageTableValue read(JsonReader in) throws IOException {
+    throw new NotImplementedException(
+      "Table values cannot be deserialized");
+  }
 }
@@ -0,0 +1,198 @@
+package uk.ac.exeter.QuinCe.web.datasets.plotPage;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+
+/**
+ * A small ring of generated table pages for a {@link PlotPageData} object,
+ * with background generation of the pages either side of the one being
+ * viewed.
+ *
+ * <p>
+ * Pages are stored as the JSON sent to the front end, keyed by their start
+ * row and length. When the cache is full the least recently used page is
+ * discarded. The cache must be {@link #clear() cleared} whenever the
+ * underlying data changes; pages waiting to be generated in the background
+ * when this happens are skipped, and pages being generated are discarded when
+ * they finish.
+ * </p>
+ *
+ * <p>
+ * Background pages are generated on a different thread to the one that owns
+ * the data, so the page generator must synchronise with any changes to the
+ * data (see {@link PlotPageData#generateTableData(int, int)}). Errors while
+ * generating a page in the background are logged, and the page will be
+ * generated again when it is requested.
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public class TablePageCache {
+
+  /**
+   * The number of pages kept by default
+   */
+  public static final int DEFAULT_PAGES = 5;
+
+  /**
+   * The executor used to generate pages in the background. This is shared by
+   * all sessions, so the number of threads is kept small.
+   */
+  private static final ExecutorService PREFETCH_EXECUTOR = Executors
+    .newFixedThreadPool(2, r -> {
+      Thread thread = new Thread(r, "Table page prefetch");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+  /**
+   * The cached pages in least recently used order
+   */
+  private final LinkedHashMap<String, String> pages;
+
+  /**
+   * The pages currently being generated in the background
+   */
+  private final Set<String> pending;
+
+  /**
+   * Counter incremented each time the cache is cleared, so that pages
+   * generated from old data can be detected
+   */
+  private int generation = 0;
+
+  /**
+   * Create an empty cache.
+   *
+   * @param maxPages
+   *          The maximum number of pages to keep
+   */
+  public TablePageCache(int maxPages) {
+    pages = new LinkedHashMap<String, String>(maxPages * 2, 0.75f, true) {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+        return size() > maxPages;
+      }
+    };
+
+    pending = new HashSet<String>();
+  }
+
+  /**
+   * Get a cached page.
+   *
+   * @param start
+   *          The first row of the page
+   * @param length
+   *          The number of rows in the page
+   * @return The page JSON, or {@code null} if it is not cached
+   */
+  public synchronized String get(int start, int length) {
+    return pages.get(key(start, length));
+  }
+
+  /**
+   * Get the current cache generation. This should be retrieved before
+   * generating a page, and passed to {@link #put(int, int, int, String)}.
+   *
+   * @return The generation
+   */
+  public synchronized int getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Add a page to the cache. The page is ignored if the cache has been cleared
+   * since the page was started.
+   *
+   * @param pageGeneration
+   *          The cache generation when the page was started
+   * @param start
+   *          The first row of the page
+   * @param length
+   *          The number of rows in the page
+   * @param json
+   *          The page JSON
+   */
+  public synchronized void put(int pageGeneration, int start, int length,
+    String json) {
+    if (pageGeneration == generation && null != json) {
+      pages.put(key(start, length), json);
+    }
+  }
+
+  /**
+   * Generate a page in the background if it is not already cached or being
+   * generated.
+   *
+   * @param start
+   *          The first row of the page
+   * @param length
+   *          The number of rows in the page
+   * @param generator
+   *          The function that generates the page JSON from the start row and
+   *          length
+   */
+  public synchronized void prefetch(int start, int length,
+    BiFunction<Integer, Integer, String> generator) {
+
+    String key = key(start, length);
+
+    if (!pages.containsKey(key) && !pending.contains(key)) {
+      pending.add(key);
+      int pageGeneration = generation;
+
+      PREFETCH_EXECUTOR.execute(() -> {
+        String json = null;
+
+        try {
+          // Don't generate the page if the data has changed since it was
+          // requested
+          if (pageGeneration == getGeneration()) {
+            json = generator.apply(start, length);
+          }
+        } catch (RuntimeException e) {
+          // The page will be generated again if it is requested
+          new Exception("Error generating table page " + key, e)
+            .printStackTrace();
+        } finally {
+          synchronized (this) {
+            pending.remove(key);
+            put(pageGeneration, start, length, json);
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * Remove all pages from the cache.
+   */
+  public synchronized void clear() {
+    pages.clear();
+    pending.clear();
+    generation++;
+  }
+
+  /**
+   * Build the key for a page.
+   *
+   * @param start
+   *          The first row of the page
+   * @param length
+   *          The number of rows in the page
+   * @return The key
+   */
+  private String key(int start, int length) {
+    return start + ":" + length;
+  }
+}
@@ -1,5 +1,7 @@
 package uk.ac.exeter.QuinCe.web.files;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.TreeSet;
 
 import javax.faces.bean.ManagedBean;
@@ -42,15 +44,27 @@ public class MultipleFileUploadBean extends FileUploadBean {
   }
 
   /**
-   * Extract files in file list that are not yet extracted
+   * Extract files in file list that are not yet extracted. All waiting files
+   * are extracted together as a batch; files that have already been accepted
+   * are included in the overlap checks.
    */
   public void extractNext() {
+    List<UploadedDataFile> newFiles = new ArrayList<UploadedDataFile>();
+    List<UploadedDataFile> acceptedFiles = new ArrayList<UploadedDataFile>();
+
     for (UploadedDataFile file : dataFiles) {
       if (file.getDataFile() == null && file.isStore()) {
-        file.extractFile(getCurrentInstrument(), getAppConfig(), false, false);
-        break;
+        newFiles.add(file);
+      } else if (file.isStore()) {
+        acceptedFiles.add(file);
       }
     }
+
+    if (newFiles.size() > 0) {
+      UploadedFileBatch.extractFiles(newFiles, acceptedFiles,
+        getCurrentInstrument(), getAppConfig(), getDataSource(), false,
+        false);
+    }
   }
 
   /**
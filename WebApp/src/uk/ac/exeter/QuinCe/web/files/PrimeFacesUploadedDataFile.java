@@ -1,6 +1,7 @@
 package uk.ac.exeter.QuinCe.web.files;
 
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.InputStream;
 
 import org.primefaces.model.UploadedFile;
 
@@ -23,7 +24,12 @@ public class PrimeFacesUploadedDataFile extends UploadedDataFile {
 
     // PrimeFaces uploaded files tend to disappear from the
     // file system quite quickly, so extract the contents immediately
-    getLines();
+    try {
+      getLines();
+    } catch (IOException e) {
+      // The error will be reported when the file is extracted
+      e.printStackTrace();
+    }
   }
 
   protected UploadedFile getUploadedFile() {
@@ -31,8 +37,8 @@ public class PrimeFacesUploadedDataFile extends UploadedDataFile {
   }
 
   @Override
-  protected String getFileContents() {
-    return new String(uploadedFile.getContents(), StandardCharsets.UTF_8);
+  protected InputStream getInputStream() throws IOException {
+    return uploadedFile.getInputstream();
   }
 
   @Override
@@ -1,9 +1,13 @@
 package uk.ac.exeter.QuinCe.web.files;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -41,7 +45,12 @@ public abstract class UploadedDataFile implements Comparable<UploadedDataFile> {
   /**
    * The contents of the file split into lines
    */
-  private String[] fileLines = null;
+  private List<String> fileLines = null;
+
+  /**
+   * Indicates whether or not the file contents have been read
+   */
+  private boolean linesRead = false;
 
   /**
    * Indicates whether or not the file should be stored
@@ -75,18 +84,38 @@ public abstract class UploadedDataFile implements Comparable<UploadedDataFile> {
   private long replaceFile = -1;
 
   /**
-   * Extract the file contents as individual lines
+   * Extract the file contents as individual lines. Empty lines are removed.
    *
-   * @return The file lines
+   * <p>
+   * The file is read line by line from its input stream, so the complete
+   * contents are never held as a single string.
+   * </p>
+   *
+   * @return The file lines, or {@code null} if the file contains no data
+   * @throws IOException
+   *           If the file contents cannot be read
    */
-  public String[] getLines() {
-    if (null == fileLines) {
-      String fileContent = getFileContents();
-      if (null == fileContent || fileContent.trim().length() == 0) {
-        fileLines = null;
-      } else {
-        fileLines = fileContent.split("[\\r\\n]+");
+  public List<String> getLines() throws IOException {
+    if (!linesRead) {
+      List<String> lines = new ArrayList<String>();
+      boolean hasContent = false;
+
+      try (BufferedReader in = new BufferedReader(
+        new InputStreamReader(getInputStream(), StandardCharsets.UTF_8))) {
+
+        String line;
+        while (null != (line = in.readLine())) {
+          if (line.length() > 0) {
+            lines.add(line);
+            if (!hasContent && line.trim().length() > 0) {
+              hasContent = true;
+            }
+          }
+        }
       }
+
+      fileLines = hasContent ? lines : null;
+      linesRead = true;
     }
 
     return fileLines;
@@ -309,13 +338,59 @@ public abstract class UploadedDataFile implements Comparable<UploadedDataFile> {
    */
   public void extractFile(Instrument instrument, Properties appConfig,
     boolean allowExactDuplicate, boolean allowEmpty) {
+
+    if (prepareFile(instrument, appConfig, allowEmpty)) {
+      try {
+        DataSource dataSource = ResourceManager.getInstance()
+          .getDBDataSource();
+
+        List<DataFile> overlappingFiles = DataFileDB.getFilesWithinDates(
+          dataSource, getDataFile().getFileDefinition(),
+          getDataFile().getRawStartTime(), getDataFile().getRawEndTime(),
+          false);
+
+        boolean nameExists = overlappingFiles.isEmpty() && DataFileDB
+          .hasFileWithName(dataSource, instrument.getId(), getName());
+
+        checkExistingFiles(overlappingFiles, nameExists, allowExactDuplicate);
+      } catch (Exception e) {
+        processingError(e);
+      }
+    }
+
+    setProcessed(true);
+  }
+
+  /**
+   * Extract the file contents and validate them, without checking for clashes
+   * with existing files. This does not access the database, so files can be
+   * prepared in parallel.
+   *
+   * <p>
+   * If this method returns {@code true}, the file must be checked with
+   * {@link #checkExistingFiles(List, boolean, boolean)} before it can be
+   * accepted.
+   * </p>
+   *
+   * @param instrument
+   *          The instrument to which the file belongs.
+   * @param appConfig
+   *          The application configuration.
+   * @param allowEmpty
+   *          Indicates whether or not empty files are accepted.
+   * @return {@code true} if the file is valid and must be checked against
+   *         existing files; {@code false} if the file is empty or has been
+   *         rejected.
+   */
+  protected boolean prepareFile(Instrument instrument, Properties appConfig,
+    boolean allowEmpty) {
+
     boolean fileEmpty = false;
+    boolean checkRequired = false;
 
     try {
-      DataSource dataSource = ResourceManager.getInstance().getDBDataSource();
-
       InstrumentFileSet fileDefinitions = instrument.getFileDefinitions();
-      List<String> lines = Arrays.asList(getLines());
+      List<String> lines = getLines();
       if (null == lines) {
         if (allowEmpty) {
           fileEmpty = true;
@@ -327,17 +402,11 @@ public abstract class UploadedDataFile implements Comparable<UploadedDataFile> {
 
       if (!fileEmpty) {
 
-        FileDefinition matchedDefinition = null;
-
         // TODO We're assuming we'll get one match. No matches will throw a
         // NoSuchElementException
         // (handled below), and multiple matches just choose the first one
-        for (FileDefinition matchTest : fileDefinitions) {
-          if (matchTest.fileMatches(lines)) {
-            matchedDefinition = matchTest;
-            break;
-          }
-        }
+        FileDefinition matchedDefinition = fileDefinitions
+          .getMatchingFileDefinition(lines);
 
         if (null == matchedDefinition) {
           throw new NoSuchElementException();
@@ -371,83 +440,117 @@ public abstract class UploadedDataFile implements Comparable<UploadedDataFile> {
               + " could not be processed (see messages below). Please fix these problems and upload the file again.",
               FacesMessage.SEVERITY_ERROR);
           } else {
-            List<DataFile> overlappingFiles = DataFileDB.getFilesWithinDates(
-              dataSource, matchedDefinition, getDataFile().getRawStartTime(),
-              getDataFile().getRawEndTime(), false);
-
-            boolean fileOK = true;
-            String fileMessage = null;
-            int fileStatus = Status.OK.getStatusCode();
-
-            if (overlappingFiles.size() > 0 && overlappingFiles.size() > 1) {
-              fileOK = false;
-              fileMessage = "This file overlaps one or more existing files";
-              fileStatus = Status.CONFLICT.getStatusCode();
-            } else if (overlappingFiles.size() == 1) {
-              DataFile existingFile = overlappingFiles.get(0);
-              DataFile newFile = getDataFile();
-
-              if (!existingFile.getFilename().equals(newFile.getFilename())) {
-                fileOK = false;
-                fileMessage = "This file overlaps an existing file with a different name";
-                fileStatus = Status.CONFLICT.getStatusCode();
-              } else {
-                String oldContents = existingFile.getContents();
-                String newContents = newFile.getContents();
-
-                if (newContents.length() < oldContents.length()) {
-                  fileOK = false;
-                  fileMessage = "This file would replace an existing file with fewer records";
-                  fileStatus = Status.CONFLICT.getStatusCode();
-                } else if (!allowExactDuplicate
-                  && newContents.length() == oldContents.length()) {
-                  fileOK = false;
-                  fileMessage = "This is an exact copy of an existing file";
-                  fileStatus = Status.CONFLICT.getStatusCode();
-                } else {
-                  String oldPartOfNewContents = newContents.substring(0,
-                    oldContents.length());
-                  if (!oldPartOfNewContents.equals(oldContents)) {
-                    fileOK = false;
-                    fileMessage = "This file would update an existing file but change existing data";
-                    fileStatus = Status.CONFLICT.getStatusCode();
-                  } else {
-                    setReplacementFile(existingFile.getDatabaseId());
-                  }
-                }
-              }
-            } else if (DataFileDB.hasFileWithName(dataSource,
-              instrument.getId(), getName())) {
-
-              // We don't allow duplicate filenames
-              fileOK = false;
-              fileMessage = "A file with that name already exists";
-              fileStatus = Status.CONFLICT.getStatusCode();
-            }
-
-            if (!fileOK) {
-              matchedDefinition = null;
-              setDataFile(null);
-              putMessage(fileStatus, fileMessage, FacesMessage.SEVERITY_ERROR);
-            }
+            checkRequired = true;
           }
         }
       }
-    } catch (NoSuchElementException nose) {
-      setDataFile(null);
-      putMessage(Status.BAD_REQUEST.getStatusCode(),
-        "The format of " + getName()
-          + " was not recognised. Please upload a different file.",
-        FacesMessage.SEVERITY_ERROR);
     } catch (Exception e) {
-      e.printStackTrace();
-      setDataFile(null);
-      putMessage(Status.INTERNAL_SERVER_ERROR.getStatusCode(),
-        "The file could not be processed: " + e.getMessage(),
-        FacesMessage.SEVERITY_ERROR);
+      processingError(e);
     }
 
-    setProcessed(true);
+    return checkRequired;
+  }
+
+  /**
+   * Check a prepared file against the existing files that it overlaps. If the
+   * file clashes with the existing files it is rejected; if it extends an
+   * existing file it is marked as a replacement for that file.
+   *
+   * @param overlappingFiles
+   *          The existing files that overlap this file.
+   * @param nameExists
+   *          Indicates whether or not a file with the same name as this file
+   *          already exists.
+   * @param allowExactDuplicate
+   *          Indicates whether exact duplicate files are accepted.
+   * @throws DataFileException
+   *           If the contents of an existing file cannot be read
+   */
+  protected void checkExistingFiles(List<DataFile> overlappingFiles,
+    boolean nameExists, boolean allowExactDuplicate) throws DataFileException {
+
+    boolean fileOK = true;
+    String fileMessage = null;
+    int fileStatus = Status.OK.getStatusCode();
+
+    if (overlappingFiles.size() > 0 && overlappingFiles.size() > 1) {
+      fileOK = false;
+      fileMessage = "This file overlaps one or more existing files";
+      fileStatus = Status.CONFLICT.getStatusCode();
+    } else if (overlappingFiles.size() == 1) {
+      DataFile existingFile = overlappingFiles.get(0);
+      DataFile newFile = getDataFile();
+
+      if (!existingFile.getFilename().equals(newFile.getFilename())) {
+        fileOK = false;
+        fileMessage = "This file overlaps an existing file with a different name";
+        fileStatus = Status.CONFLICT.getStatusCode();
+      } else {
+        String oldContents = existingFile.getContents();
+        String newContents = newFile.getContents();
+
+        if (newContents.length() < oldContents.length()) {
+          fileOK = false;
+          fileMessage = "This file would replace an existing file with fewer records";
+          fileStatus = Status.CONFLICT.getStatusCode();
+        } else if (!allowExactDuplicate
+          && newContents.length() == oldContents.length()) {
+          fileOK = false;
+          fileMessage = "This is an exact copy of an existing file";
+          fileStatus = Status.CONFLICT.getStatusCode();
+        } else {
+          String oldPartOfNewContents = newContents.substring(0,
+            oldContents.length());
+          if (!oldPartOfNewContents.equals(oldContents)) {
+            fileOK = false;
+            fileMessage = "This file would update an existing file but change existing data";
+            fileStatus = Status.CONFLICT.getStatusCode();
+          } else {
+            setReplacementFile(existingFile.getDatabaseId());
+          }
+        }
+      }
+    } else if (nameExists) {
+
+      // We don't allow duplicate filenames
+      fileOK = false;
+      fileMessage = "A file with that name already exists";
+      fileStatus = Status.CONFLICT.getStatusCode();
+    }
+
+    if (!fileOK) {
+      rejectFile(fileStatus, fileMessage);
+    }
+  }
+
+  /**
+   * Reject the file, removing its extracted data.
+   *
+   * @param statusCode
+   *          The HTTP status code for the rejection.
+   * @param message
+   *          The rejection message.
+   */
+  protected void rejectFile(int statusCode, String message) {
+    setDataFile(null);
+    putMessage(statusCode, message, FacesMessage.SEVERITY_ERROR);
+  }
+
+  /**
+   * Record an error that occurred while processing the file.
+   *
+   * @param e
+   *          The error
+   */
+  protected void processingError(Exception e) {
+    if (e instanceof NoSuchElementException) {
+      rejectFile(Status.BAD_REQUEST.getStatusCode(), "The format of "
+        + getName() + " was not recognised. Please upload a different file.");
+    } else {
+      e.printStackTrace();
+      rejectFile(Status.INTERNAL_SERVER_ERROR.getStatusCode(),
+        "The file could not be processed: " + e.getMessage());
+    }
   }
 
   /**
@@ -460,11 +563,14 @@ public abstract class UploadedDataFile implements Comparable<UploadedDataFile> {
   }
 
   /**
-   * Get the contents of the file
+   * Get a stream of the file contents. The stream will be closed once the
+   * contents have been read.
    *
    * @return The file contents
+   * @throws IOException
+   *           If the file cannot be opened
    */
-  protected abstract String getFileContents();
+  protected abstract InputStream getInputStream() throws IOException;
 
   @Override
   public int compareTo(UploadedDataFile o) {
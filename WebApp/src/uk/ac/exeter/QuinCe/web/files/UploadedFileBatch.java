@@ -0,0 +1,185 @@
+package uk.ac.exeter.QuinCe.web.files;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+import javax.ws.rs.core.Response.Status;
+
+import uk.ac.exeter.QuinCe.data.Files.DataFile;
+import uk.ac.exeter.QuinCe.data.Files.DataFileDB;
+import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
+
+/**
+ * Extracts and validates a batch of uploaded files.
+ *
+ * <p>
+ * Each file is extracted and validated separately, so this is done in
+ * parallel. The checks against the instrument's existing files are then made
+ * for the whole batch using a single query. Files in the batch are also
+ * checked against each other, so two new files with overlapping times cannot
+ * both be accepted.
+ * </p>
+ *
+ * @see UploadedDataFile#extractFile(Instrument, Properties, boolean, boolean)
+ */
+public class UploadedFileBatch {
+
+  /**
+   * The thread pool used to prepare files
+   */
+  private static final ExecutorService PREPARE_EXECUTOR = Executors
+    .newFixedThreadPool(
+      Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())),
+      r -> {
+        Thread thread = new Thread(r, "Uploaded file validation");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  /**
+   * Extract and validate a batch of uploaded files, and check them against
+   * the instrument's existing files and any previously accepted uploads.
+   *
+   * @param files
+   *          The files to be extracted.
+   * @param acceptedFiles
+   *          Previously uploaded files that have been accepted but not yet
+   *          stored. New files that overlap these will be rejected.
+   * @param instrument
+   *          The instrument to which the files belong.
+   * @param appConfig
+   *          The application configuration.
+   * @param dataSource
+   *          A data source.
+   * @param allowExactDuplicate
+   *          Indicates whether exact duplicate files are accepted.
+   * @param allowEmpty
+   *          Indicates whether or not empty files are accepted.
+   */
+  public static void extractFiles(Collection<UploadedDataFile> files,
+    Collection<UploadedDataFile> acceptedFiles, Instrument instrument,
+    Properties appConfig, DataSource dataSource, boolean allowExactDuplicate,
+    boolean allowEmpty) {
+
+    List<Future<Boolean>> prepared = new ArrayList<Future<Boolean>>(
+      files.size());
+
+    for (UploadedDataFile file : files) {
+      prepared.add(PREPARE_EXECUTOR
+        .submit(() -> file.prepareFile(instrument, appConfig, allowEmpty)));
+    }
+
+    List<UploadedDataFile> toCheck = new ArrayList<UploadedDataFile>();
+
+    int i = 0;
+    for (UploadedDataFile file : files) {
+      try {
+        if (prepared.get(i).get()) {
+          toCheck.add(file);
+        }
+      } catch (InterruptedException | ExecutionException e) {
+        file.processingError(e);
+      }
+      i++;
+    }
+
+    if (toCheck.size() > 0) {
+      checkFiles(toCheck, acceptedFiles, instrument, appConfig, dataSource,
+        allowExactDuplicate);
+    }
+
+    for (UploadedDataFile file : files) {
+      file.setProcessed(true);
+    }
+  }
+
+  /**
+   * Check prepared files against the instrument's existing files and the
+   * other uploaded files.
+   *
+   * @param files
+   *          The prepared files.
+   * @param acceptedFiles
+   *          Previously accepted uploads.
+   * @param instrument
+   *          The instrument to which the files belong.
+   * @param appConfig
+   *          The application configuration.
+   * @param dataSource
+   *          A data source.
+   * @param allowExactDuplicate
+   *          Indicates whether exact duplicate files are accepted.
+   */
+  private static void checkFiles(List<UploadedDataFile> files,
+    Collection<UploadedDataFile> acceptedFiles, Instrument instrument,
+    Properties appConfig, DataSource dataSource,
+    boolean allowExactDuplicate) {
+
+    List<DataFile> existingFiles;
+
+    try {
+      existingFiles = DataFileDB.getFiles(dataSource, appConfig,
+        instrument.getId());
+    } catch (Exception e) {
+      for (UploadedDataFile file : files) {
+        file.processingError(e);
+      }
+      return;
+    }
+
+    // Uploads that have been accepted, against which the new files must be
+    // checked for overlaps
+    List<DataFile> uploadedFiles = acceptedFiles.stream()
+      .filter(f -> null != f.getDataFile()).map(UploadedDataFile::getDataFile)
+      .collect(Collectors.toList());
+
+    files.sort(Comparator.comparing(f -> f.getDataFile().getRawStartTime()));
+
+    for (UploadedDataFile file : files) {
+      try {
+        DataFile dataFile = file.getDataFile();
+        long definitionId = dataFile.getFileDefinition().getDatabaseId();
+
+        List<DataFile> definitionFiles = existingFiles.stream()
+          .filter(f -> f.getFileDefinition().getDatabaseId() == definitionId)
+          .collect(Collectors.toList());
+
+        List<DataFile> overlappingFiles = DataFileDB.filterFilesByDates(
+          definitionFiles, dataFile.getRawStartTime(),
+          dataFile.getRawEndTime(), false);
+
+        boolean nameExists = overlappingFiles.isEmpty() && existingFiles
+          .stream().anyMatch(f -> f.getFilename().equals(file.getName()));
+
+        file.checkExistingFiles(overlappingFiles, nameExists,
+          allowExactDuplicate);
+
+        if (null != file.getDataFile()) {
+          boolean overlapsUpload = uploadedFiles.stream()
+            .anyMatch(f -> f.getFileDefinition()
+              .getDatabaseId() == definitionId
+              && f.getRawEndTime().isAfter(dataFile.getRawStartTime())
+              && f.getRawStartTime().isBefore(dataFile.getRawEndTime()));
+
+          if (overlapsUpload) {
+            file.rejectFile(Status.CONFLICT.getStatusCode(),
+              "This file overlaps another uploaded file");
+          } else {
+            uploadedFiles.add(dataFile);
+          }
+        }
+      } catch (Exception e) {
+        file.processingError(e);
+      }
+    }
+  }
+}
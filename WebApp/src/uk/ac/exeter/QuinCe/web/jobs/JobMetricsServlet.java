@@ -0,0 +1,46 @@
+package uk.ac.exeter.QuinCe.web.jobs;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import uk.ac.exeter.QuinCe.api.ApiAuthenticationFilter;
+import uk.ac.exeter.QuinCe.jobs.JobMetrics;
+
+/**
+ * Servlet that exports the {@link JobMetrics} in Prometheus text format.
+ *
+ * <p>
+ * Requests are authenticated by the {@link ApiAuthenticationFilter} in the
+ * same way as API calls, so the Prometheus agent must use HTTP Basic
+ * authentication with the details of a user who has API access.
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public class JobMetricsServlet extends HttpServlet {
+
+  /**
+   * The Serial Version UID
+   */
+  private static final long serialVersionUID = -4270517402712683015L;
+
+  /**
+   * The content type for the Prometheus text format
+   */
+  private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  /**
+   * Write the current job metrics
+   */
+  @Override
+  protected void doGet(HttpServletRequest request, HttpServletResponse response)
+    throws IOException {
+
+    response.setContentType(CONTENT_TYPE);
+    response.getWriter().write(JobMetrics.getPrometheusText());
+  }
+}
@@ -6,6 +6,7 @@ import java.util.Properties;
 
 import uk.ac.exeter.QuinCe.jobs.Job;
 import uk.ac.exeter.QuinCe.jobs.JobManager;
+import uk.ac.exeter.QuinCe.jobs.JobMetrics;
 import uk.ac.exeter.QuinCe.jobs.JobSummary;
 import uk.ac.exeter.QuinCe.jobs.JobThreadPool;
 import uk.ac.exeter.QuinCe.jobs.test.TenSecondJob;
@@ -50,6 +51,11 @@ public class JobsBean extends BaseManagedBean {
    */
   private List<JobSummary> jobList = null;
 
+  /**
+   * The metrics of recently run jobs, keyed by job ID
+   */
+  private Map<Long, JobMetrics> jobMetrics = null;
+
   /**
    * The number of chunks in the test job
    */
@@ -96,18 +102,20 @@ public class JobsBean extends BaseManagedBean {
     }
 
     try {
-      jobCounts = JobManager.getJobCounts(ServletUtils.getDBDataSource());
+      jobCounts = JobManager.getJobCounts(ServletUtils.getReadDBDataSource());
     } catch (Exception e) {
       e.printStackTrace();
       jobCounts = null;
     }
 
     try {
-      jobList = JobManager.getJobList(ServletUtils.getDBDataSource());
+      jobList = JobManager.getJobList(ServletUtils.getReadDBDataSource());
     } catch (Exception e) {
       e.printStackTrace();
       jobList = null;
     }
+
+    jobMetrics = JobMetrics.getRecentMetrics();
   }
 
   /**
@@ -313,6 +321,16 @@ public class JobsBean extends BaseManagedBean {
     return jobList;
   }
 
+  /**
+   * Get the metrics of recently run jobs. Jobs that have not been run since
+   * the application started will not be included.
+   *
+   * @return The job metrics, keyed by job ID
+   */
+  public Map<Long, JobMetrics> getJobMetrics() {
+    return jobMetrics;
+  }
+
   /**
    * Get the number of jobs with a specified status
    *
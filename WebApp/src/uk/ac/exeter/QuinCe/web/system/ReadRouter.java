@@ -0,0 +1,209 @@
+package uk.ac.exeter.QuinCe.web.system;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import uk.ac.exeter.QuinCe.data.Dataset.DataSet;
+import uk.ac.exeter.QuinCe.data.Dataset.DataSetDB;
+import uk.ac.exeter.QuinCe.utils.MissingParam;
+import uk.ac.exeter.QuinCe.utils.MissingParamException;
+
+/**
+ * Chooses the database that read-only requests are sent to.
+ *
+ * <p>
+ * The application can optionally be given a read-only replica of the main
+ * database. Read-heavy requests that can tolerate slightly out of date data
+ * (exports, the jobs list and the NRT API) ask this router for their data
+ * source so that they do not compete with the processing jobs writing to the
+ * main database. Everything else, and anything that writes to the database,
+ * uses {@link ResourceManager#getDBDataSource()} as normal. If no replica is
+ * configured, the router always returns the main database.
+ * </p>
+ *
+ * <p>
+ * Data that is kept after the request has finished must not be read from the
+ * replica, since the checks below only protect reads made within the maximum
+ * replication lag of a write. For example, the data in the
+ * {@link uk.ac.exeter.QuinCe.web.datasets.plotPage.ManualQC.DatasetDataCache}
+ * is always loaded from the main database.
+ * </p>
+ *
+ * <p>
+ * Reads for a specific dataset are only sent to the replica when it is known
+ * to be up to date for that dataset:
+ * </p>
+ * <ul>
+ * <li>The dataset must not have been written to by a user (e.g. by changing
+ * QC flags) within the configured maximum replication lag. Such writes must be
+ * reported using {@link #recordWrite(long)}.</li>
+ * <li>The dataset's status and status date in the replica must match those in
+ * the main database, which shows that the changes made by the most recent
+ * processing job have been replicated.</li>
+ * </ul>
+ *
+ * <p>
+ * If the replica cannot be checked for any reason the main database is used.
+ * </p>
+ *
+ * @author Steve Jones
+ *
+ */
+public class ReadRouter {
+
+  /**
+   * The configuration property holding the maximum expected replication lag
+   * in seconds
+   */
+  public static final String MAX_LAG_PROPERTY = "database.replica.max_lag_seconds";
+
+  /**
+   * The maximum replication lag used if none is configured
+   */
+  private static final long DEFAULT_MAX_LAG_SECONDS = 30L;
+
+  /**
+   * The main database
+   */
+  private final DataSource primary;
+
+  /**
+   * The read-only replica. {@code null} if there is no replica.
+   */
+  private final DataSource replica;
+
+  /**
+   * The maximum expected replication lag in milliseconds
+   */
+  private final long maxLag;
+
+  /**
+   * The times of the most recent user writes to each dataset, in milliseconds
+   * since the epoch
+   */
+  private final Map<Long, Long> lastWrites;
+
+  /**
+   * Create a router.
+   *
+   * @param primary
+   *          The main database
+   * @param replica
+   *          The read-only replica, or {@code null} if there is no replica
+   * @param maxLagSeconds
+   *          The configured maximum replication lag in seconds, or
+   *          {@code null} to use the default
+   * @throws MissingParamException
+   *           If the main database is missing
+   */
+  public ReadRouter(DataSource primary, DataSource replica,
+    String maxLagSeconds) throws MissingParamException {
+
+    MissingParam.checkMissing(primary, "primary");
+
+    this.primary = primary;
+    this.replica = replica;
+
+    long lagSeconds = null == maxLagSeconds
+      || maxLagSeconds.trim().length() == 0 ? DEFAULT_MAX_LAG_SECONDS
+        : Long.parseLong(maxLagSeconds.trim());
+
+    this.maxLag = lagSeconds * 1000L;
+    this.lastWrites = new ConcurrentHashMap<Long, Long>();
+  }
+
+  /**
+   * Indicates whether a read-only replica is configured.
+   *
+   * @return {@code true} if there is a replica; {@code false} otherwise
+   */
+  public boolean hasReplica() {
+    return null != replica;
+  }
+
+  /**
+   * Get the data source for reads that are not tied to a specific dataset and
+   * can tolerate data that is up to the maximum replication lag out of date.
+   *
+   * @return The replica if there is one; otherwise the main database
+   */
+  public DataSource getDataSource() {
+    return hasReplica() ? replica : primary;
+  }
+
+  /**
+   * Get the data source for reading a dataset's data. The replica is only
+   * returned if it is up to date for the dataset.
+   *
+   * @param dataset
+   *          The dataset, as read from the main database
+   * @return The data source
+   * @throws MissingParamException
+   *           If the dataset is missing
+   */
+  public DataSource getDataSource(DataSet dataset)
+    throws MissingParamException {
+
+    MissingParam.checkMissing(dataset, "dataset");
+
+    DataSource result = primary;
+
+    if (hasReplica() && !recentlyWritten(dataset.getId())) {
+      try {
+        DataSet replicaDataset = DataSetDB.getDataSet(replica,
+          dataset.getId());
+
+        if (replicaDataset.getStatus() == dataset.getStatus()
+          && Objects.equals(replicaDataset.getStatusDate(),
+            dataset.getStatusDate())) {
+          result = replica;
+        }
+      } catch (Exception e) {
+        // The replica is unavailable or does not have the dataset yet, so
+        // use the main database
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Record that a user has written to a dataset, so that its data is read
+   * from the main database until the write has been replicated.
+   *
+   * @param datasetId
+   *          The dataset's database ID
+   */
+  public void recordWrite(long datasetId) {
+    if (hasReplica()) {
+      lastWrites.put(datasetId, System.currentTimeMillis());
+    }
+  }
+
+  /**
+   * Determine whether a user has written to a dataset within the maximum
+   * replication lag. Writes older than that are forgotten.
+   *
+   * @param datasetId
+   *          The dataset's database ID
+   * @return {@code true} if the dataset has been written recently;
+   *         {@code false} otherwise
+   */
+  private boolean recentlyWritten(long datasetId) {
+    boolean result = false;
+
+    Long lastWrite = lastWrites.get(datasetId);
+    if (null != lastWrite) {
+      if (System.currentTimeMillis() - lastWrite < maxLag) {
+        result = true;
+      } else {
+        lastWrites.remove(datasetId, lastWrite);
+      }
+    }
+
+    return result;
+  }
+}
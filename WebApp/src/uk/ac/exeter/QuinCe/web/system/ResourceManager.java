@@ -21,8 +21,11 @@ import uk.ac.exeter.QuinCe.data.Export.ExportConfig;
 import uk.ac.exeter.QuinCe.data.Instrument.RunTypes.RunTypeCategoryConfiguration;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorsConfiguration;
 import uk.ac.exeter.QuinCe.jobs.InvalidThreadCountException;
+import uk.ac.exeter.QuinCe.jobs.JobMetrics;
+import uk.ac.exeter.QuinCe.jobs.JobMetricsDataSource;
 import uk.ac.exeter.QuinCe.jobs.JobThreadPool;
 import uk.ac.exeter.QuinCe.utils.DatabaseUtils;
+import uk.ac.exeter.QuinCe.web.datasets.plotPage.ManualQC.DatasetDataCache;
 
 /**
  * Utility class for handling resources required by the web application. The
@@ -41,10 +44,16 @@ public class ResourceManager implements ServletContextListener {
   public static final String QC_ROUTINES_CONFIG = "QC";
 
   /**
-   * The application's data source
+   * The application's data source. SQL statements executed by jobs are
+   * recorded in their {@link JobMetrics}.
    */
   private DataSource dbDataSource;
 
+  /**
+   * Chooses the data source for read-only requests
+   */
+  private ReadRouter readRouter;
+
   /**
    * The application's configuration
    */
@@ -67,15 +76,29 @@ public class ResourceManager implements ServletContextListener {
   public void contextInitialized(ServletContextEvent event) {
     ServletContext servletContext = event.getServletContext();
     String databaseName = servletContext.getInitParameter("database.name");
+    String replicaName = servletContext
+      .getInitParameter("database.replica.name");
 
     Connection conn = null;
 
     try {
-      dbDataSource = (DataSource) createInitialContext().lookup(databaseName);
+      dbDataSource = new JobMetricsDataSource(
+        (DataSource) createInitialContext().lookup(databaseName));
     } catch (NamingException e) {
       throw new RuntimeException("Config failed: datasource not found", e);
     }
 
+    // The read-only replica is optional
+    DataSource replicaDataSource = null;
+    if (null != replicaName && replicaName.trim().length() > 0) {
+      try {
+        replicaDataSource = (DataSource) createInitialContext()
+          .lookup(replicaName);
+      } catch (NamingException e) {
+        // The replica is not configured, so all reads use the main database
+      }
+    }
+
     try {
       conn = dbDataSource.getConnection();
     } catch (SQLException e) {
@@ -90,6 +113,18 @@ public class ResourceManager implements ServletContextListener {
         e);
     }
 
+    // Initialise the routing of read-only requests
+    try {
+      readRouter = new ReadRouter(dbDataSource, replicaDataSource,
+        configuration.getProperty(ReadRouter.MAX_LAG_PROPERTY));
+    } catch (Exception e) {
+      throw new RuntimeException("Could not initialise read routing", e);
+    }
+
+    // Initialise the shared dataset cache for the manual QC page
+    DatasetDataCache
+      .init(configuration.getProperty(DatasetDataCache.MAX_SIZE_PROPERTY));
+
     // Initialise the job thread pool
     try {
       JobThreadPool.initialise(1);
@@ -162,6 +197,15 @@ public class ResourceManager implements ServletContextListener {
     return dbDataSource;
   }
 
+  /**
+   * Retrieve the router that chooses the data source for read-only requests
+   *
+   * @return The read router
+   */
+  public ReadRouter getReadRouter() {
+    return readRouter;
+  }
+
   /**
    * Retrieve the application configuration
    *
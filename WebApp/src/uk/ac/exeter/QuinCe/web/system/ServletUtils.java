@@ -44,6 +44,24 @@ public class ServletUtils {
     }
   }
 
+  /**
+   * Retrieve the data source for read-only requests that can tolerate
+   * slightly out of date data
+   *
+   * @return The data source
+   * @throws ResourceException
+   *           If the data source cannot be retrieved
+   * @see ReadRouter#getDataSource()
+   */
+  public static DataSource getReadDBDataSource() throws ResourceException {
+    try {
+      return getResourceManager().getReadRouter().getDataSource();
+    } catch (Exception e) {
+      throw new ResourceException("Error while retrieving database data source",
+        e);
+    }
+  }
+
   /**
    * Retrieve the application configuration
    *
@@ -0,0 +1,8 @@
+-- Summary statistics for each dataset, collected during extraction and
+-- automatic QC.
+ALTER TABLE dataset ADD COLUMN statistics MEDIUMTEXT NULL;
+
+
+-- ROLLBACK
+
+-- ALTER TABLE dataset DROP COLUMN statistics;